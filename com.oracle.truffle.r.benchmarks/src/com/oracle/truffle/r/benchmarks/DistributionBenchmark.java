@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.benchmarks;
+
+import java.util.Random;
+
+import com.oracle.truffle.r.runtime.nmath.MathFunctions;
+import com.oracle.truffle.r.runtime.nmath.MathFunctions.Function4_2;
+import com.oracle.truffle.r.runtime.nmath.distr.DGamma;
+import com.oracle.truffle.r.runtime.nmath.distr.DNorm;
+import com.oracle.truffle.r.runtime.nmath.distr.PGamma;
+import com.oracle.truffle.r.runtime.nmath.distr.Pnorm;
+import com.oracle.truffle.r.runtime.nmath.distr.QGamma;
+import com.oracle.truffle.r.runtime.nmath.distr.Qnorm;
+
+/**
+ * Compares the time of the scalar, batch and parallel evaluation of the distribution functions on
+ * {@code args[0]} (default 10 million) elements with scalar parameters. That the three give the
+ * same results is checked by {@code TestDistributionBatch}.
+ */
+public final class DistributionBenchmark {
+
+    private DistributionBenchmark() {
+        // no instances
+    }
+
+    /**
+     * Evaluates the scalar function element by element, like the vectorized nodes used to.
+     */
+    private static void evaluateScalar(Function4_2 function, double[] a, double[] b, double[] c, double[] d, boolean x, boolean y, double[] result) {
+        for (int i = 0; i < result.length; i++) {
+            double av = a[i % a.length];
+            double bv = b[i % b.length];
+            double cv = c[i % c.length];
+            double dv = d[i % d.length];
+            if (Double.isNaN(av) || Double.isNaN(bv) || Double.isNaN(cv) || Double.isNaN(dv)) {
+                result[i] = MathFunctions.naOrNaN(av, bv, cv, dv);
+            } else {
+                result[i] = function.evaluate(av, bv, cv, dv, x, y);
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        int length = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        Random random = new Random(42);
+        double[] probabilities = new double[length];
+        double[] values = new double[length];
+        for (int i = 0; i < length; i++) {
+            probabilities[i] = random.nextDouble();
+            values[i] = 3 * random.nextGaussian() + 4;
+        }
+        double[] b = {2.5};
+        double[] c = {1.5};
+        double[] d = {1};
+        double[] result = new double[length];
+        Function4_2[] functions = {new DNorm(), new Pnorm(), new Qnorm(), new DGamma(), new PGamma(), new QGamma()};
+        for (Function4_2 function : functions) {
+            double[] a = function instanceof Qnorm || function instanceof QGamma ? probabilities : values;
+            for (int iteration = 0; iteration < 3; iteration++) {
+                long start = System.nanoTime();
+                evaluateScalar(function, a, b, c, d, true, false, result);
+                long scalar = System.nanoTime();
+                function.evaluate(a, b, c, d, true, false, result, 0, length);
+                long batch = System.nanoTime();
+                if (function.isParallelizable()) {
+                    MathFunctions.evaluateParallel(function, a, b, c, d, true, false, result);
+                }
+                long parallel = System.nanoTime();
+                System.out.printf("%s: scalar %d ms, batch %d ms, parallel %d ms%n", function.getClass().getSimpleName(), (scalar - start) / 1000000, (batch - scalar) / 1000000,
+                                (parallel - batch) / 1000000);
+            }
+        }
+    }
+}
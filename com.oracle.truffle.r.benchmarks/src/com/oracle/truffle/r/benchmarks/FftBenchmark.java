@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.benchmarks;
+
+import java.util.Random;
+
+import com.oracle.truffle.r.nodes.builtin.base.foreign.FftPlan;
+
+/**
+ * Reports the time per transform of {@link FftPlan} for each length in {@code args} (default: a
+ * few lengths with small and large prime factors). The numbers can be compared with the same loop
+ * in GNU R, e.g., {@code system.time(for (i in 1:k) fft(x))}.
+ */
+public final class FftBenchmark {
+
+    private static final String[] LENGTHS = {"1024", "1000", "4096", "4093", "65536", "1000000", "1048576"};
+
+    private FftBenchmark() {
+        // no instances
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        for (String arg : args.length > 0 ? args : LENGTHS) {
+            int n = Integer.parseInt(arg);
+            double[] z = new double[2 * n];
+            for (int i = 0; i < z.length; i++) {
+                z[i] = random.nextGaussian();
+            }
+            // warm up
+            for (long start = System.nanoTime(); System.nanoTime() - start < 1_000_000_000L;) {
+                FftPlan.transform(z, 1, n, 1, false);
+            }
+            int iterations = 0;
+            long start = System.nanoTime();
+            long time;
+            do {
+                FftPlan.transform(z, 1, n, 1, false);
+                iterations++;
+                time = System.nanoTime() - start;
+            } while (time < 2_000_000_000L);
+            System.out.printf("n = %d: %.3f ms per transform%n", n, time / 1e6 / iterations);
+        }
+    }
+}
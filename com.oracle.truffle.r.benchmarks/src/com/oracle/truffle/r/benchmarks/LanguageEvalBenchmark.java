@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.benchmarks;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Source;
+
+/**
+ * Measures the evaluation of language objects in loops, i.e., the code paths that go through the
+ * {@link com.oracle.truffle.r.runtime.data.LanguageClosureCache}. Each snippet is run in a fresh
+ * context for {@code args[0]} (default 100000) iterations; the same loops can be timed in GNU R
+ * for comparison. Running with {@code -R:Debug=LanguageClosureCache} prints the cache statistics
+ * when the contexts are closed.
+ */
+public final class LanguageEvalBenchmark {
+
+    private static final String[][] SNIPPETS = {
+                    {"eval(quote(...))", "f <- function(x, y) x + y; for (i in 1:n) eval(quote(f(i, 1)))"},
+                    {"eval(call(...))", "f <- function(x, y) x + y; for (i in 1:n) eval(call('f', i, 1))"},
+                    {"eval(as.call(...))", "for (i in 1:n) eval(as.call(list(as.name('sum'), i, 2L)))"},
+                    {"eval(bquote(...))", "x <- 1; for (i in 1:n) eval(bquote(x + .(i)))"},
+                    {"do.call(name, ...)", "f <- function(x, y) x + y; for (i in 1:n) do.call('f', list(i, y = 1))"},
+                    {"do.call(function, ...)", "f <- function(x, y) x + y; for (i in 1:n) do.call(f, list(i, 1))"},
+    };
+
+    private LanguageEvalBenchmark() {
+        // no instances
+    }
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        for (String[] snippet : SNIPPETS) {
+            try (Context context = Context.newBuilder("R").allowAllAccess(true).build()) {
+                Source source = Source.create("R", "n <- " + n + "L; " + snippet[1]);
+                for (int iteration = 0; iteration < 5; iteration++) {
+                    long start = System.nanoTime();
+                    context.eval(source);
+                    System.out.printf("%s: %d ms%n", snippet[0], (System.nanoTime() - start) / 1000000);
+                }
+            }
+        }
+    }
+}
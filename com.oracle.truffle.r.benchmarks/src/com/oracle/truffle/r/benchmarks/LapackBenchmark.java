@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.benchmarks;
+
+import java.util.Random;
+
+import com.oracle.truffle.r.ffi.impl.managed.Managed_Lapack;
+
+/**
+ * Reports the time taken by the LU and Cholesky factorizations, the QR decomposition and the
+ * symmetric eigen decomposition of {@link Managed_Lapack} for random matrices of the sizes given as
+ * arguments. The accuracy of these routines is checked by {@code TestManagedLapack}.
+ */
+public final class LapackBenchmark {
+
+    private LapackBenchmark() {
+        // no instances
+    }
+
+    private static double[] random(Random random, int n) {
+        double[] a = new double[n * n];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = random.nextGaussian();
+        }
+        return a;
+    }
+
+    /**
+     * Returns {@code A^T * A + n * I}, which is symmetric and positive definite.
+     */
+    private static double[] positiveDefinite(double[] a, int n) {
+        double[] result = new double[n * n];
+        for (int j = 0; j < n; j++) {
+            for (int i = 0; i < n; i++) {
+                double sum = 0;
+                for (int k = 0; k < n; k++) {
+                    sum += a[k + i * n] * a[k + j * n];
+                }
+                result[i + j * n] = sum;
+            }
+            result[j + j * n] += n;
+        }
+        return result;
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        for (String arg : args) {
+            int n = Integer.parseInt(arg);
+            double[] a = random(random, n);
+            double[] spd = positiveDefinite(random(random, n), n);
+            double[] work = new double[1];
+            Managed_Lapack.dgeqp3(n, n, a.clone(), n, new int[n], new double[n], work, -1);
+            int lwork = (int) work[0];
+            for (int iteration = 0; iteration < 5; iteration++) {
+                long start = System.nanoTime();
+                Managed_Lapack.dgetrf(n, n, a.clone(), n, new int[n]);
+                long lu = System.nanoTime();
+                Managed_Lapack.dpotrf('U', n, spd.clone(), n);
+                long chol = System.nanoTime();
+                Managed_Lapack.dgeqp3(n, n, a.clone(), n, new int[n], new double[n], new double[lwork], lwork);
+                long qr = System.nanoTime();
+                Managed_Lapack.dsyevr('V', 'A', 'L', n, spd.clone(), n, 0, 0, 0, 0, 0, new int[1], new double[n], new double[n * n], n, new int[2 * n], new double[1], 1, new int[1], 1);
+                long eigen = System.nanoTime();
+                System.out.printf("n=%d: dgetrf %d ms, dpotrf %d ms, dgeqp3 %d ms, dsyevr %d ms%n", n, (lu - start) / 1000000, (chol - lu) / 1000000, (qr - chol) / 1000000, (eigen - qr) / 1000000);
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+
+import com.oracle.truffle.r.ffi.impl.managed.Managed_PCRE;
+import com.oracle.truffle.r.runtime.ffi.interop.pcre.CompileResult;
+
+/**
+ * Measures the matching throughput of {@link Managed_PCRE} with typical log parsing patterns on
+ * {@code args[0]} (default 100000) generated log lines. Like {@code regexpr(perl = TRUE)} called
+ * once per line, the pattern is compiled (and found in the pattern cache) and freed for every line.
+ */
+public final class PCREBenchmark {
+
+    private static final String[] PATTERNS = {
+                    "^(\\S+) \\S+ \\S+ \\[([^\\]]+)\\] \"(?<method>[A-Z]+) (?<path>[^ ?\"]+)(?:\\?(\\S*))? [^\"]*\" (\\d{3}) (\\d+)",
+                    "\\b(?:\\d{1,3}\\.){3}\\d{1,3}\\b",
+                    "[[:alpha:]]+=[^& \"]+",
+                    "\" (4\\d\\d|5\\d\\d) ",
+    };
+
+    private PCREBenchmark() {
+        // no instances
+    }
+
+    private static long compile(String pattern) {
+        CompileResult result = new CompileResult();
+        Managed_PCRE.compile(result, pattern, 0);
+        return result.getResult().result;
+    }
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        byte[][] lines = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            lines[i] = String.format("192.168.%d.%d - - [10/Oct/2018:13:%02d:%02d +0200] \"GET /api/v1/items/%d?q=%s HTTP/1.1\" %d %d \"-\" \"Mozilla/5.0\"", i % 256, i % 100, i % 60, i % 60, i,
+                            i % 3 == 0 ? "caf\u00e9" : "plain", i % 7 == 0 ? 404 : 200, i * 13 % 5000).getBytes(StandardCharsets.UTF_8);
+        }
+        for (String pattern : PATTERNS) {
+            for (int iteration = 0; iteration < 5; iteration++) {
+                long start = System.nanoTime();
+                int found = 0;
+                for (byte[] line : lines) {
+                    long code = compile(pattern);
+                    int[] ovector = new int[(Managed_PCRE.getCaptureCount(code) + 1) * 3];
+                    int offset = 0;
+                    while (offset < line.length && Managed_PCRE.exec(code, line, line.length, offset, 0, ovector, ovector.length) >= 0) {
+                        found++;
+                        offset = Math.max(ovector[1], ovector[0] + 1);
+                    }
+                    Managed_PCRE.free(code);
+                }
+                long end = System.nanoTime();
+                System.out.printf("%s: %d matches, %.0f lines/s%n", pattern, found, count * 1e9 / (end - start));
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.r.parser.RParser;
+import com.oracle.truffle.r.parser.RecursiveDescentRParserFactory;
+import com.oracle.truffle.r.runtime.RParserFactory.Parser;
+import com.oracle.truffle.r.runtime.RSource;
+import com.oracle.truffle.r.runtime.context.TruffleRLanguage;
+import com.oracle.truffle.r.runtime.nodes.RCodeBuilder;
+import com.oracle.truffle.r.runtime.nodes.RSyntaxNode;
+
+/**
+ * Measures the throughput of the ANTLR generated {@link RParser} and of the
+ * {@link RecursiveDescentRParserFactory recursive descent parser} in lines per second. All R files
+ * found recursively in the {@code args[0]} directory are parsed {@code args[1]} (default 10) times
+ * by both parsers. The number of nodes built by both parsers is reported per file where they
+ * differ; {@code TestRecursiveDescentParser} checks the builder calls in detail.
+ */
+public final class ParserBenchmark {
+
+    /**
+     * Only counts the nodes, so that the measurement is dominated by the parsers.
+     */
+    private static final class CountingBuilder implements RCodeBuilder<Integer> {
+
+        private static int count(List<Argument<Integer>> arguments) {
+            int result = 1;
+            for (Argument<Integer> arg : arguments) {
+                if (arg.value != null) {
+                    result += arg.value;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public Integer call(SourceSection source, Integer lhs, List<Argument<Integer>> arguments) {
+            return lhs + count(arguments);
+        }
+
+        @Override
+        public Integer constant(SourceSection source, Object value) {
+            return 1;
+        }
+
+        @Override
+        public Integer lookup(SourceSection source, String symbol, boolean functionLookup) {
+            return 1;
+        }
+
+        @Override
+        public Integer function(TruffleRLanguage language, SourceSection source, List<Argument<Integer>> arguments, Integer body, Object assignedTo) {
+            return body + count(arguments);
+        }
+
+        @Override
+        public RootCallTarget rootFunction(TruffleRLanguage language, SourceSection source, List<Argument<Integer>> arguments, Integer body, String name) {
+            throw new AssertionError();
+        }
+
+        @Override
+        public List<Argument<RSyntaxNode>> getFunctionExprArgs(Object args) {
+            throw new AssertionError();
+        }
+
+        @Override
+        public void setContext(CodeBuilderContext context) {
+        }
+
+        @Override
+        public CodeBuilderContext getContext() {
+            return CodeBuilderContext.DEFAULT;
+        }
+    }
+
+    private static final class Factory extends RecursiveDescentRParserFactory {
+        <T> Parser<T> create() {
+            return createParser();
+        }
+    }
+
+    private ParserBenchmark() {
+        // no instances
+    }
+
+    private static int sum(List<Integer> nodes) {
+        int result = 0;
+        for (Integer count : nodes) {
+            result += count;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of nodes built by the ANTLR parser, or -1 if the source does not parse.
+     */
+    private static int parseANTLR(Source source) {
+        try {
+            return sum(new RParser<>(source, new CountingBuilder(), null, null).script());
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the number of nodes built by the recursive descent parser, or -1 if the source does
+     * not parse.
+     */
+    private static int parseRecursiveDescent(Source source) {
+        Parser<Integer> parser = new Factory().create();
+        try {
+            return sum(parser.script(source, new CountingBuilder(), null));
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static void collect(File file, List<Source> sources) throws IOException {
+        if (file.isDirectory()) {
+            for (File sub : file.listFiles()) {
+                collect(sub, sources);
+            }
+        } else {
+            String name = file.getName();
+            if (name.endsWith(".r") || name.endsWith(".R")) {
+                sources.add(RSource.fromFile(file));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<Source> sources = new ArrayList<>();
+        collect(new File(args[0]), sources);
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        long lines = 0;
+        int mismatches = 0;
+        for (Source source : sources) {
+            lines += source.getLineCount();
+            int expected = parseANTLR(source);
+            int actual = parseRecursiveDescent(source);
+            if (expected != actual) {
+                mismatches++;
+                System.out.printf("%s: ANTLR %d nodes, recursive descent %d nodes%n", source.getPath(), expected, actual);
+            }
+        }
+        System.out.println(sources.size() + " files, " + lines + " lines, mismatches: " + mismatches);
+        for (int i = 0; i < iterations; i++) {
+            long antlr = System.nanoTime();
+            for (Source source : sources) {
+                parseANTLR(source);
+            }
+            long recursiveDescent = System.nanoTime();
+            for (Source source : sources) {
+                parseRecursiveDescent(source);
+            }
+            long end = System.nanoTime();
+            System.out.printf("iteration %d: ANTLR %.0f lines/s, recursive descent %.0f lines/s%n", i, lines * 1e9 / (recursiveDescent - antlr), lines * 1e9 / (end - recursiveDescent));
+        }
+    }
+}
@@ -28,7 +28,9 @@ import java.io.InputStreamReader;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import com.oracle.truffle.api.CallTarget;
@@ -162,7 +164,9 @@ final class REngine implements Engine, Engine.Timings {
         MaterializedFrame baseFrame = RRuntime.createNonFunctionFrame("base");
         REnvironment.baseInitialize(baseFrame, globalFrame);
         context.getStateRFFI().initializeVariables(context);
+        StartupTiming.timestamp("Before Base Loaded");
         RBuiltinPackages.loadBase(context.getLanguage(), baseFrame);
+        StartupTiming.timestamp("After Base Loaded");
         RGraphics.initialize(context);
         if (FastROptions.LoadProfiles.getBooleanValue()) {
             StartupTiming.timestamp("Before Profiles Loaded");
@@ -289,8 +293,54 @@ final class REngine implements Engine, Engine.Timings {
     }
 
     private List<RSyntaxNode> parseSource(Source source) throws ParseException {
-        RParserFactory.Parser<RSyntaxNode> parser = RParserFactory.getParser();
-        return parser.script(source, new RASTBuilder(), context.getLanguage());
+        if (ParseCache.SIZE == 0 || source.isInteractive()) {
+            RParserFactory.Parser<RSyntaxNode> parser = RParserFactory.getParser();
+            return parser.script(source, new RASTBuilder(), context.getLanguage());
+        }
+        List<RSyntaxNode> template = ParseCache.get(source);
+        if (template == null) {
+            RParserFactory.Parser<RSyntaxNode> parser = RParserFactory.getParser();
+            template = parser.script(source, new RASTBuilder(), context.getLanguage());
+            ParseCache.put(source, template);
+        }
+        RASTBuilder builder = new RASTBuilder();
+        List<RSyntaxNode> result = new ArrayList<>(template.size());
+        for (RSyntaxNode node : template) {
+            // the template may have been parsed from another source with the same content
+            result.add(builder.process(node, source));
+        }
+        return result;
+    }
+
+    /**
+     * Parse results shared by all contexts, keyed by the content of the {@link Source}. The cached
+     * statements are only used as templates: every lookup builds a fresh copy with
+     * {@link RASTBuilder#process}, which is much cheaper than lexing and parsing again, leaves the
+     * templates free of any per-context state and moves the source sections to the source that is
+     * being parsed.
+     */
+    private static final class ParseCache {
+
+        static final int SIZE = FastROptions.ParseCacheSize.getNonNegativeIntValue();
+
+        private static final LinkedHashMap<String, List<RSyntaxNode>> cache = new LinkedHashMap<String, List<RSyntaxNode>>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<RSyntaxNode>> eldest) {
+                return size() > SIZE;
+            }
+        };
+
+        @TruffleBoundary
+        static synchronized List<RSyntaxNode> get(Source source) {
+            return cache.get(source.getCharacters().toString());
+        }
+
+        @TruffleBoundary
+        static synchronized void put(Source source, List<RSyntaxNode> statements) {
+            cache.put(source.getCharacters().toString(), statements);
+        }
     }
 
     @Override
@@ -22,6 +22,7 @@
  */
 package com.oracle.truffle.r.engine.interop;
 
+import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.frame.FrameDescriptor;
 import com.oracle.truffle.api.frame.FrameSlot;
@@ -31,6 +32,7 @@ import com.oracle.truffle.api.interop.CanResolve;
 import com.oracle.truffle.api.interop.MessageResolution;
 import com.oracle.truffle.api.interop.Resolve;
 import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.r.nodes.function.RCallBaseNode;
 import com.oracle.truffle.r.nodes.function.RCallNode;
@@ -82,13 +84,34 @@ public class RFunctionMR {
 
         @Child private RCallBaseNode call = RCallNode.createExplicitCall(argsIdentifier, explicitCallerId);
 
+        /**
+         * Host code usually calls the same function with the same number of arguments over and
+         * over, so each argument position gets its own conversion node that specializes on the
+         * types passed at that position. Calls with a different number of arguments use the shared
+         * {@link #foreign2R} node.
+         */
+        @Children private Foreign2R[] positionalForeign2R;
+
         protected Object access(RFunction receiver, Object[] arguments) {
             Object[] dummyFrameArgs = RArguments.createUnitialized();
             VirtualFrame dummyFrame = Truffle.getRuntime().createVirtualFrame(dummyFrameArgs, emptyFrameDescriptor);
 
-            Object[] convertedArguments = new Object[arguments.length];
-            for (int i = 0; i < arguments.length; i++) {
-                convertedArguments[i] = foreign2R.execute(arguments[i]);
+            if (positionalForeign2R == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                Foreign2R[] nodes = new Foreign2R[arguments.length];
+                for (int i = 0; i < nodes.length; i++) {
+                    nodes[i] = Foreign2RNodeGen.create();
+                }
+                positionalForeign2R = insert(nodes);
+            }
+            Object[] convertedArguments;
+            if (positionalForeign2R.length == arguments.length) {
+                convertedArguments = convertPositional(arguments);
+            } else {
+                convertedArguments = new Object[arguments.length];
+                for (int i = 0; i < arguments.length; i++) {
+                    convertedArguments[i] = foreign2R.execute(arguments[i]);
+                }
             }
             RArgsValuesAndNames actualArgs = new RArgsValuesAndNames(convertedArguments, ArgumentsSignature.empty(arguments.length));
             try {
@@ -100,6 +123,16 @@ public class RFunctionMR {
                 FrameSlotChangeMonitor.setObject(dummyFrame, slot, null);
             }
         }
+
+        @ExplodeLoop
+        private Object[] convertPositional(Object[] arguments) {
+            Foreign2R[] nodes = positionalForeign2R;
+            Object[] convertedArguments = new Object[nodes.length];
+            for (int i = 0; i < nodes.length; i++) {
+                convertedArguments[i] = nodes[i].execute(arguments[i]);
+            }
+            return convertedArguments;
+        }
     }
 
     @Resolve(message = "IS_POINTER")
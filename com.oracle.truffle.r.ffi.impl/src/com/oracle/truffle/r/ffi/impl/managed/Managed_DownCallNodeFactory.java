@@ -65,6 +65,12 @@ public final class Managed_DownCallNodeFactory extends DownCallNodeFactory {
                     return new Mkdtemp();
                 } else if (function == NativeFunction.getcwd) {
                     return new Getwd();
+                } else if (Managed_Lapack.isImplemented(function)) {
+                    return new JavaFunction(function, Managed_Lapack::call);
+                } else if (Managed_PCRE.isImplemented(function)) {
+                    return new JavaFunction(function, Managed_PCRE::call);
+                } else if (Managed_Zip.isImplemented(function)) {
+                    return new JavaFunction(function, Managed_Zip::call);
                 }
                 return new DummyFunctionObject(function);
             }
@@ -204,4 +210,44 @@ public final class Managed_DownCallNodeFactory extends DownCallNodeFactory {
             });
         }
     }
+
+    @FunctionalInterface
+    private interface Implementation {
+        Object call(NativeFunction function, Object[] args);
+    }
+
+    /**
+     * Invokes the Java implementation of a native function, e.g., a LAPACK routine from
+     * {@link Managed_Lapack}.
+     */
+    private static final class JavaFunction implements TruffleObject {
+        private final NativeFunction function;
+        private final Implementation implementation;
+
+        private JavaFunction(NativeFunction function, Implementation implementation) {
+            this.function = function;
+            this.implementation = implementation;
+        }
+
+        @Override
+        public ForeignAccess getForeignAccess() {
+            return ForeignAccess.create(JavaFunction.class, new StandardFactory() {
+                @Override
+                public CallTarget accessIsExecutable() {
+                    return Truffle.getRuntime().createCallTarget(RootNode.createConstantNode(true));
+                }
+
+                @Override
+                public CallTarget accessExecute(int argumentsLength) {
+                    return Truffle.getRuntime().createCallTarget(new RootNode(null) {
+                        @Override
+                        @TruffleBoundary
+                        public Object execute(VirtualFrame frame) {
+                            return implementation.call(function, ForeignAccess.getArguments(frame).toArray());
+                        }
+                    });
+                }
+            });
+        }
+    }
 }
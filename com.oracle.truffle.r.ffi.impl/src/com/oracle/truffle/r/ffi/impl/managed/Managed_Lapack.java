@@ -0,0 +1,2086 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.ffi.impl.managed;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.r.runtime.ParallelLoop;
+import com.oracle.truffle.r.runtime.ParallelLoop.ChunkBody;
+import com.oracle.truffle.r.runtime.ffi.LapackRFFI;
+import com.oracle.truffle.r.runtime.ffi.NativeFunction;
+
+/**
+ * Pure Java implementations of the LAPACK routines from {@link LapackRFFI}, used by the managed
+ * FFI instead of the native library. The routines follow the LAPACK calling conventions (column
+ * major arrays with leading dimensions, 1-based pivot indices, {@code info} results), so that the
+ * callers do not need to know which implementation they are talking to.
+ *
+ * The results agree with the reference implementation up to rounding, except for the signs (and,
+ * for repeated eigenvalues or singular values, the choice) of eigenvectors and singular vectors,
+ * which are not unique anyway. All temporaries are allocated by the routines themselves, so
+ * workspace queries ({@code lwork == -1}) always report a size of {@code 1}.
+ *
+ * The LU and Cholesky factorizations are blocked, and the updates of the trailing matrix are
+ * spread over the {@link ParallelLoop} pool for large matrices.
+ */
+public final class Managed_Lapack {
+
+    /**
+     * Relative machine precision as defined by LAPACK's {@code dlamch('E')}.
+     */
+    private static final double EPS = Math.ulp(1.0) / 2;
+
+    /**
+     * Distance from 1.0 to the next larger double, the tolerance used by the EISPACK algorithms.
+     */
+    private static final double ULP = Math.ulp(1.0);
+
+    /**
+     * Number of columns factorized together before the trailing matrix is updated.
+     */
+    private static final int BLOCK_SIZE = 64;
+
+    /**
+     * Maximal number of sweeps of the one-sided Jacobi SVD, it usually converges in less than 10.
+     */
+    private static final int MAX_SWEEPS = 75;
+
+    private Managed_Lapack() {
+        // no instances
+    }
+
+    static boolean isImplemented(NativeFunction function) {
+        switch (function) {
+            case dgeev:
+            case dgeqp3:
+            case dormq:
+            case dtrtrs:
+            case dgetrf:
+            case dpotrf:
+            case dpotri:
+            case dpstrf:
+            case dgesv:
+            case dgesdd:
+            case dlange:
+            case dgecon:
+            case dsyevr:
+            case dtrsm:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Invokes {@code function} with the arguments that the corresponding {@link LapackRFFI} node
+     * passes to the native function.
+     */
+    static Object call(NativeFunction function, Object[] args) {
+        switch (function) {
+            case dgeev:
+                return dgeev((char) args[0], (char) args[1], (int) args[2], (double[]) args[3], (int) args[4], (double[]) args[5], (double[]) args[6], (double[]) args[7], (int) args[8],
+                                (double[]) args[9], (int) args[10], (double[]) args[11], (int) args[12]);
+            case dgeqp3:
+                return dgeqp3((int) args[0], (int) args[1], (double[]) args[2], (int) args[3], (int[]) args[4], (double[]) args[5], (double[]) args[6], (int) args[7]);
+            case dormq:
+                return dormqr((char) args[0], (char) args[1], (int) args[2], (int) args[3], (int) args[4], (double[]) args[5], (int) args[6], (double[]) args[7], (double[]) args[8], (int) args[9],
+                                (double[]) args[10], (int) args[11]);
+            case dtrtrs:
+                return dtrtrs((char) args[0], (char) args[1], (char) args[2], (int) args[3], (int) args[4], (double[]) args[5], (int) args[6], (double[]) args[7], (int) args[8]);
+            case dgetrf:
+                return dgetrf((int) args[0], (int) args[1], (double[]) args[2], (int) args[3], (int[]) args[4]);
+            case dpotrf:
+                return dpotrf((char) args[0], (int) args[1], (double[]) args[2], (int) args[3]);
+            case dpotri:
+                return dpotri((char) args[0], (int) args[1], (double[]) args[2], (int) args[3]);
+            case dpstrf:
+                return dpstrf((char) args[0], (int) args[1], (double[]) args[2], (int) args[3], (int[]) args[4], (int[]) args[5], (double) args[6], (double[]) args[7]);
+            case dgesv:
+                return dgesv((int) args[0], (int) args[1], (double[]) args[2], (int) args[3], (int[]) args[4], (double[]) args[5], (int) args[6]);
+            case dgesdd:
+                return dgesdd((char) args[0], (int) args[1], (int) args[2], (double[]) args[3], (int) args[4], (double[]) args[5], (double[]) args[6], (int) args[7], (double[]) args[8], (int) args[9],
+                                (double[]) args[10], (int) args[11], (int[]) args[12]);
+            case dlange:
+                return dlange((char) args[0], (int) args[1], (int) args[2], (double[]) args[3], (int) args[4], (double[]) args[5]);
+            case dgecon:
+                return dgecon((char) args[0], (int) args[1], (double[]) args[2], (int) args[3], (double) args[4], (double[]) args[5], (double[]) args[6], (int[]) args[7]);
+            case dsyevr:
+                return dsyevr((char) args[0], (char) args[1], (char) args[2], (int) args[3], (double[]) args[4], (int) args[5], (double) args[6], (double) args[7], (int) args[8], (int) args[9],
+                                (double) args[10], (int[]) args[11], (double[]) args[12], (double[]) args[13], (int) args[14], (int[]) args[15], (double[]) args[16], (int) args[17], (int[]) args[18],
+                                (int) args[19]);
+            case dtrsm:
+                dtrsm(((String) args[0]).charAt(0), ((String) args[1]).charAt(0), ((String) args[2]).charAt(0), ((String) args[3]).charAt(0), (int) args[4], (int) args[5], (double) args[6],
+                                (double[]) args[7], (int) args[8], (double[]) args[9], (int) args[10]);
+                return 0;
+            default:
+                throw Managed_RFFIFactory.unsupported(function.getCallName());
+        }
+    }
+
+    private static boolean is(char c, char expected) {
+        return Character.toUpperCase(c) == expected;
+    }
+
+    /**
+     * Executes {@code body} for {@code count} matrix columns, in parallel if the whole loop touches
+     * at least as many elements as {@link ParallelLoop#isParallel(int)} requires.
+     */
+    private static void forColumns(int count, long elements, ChunkBody body) {
+        if (count > 1 && ParallelLoop.isParallel((int) Math.min(Integer.MAX_VALUE, elements))) {
+            ParallelLoop.execute(count, 1, body);
+        } else {
+            body.execute(0, count);
+        }
+    }
+
+    // BLAS level helpers
+
+    private static double dot(int n, double[] x, int xOff, double[] y, int yOff) {
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += x[xOff + i] * y[yOff + i];
+        }
+        return sum;
+    }
+
+    /**
+     * Euclidean norm of {@code x[off:off+n]}, computed without destructive underflow or overflow.
+     */
+    private static double nrm2(int n, double[] x, int off) {
+        double scale = 0;
+        double ssq = 1;
+        for (int i = off; i < off + n; i++) {
+            if (x[i] != 0) {
+                double abs = Math.abs(x[i]);
+                if (scale < abs) {
+                    double r = scale / abs;
+                    ssq = 1 + ssq * r * r;
+                    scale = abs;
+                } else {
+                    double r = abs / scale;
+                    ssq += r * r;
+                }
+            }
+        }
+        return scale * Math.sqrt(ssq);
+    }
+
+    private static void swapColumns(double[] a, int lda, int m, int j1, int j2) {
+        int c1 = j1 * lda;
+        int c2 = j2 * lda;
+        for (int i = 0; i < m; i++) {
+            double tmp = a[c1 + i];
+            a[c1 + i] = a[c2 + i];
+            a[c2 + i] = tmp;
+        }
+    }
+
+    private static void swapRows(double[] a, int lda, int n, int i1, int i2) {
+        for (int j = 0; j < n; j++) {
+            int col = j * lda;
+            double tmp = a[i1 + col];
+            a[i1 + col] = a[i2 + col];
+            a[i2 + col] = tmp;
+        }
+    }
+
+    /**
+     * Solves {@code op(A) * X = alpha * B} for triangular {@code A} (m x m), overwriting {@code B}
+     * (m x n).
+     */
+    private static void trsmLeft(boolean upper, boolean trans, boolean unit, int m, int n, double alpha, double[] a, int lda, double[] b, int ldb) {
+        forColumns(n, (long) m * m * n / 2, (from, to) -> {
+            for (int j = from; j < to; j++) {
+                int col = j * ldb;
+                if (alpha != 1) {
+                    for (int i = 0; i < m; i++) {
+                        b[col + i] *= alpha;
+                    }
+                }
+                if (!trans) {
+                    if (upper) {
+                        for (int k = m - 1; k >= 0; k--) {
+                            if (b[col + k] != 0) {
+                                int colK = k * lda;
+                                if (!unit) {
+                                    b[col + k] /= a[k + colK];
+                                }
+                                double t = b[col + k];
+                                for (int i = 0; i < k; i++) {
+                                    b[col + i] -= t * a[i + colK];
+                                }
+                            }
+                        }
+                    } else {
+                        for (int k = 0; k < m; k++) {
+                            if (b[col + k] != 0) {
+                                int colK = k * lda;
+                                if (!unit) {
+                                    b[col + k] /= a[k + colK];
+                                }
+                                double t = b[col + k];
+                                for (int i = k + 1; i < m; i++) {
+                                    b[col + i] -= t * a[i + colK];
+                                }
+                            }
+                        }
+                    }
+                } else {
+                    if (upper) {
+                        for (int k = 0; k < m; k++) {
+                            int colK = k * lda;
+                            double t = b[col + k] - dot(k, a, colK, b, col);
+                            b[col + k] = unit ? t : t / a[k + colK];
+                        }
+                    } else {
+                        for (int k = m - 1; k >= 0; k--) {
+                            int colK = k * lda;
+                            double t = b[col + k] - dot(m - k - 1, a, colK + k + 1, b, col + k + 1);
+                            b[col + k] = unit ? t : t / a[k + colK];
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * BLAS {@code dtrsm}: solves {@code op(A) * X = alpha * B} ({@code side == 'L'}) or
+     * {@code X * op(A) = alpha * B} ({@code side == 'R'}), overwriting {@code B} (m x n).
+     */
+    public static void dtrsm(char side, char uplo, char transa, char diag, int m, int n, double alpha, double[] a, int lda, double[] b, int ldb) {
+        boolean upper = is(uplo, 'U');
+        boolean trans = !is(transa, 'N');
+        boolean unit = is(diag, 'U');
+        if (m == 0 || n == 0) {
+            return;
+        }
+        if (is(side, 'L')) {
+            trsmLeft(upper, trans, unit, m, n, alpha, a, lda, b, ldb);
+        } else {
+            // X * op(A) = B is equivalent to op(A)^T * X^T = B^T
+            double[] bt = new double[n * m];
+            for (int j = 0; j < n; j++) {
+                for (int i = 0; i < m; i++) {
+                    bt[j + i * n] = b[i + j * ldb];
+                }
+            }
+            trsmLeft(upper, !trans, unit, n, m, alpha, a, lda, bt, n);
+            for (int j = 0; j < n; j++) {
+                for (int i = 0; i < m; i++) {
+                    b[i + j * ldb] = bt[j + i * n];
+                }
+            }
+        }
+    }
+
+    /**
+     * Generates an elementary reflector {@code H = I - tau * v * v^T} such that {@code H * x} is a
+     * multiple of the first unit vector, where {@code x = a[off:off+n]}. The vector {@code v}
+     * (with an implicit {@code 1} as its first element) replaces {@code x[1:n]}, the resulting
+     * multiple replaces {@code x[0]}.
+     */
+    private static double householder(int n, double[] a, int off) {
+        if (n <= 1) {
+            return 0;
+        }
+        double xnorm = nrm2(n - 1, a, off + 1);
+        if (xnorm == 0) {
+            return 0;
+        }
+        double alpha = a[off];
+        double beta = -Math.copySign(Math.hypot(alpha, xnorm), alpha);
+        double scale = 1 / (alpha - beta);
+        for (int i = off + 1; i < off + n; i++) {
+            a[i] *= scale;
+        }
+        a[off] = beta;
+        return (beta - alpha) / beta;
+    }
+
+    /**
+     * Applies the reflector {@code H = I - tau * v * v^T} (with {@code v = [1, a[vOff+1:vOff+n]]})
+     * from the left to the {@code n x cols} matrix starting at {@code c[cOff]}.
+     */
+    private static void reflectLeft(int n, double[] v, int vOff, double tau, double[] c, int cOff, int ldc, int cols) {
+        if (tau == 0) {
+            return;
+        }
+        forColumns(cols, (long) n * cols, (from, to) -> {
+            for (int j = from; j < to; j++) {
+                int col = cOff + j * ldc;
+                double s = tau * (c[col] + dot(n - 1, v, vOff + 1, c, col + 1));
+                c[col] -= s;
+                for (int i = 1; i < n; i++) {
+                    c[col + i] -= s * v[vOff + i];
+                }
+            }
+        });
+    }
+
+    /**
+     * Applies the reflector {@code H = I - tau * v * v^T} (with {@code v = [1, a[vOff+1:vOff+n]]})
+     * from the right to the {@code rows x n} matrix starting at {@code c[cOff]}.
+     */
+    private static void reflectRight(int n, double[] v, int vOff, double tau, double[] c, int cOff, int ldc, int rows) {
+        if (tau == 0) {
+            return;
+        }
+        double[] w = new double[rows];
+        for (int j = 0; j < n; j++) {
+            double vj = j == 0 ? 1 : v[vOff + j];
+            int col = cOff + j * ldc;
+            for (int i = 0; i < rows; i++) {
+                w[i] += vj * c[col + i];
+            }
+        }
+        for (int j = 0; j < n; j++) {
+            double f = tau * (j == 0 ? 1 : v[vOff + j]);
+            int col = cOff + j * ldc;
+            for (int i = 0; i < rows; i++) {
+                c[col + i] -= f * w[i];
+            }
+        }
+    }
+
+    // LU decomposition
+
+    /**
+     * LU decomposition with partial pivoting {@code A = P * L * U}. The panels of
+     * {@link #BLOCK_SIZE} columns are factorized one column at a time, then the remaining columns
+     * are updated with the whole panel, one independent task per column.
+     */
+    public static int dgetrf(int m, int n, double[] a, int lda, int[] ipiv) {
+        if (m < 0) {
+            return -1;
+        } else if (n < 0) {
+            return -2;
+        } else if (lda < Math.max(1, m)) {
+            return -4;
+        }
+        int info = 0;
+        int mn = Math.min(m, n);
+        for (int j = 0; j < mn; j += BLOCK_SIZE) {
+            int panelStart = j;
+            int panelEnd = Math.min(mn, j + BLOCK_SIZE);
+            for (int k = panelStart; k < panelEnd; k++) {
+                int colK = k * lda;
+                int p = k;
+                double max = Math.abs(a[k + colK]);
+                for (int i = k + 1; i < m; i++) {
+                    double abs = Math.abs(a[i + colK]);
+                    if (abs > max) {
+                        max = abs;
+                        p = i;
+                    }
+                }
+                ipiv[k] = p + 1;
+                if (a[p + colK] != 0) {
+                    if (p != k) {
+                        swapRows(a, lda, n, k, p);
+                    }
+                    double pivot = a[k + colK];
+                    if (Math.abs(pivot) >= Double.MIN_NORMAL) {
+                        double r = 1 / pivot;
+                        for (int i = k + 1; i < m; i++) {
+                            a[i + colK] *= r;
+                        }
+                    } else {
+                        for (int i = k + 1; i < m; i++) {
+                            a[i + colK] /= pivot;
+                        }
+                    }
+                } else if (info == 0) {
+                    info = k + 1;
+                }
+                for (int c = k + 1; c < panelEnd; c++) {
+                    eliminate(a, lda, m, k, c);
+                }
+            }
+            // the rows were already swapped, apply the eliminations of the whole panel
+            forColumns(n - panelEnd, (long) (m - panelStart) * (n - panelEnd) * (panelEnd - panelStart), (from, to) -> {
+                for (int c = panelEnd + from; c < panelEnd + to; c++) {
+                    for (int k = panelStart; k < panelEnd; k++) {
+                        eliminate(a, lda, m, k, c);
+                    }
+                }
+            });
+        }
+        return info;
+    }
+
+    private static void eliminate(double[] a, int lda, int m, int k, int c) {
+        int colC = c * lda;
+        double t = a[k + colC];
+        if (t != 0) {
+            int colK = k * lda;
+            for (int i = k + 1; i < m; i++) {
+                a[i + colC] -= t * a[i + colK];
+            }
+        }
+    }
+
+    /**
+     * Solves {@code A * X = B} using the LU decomposition of {@code A}.
+     */
+    public static int dgesv(int n, int nrhs, double[] a, int lda, int[] ipiv, double[] b, int ldb) {
+        if (n < 0) {
+            return -1;
+        } else if (nrhs < 0) {
+            return -2;
+        } else if (lda < Math.max(1, n)) {
+            return -4;
+        } else if (ldb < Math.max(1, n)) {
+            return -7;
+        }
+        int info = dgetrf(n, n, a, lda, ipiv);
+        if (info == 0) {
+            for (int i = 0; i < n; i++) {
+                if (ipiv[i] != i + 1) {
+                    swapRows(b, ldb, nrhs, i, ipiv[i] - 1);
+                }
+            }
+            trsmLeft(false, false, true, n, nrhs, 1, a, lda, b, ldb);
+            trsmLeft(true, false, false, n, nrhs, 1, a, lda, b, ldb);
+        }
+        return info;
+    }
+
+    /**
+     * Returns the max-abs ('M'), one ('1' or 'O'), infinity ('I') or Frobenius ('F' or 'E') norm.
+     */
+    public static double dlange(char norm, int m, int n, double[] a, int lda, double[] work) {
+        if (m == 0 || n == 0) {
+            return 0;
+        }
+        double value = 0;
+        if (is(norm, 'M')) {
+            for (int j = 0; j < n; j++) {
+                for (int i = 0; i < m; i++) {
+                    double abs = Math.abs(a[i + j * lda]);
+                    if (value < abs || Double.isNaN(abs)) {
+                        value = abs;
+                    }
+                }
+            }
+        } else if (is(norm, 'O') || norm == '1') {
+            for (int j = 0; j < n; j++) {
+                double sum = 0;
+                for (int i = 0; i < m; i++) {
+                    sum += Math.abs(a[i + j * lda]);
+                }
+                if (value < sum || Double.isNaN(sum)) {
+                    value = sum;
+                }
+            }
+        } else if (is(norm, 'I')) {
+            double[] sums = new double[m];
+            for (int j = 0; j < n; j++) {
+                for (int i = 0; i < m; i++) {
+                    sums[i] += Math.abs(a[i + j * lda]);
+                }
+            }
+            for (int i = 0; i < m; i++) {
+                if (value < sums[i] || Double.isNaN(sums[i])) {
+                    value = sums[i];
+                }
+            }
+        } else if (is(norm, 'F') || is(norm, 'E')) {
+            double scale = 0;
+            double ssq = 1;
+            for (int j = 0; j < n; j++) {
+                double colNorm = nrm2(m, a, j * lda);
+                if (colNorm != 0) {
+                    if (scale < colNorm) {
+                        double r = scale / colNorm;
+                        ssq = 1 + ssq * r * r;
+                        scale = colNorm;
+                    } else {
+                        double r = colNorm / scale;
+                        ssq += r * r;
+                    }
+                }
+            }
+            value = scale * Math.sqrt(ssq);
+        }
+        return value;
+    }
+
+    /**
+     * Estimates the reciprocal condition number of {@code A} in the one or infinity norm from its
+     * LU decomposition as computed by {@link #dgetrf}, using Hager's estimate of the norm of the
+     * inverse with Higham's safeguard. The permutation does not change either norm, so the pivots
+     * are not needed.
+     */
+    public static int dgecon(char norm, int n, double[] a, int lda, double anorm, double[] rcond, double[] work, int[] iwork) {
+        boolean oneNorm = norm == '1' || is(norm, 'O');
+        if (!oneNorm && !is(norm, 'I')) {
+            return -1;
+        } else if (n < 0) {
+            return -2;
+        } else if (lda < Math.max(1, n)) {
+            return -4;
+        } else if (anorm < 0) {
+            return -5;
+        }
+        rcond[0] = 0;
+        if (n == 0) {
+            rcond[0] = 1;
+            return 0;
+        } else if (anorm == 0 || Double.isNaN(anorm)) {
+            return 0;
+        }
+        // the infinity norm of inv(A) is the one norm of inv(A)^T
+        double ainvnm = estimateInverseNorm(n, a, lda, !oneNorm);
+        if (ainvnm != 0) {
+            rcond[0] = (1 / ainvnm) / anorm;
+        }
+        return 0;
+    }
+
+    private static double estimateInverseNorm(int n, double[] lu, int lda, boolean transposed) {
+        double[] x = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = 1.0 / n;
+        }
+        double estimate = 0;
+        int lastJ = -1;
+        for (int iter = 0; iter < 5; iter++) {
+            luSolve(n, lu, lda, x, transposed);
+            double newEstimate = 0;
+            for (int i = 0; i < n; i++) {
+                newEstimate += Math.abs(x[i]);
+            }
+            if (iter > 0 && newEstimate <= estimate) {
+                break;
+            }
+            estimate = newEstimate;
+            for (int i = 0; i < n; i++) {
+                x[i] = x[i] >= 0 ? 1 : -1;
+            }
+            luSolve(n, lu, lda, x, !transposed);
+            int j = 0;
+            for (int i = 1; i < n; i++) {
+                if (Math.abs(x[i]) > Math.abs(x[j])) {
+                    j = i;
+                }
+            }
+            if (j == lastJ) {
+                break;
+            }
+            lastJ = j;
+            for (int i = 0; i < n; i++) {
+                x[i] = 0;
+            }
+            x[j] = 1;
+        }
+        // Higham's alternative estimate protects against the worst cases of Hager's method
+        double sign = 1;
+        for (int i = 0; i < n; i++) {
+            x[i] = sign * (1 + (n == 1 ? 0 : (double) i / (n - 1)));
+            sign = -sign;
+        }
+        luSolve(n, lu, lda, x, transposed);
+        double alternative = 0;
+        for (int i = 0; i < n; i++) {
+            alternative += Math.abs(x[i]);
+        }
+        alternative = 2 * alternative / (3 * n);
+        return Math.max(estimate, alternative);
+    }
+
+    /**
+     * Computes {@code inv(U) * inv(L) * x} or, if {@code transposed}, {@code inv(L)^T * inv(U)^T *
+     * x}.
+     */
+    private static void luSolve(int n, double[] lu, int lda, double[] x, boolean transposed) {
+        if (transposed) {
+            trsmLeft(true, true, false, n, 1, 1, lu, lda, x, n);
+            trsmLeft(false, true, true, n, 1, 1, lu, lda, x, n);
+        } else {
+            trsmLeft(false, false, true, n, 1, 1, lu, lda, x, n);
+            trsmLeft(true, false, false, n, 1, 1, lu, lda, x, n);
+        }
+    }
+
+    // Cholesky decomposition
+
+    /**
+     * Cholesky decomposition {@code A = U^T * U} or {@code A = L * L^T}. The upper variant, which is
+     * the one used by R, is blocked like {@link #dgetrf}.
+     */
+    public static int dpotrf(char uplo, int n, double[] a, int lda) {
+        if (!is(uplo, 'U') && !is(uplo, 'L')) {
+            return -1;
+        } else if (n < 0) {
+            return -2;
+        } else if (lda < Math.max(1, n)) {
+            return -4;
+        }
+        if (is(uplo, 'U')) {
+            for (int j = 0; j < n; j += BLOCK_SIZE) {
+                int blockStart = j;
+                int blockEnd = Math.min(n, j + BLOCK_SIZE);
+                for (int c = blockStart; c < blockEnd; c++) {
+                    cholRowPanel(a, lda, blockStart, c, c);
+                    int colC = c * lda;
+                    double d = a[c + colC];
+                    for (int i = blockStart; i < c; i++) {
+                        d -= a[i + colC] * a[i + colC];
+                    }
+                    if (!(d > 0)) {
+                        a[c + colC] = d;
+                        return c + 1;
+                    }
+                    a[c + colC] = Math.sqrt(d);
+                }
+                int count = n - blockEnd;
+                int width = blockEnd - blockStart;
+                // U12 = inv(U11)^T * A12
+                forColumns(count, (long) width * width * count, (from, to) -> {
+                    for (int c = blockEnd + from; c < blockEnd + to; c++) {
+                        cholRowPanel(a, lda, blockStart, blockEnd, c);
+                    }
+                });
+                // A22 = A22 - U12^T * U12, the upper triangle only
+                forColumns(count, (long) width * count * count / 2, (from, to) -> {
+                    for (int c = blockEnd + from; c < blockEnd + to; c++) {
+                        int colC = c * lda;
+                        for (int r = blockEnd; r <= c; r++) {
+                            a[r + colC] -= dot(width, a, blockStart + r * lda, a, blockStart + colC);
+                        }
+                    }
+                });
+            }
+        } else {
+            for (int j = 0; j < n; j++) {
+                int colJ = j * lda;
+                for (int k = 0; k < j; k++) {
+                    double t = a[j + k * lda];
+                    if (t != 0) {
+                        for (int i = j; i < n; i++) {
+                            a[i + colJ] -= t * a[i + k * lda];
+                        }
+                    }
+                }
+                double d = a[j + colJ];
+                if (!(d > 0)) {
+                    return j + 1;
+                }
+                d = Math.sqrt(d);
+                a[j + colJ] = d;
+                for (int i = j + 1; i < n; i++) {
+                    a[i + colJ] /= d;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Computes the rows {@code from:to} of column {@code c} of the upper Cholesky factor from the
+     * already computed rows {@code from:to} of the factor's columns {@code from:to}.
+     */
+    private static void cholRowPanel(double[] a, int lda, int from, int to, int c) {
+        int colC = c * lda;
+        for (int k = from; k < to; k++) {
+            int colK = k * lda;
+            double s = a[k + colC] - dot(k - from, a, from + colK, a, from + colC);
+            a[k + colC] = s / a[k + colK];
+        }
+    }
+
+    /**
+     * Computes the inverse of {@code A} from its Cholesky factor: {@code inv(A) = inv(U) *
+     * inv(U)^T}.
+     */
+    public static int dpotri(char uplo, int n, double[] a, int lda) {
+        if (!is(uplo, 'U') && !is(uplo, 'L')) {
+            return -1;
+        } else if (n < 0) {
+            return -2;
+        } else if (lda < Math.max(1, n)) {
+            return -4;
+        }
+        for (int i = 0; i < n; i++) {
+            if (a[i + i * lda] == 0) {
+                return i + 1;
+            }
+        }
+        if (is(uplo, 'U')) {
+            upperInverseTimesTranspose(n, a, lda);
+        } else {
+            // L = U^T, so inv(A) = inv(L)^T * inv(L) = (inv(U) * inv(U)^T)^T
+            double[] u = new double[n * n];
+            for (int j = 0; j < n; j++) {
+                for (int i = j; i < n; i++) {
+                    u[j + i * n] = a[i + j * lda];
+                }
+            }
+            upperInverseTimesTranspose(n, u, n);
+            for (int j = 0; j < n; j++) {
+                for (int i = j; i < n; i++) {
+                    a[i + j * lda] = u[j + i * n];
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Replaces the upper triangular {@code U} with the upper triangle of {@code inv(U) *
+     * inv(U)^T}.
+     */
+    private static void upperInverseTimesTranspose(int n, double[] a, int lda) {
+        // inv(U) in place, column by column
+        for (int j = 0; j < n; j++) {
+            int colJ = j * lda;
+            a[j + colJ] = 1 / a[j + colJ];
+            double ajj = -a[j + colJ];
+            // x = inv(U)[0:j, 0:j] * x, where the leading block is already inverted
+            for (int k = 0; k < j; k++) {
+                double t = a[k + colJ];
+                int colK = k * lda;
+                for (int i = 0; i < k; i++) {
+                    a[i + colJ] += t * a[i + colK];
+                }
+                a[k + colJ] = t * a[k + colK];
+            }
+            for (int i = 0; i < j; i++) {
+                a[i + colJ] *= ajj;
+            }
+        }
+        // (inv(U) * inv(U)^T)[i, j] only depends on the columns j:n of inv(U)
+        for (int j = 0; j < n; j++) {
+            for (int i = 0; i <= j; i++) {
+                double s = 0;
+                for (int k = j; k < n; k++) {
+                    s += a[i + k * lda] * a[j + k * lda];
+                }
+                a[i + j * lda] = s;
+            }
+        }
+    }
+
+    /**
+     * Cholesky decomposition with complete pivoting {@code P^T * A * P = U^T * U} of a positive
+     * semidefinite matrix, stopping at the computed rank (unblocked version of LAPACK's
+     * {@code dpstrf}).
+     */
+    public static int dpstrf(char uplo, int n, double[] a, int lda, int[] piv, int[] rank, double tol, double[] work) {
+        if (!is(uplo, 'U') && !is(uplo, 'L')) {
+            return -1;
+        } else if (n < 0) {
+            return -2;
+        } else if (lda < Math.max(1, n)) {
+            return -4;
+        }
+        if (n == 0) {
+            rank[0] = 0;
+            return 0;
+        }
+        boolean upper = is(uplo, 'U');
+        for (int i = 0; i < n; i++) {
+            piv[i] = i + 1;
+        }
+        int pvt = 0;
+        double ajj = a[0];
+        for (int i = 1; i < n; i++) {
+            if (a[i + i * lda] > ajj) {
+                pvt = i;
+                ajj = a[i + i * lda];
+            }
+        }
+        if (!(ajj > 0)) {
+            rank[0] = 0;
+            return 1;
+        }
+        double dstop = tol < 0 ? n * EPS * ajj : tol;
+        // work[0:n] holds the squared norms of the computed parts, work[n:2n] the remainders
+        for (int i = 0; i < n; i++) {
+            work[i] = 0;
+        }
+        for (int j = 0; j < n; j++) {
+            for (int i = j; i < n; i++) {
+                if (j > 0) {
+                    double v = upper ? a[(j - 1) + i * lda] : a[i + (j - 1) * lda];
+                    work[i] += v * v;
+                }
+                work[n + i] = a[i + i * lda] - work[i];
+            }
+            if (j > 0) {
+                pvt = j;
+                for (int i = j + 1; i < n; i++) {
+                    if (work[n + i] > work[n + pvt]) {
+                        pvt = i;
+                    }
+                }
+                ajj = work[n + pvt];
+                if (!(ajj > dstop)) {
+                    a[j + j * lda] = ajj;
+                    rank[0] = j;
+                    return 1;
+                }
+            }
+            if (j != pvt) {
+                // symmetric swap of rows/columns j and pvt in the stored triangle
+                a[pvt + pvt * lda] = a[j + j * lda];
+                for (int i = 0; i < j; i++) {
+                    swapStored(a, lda, upper, i, j, i, pvt);
+                }
+                for (int i = pvt + 1; i < n; i++) {
+                    swapStored(a, lda, upper, j, i, pvt, i);
+                }
+                for (int i = j + 1; i < pvt; i++) {
+                    swapStored(a, lda, upper, j, i, i, pvt);
+                }
+                double tmp = work[j];
+                work[j] = work[pvt];
+                work[pvt] = tmp;
+                int itmp = piv[j];
+                piv[j] = piv[pvt];
+                piv[pvt] = itmp;
+            }
+            ajj = Math.sqrt(ajj);
+            a[j + j * lda] = ajj;
+            for (int c = j + 1; c < n; c++) {
+                double s = 0;
+                for (int i = 0; i < j; i++) {
+                    s += stored(a, lda, upper, i, c) * stored(a, lda, upper, i, j);
+                }
+                setStored(a, lda, upper, j, c, (stored(a, lda, upper, j, c) - s) / ajj);
+            }
+        }
+        rank[0] = n;
+        return 0;
+    }
+
+    /**
+     * Element {@code (i, j)} with {@code i <= j} of the upper factor, or element {@code (j, i)} of
+     * the lower one.
+     */
+    private static double stored(double[] a, int lda, boolean upper, int i, int j) {
+        return upper ? a[i + j * lda] : a[j + i * lda];
+    }
+
+    private static void setStored(double[] a, int lda, boolean upper, int i, int j, double value) {
+        if (upper) {
+            a[i + j * lda] = value;
+        } else {
+            a[j + i * lda] = value;
+        }
+    }
+
+    private static void swapStored(double[] a, int lda, boolean upper, int i1, int j1, int i2, int j2) {
+        double tmp = stored(a, lda, upper, i1, j1);
+        setStored(a, lda, upper, i1, j1, stored(a, lda, upper, i2, j2));
+        setStored(a, lda, upper, i2, j2, tmp);
+    }
+
+    // triangular solve
+
+    public static int dtrtrs(char uplo, char trans, char diag, int n, int nrhs, double[] a, int lda, double[] b, int ldb) {
+        if (!is(uplo, 'U') && !is(uplo, 'L')) {
+            return -1;
+        } else if (!is(trans, 'N') && !is(trans, 'T') && !is(trans, 'C')) {
+            return -2;
+        } else if (!is(diag, 'N') && !is(diag, 'U')) {
+            return -3;
+        } else if (n < 0) {
+            return -4;
+        } else if (nrhs < 0) {
+            return -5;
+        } else if (lda < Math.max(1, n)) {
+            return -7;
+        } else if (ldb < Math.max(1, n)) {
+            return -9;
+        }
+        boolean unit = is(diag, 'U');
+        if (!unit) {
+            for (int i = 0; i < n; i++) {
+                if (a[i + i * lda] == 0) {
+                    return i + 1;
+                }
+            }
+        }
+        if (n > 0) {
+            trsmLeft(is(uplo, 'U'), !is(trans, 'N'), unit, n, nrhs, 1, a, lda, b, ldb);
+        }
+        return 0;
+    }
+
+    // QR decomposition
+
+    /**
+     * QR decomposition with column pivoting {@code A * P = Q * R}, where {@code Q} is represented
+     * by the elementary reflectors below the diagonal of {@code A} and by {@code tau}. Columns with
+     * {@code jpvt[j] != 0} are moved to the front and not pivoted.
+     */
+    public static int dgeqp3(int m, int n, double[] a, int lda, int[] jpvt, double[] tau, double[] work, int lwork) {
+        if (m < 0) {
+            return -1;
+        } else if (n < 0) {
+            return -2;
+        } else if (lda < Math.max(1, m)) {
+            return -4;
+        }
+        if (lwork == -1) {
+            work[0] = 1;
+            return 0;
+        }
+        int fixed = 0;
+        for (int j = 0; j < n; j++) {
+            if (jpvt[j] != 0) {
+                if (j != fixed) {
+                    swapColumns(a, lda, m, j, fixed);
+                    jpvt[j] = jpvt[fixed];
+                    jpvt[fixed] = j + 1;
+                } else {
+                    jpvt[j] = j + 1;
+                }
+                fixed++;
+            } else {
+                jpvt[j] = j + 1;
+            }
+        }
+        int k = Math.min(m, n);
+        double[] vn1 = new double[n];
+        double[] vn2 = new double[n];
+        double tol3z = Math.sqrt(EPS);
+        for (int i = 0; i < k; i++) {
+            if (i >= fixed) {
+                if (i == fixed) {
+                    // norms of the free columns below the already factorized fixed ones
+                    for (int j = i; j < n; j++) {
+                        vn1[j] = nrm2(m - i, a, i + j * lda);
+                        vn2[j] = vn1[j];
+                    }
+                }
+                int pvt = i;
+                for (int j = i + 1; j < n; j++) {
+                    if (vn1[j] > vn1[pvt]) {
+                        pvt = j;
+                    }
+                }
+                if (pvt != i) {
+                    swapColumns(a, lda, m, pvt, i);
+                    int itmp = jpvt[pvt];
+                    jpvt[pvt] = jpvt[i];
+                    jpvt[i] = itmp;
+                    vn1[pvt] = vn1[i];
+                    vn2[pvt] = vn2[i];
+                }
+            }
+            int diag = i + i * lda;
+            tau[i] = householder(m - i, a, diag);
+            reflectLeft(m - i, a, diag, tau[i], a, diag + lda, lda, n - i - 1);
+            if (i >= fixed) {
+                // downdate the partial column norms, recompute them if cancellation is likely
+                for (int j = i + 1; j < n; j++) {
+                    if (vn1[j] != 0) {
+                        double r = Math.abs(a[i + j * lda]) / vn1[j];
+                        double temp = Math.max(0, 1 - r * r);
+                        double ratio = vn1[j] / vn2[j];
+                        if (temp * ratio * ratio <= tol3z) {
+                            vn1[j] = i < m - 1 ? nrm2(m - i - 1, a, i + 1 + j * lda) : 0;
+                            vn2[j] = vn1[j];
+                        } else {
+                            vn1[j] *= Math.sqrt(temp);
+                        }
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Multiplies {@code C} with {@code Q} or {@code Q^T} from the left ({@code side == 'L'}) or
+     * right, where {@code Q = H(1) * ... * H(k)} is given by the elementary reflectors computed by
+     * {@link #dgeqp3}.
+     */
+    public static int dormqr(char side, char trans, int m, int n, int k, double[] a, int lda, double[] tau, double[] c, int ldc, double[] work, int lwork) {
+        boolean left = is(side, 'L');
+        boolean notrans = is(trans, 'N');
+        int nq = left ? m : n;
+        if (!left && !is(side, 'R')) {
+            return -1;
+        } else if (!notrans && !is(trans, 'T')) {
+            return -2;
+        } else if (m < 0) {
+            return -3;
+        } else if (n < 0) {
+            return -4;
+        } else if (k < 0 || k > nq) {
+            return -5;
+        } else if (lda < Math.max(1, nq)) {
+            return -7;
+        } else if (ldc < Math.max(1, m)) {
+            return -10;
+        }
+        if (lwork == -1) {
+            work[0] = 1;
+            return 0;
+        }
+        if (m == 0 || n == 0 || k == 0) {
+            return 0;
+        }
+        // Q^T * C and C * Q apply H(1) first
+        boolean forward = left != notrans;
+        for (int s = 0; s < k; s++) {
+            int i = forward ? s : k - 1 - s;
+            int diag = i + i * lda;
+            if (left) {
+                reflectLeft(nq - i, a, diag, tau[i], c, i, ldc, n);
+            } else {
+                reflectRight(nq - i, a, diag, tau[i], c, i * ldc, ldc, m);
+            }
+        }
+        return 0;
+    }
+
+    // symmetric eigenproblem
+
+    /**
+     * Eigenvalues and optionally eigenvectors of a symmetric matrix, given by its upper or lower
+     * triangle. All eigenvalues are computed by Householder tridiagonalization and the implicit QL
+     * algorithm (as in EISPACK's {@code tred2} and {@code tql2}), the range arguments then select
+     * the ones that are returned, in ascending order.
+     */
+    public static int dsyevr(char jobz, char range, char uplo, int n, double[] a, int lda, double vl, double vu, int il, int iu, double abstol, int[] m, double[] w,
+                    double[] z, int ldz, int[] isuppz, double[] work, int lwork, int[] iwork, int liwork) {
+        boolean wantz = is(jobz, 'V');
+        boolean alleig = is(range, 'A');
+        boolean valeig = is(range, 'V');
+        boolean indeig = is(range, 'I');
+        if (!wantz && !is(jobz, 'N')) {
+            return -1;
+        } else if (!alleig && !valeig && !indeig) {
+            return -2;
+        } else if (!is(uplo, 'L') && !is(uplo, 'U')) {
+            return -3;
+        } else if (n < 0) {
+            return -4;
+        } else if (lda < Math.max(1, n)) {
+            return -6;
+        } else if (valeig && n > 0 && vu <= vl) {
+            return -8;
+        } else if (indeig && (il < 1 || il > Math.max(1, n))) {
+            return -9;
+        } else if (indeig && (iu < Math.min(n, il) || iu > n)) {
+            return -10;
+        } else if (wantz && ldz < Math.max(1, n)) {
+            return -15;
+        }
+        if (lwork == -1 || liwork == -1) {
+            work[0] = 1;
+            iwork[0] = 1;
+            return 0;
+        }
+        m[0] = 0;
+        if (n == 0) {
+            return 0;
+        }
+        boolean lower = is(uplo, 'L');
+        double[][] v = new double[n][n];
+        for (int j = 0; j < n; j++) {
+            for (int i = 0; i < n; i++) {
+                v[i][j] = (i >= j) == lower ? a[i + j * lda] : a[j + i * lda];
+            }
+        }
+        double[] d = new double[n];
+        double[] e = new double[n];
+        double[] vectors = tridiagonalize(n, v, d, e, wantz);
+        int info = tridiagonalQL(n, d, e, vectors);
+        if (info != 0) {
+            return info;
+        }
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if (alleig || (valeig && d[i] > vl && d[i] <= vu) || (indeig && i + 1 >= il && i + 1 <= iu)) {
+                w[count] = d[i];
+                if (wantz) {
+                    int first = -1;
+                    int last = -1;
+                    for (int r = 0; r < n; r++) {
+                        double value = vectors[r + i * n];
+                        z[r + count * ldz] = value;
+                        if (value != 0) {
+                            last = r;
+                            if (first == -1) {
+                                first = r;
+                            }
+                        }
+                    }
+                    if (isuppz != null && isuppz.length >= 2 * count + 2) {
+                        isuppz[2 * count] = first + 1;
+                        isuppz[2 * count + 1] = last + 1;
+                    }
+                }
+                count++;
+            }
+        }
+        m[0] = count;
+        return 0;
+    }
+
+    /**
+     * Householder reduction of the symmetric {@code v} to tridiagonal form (diagonal in {@code d},
+     * subdiagonal in {@code e[1:n]}). Returns the accumulated orthogonal transformation in column
+     * major order if {@code wantz}, {@code null} otherwise.
+     */
+    private static double[] tridiagonalize(int n, double[][] v, double[] d, double[] e, boolean wantz) {
+        for (int j = 0; j < n; j++) {
+            d[j] = v[n - 1][j];
+        }
+        for (int i = n - 1; i > 0; i--) {
+            double scale = 0;
+            double h = 0;
+            for (int k = 0; k < i; k++) {
+                scale += Math.abs(d[k]);
+            }
+            if (scale == 0) {
+                e[i] = d[i - 1];
+                for (int j = 0; j < i; j++) {
+                    d[j] = v[i - 1][j];
+                    v[i][j] = 0;
+                    v[j][i] = 0;
+                }
+            } else {
+                for (int k = 0; k < i; k++) {
+                    d[k] /= scale;
+                    h += d[k] * d[k];
+                }
+                double f = d[i - 1];
+                double g = Math.sqrt(h);
+                if (f > 0) {
+                    g = -g;
+                }
+                e[i] = scale * g;
+                h -= f * g;
+                d[i - 1] = f - g;
+                for (int j = 0; j < i; j++) {
+                    e[j] = 0;
+                }
+                for (int j = 0; j < i; j++) {
+                    f = d[j];
+                    v[j][i] = f;
+                    g = e[j] + v[j][j] * f;
+                    for (int k = j + 1; k <= i - 1; k++) {
+                        g += v[k][j] * d[k];
+                        e[k] += v[k][j] * f;
+                    }
+                    e[j] = g;
+                }
+                f = 0;
+                for (int j = 0; j < i; j++) {
+                    e[j] /= h;
+                    f += e[j] * d[j];
+                }
+                double hh = f / (h + h);
+                for (int j = 0; j < i; j++) {
+                    e[j] -= hh * d[j];
+                }
+                for (int j = 0; j < i; j++) {
+                    f = d[j];
+                    g = e[j];
+                    for (int k = j; k <= i - 1; k++) {
+                        v[k][j] -= f * e[k] + g * d[k];
+                    }
+                    d[j] = v[i - 1][j];
+                    v[i][j] = 0;
+                }
+            }
+            d[i] = h;
+        }
+        e[0] = 0;
+        if (!wantz) {
+            for (int j = 0; j < n; j++) {
+                d[j] = v[j][j];
+            }
+            return null;
+        }
+        for (int i = 0; i < n - 1; i++) {
+            v[n - 1][i] = v[i][i];
+            v[i][i] = 1;
+            double h = d[i + 1];
+            if (h != 0) {
+                for (int k = 0; k <= i; k++) {
+                    d[k] = v[k][i + 1] / h;
+                }
+                for (int j = 0; j <= i; j++) {
+                    double g = 0;
+                    for (int k = 0; k <= i; k++) {
+                        g += v[k][i + 1] * v[k][j];
+                    }
+                    for (int k = 0; k <= i; k++) {
+                        v[k][j] -= g * d[k];
+                    }
+                }
+            }
+            for (int k = 0; k <= i; k++) {
+                v[k][i + 1] = 0;
+            }
+        }
+        for (int j = 0; j < n; j++) {
+            d[j] = v[n - 1][j];
+            v[n - 1][j] = 0;
+        }
+        v[n - 1][n - 1] = 1;
+        double[] result = new double[n * n];
+        for (int j = 0; j < n; j++) {
+            for (int i = 0; i < n; i++) {
+                result[i + j * n] = v[i][j];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Implicit QL iterations on the tridiagonal matrix ({@code d}, {@code e}), accumulating the
+     * rotations into the columns of {@code z} unless it is {@code null}. The eigenvalues are sorted
+     * in ascending order.
+     */
+    private static int tridiagonalQL(int n, double[] d, double[] e, double[] z) {
+        for (int i = 1; i < n; i++) {
+            e[i - 1] = e[i];
+        }
+        e[n - 1] = 0;
+        double f = 0;
+        double tst1 = 0;
+        for (int l = 0; l < n; l++) {
+            tst1 = Math.max(tst1, Math.abs(d[l]) + Math.abs(e[l]));
+            int m = l;
+            while (m < n - 1 && Math.abs(e[m]) > ULP * tst1) {
+                m++;
+            }
+            if (m > l) {
+                int iter = 0;
+                do {
+                    if (++iter > 30 * n) {
+                        return l + 1;
+                    }
+                    double g = d[l];
+                    double p = (d[l + 1] - g) / (2 * e[l]);
+                    double r = Math.hypot(p, 1);
+                    if (p < 0) {
+                        r = -r;
+                    }
+                    d[l] = e[l] / (p + r);
+                    d[l + 1] = e[l] * (p + r);
+                    double dl1 = d[l + 1];
+                    double h = g - d[l];
+                    for (int i = l + 2; i < n; i++) {
+                        d[i] -= h;
+                    }
+                    f += h;
+                    p = d[m];
+                    double c = 1;
+                    double c2 = c;
+                    double c3 = c;
+                    double el1 = e[l + 1];
+                    double s = 0;
+                    double s2 = 0;
+                    for (int i = m - 1; i >= l; i--) {
+                        c3 = c2;
+                        c2 = c;
+                        s2 = s;
+                        g = c * e[i];
+                        h = c * p;
+                        r = Math.hypot(p, e[i]);
+                        e[i + 1] = s * r;
+                        s = e[i] / r;
+                        c = p / r;
+                        p = c * d[i] - s * g;
+                        d[i + 1] = h + s * (c * g + s * d[i]);
+                        if (z != null) {
+                            int col = i * n;
+                            int next = col + n;
+                            for (int k = 0; k < n; k++) {
+                                h = z[next + k];
+                                z[next + k] = s * z[col + k] + c * h;
+                                z[col + k] = c * z[col + k] - s * h;
+                            }
+                        }
+                    }
+                    p = -s * s2 * c3 * el1 * e[l] / dl1;
+                    e[l] = s * p;
+                    d[l] = c * p;
+                } while (Math.abs(e[l]) > ULP * tst1);
+            }
+            d[l] += f;
+            e[l] = 0;
+        }
+        for (int i = 0; i < n - 1; i++) {
+            int k = i;
+            double p = d[i];
+            for (int j = i + 1; j < n; j++) {
+                if (d[j] < p) {
+                    k = j;
+                    p = d[j];
+                }
+            }
+            if (k != i) {
+                d[k] = d[i];
+                d[i] = p;
+                if (z != null) {
+                    swapColumns(z, n, n, i, k);
+                }
+            }
+        }
+        return 0;
+    }
+
+    // general eigenproblem
+
+    /**
+     * Eigenvalues and optionally right eigenvectors of a general matrix: Householder reduction to
+     * Hessenberg form followed by the shifted double QR algorithm (as in EISPACK's {@code orthes}
+     * and {@code hqr2}, without balancing). The eigenvectors are normalized like LAPACK's: unit
+     * Euclidean norm, and the component of largest modulus of complex vectors is real. Left
+     * eigenvectors are not supported.
+     */
+    public static int dgeev(char jobvl, char jobvr, int n, double[] a, int lda, double[] wr, double[] wi, double[] vl, int ldvl, double[] vr, int ldvr, double[] work,
+                    int lwork) {
+        boolean wantvl = is(jobvl, 'V');
+        boolean wantvr = is(jobvr, 'V');
+        if (!wantvl && !is(jobvl, 'N')) {
+            return -1;
+        } else if (!wantvr && !is(jobvr, 'N')) {
+            return -2;
+        } else if (n < 0) {
+            return -3;
+        } else if (lda < Math.max(1, n)) {
+            return -5;
+        } else if (ldvl < 1 || (wantvl && ldvl < n)) {
+            return -9;
+        } else if (ldvr < 1 || (wantvr && ldvr < n)) {
+            return -11;
+        }
+        if (wantvl) {
+            throw Managed_RFFIFactory.unsupported("dgeev with left eigenvectors");
+        }
+        if (lwork == -1) {
+            work[0] = 1;
+            return 0;
+        }
+        if (n == 0) {
+            return 0;
+        }
+        double[][] h = new double[n][n];
+        for (int j = 0; j < n; j++) {
+            for (int i = 0; i < n; i++) {
+                h[i][j] = a[i + j * lda];
+            }
+        }
+        double[][] v = new double[n][n];
+        hessenberg(n, h, v);
+        int info = hessenbergQR(n, h, v, wr, wi, wantvr);
+        if (info != 0) {
+            return info;
+        }
+        if (wantvr) {
+            for (int j = 0; j < n; j++) {
+                for (int i = 0; i < n; i++) {
+                    vr[i + j * ldvr] = v[i][j];
+                }
+            }
+            normalizeEigenvectors(n, wi, vr, ldvr);
+        }
+        return 0;
+    }
+
+    /**
+     * Reduces {@code h} to upper Hessenberg form by orthogonal similarity transformations, which
+     * are accumulated in {@code v}.
+     */
+    private static void hessenberg(int n, double[][] h, double[][] v) {
+        int high = n - 1;
+        double[] ort = new double[n];
+        for (int m = 1; m <= high - 1; m++) {
+            double scale = 0;
+            for (int i = m; i <= high; i++) {
+                scale += Math.abs(h[i][m - 1]);
+            }
+            if (scale != 0) {
+                double hh = 0;
+                for (int i = high; i >= m; i--) {
+                    ort[i] = h[i][m - 1] / scale;
+                    hh += ort[i] * ort[i];
+                }
+                double g = Math.sqrt(hh);
+                if (ort[m] > 0) {
+                    g = -g;
+                }
+                hh -= ort[m] * g;
+                ort[m] -= g;
+                // H = (I - u * u^T / h) * H * (I - u * u^T / h)
+                for (int j = m; j < n; j++) {
+                    double f = 0;
+                    for (int i = high; i >= m; i--) {
+                        f += ort[i] * h[i][j];
+                    }
+                    f /= hh;
+                    for (int i = m; i <= high; i++) {
+                        h[i][j] -= f * ort[i];
+                    }
+                }
+                for (int i = 0; i <= high; i++) {
+                    double f = 0;
+                    for (int j = high; j >= m; j--) {
+                        f += ort[j] * h[i][j];
+                    }
+                    f /= hh;
+                    for (int j = m; j <= high; j++) {
+                        h[i][j] -= f * ort[j];
+                    }
+                }
+                ort[m] = scale * ort[m];
+                h[m][m - 1] = scale * g;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                v[i][j] = i == j ? 1 : 0;
+            }
+        }
+        for (int m = high - 1; m >= 1; m--) {
+            if (h[m][m - 1] != 0) {
+                for (int i = m + 1; i <= high; i++) {
+                    ort[i] = h[i][m - 1];
+                }
+                for (int j = m; j <= high; j++) {
+                    double g = 0;
+                    for (int i = m; i <= high; i++) {
+                        g += ort[i] * v[i][j];
+                    }
+                    // double division avoids possible underflow
+                    g = (g / ort[m]) / h[m][m - 1];
+                    for (int i = m; i <= high; i++) {
+                        v[i][j] += g * ort[i];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reduces the Hessenberg matrix {@code h} to real Schur form by the shifted double QR
+     * algorithm, stores the eigenvalues in {@code wr}/{@code wi} (complex conjugate pairs with the
+     * positive imaginary part first) and, if {@code wantv}, back-substitutes to turn {@code v} into
+     * the eigenvectors (a complex pair stored as real and imaginary part in consecutive columns).
+     */
+    private static int hessenbergQR(int nn, double[][] h, double[][] v, double[] d, double[] e, boolean wantv) {
+        int n = nn - 1;
+        double exshift = 0;
+        double p = 0;
+        double q = 0;
+        double r = 0;
+        double s = 0;
+        double z = 0;
+        double t;
+        double w;
+        double x;
+        double y;
+
+        double norm = 0;
+        for (int i = 0; i < nn; i++) {
+            for (int j = Math.max(i - 1, 0); j < nn; j++) {
+                norm += Math.abs(h[i][j]);
+            }
+        }
+
+        int iter = 0;
+        while (n >= 0) {
+            // look for a single small subdiagonal element
+            int l = n;
+            while (l > 0) {
+                s = Math.abs(h[l - 1][l - 1]) + Math.abs(h[l][l]);
+                if (s == 0) {
+                    s = norm;
+                }
+                if (Math.abs(h[l][l - 1]) < ULP * s) {
+                    break;
+                }
+                l--;
+            }
+            if (l == n) {
+                // one root found
+                h[n][n] += exshift;
+                d[n] = h[n][n];
+                e[n] = 0;
+                n--;
+                iter = 0;
+            } else if (l == n - 1) {
+                // two roots found
+                w = h[n][n - 1] * h[n - 1][n];
+                p = (h[n - 1][n - 1] - h[n][n]) / 2;
+                q = p * p + w;
+                z = Math.sqrt(Math.abs(q));
+                h[n][n] += exshift;
+                h[n - 1][n - 1] += exshift;
+                x = h[n][n];
+                if (q >= 0) {
+                    // real pair
+                    z = p >= 0 ? p + z : p - z;
+                    d[n - 1] = x + z;
+                    d[n] = d[n - 1];
+                    if (z != 0) {
+                        d[n] = x - w / z;
+                    }
+                    e[n - 1] = 0;
+                    e[n] = 0;
+                    x = h[n][n - 1];
+                    s = Math.abs(x) + Math.abs(z);
+                    p = x / s;
+                    q = z / s;
+                    r = Math.sqrt(p * p + q * q);
+                    p /= r;
+                    q /= r;
+                    for (int j = n - 1; j < nn; j++) {
+                        z = h[n - 1][j];
+                        h[n - 1][j] = q * z + p * h[n][j];
+                        h[n][j] = q * h[n][j] - p * z;
+                    }
+                    for (int i = 0; i <= n; i++) {
+                        z = h[i][n - 1];
+                        h[i][n - 1] = q * z + p * h[i][n];
+                        h[i][n] = q * h[i][n] - p * z;
+                    }
+                    for (int i = 0; i < nn; i++) {
+                        z = v[i][n - 1];
+                        v[i][n - 1] = q * z + p * v[i][n];
+                        v[i][n] = q * v[i][n] - p * z;
+                    }
+                } else {
+                    // complex pair
+                    d[n - 1] = x + p;
+                    d[n] = x + p;
+                    e[n - 1] = z;
+                    e[n] = -z;
+                }
+                n -= 2;
+                iter = 0;
+            } else {
+                // no convergence yet, form the shift
+                x = h[n][n];
+                y = 0;
+                w = 0;
+                if (l < n) {
+                    y = h[n - 1][n - 1];
+                    w = h[n][n - 1] * h[n - 1][n];
+                }
+                if (iter == 10) {
+                    // Wilkinson's original ad hoc shift
+                    exshift += x;
+                    for (int i = 0; i <= n; i++) {
+                        h[i][i] -= x;
+                    }
+                    s = Math.abs(h[n][n - 1]) + Math.abs(h[n - 1][n - 2]);
+                    x = 0.75 * s;
+                    y = x;
+                    w = -0.4375 * s * s;
+                }
+                if (iter == 30) {
+                    // MATLAB's ad hoc shift
+                    s = (y - x) / 2;
+                    s = s * s + w;
+                    if (s > 0) {
+                        s = Math.sqrt(s);
+                        if (y < x) {
+                            s = -s;
+                        }
+                        s = x - w / ((y - x) / 2 + s);
+                        for (int i = 0; i <= n; i++) {
+                            h[i][i] -= s;
+                        }
+                        exshift += s;
+                        x = 0.964;
+                        y = x;
+                        w = x;
+                    }
+                }
+                if (++iter > 30 * Math.max(10, nn)) {
+                    return n + 1;
+                }
+                // look for two consecutive small subdiagonal elements
+                int m = n - 2;
+                while (m >= l) {
+                    z = h[m][m];
+                    r = x - z;
+                    s = y - z;
+                    p = (r * s - w) / h[m + 1][m] + h[m][m + 1];
+                    q = h[m + 1][m + 1] - z - r - s;
+                    r = h[m + 2][m + 1];
+                    s = Math.abs(p) + Math.abs(q) + Math.abs(r);
+                    p /= s;
+                    q /= s;
+                    r /= s;
+                    if (m == l) {
+                        break;
+                    }
+                    if (Math.abs(h[m][m - 1]) * (Math.abs(q) + Math.abs(r)) < ULP * (Math.abs(p) * (Math.abs(h[m - 1][m - 1]) + Math.abs(z) + Math.abs(h[m + 1][m + 1])))) {
+                        break;
+                    }
+                    m--;
+                }
+                for (int i = m + 2; i <= n; i++) {
+                    h[i][i - 2] = 0;
+                    if (i > m + 2) {
+                        h[i][i - 3] = 0;
+                    }
+                }
+                // double QR step involving rows l:n and columns m:n
+                for (int k = m; k <= n - 1; k++) {
+                    boolean notlast = k != n - 1;
+                    if (k != m) {
+                        p = h[k][k - 1];
+                        q = h[k + 1][k - 1];
+                        r = notlast ? h[k + 2][k - 1] : 0;
+                        x = Math.abs(p) + Math.abs(q) + Math.abs(r);
+                        if (x == 0) {
+                            continue;
+                        }
+                        p /= x;
+                        q /= x;
+                        r /= x;
+                    }
+                    s = Math.sqrt(p * p + q * q + r * r);
+                    if (p < 0) {
+                        s = -s;
+                    }
+                    if (s != 0) {
+                        if (k != m) {
+                            h[k][k - 1] = -s * x;
+                        } else if (l != m) {
+                            h[k][k - 1] = -h[k][k - 1];
+                        }
+                        p += s;
+                        x = p / s;
+                        y = q / s;
+                        z = r / s;
+                        q /= p;
+                        r /= p;
+                        for (int j = k; j < nn; j++) {
+                            p = h[k][j] + q * h[k + 1][j];
+                            if (notlast) {
+                                p += r * h[k + 2][j];
+                                h[k + 2][j] -= p * z;
+                            }
+                            h[k][j] -= p * x;
+                            h[k + 1][j] -= p * y;
+                        }
+                        for (int i = 0; i <= Math.min(n, k + 3); i++) {
+                            p = x * h[i][k] + y * h[i][k + 1];
+                            if (notlast) {
+                                p += z * h[i][k + 2];
+                                h[i][k + 2] -= p * r;
+                            }
+                            h[i][k] -= p;
+                            h[i][k + 1] -= p * q;
+                        }
+                        for (int i = 0; i < nn; i++) {
+                            p = x * v[i][k] + y * v[i][k + 1];
+                            if (notlast) {
+                                p += z * v[i][k + 2];
+                                v[i][k + 2] -= p * r;
+                            }
+                            v[i][k] -= p;
+                            v[i][k + 1] -= p * q;
+                        }
+                    }
+                }
+            }
+        }
+
+        if (!wantv || norm == 0) {
+            return 0;
+        }
+
+        // back-substitute to find the vectors of the upper triangular form
+        for (n = nn - 1; n >= 0; n--) {
+            p = d[n];
+            q = e[n];
+            if (q == 0) {
+                // real vector
+                int l = n;
+                h[n][n] = 1;
+                for (int i = n - 1; i >= 0; i--) {
+                    w = h[i][i] - p;
+                    r = 0;
+                    for (int j = l; j <= n; j++) {
+                        r += h[i][j] * h[j][n];
+                    }
+                    if (e[i] < 0) {
+                        z = w;
+                        s = r;
+                    } else {
+                        l = i;
+                        if (e[i] == 0) {
+                            h[i][n] = w != 0 ? -r / w : -r / (ULP * norm);
+                        } else {
+                            // solve real equations
+                            x = h[i][i + 1];
+                            y = h[i + 1][i];
+                            q = (d[i] - p) * (d[i] - p) + e[i] * e[i];
+                            t = (x * s - z * r) / q;
+                            h[i][n] = t;
+                            h[i + 1][n] = Math.abs(x) > Math.abs(z) ? (-r - w * t) / x : (-s - y * t) / z;
+                        }
+                        // overflow control
+                        t = Math.abs(h[i][n]);
+                        if ((ULP * t) * t > 1) {
+                            for (int j = i; j <= n; j++) {
+                                h[j][n] /= t;
+                            }
+                        }
+                    }
+                }
+            } else if (q < 0) {
+                // complex vector, the last component is imaginary so the matrix is triangular
+                int l = n - 1;
+                if (Math.abs(h[n][n - 1]) > Math.abs(h[n - 1][n])) {
+                    h[n - 1][n - 1] = q / h[n][n - 1];
+                    h[n - 1][n] = -(h[n][n] - p) / h[n][n - 1];
+                } else {
+                    double[] c = cdiv(0, -h[n - 1][n], h[n - 1][n - 1] - p, q);
+                    h[n - 1][n - 1] = c[0];
+                    h[n - 1][n] = c[1];
+                }
+                h[n][n - 1] = 0;
+                h[n][n] = 1;
+                for (int i = n - 2; i >= 0; i--) {
+                    double ra = 0;
+                    double sa = 0;
+                    for (int j = l; j <= n; j++) {
+                        ra += h[i][j] * h[j][n - 1];
+                        sa += h[i][j] * h[j][n];
+                    }
+                    w = h[i][i] - p;
+                    if (e[i] < 0) {
+                        z = w;
+                        r = ra;
+                        s = sa;
+                    } else {
+                        l = i;
+                        if (e[i] == 0) {
+                            double[] c = cdiv(-ra, -sa, w, q);
+                            h[i][n - 1] = c[0];
+                            h[i][n] = c[1];
+                        } else {
+                            // solve complex equations
+                            x = h[i][i + 1];
+                            y = h[i + 1][i];
+                            double vr = (d[i] - p) * (d[i] - p) + e[i] * e[i] - q * q;
+                            double vi = (d[i] - p) * 2 * q;
+                            if (vr == 0 && vi == 0) {
+                                vr = ULP * norm * (Math.abs(w) + Math.abs(q) + Math.abs(x) + Math.abs(y) + Math.abs(z));
+                            }
+                            double[] c = cdiv(x * r - z * ra + q * sa, x * s - z * sa - q * ra, vr, vi);
+                            h[i][n - 1] = c[0];
+                            h[i][n] = c[1];
+                            if (Math.abs(x) > (Math.abs(z) + Math.abs(q))) {
+                                h[i + 1][n - 1] = (-ra - w * h[i][n - 1] + q * h[i][n]) / x;
+                                h[i + 1][n] = (-sa - w * h[i][n] - q * h[i][n - 1]) / x;
+                            } else {
+                                c = cdiv(-r - y * h[i][n - 1], -s - y * h[i][n], z, q);
+                                h[i + 1][n - 1] = c[0];
+                                h[i + 1][n] = c[1];
+                            }
+                        }
+                        // overflow control
+                        t = Math.max(Math.abs(h[i][n - 1]), Math.abs(h[i][n]));
+                        if ((ULP * t) * t > 1) {
+                            for (int j = i; j <= n; j++) {
+                                h[j][n - 1] /= t;
+                                h[j][n] /= t;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        // back transformation to the eigenvectors of the original matrix
+        for (int j = nn - 1; j >= 0; j--) {
+            for (int i = 0; i < nn; i++) {
+                z = 0;
+                for (int k = 0; k <= j; k++) {
+                    z += v[i][k] * h[k][j];
+                }
+                v[i][j] = z;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Complex division {@code (xr + i * xi) / (yr + i * yi)}.
+     */
+    private static double[] cdiv(double xr, double xi, double yr, double yi) {
+        if (Math.abs(yr) > Math.abs(yi)) {
+            double r = yi / yr;
+            double d = yr + r * yi;
+            return new double[]{(xr + r * xi) / d, (xi - r * xr) / d};
+        } else {
+            double r = yr / yi;
+            double d = yi + r * yr;
+            return new double[]{(r * xr + xi) / d, (r * xi - xr) / d};
+        }
+    }
+
+    private static void normalizeEigenvectors(int n, double[] wi, double[] vr, int ldvr) {
+        for (int j = 0; j < n; j++) {
+            int col = j * ldvr;
+            if (wi[j] == 0) {
+                double norm = nrm2(n, vr, col);
+                if (norm != 0) {
+                    for (int i = 0; i < n; i++) {
+                        vr[col + i] /= norm;
+                    }
+                }
+            } else if (wi[j] > 0) {
+                int next = col + ldvr;
+                double norm = Math.hypot(nrm2(n, vr, col), nrm2(n, vr, next));
+                int k = 0;
+                double max = -1;
+                for (int i = 0; i < n; i++) {
+                    vr[col + i] /= norm;
+                    vr[next + i] /= norm;
+                    double abs = vr[col + i] * vr[col + i] + vr[next + i] * vr[next + i];
+                    if (abs > max) {
+                        max = abs;
+                        k = i;
+                    }
+                }
+                // rotate so that the component k becomes real
+                double modulus = Math.hypot(vr[col + k], vr[next + k]);
+                double cs = vr[col + k] / modulus;
+                double sn = vr[next + k] / modulus;
+                for (int i = 0; i < n; i++) {
+                    double re = vr[col + i];
+                    double im = vr[next + i];
+                    vr[col + i] = cs * re + sn * im;
+                    vr[next + i] = cs * im - sn * re;
+                }
+                vr[next + k] = 0;
+                j++;
+            }
+        }
+    }
+
+    // singular value decomposition
+
+    /**
+     * Singular value decomposition {@code A = U * diag(s) * VT} by the one-sided Jacobi method
+     * applied to the columns of {@code A} (or of {@code A^T} if {@code m < n}), which computes all
+     * singular values to high relative accuracy. {@code jobz} is 'N' (no vectors), 'S' (the first
+     * {@code min(m, n)} columns of {@code U} and rows of {@code VT}) or 'A' (all of them).
+     */
+    public static int dgesdd(char jobz, int m, int n, double[] a, int lda, double[] s, double[] u, int ldu, double[] vt, int ldvt, double[] work, int lwork,
+                    int[] iwork) {
+        boolean wntqa = is(jobz, 'A');
+        boolean wntqs = is(jobz, 'S');
+        boolean wntqn = is(jobz, 'N');
+        int mn = Math.min(m, n);
+        if (!wntqa && !wntqs && !wntqn && !is(jobz, 'O')) {
+            return -1;
+        } else if (m < 0) {
+            return -2;
+        } else if (n < 0) {
+            return -3;
+        } else if (lda < Math.max(1, m)) {
+            return -5;
+        } else if (ldu < 1 || (!wntqn && ldu < m)) {
+            return -8;
+        } else if (ldvt < 1 || (wntqa && ldvt < n) || (wntqs && ldvt < mn)) {
+            return -10;
+        }
+        if (is(jobz, 'O')) {
+            throw Managed_RFFIFactory.unsupported("dgesdd with jobz='O'");
+        }
+        if (lwork == -1) {
+            work[0] = 1;
+            return 0;
+        }
+        if (m == 0 || n == 0) {
+            return 0;
+        }
+        boolean transposed = m < n;
+        int rows = Math.max(m, n);
+        double[] x = new double[rows * mn];
+        for (int j = 0; j < n; j++) {
+            for (int i = 0; i < m; i++) {
+                if (transposed) {
+                    x[j + i * rows] = a[i + j * lda];
+                } else {
+                    x[i + j * rows] = a[i + j * lda];
+                }
+            }
+        }
+        double[] v = null;
+        if (!wntqn) {
+            v = new double[mn * mn];
+            for (int i = 0; i < mn; i++) {
+                v[i + i * mn] = 1;
+            }
+        }
+        int info = jacobiSweeps(rows, mn, x, v);
+        double[] sigma = new double[mn];
+        Integer[] order = new Integer[mn];
+        for (int j = 0; j < mn; j++) {
+            sigma[j] = nrm2(rows, x, j * rows);
+            order[j] = j;
+        }
+        Arrays.sort(order, (o1, o2) -> Double.compare(sigma[o2], sigma[o1]));
+        for (int j = 0; j < mn; j++) {
+            s[j] = sigma[order[j]];
+        }
+        if (wntqn) {
+            return info;
+        }
+        // the left singular vectors of x, completed to an orthonormal basis where needed
+        int cols = wntqa ? rows : mn;
+        double[] q = new double[rows * cols];
+        boolean[] valid = new boolean[cols];
+        for (int j = 0; j < mn; j++) {
+            double sj = s[j];
+            if (sj != 0 && sj > s[0] * ULP * rows) {
+                int src = order[j] * rows;
+                for (int i = 0; i < rows; i++) {
+                    q[i + j * rows] = x[src + i] / sj;
+                }
+                valid[j] = true;
+            }
+        }
+        completeBasis(q, rows, cols, valid);
+        if (!transposed) {
+            // U = q, VT = v^T
+            for (int j = 0; j < cols; j++) {
+                System.arraycopy(q, j * rows, u, j * ldu, m);
+            }
+            for (int i = 0; i < mn; i++) {
+                int src = order[i] * mn;
+                for (int j = 0; j < n; j++) {
+                    vt[i + j * ldvt] = v[src + j];
+                }
+            }
+        } else {
+            // A^T = q * diag(s) * v^T, so U = v and VT = q^T
+            for (int j = 0; j < mn; j++) {
+                System.arraycopy(v, order[j] * mn, u, j * ldu, m);
+            }
+            for (int i = 0; i < cols; i++) {
+                for (int j = 0; j < n; j++) {
+                    vt[i + j * ldvt] = q[j + i * rows];
+                }
+            }
+        }
+        return info;
+    }
+
+    /**
+     * Orthogonalizes the columns of {@code x} (rows x cols) by plane rotations, accumulating them
+     * into {@code v} (cols x cols) unless it is {@code null}. Returns the number of column pairs
+     * that were not orthogonal yet when the iteration limit was reached (normally 0).
+     */
+    private static int jacobiSweeps(int rows, int cols, double[] x, double[] v) {
+        int notConverged = 0;
+        for (int sweep = 0; sweep < MAX_SWEEPS; sweep++) {
+            notConverged = 0;
+            for (int p = 0; p < cols - 1; p++) {
+                int colP = p * rows;
+                for (int q = p + 1; q < cols; q++) {
+                    int colQ = q * rows;
+                    double alpha = dot(rows, x, colP, x, colP);
+                    double beta = dot(rows, x, colQ, x, colQ);
+                    double gamma = dot(rows, x, colP, x, colQ);
+                    if (gamma == 0 || Math.abs(gamma) <= ULP * Math.sqrt(alpha) * Math.sqrt(beta)) {
+                        continue;
+                    }
+                    notConverged++;
+                    double zeta = (beta - alpha) / (2 * gamma);
+                    double t = (zeta >= 0 ? 1 : -1) / (Math.abs(zeta) + Math.sqrt(1 + zeta * zeta));
+                    double c = 1 / Math.sqrt(1 + t * t);
+                    double sn = c * t;
+                    rotate(x, colP, colQ, rows, c, sn);
+                    if (v != null) {
+                        rotate(v, p * cols, q * cols, cols, c, sn);
+                    }
+                }
+            }
+            if (notConverged == 0) {
+                break;
+            }
+        }
+        return notConverged;
+    }
+
+    private static void rotate(double[] x, int colP, int colQ, int n, double c, double s) {
+        for (int i = 0; i < n; i++) {
+            double xp = x[colP + i];
+            double xq = x[colQ + i];
+            x[colP + i] = c * xp - s * xq;
+            x[colQ + i] = s * xp + c * xq;
+        }
+    }
+
+    /**
+     * Fills the columns of {@code q} (rows x cols, orthonormal where {@code valid}) that are not
+     * valid with unit vectors orthogonal to all other columns, chosen among the projections of the
+     * canonical basis vectors.
+     */
+    private static void completeBasis(double[] q, int rows, int cols, boolean[] valid) {
+        double[] candidate = new double[rows];
+        for (int c = 0; c < cols; c++) {
+            if (valid[c]) {
+                continue;
+            }
+            int col = c * rows;
+            double best = 0;
+            for (int e = 0; e < rows && best < 0.5; e++) {
+                Arrays.fill(candidate, 0);
+                candidate[e] = 1;
+                // orthogonalize twice for numerical stability
+                for (int pass = 0; pass < 2; pass++) {
+                    for (int j = 0; j < cols; j++) {
+                        if (valid[j]) {
+                            double d = dot(rows, q, j * rows, candidate, 0);
+                            for (int i = 0; i < rows; i++) {
+                                candidate[i] -= d * q[j * rows + i];
+                            }
+                        }
+                    }
+                }
+                double norm = nrm2(rows, candidate, 0);
+                if (norm > best) {
+                    best = norm;
+                    for (int i = 0; i < rows; i++) {
+                        q[col + i] = candidate[i] / norm;
+                    }
+                }
+            }
+            valid[c] = true;
+        }
+    }
+}
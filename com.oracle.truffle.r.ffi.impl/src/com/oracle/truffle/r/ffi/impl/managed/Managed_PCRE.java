@@ -0,0 +1,1015 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.ffi.impl.managed;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import com.oracle.truffle.r.runtime.ffi.NativeFunction;
+import com.oracle.truffle.r.runtime.ffi.PCRERFFI;
+import com.oracle.truffle.r.runtime.ffi.interop.NativeCharArray;
+import com.oracle.truffle.r.runtime.ffi.interop.pcre.CaptureNamesResult;
+import com.oracle.truffle.r.runtime.ffi.interop.pcre.CompileResult;
+
+/**
+ * Implements the PCRE functions used by {@link PCRERFFI} on top of {@link java.util.regex}. PCRE
+ * patterns are translated to the Java syntax where the two differ (named groups and references,
+ * POSIX classes, literal braces and brackets, Unicode scripts, numeric escapes, comments), the
+ * features without a Java counterpart (recursion, conditionals, branch reset, {@code \K},
+ * backtracking verbs) are reported as compilation errors.
+ *
+ * The subject is matched as UTF-8 text, like GNU R does in a UTF-8 locale, with {@code \n} as the
+ * only newline (the PCRE default); input that is not valid UTF-8 is matched byte by byte. All
+ * offsets in the interface are byte offsets, as in PCRE.
+ *
+ * Compiled patterns are shared: compiling the same pattern with the same options again returns
+ * the same handle. Each compilation holds a reference to the pattern until the caller releases it
+ * with {@code free}; only released patterns are evicted, the registry keeps up to
+ * {@link #MAX_PATTERNS} of them in LRU order so that a pattern used repeatedly is compiled once.
+ * Patterns that are still held are never evicted, whichever context or thread compiled them. The
+ * decoded subject and its offset mapping are kept per thread, since the callers usually search the
+ * same subject repeatedly with increasing offsets.
+ */
+public final class Managed_PCRE {
+
+    // option bits from pcre.h
+    private static final int CASELESS = PCRERFFI.CASELESS;
+    private static final int MULTILINE = 0x00000002;
+    private static final int DOTALL = 0x00000004;
+    private static final int EXTENDED = 0x00000008;
+    private static final int ANCHORED = 0x00000010;
+    private static final int UCP = 0x20000000;
+
+    private static final int ERROR_NOMATCH = -1;
+    private static final int ERROR_BADOFFSET = -24;
+
+    private static final class Compiled {
+        private final Pattern pattern;
+        private final int options;
+        /**
+         * The name of each capture group, {@code null} for unnamed groups.
+         */
+        private final String[] names;
+        /**
+         * The number of compilations that have not been released yet, guarded by the lock of
+         * {@link Managed_PCRE#handles}.
+         */
+        private int references;
+
+        private Compiled(Pattern pattern, int options, String[] names) {
+            this.pattern = pattern;
+            this.options = options;
+            this.names = names;
+        }
+    }
+
+    /**
+     * A decoded subject with the mapping between char and byte offsets, {@code charToByte} is
+     * {@code null} if they are the same.
+     */
+    private static final class Subject {
+        private final byte[] bytes;
+        private final String text;
+        private final int[] charToByte;
+        private Compiled compiled;
+        private Matcher matcher;
+
+        private Subject(byte[] bytes, String text, int[] charToByte) {
+            this.bytes = bytes;
+            this.text = text;
+            this.charToByte = charToByte;
+        }
+
+        private int toByte(int charOffset) {
+            return charToByte == null ? charOffset : charToByte[charOffset];
+        }
+
+        private int toChar(int byteOffset) {
+            if (charToByte == null) {
+                return byteOffset;
+            }
+            int index = Arrays.binarySearch(charToByte, byteOffset);
+            if (index < 0) {
+                // not at a character boundary, start with the next character
+                return -index - 1;
+            }
+            while (index > 0 && charToByte[index - 1] == byteOffset) {
+                index--;
+            }
+            return index;
+        }
+
+        private Matcher matcher(Compiled c) {
+            if (compiled != c) {
+                compiled = c;
+                matcher = c.pattern.matcher(text);
+            }
+            return matcher;
+        }
+    }
+
+    private static final int MAX_PATTERNS = 1024;
+
+    private static final ConcurrentHashMap<Long, Compiled> patterns = new ConcurrentHashMap<>();
+
+    /**
+     * The handles by options and pattern text, in LRU order. Guarded by its own lock, evicting an
+     * entry also removes the compiled pattern.
+     */
+    private static final LinkedHashMap<String, Long> handles = new LinkedHashMap<>(16, 0.75f, true);
+    private static final AtomicLong nextHandle = new AtomicLong(1);
+    private static final ThreadLocal<Subject> lastSubject = new ThreadLocal<>();
+
+    private Managed_PCRE() {
+        // no instances
+    }
+
+    static boolean isImplemented(NativeFunction function) {
+        switch (function) {
+            case maketables:
+            case compile:
+            case getcapturecount:
+            case getcapturenames:
+            case exec:
+            case free:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Invokes {@code function} with the arguments that the corresponding {@link PCRERFFI} node
+     * passes to the native function.
+     */
+    static Object call(NativeFunction function, Object[] args) {
+        switch (function) {
+            case maketables:
+                // the character tables are built into java.util.regex
+                return 0L;
+            case compile:
+                compile((CompileResult) args[0], (String) args[1], (int) args[2]);
+                return 0;
+            case getcapturecount:
+                return getCaptureCount(((Number) args[0]).longValue());
+            case getcapturenames:
+                return getCaptureNames((CaptureNamesResult) args[0], ((Number) args[1]).longValue());
+            case exec:
+                NativeCharArray subject = (NativeCharArray) args[2];
+                return exec(((Number) args[0]).longValue(), subject.getValue(), (int) args[3], (int) args[4], (int) args[5], (int[]) args[6], (int) args[7]);
+            case free:
+                free(((Number) args[0]).longValue());
+                return 0;
+            default:
+                throw Managed_RFFIFactory.unsupported(function.getCallName());
+        }
+    }
+
+    /**
+     * Compiles {@code pattern} and stores the handle of the compiled pattern, or {@code 0} and an
+     * error message, into {@code result}. A valid handle stays valid until it is passed to
+     * {@link #free(long)}.
+     */
+    public static void compile(CompileResult result, String pattern, int options) {
+        String key = options + ":" + pattern;
+        Long handle;
+        synchronized (handles) {
+            handle = acquire(key);
+        }
+        if (handle == null) {
+            Compiled compiled;
+            try {
+                compiled = new Translator(pattern, options).translate();
+            } catch (PatternSyntaxException e) {
+                result.set(0, e.getDescription(), Math.max(0, Math.min(e.getIndex(), pattern.length())));
+                return;
+            }
+            synchronized (handles) {
+                // may have been compiled concurrently by another thread
+                handle = acquire(key);
+                if (handle == null) {
+                    handle = nextHandle.getAndIncrement();
+                    compiled.references = 1;
+                    patterns.put(handle, compiled);
+                    handles.put(key, handle);
+                    evict();
+                }
+            }
+        }
+        result.set(handle, null, 0);
+    }
+
+    private static Long acquire(String key) {
+        Long handle = handles.get(key);
+        if (handle != null) {
+            patterns.get(handle).references++;
+        }
+        return handle;
+    }
+
+    /**
+     * Releases a handle returned by {@link #compile}, the pattern may be evicted once all its
+     * handles are released. Unknown handles, including {@code 0}, are ignored.
+     */
+    public static void free(long code) {
+        synchronized (handles) {
+            Compiled compiled = patterns.get(code);
+            if (compiled != null && compiled.references > 0) {
+                compiled.references--;
+                evict();
+            }
+        }
+    }
+
+    /**
+     * Removes the least recently used released patterns while there are more than
+     * {@link #MAX_PATTERNS}, the patterns that are still held are skipped.
+     */
+    private static void evict() {
+        assert Thread.holdsLock(handles);
+        Iterator<Long> iterator = handles.values().iterator();
+        while (handles.size() > MAX_PATTERNS && iterator.hasNext()) {
+            Long handle = iterator.next();
+            if (patterns.get(handle).references == 0) {
+                patterns.remove(handle);
+                iterator.remove();
+            }
+        }
+    }
+
+    private static Compiled get(long code) {
+        Compiled compiled = patterns.get(code);
+        if (compiled == null) {
+            throw new IllegalArgumentException("invalid PCRE handle " + code);
+        }
+        return compiled;
+    }
+
+    public static int getCaptureCount(long code) {
+        return get(code).names.length;
+    }
+
+    public static int getCaptureNames(CaptureNamesResult result, long code) {
+        String[] names = get(code).names;
+        for (int i = 0; i < names.length; i++) {
+            if (names[i] != null) {
+                result.addName(i, names[i]);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Searches the first {@code length} bytes of {@code subjectBytes} for a match starting at byte
+     * offset {@code offset} or later. The start and end byte offsets of the match and of all
+     * capture groups ({@code -1} if a group did not participate) are stored in {@code ovector},
+     * the result is the number of groups including the whole match, {@code 0} if they do not fit
+     * into {@code ovector}, or {@link #ERROR_NOMATCH}.
+     *
+     * Unlike PCRE, which reports only up to the last group that participated in the match, the
+     * result always covers all groups, as expected by the callers.
+     */
+    public static int exec(long code, byte[] subjectBytes, int length, int offset, int options, int[] ovector, int ovecSize) {
+        Compiled compiled = get(code);
+        Subject subject = subject(subjectBytes, length);
+        if (offset < 0 || offset > length) {
+            return ERROR_BADOFFSET;
+        }
+        Matcher m = subject.matcher(compiled);
+        int start = subject.toChar(offset);
+        boolean found;
+        if (((options | compiled.options) & ANCHORED) != 0) {
+            m.region(start, subject.text.length());
+            m.useTransparentBounds(true);
+            m.useAnchoringBounds(false);
+            found = m.lookingAt();
+        } else {
+            found = m.find(start);
+        }
+        if (!found) {
+            return ERROR_NOMATCH;
+        }
+        int groups = compiled.names.length + 1;
+        int pairs = Math.min(groups, ovecSize / 3);
+        for (int i = 0; i < pairs; i++) {
+            int groupStart = m.start(i);
+            if (groupStart < 0) {
+                ovector[2 * i] = -1;
+                ovector[2 * i + 1] = -1;
+            } else {
+                ovector[2 * i] = subject.toByte(groupStart);
+                ovector[2 * i + 1] = subject.toByte(m.end(i));
+            }
+        }
+        return pairs < groups ? 0 : groups;
+    }
+
+    private static Subject subject(byte[] bytes, int length) {
+        Subject last = lastSubject.get();
+        if (last != null && last.bytes.length == length && equalsPrefix(last.bytes, bytes, length)) {
+            return last;
+        }
+        byte[] copy = Arrays.copyOf(bytes, length);
+        Subject subject = decode(copy);
+        lastSubject.set(subject);
+        return subject;
+    }
+
+    private static boolean equalsPrefix(byte[] a, byte[] b, int length) {
+        if (b.length == length) {
+            return Arrays.equals(a, b);
+        }
+        for (int i = 0; i < length; i++) {
+            if (a[i] != b[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Subject decode(byte[] bytes) {
+        boolean ascii = true;
+        for (byte b : bytes) {
+            if (b < 0) {
+                ascii = false;
+                break;
+            }
+        }
+        if (!ascii) {
+            CharBuffer chars;
+            try {
+                chars = StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPORT).onUnmappableCharacter(CodingErrorAction.REPORT).decode(ByteBuffer.wrap(bytes));
+            } catch (CharacterCodingException e) {
+                return new Subject(bytes, new String(bytes, StandardCharsets.ISO_8859_1), null);
+            }
+            String text = chars.toString();
+            int[] charToByte = new int[text.length() + 1];
+            int byteOffset = 0;
+            for (int i = 0; i < text.length(); i++) {
+                charToByte[i] = byteOffset;
+                char c = text.charAt(i);
+                if (c < 0x80) {
+                    byteOffset += 1;
+                } else if (c < 0x800) {
+                    byteOffset += 2;
+                } else if (Character.isHighSurrogate(c)) {
+                    // the low surrogate is never the boundary of a match
+                    charToByte[++i] = byteOffset;
+                    byteOffset += 4;
+                } else {
+                    byteOffset += 3;
+                }
+            }
+            charToByte[text.length()] = byteOffset;
+            return new Subject(bytes, text, charToByte);
+        }
+        return new Subject(bytes, new String(bytes, StandardCharsets.ISO_8859_1), null);
+    }
+
+    /**
+     * Translates a PCRE pattern into a {@link Pattern}, see the class comment for the supported
+     * subset.
+     */
+    private static final class Translator {
+        private final String pattern;
+        private final int options;
+        private final StringBuilder out = new StringBuilder();
+        private final List<String> names = new ArrayList<>();
+        private int flags = Pattern.UNIX_LINES | Pattern.UNICODE_CASE;
+        private boolean extended;
+        private int pos;
+
+        private Translator(String pattern, int options) {
+            this.pattern = pattern;
+            this.options = options;
+            this.extended = (options & EXTENDED) != 0;
+        }
+
+        private PatternSyntaxException error(String message) {
+            return new PatternSyntaxException(message, pattern, pos);
+        }
+
+        private boolean lookingAt(String s) {
+            return pattern.startsWith(s, pos);
+        }
+
+        private Compiled translate() {
+            if ((options & CASELESS) != 0) {
+                flags |= Pattern.CASE_INSENSITIVE;
+            }
+            if ((options & MULTILINE) != 0) {
+                flags |= Pattern.MULTILINE;
+            }
+            if ((options & DOTALL) != 0) {
+                flags |= Pattern.DOTALL;
+            }
+            if (extended) {
+                flags |= Pattern.COMMENTS;
+            }
+            if ((options & UCP) != 0) {
+                flags |= Pattern.UNICODE_CHARACTER_CLASS;
+            }
+            startVerbs();
+            while (pos < pattern.length()) {
+                char c = pattern.charAt(pos);
+                switch (c) {
+                    case '\\':
+                        escape(false);
+                        break;
+                    case '[':
+                        characterClass();
+                        break;
+                    case '(':
+                        group();
+                        break;
+                    case '{':
+                        int end = quantifierEnd(pos);
+                        if (end < 0) {
+                            out.append("\\{");
+                            pos++;
+                        } else {
+                            out.append(pattern, pos, end);
+                            pos = end;
+                        }
+                        break;
+                    case '#':
+                        if (extended) {
+                            while (pos < pattern.length() && pattern.charAt(pos) != '\n') {
+                                pos++;
+                            }
+                        } else {
+                            out.append(c);
+                            pos++;
+                        }
+                        break;
+                    default:
+                        out.append(c);
+                        pos++;
+                }
+            }
+            Pattern compiled = Pattern.compile(out.toString(), flags);
+            return new Compiled(compiled, options, names.toArray(new String[names.size()]));
+        }
+
+        /**
+         * Handles the option settings like {@code (*UTF8)} that may start a pattern.
+         */
+        private void startVerbs() {
+            while (lookingAt("(*")) {
+                int end = pattern.indexOf(')', pos);
+                String verb = end < 0 ? "" : pattern.substring(pos + 2, end);
+                switch (verb) {
+                    case "UTF8":
+                    case "UTF":
+                        break;
+                    case "UCP":
+                        flags |= Pattern.UNICODE_CHARACTER_CLASS;
+                        break;
+                    case "LF":
+                    case "ANYCRLF":
+                        break;
+                    default:
+                        return;
+                }
+                pos = end + 1;
+            }
+        }
+
+        /**
+         * Returns the index after a {@code {n}}, {@code {n,}} or {@code {n,m}} quantifier starting
+         * at {@code start}, or {@code -1} if the brace is a literal.
+         */
+        private int quantifierEnd(int start) {
+            int i = start + 1;
+            int digits = 0;
+            while (i < pattern.length() && isDigit(pattern.charAt(i))) {
+                i++;
+                digits++;
+            }
+            if (digits == 0) {
+                return -1;
+            }
+            if (i < pattern.length() && pattern.charAt(i) == ',') {
+                i++;
+                while (i < pattern.length() && isDigit(pattern.charAt(i))) {
+                    i++;
+                }
+            }
+            return i < pattern.length() && pattern.charAt(i) == '}' ? i + 1 : -1;
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+
+        private static boolean isNameChar(char c) {
+            return c == '_' || c >= '0' && c <= '9' || c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z';
+        }
+
+        /**
+         * Reads a group name terminated by {@code terminator}.
+         */
+        private String name(char terminator) {
+            int start = pos;
+            while (pos < pattern.length() && isNameChar(pattern.charAt(pos))) {
+                pos++;
+            }
+            if (pos == start || pos >= pattern.length() || pattern.charAt(pos) != terminator) {
+                throw error("syntax error in subpattern name (missing terminator)");
+            }
+            return pattern.substring(start, pos++);
+        }
+
+        private void backReference(int group) {
+            if (group <= 0) {
+                throw error("reference to non-existent subpattern");
+            }
+            // the group prevents following digits from being read as part of the number
+            out.append("(?:\\").append(group).append(')');
+        }
+
+        private void namedReference(String name) {
+            int index = names.indexOf(name);
+            if (index < 0) {
+                throw error("reference to non-existent subpattern");
+            }
+            backReference(index + 1);
+        }
+
+        private void group() {
+            if (!lookingAt("(?") && !lookingAt("(*")) {
+                names.add(null);
+                out.append('(');
+                pos++;
+                return;
+            }
+            if (lookingAt("(*")) {
+                int end = pattern.indexOf(')', pos);
+                String verb = end < 0 ? "" : pattern.substring(pos + 2, end);
+                if (verb.equals("FAIL") || verb.equals("F")) {
+                    out.append("(?!)");
+                    pos = end + 1;
+                    return;
+                }
+                throw error("backtracking control verbs are not supported");
+            }
+            if (lookingAt("(?#")) {
+                int end = pattern.indexOf(')', pos);
+                if (end < 0) {
+                    throw error("missing ) after comment");
+                }
+                pos = end + 1;
+            } else if (lookingAt("(?P<") || lookingAt("(?<") && !lookingAt("(?<=") && !lookingAt("(?<!") || lookingAt("(?'")) {
+                pos += lookingAt("(?P<") ? 4 : 3;
+                String name = name(pattern.charAt(pos - 1) == '\'' ? '\'' : '>');
+                if (names.contains(name)) {
+                    throw error("two named subpatterns have the same name");
+                }
+                names.add(name);
+                out.append('(');
+            } else if (lookingAt("(?P=")) {
+                pos += 4;
+                namedReference(name(')'));
+            } else if (lookingAt("(?:") || lookingAt("(?=") || lookingAt("(?!") || lookingAt("(?<=") || lookingAt("(?<!") || lookingAt("(?>")) {
+                int length = pattern.charAt(pos + 2) == '<' ? 4 : 3;
+                out.append(pattern, pos, pos + length);
+                pos += length;
+            } else if (lookingAt("(?|")) {
+                throw error("branch reset groups are not supported");
+            } else if (lookingAt("(?(")) {
+                throw error("conditional groups are not supported");
+            } else {
+                // option setting (?imsx-imsx) or (?imsx-imsx:
+                int i = pos + 2;
+                StringBuilder javaFlags = new StringBuilder();
+                boolean on = true;
+                while (i < pattern.length() && pattern.charAt(i) != ')' && pattern.charAt(i) != ':') {
+                    char f = pattern.charAt(i);
+                    switch (f) {
+                        case 'i':
+                        case 'm':
+                        case 's':
+                            javaFlags.append(f);
+                            break;
+                        case 'x':
+                            javaFlags.append(f);
+                            extended = on;
+                            break;
+                        case '-':
+                            javaFlags.append(f);
+                            on = false;
+                            break;
+                        case 'J':
+                        case 'X':
+                            break;
+                        default:
+                            pos = i;
+                            if (isDigit(f) || f == '+' || f == 'R' || f == '&' || f == 'P') {
+                                throw error("recursive patterns are not supported");
+                            }
+                            throw error("unrecognized character after (? or (?-");
+                    }
+                    i++;
+                }
+                if (i >= pattern.length()) {
+                    throw error("missing )");
+                }
+                out.append("(?").append(javaFlags).append(pattern.charAt(i));
+                pos = i + 1;
+            }
+        }
+
+        private void characterClass() {
+            out.append('[');
+            pos++;
+            if (lookingAt("^")) {
+                out.append('^');
+                pos++;
+            }
+            if (lookingAt("]")) {
+                out.append("\\]");
+                pos++;
+            }
+            while (pos < pattern.length()) {
+                char c = pattern.charAt(pos);
+                if (c == ']') {
+                    out.append(']');
+                    pos++;
+                    return;
+                } else if (c == '\\') {
+                    escape(true);
+                } else if (c == '[' && (lookingAt("[:") || lookingAt("[=") || lookingAt("[."))) {
+                    posixClass();
+                } else {
+                    appendClassChar(c);
+                    pos++;
+                }
+            }
+            throw error("missing terminating ] for character class");
+        }
+
+        /**
+         * Appends a literal character inside a character class, quoting the characters that are
+         * special in Java but not in PCRE.
+         */
+        private void appendClassChar(char c) {
+            if (c == '[' || c == '&' || c == ' ' || c == '#') {
+                out.append('\\');
+            }
+            out.append(c);
+        }
+
+        private void posixClass() {
+            char kind = pattern.charAt(pos + 1);
+            int end = pattern.indexOf(new String(new char[]{kind, ']'}), pos + 2);
+            if (end < 0) {
+                appendClassChar('[');
+                pos++;
+                return;
+            }
+            if (kind != ':') {
+                throw error("POSIX collating elements are not supported");
+            }
+            String name = pattern.substring(pos + 2, end);
+            boolean negated = name.startsWith("^");
+            if (negated) {
+                name = name.substring(1);
+            }
+            String property;
+            switch (name) {
+                case "alpha":
+                    property = "Alpha";
+                    break;
+                case "digit":
+                    property = "Digit";
+                    break;
+                case "alnum":
+                    property = "Alnum";
+                    break;
+                case "upper":
+                    property = "Upper";
+                    break;
+                case "lower":
+                    property = "Lower";
+                    break;
+                case "space":
+                    property = "Space";
+                    break;
+                case "blank":
+                    property = "Blank";
+                    break;
+                case "cntrl":
+                    property = "Cntrl";
+                    break;
+                case "graph":
+                    property = "Graph";
+                    break;
+                case "print":
+                    property = "Print";
+                    break;
+                case "punct":
+                    property = "Punct";
+                    break;
+                case "xdigit":
+                    property = "XDigit";
+                    break;
+                case "ascii":
+                    property = "ASCII";
+                    break;
+                case "word":
+                    out.append(negated ? "\\W" : "\\w");
+                    pos = end + 2;
+                    return;
+                default:
+                    throw error("unknown POSIX class name");
+            }
+            out.append(negated ? "\\P{" : "\\p{").append(property).append('}');
+            pos = end + 2;
+        }
+
+        private void appendCodePoint(int codePoint) {
+            if (codePoint > Character.MAX_CODE_POINT) {
+                throw error("character value in \\x{} or \\o{} is too large");
+            }
+            out.append("\\x{").append(Integer.toHexString(codePoint)).append('}');
+        }
+
+        private int hexValue(int start, int end, int radix) {
+            try {
+                return Integer.parseInt(pattern.substring(start, end), radix);
+            } catch (NumberFormatException e) {
+                throw error("invalid character code");
+            }
+        }
+
+        /**
+         * Translates the escape sequence at {@code pos}.
+         */
+        private void escape(boolean inClass) {
+            pos++;
+            if (pos >= pattern.length()) {
+                throw error("\\ at end of pattern");
+            }
+            char c = pattern.charAt(pos++);
+            switch (c) {
+                case 'Q': {
+                    int end = pattern.indexOf("\\E", pos);
+                    String literal = pattern.substring(pos, end < 0 ? pattern.length() : end);
+                    pos = end < 0 ? pattern.length() : end + 2;
+                    if (inClass) {
+                        for (int i = 0; i < literal.length(); i++) {
+                            char l = literal.charAt(i);
+                            if (l == '\\' || l == ']' || l == '^' || l == '-') {
+                                out.append('\\');
+                            }
+                            appendClassChar(l);
+                        }
+                    } else if (!literal.isEmpty()) {
+                        out.append(Pattern.quote(literal));
+                    }
+                    return;
+                }
+                case 'E':
+                    return;
+                case 'x': {
+                    int start = pos;
+                    if (lookingAt("{")) {
+                        int end = pattern.indexOf('}', pos);
+                        if (end < 0) {
+                            throw error("missing } after \\x{");
+                        }
+                        appendCodePoint(hexValue(pos + 1, end, 16));
+                        pos = end + 1;
+                        return;
+                    }
+                    while (pos < pattern.length() && pos - start < 2 && Character.digit(pattern.charAt(pos), 16) >= 0) {
+                        pos++;
+                    }
+                    appendCodePoint(start == pos ? 0 : hexValue(start, pos, 16));
+                    return;
+                }
+                case 'o': {
+                    int end = pattern.indexOf('}', pos);
+                    if (!lookingAt("{") || end < 0) {
+                        throw error("missing { after \\o");
+                    }
+                    appendCodePoint(hexValue(pos + 1, end, 8));
+                    pos = end + 1;
+                    return;
+                }
+                case 'p':
+                case 'P':
+                    property(c == 'P', inClass);
+                    return;
+                case 'b':
+                    out.append(inClass ? "\\x{8}" : "\\b");
+                    return;
+                case 'N':
+                    if (inClass || lookingAt("{")) {
+                        throw error("\\N is not supported in a class");
+                    }
+                    out.append("[^\\n]");
+                    return;
+                case 'K':
+                    throw error("\\K is not supported");
+                case 'C':
+                    throw error("\\C is not supported");
+                case 'X':
+                    out.append("(?>\\P{M}\\p{M}*)");
+                    return;
+                case 'k':
+                    if (pos < pattern.length() && (lookingAt("<") || lookingAt("'") || lookingAt("{"))) {
+                        char open = pattern.charAt(pos++);
+                        namedReference(name(open == '<' ? '>' : open == '{' ? '}' : '\''));
+                        return;
+                    }
+                    throw error("\\k is not followed by a braced, angle-bracketed, or quoted name");
+                case 'g': {
+                    boolean braced = lookingAt("{");
+                    if (braced) {
+                        pos++;
+                    }
+                    boolean relative = lookingAt("-");
+                    boolean plus = lookingAt("+");
+                    if (relative || plus) {
+                        pos++;
+                    }
+                    int start = pos;
+                    while (pos < pattern.length() && isDigit(pattern.charAt(pos))) {
+                        pos++;
+                    }
+                    if (start == pos) {
+                        if (braced && !relative && !plus) {
+                            namedReference(name('}'));
+                            return;
+                        }
+                        throw error("a numbered reference must not be zero");
+                    }
+                    int n = hexValue(start, pos, 10);
+                    if (braced) {
+                        if (!lookingAt("}")) {
+                            throw error("\\g is not followed by a braced, angle-bracketed, or quoted name/number or by a plain number");
+                        }
+                        pos++;
+                    }
+                    if (plus) {
+                        throw error("forward relative references are not supported");
+                    }
+                    backReference(relative ? names.size() + 1 - n : n);
+                    return;
+                }
+                case '0': {
+                    int start = pos;
+                    while (pos < pattern.length() && pos - start < 2 && pattern.charAt(pos) >= '0' && pattern.charAt(pos) <= '7') {
+                        pos++;
+                    }
+                    appendCodePoint(start == pos ? 0 : hexValue(start, pos, 8));
+                    return;
+                }
+                case 'a':
+                case 'e':
+                case 'f':
+                case 'n':
+                case 'r':
+                case 't':
+                case 'd':
+                case 'D':
+                case 's':
+                case 'S':
+                case 'w':
+                case 'W':
+                case 'h':
+                case 'H':
+                case 'v':
+                case 'V':
+                case 'c':
+                    out.append('\\').append(c);
+                    if (c == 'c' && pos < pattern.length()) {
+                        out.append(pattern.charAt(pos++));
+                    }
+                    return;
+                case 'A':
+                case 'z':
+                case 'Z':
+                case 'G':
+                case 'B':
+                case 'R':
+                    if (inClass) {
+                        // not special in a class
+                        out.append(c);
+                    } else {
+                        out.append('\\').append(c);
+                    }
+                    return;
+                default:
+                    if (c >= '1' && c <= '9') {
+                        numericEscape(c, inClass);
+                    } else if (c < 0x80 && Character.isLetter(c)) {
+                        // unknown letter escapes are literals in PCRE
+                        out.append(c);
+                    } else if (inClass && c != '\\' && c != ']' && c != '^' && c != '-' && c != '[' && c != '&') {
+                        appendClassChar(c);
+                    } else {
+                        out.append('\\').append(c);
+                    }
+            }
+        }
+
+        /**
+         * A back reference or, if there are not that many groups, an octal character code.
+         */
+        private void numericEscape(char first, boolean inClass) {
+            int start = pos - 1;
+            while (pos < pattern.length() && isDigit(pattern.charAt(pos))) {
+                pos++;
+            }
+            int n = hexValue(start, pos, 10);
+            if (!inClass && (n < 10 || n <= names.size())) {
+                backReference(n);
+                return;
+            }
+            if (first >= '8') {
+                throw error("invalid escape sequence");
+            }
+            pos = start;
+            while (pos < pattern.length() && pos - start < 3 && pattern.charAt(pos) >= '0' && pattern.charAt(pos) <= '7') {
+                pos++;
+            }
+            appendCodePoint(hexValue(start, pos, 8));
+        }
+
+        private void property(boolean negated, boolean inClass) {
+            String name;
+            if (lookingAt("{")) {
+                int end = pattern.indexOf('}', pos);
+                if (end < 0) {
+                    throw error("malformed \\P or \\p sequence");
+                }
+                name = pattern.substring(pos + 1, end);
+                pos = end + 1;
+            } else if (pos < pattern.length()) {
+                name = pattern.substring(pos, pos + 1);
+                pos++;
+            } else {
+                throw error("malformed \\P or \\p sequence");
+            }
+            if (name.startsWith("^")) {
+                negated = !negated;
+                name = name.substring(1);
+            }
+            if (name.equals("Any")) {
+                if (inClass) {
+                    if (negated) {
+                        throw error("\\P{Any} is not supported in a class");
+                    }
+                    out.append("\\x{0}-\\x{10ffff}");
+                } else {
+                    out.append(negated ? "(?!)" : "(?s:.)");
+                }
+                return;
+            }
+            String javaName;
+            if (name.equals("L&")) {
+                javaName = "LC";
+            } else if (name.length() <= 2 && "CLMNPSZ".indexOf(name.charAt(0)) >= 0) {
+                javaName = name;
+            } else {
+                javaName = "Is" + name;
+            }
+            out.append(negated ? "\\P{" : "\\p{").append(javaName).append('}');
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.ffi.impl.managed;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.oracle.truffle.r.runtime.ffi.NativeFunction;
+import com.oracle.truffle.r.runtime.ffi.ZipRFFI;
+import com.oracle.truffle.r.runtime.ffi.interop.NativeRawArray;
+
+/**
+ * Implements the zlib {@code compress} and {@code uncompress} functions used by {@link ZipRFFI}
+ * with {@link Deflater} and {@link Inflater}, which produce and consume the same zlib format. The
+ * return codes are those of zlib.
+ */
+public final class Managed_Zip {
+
+    public static final int Z_OK = 0;
+    public static final int Z_DATA_ERROR = -3;
+    public static final int Z_BUF_ERROR = -5;
+
+    private Managed_Zip() {
+        // no instances
+    }
+
+    static boolean isImplemented(NativeFunction function) {
+        return function == NativeFunction.compress || function == NativeFunction.uncompress;
+    }
+
+    static Object call(NativeFunction function, Object[] args) {
+        byte[] dest = ((NativeRawArray) args[0]).getValue();
+        int destLen = ((Number) args[1]).intValue();
+        byte[] source = ((NativeRawArray) args[2]).getValue();
+        int sourceLen = ((Number) args[3]).intValue();
+        if (function == NativeFunction.compress) {
+            return compress(dest, destLen, source, sourceLen);
+        } else {
+            assert function == NativeFunction.uncompress;
+            return uncompress(dest, destLen, source, sourceLen);
+        }
+    }
+
+    /**
+     * Compresses the first {@code sourceLen} bytes of {@code source} into {@code dest}, fails with
+     * {@link #Z_BUF_ERROR} if the result does not fit into {@code destLen} bytes.
+     */
+    public static int compress(byte[] dest, int destLen, byte[] source, int sourceLen) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(source, 0, sourceLen);
+            deflater.finish();
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == destLen) {
+                    return Z_BUF_ERROR;
+                }
+                length += deflater.deflate(dest, length, destLen - length);
+            }
+            return Z_OK;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Uncompresses the first {@code sourceLen} bytes of {@code source} into {@code dest}, fails
+     * with {@link #Z_BUF_ERROR} if the result does not fit into {@code destLen} bytes and with
+     * {@link #Z_DATA_ERROR} if the input is corrupt or incomplete.
+     */
+    public static int uncompress(byte[] dest, int destLen, byte[] source, int sourceLen) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(source, 0, sourceLen);
+            int length = 0;
+            while (!inflater.finished()) {
+                if (length == destLen) {
+                    // the output may be complete with only the checksum left to read
+                    if (inflater.inflate(new byte[1]) > 0) {
+                        return Z_BUF_ERROR;
+                    }
+                    return inflater.finished() ? Z_OK : Z_DATA_ERROR;
+                }
+                int n = inflater.inflate(dest, length, destLen - length);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    return Z_DATA_ERROR;
+                }
+                length += n;
+            }
+            return Z_OK;
+        } catch (DataFormatException e) {
+            return Z_DATA_ERROR;
+        } finally {
+            inflater.end();
+        }
+    }
+}
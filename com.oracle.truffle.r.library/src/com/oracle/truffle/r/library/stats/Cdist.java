@@ -17,6 +17,7 @@ import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.missingValue
 import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.nullValue;
 import static com.oracle.truffle.r.runtime.nmath.MathConstants.DBL_MIN;
 
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.object.DynamicObject;
@@ -25,6 +26,8 @@ import com.oracle.truffle.r.nodes.attributes.SetAttributeNode;
 import com.oracle.truffle.r.nodes.attributes.SpecialAttributesFunctions.GetDimAttributeNode;
 import com.oracle.truffle.r.nodes.attributes.SpecialAttributesFunctions.SetClassAttributeNode;
 import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
+import com.oracle.truffle.r.runtime.ParallelLoop;
+import com.oracle.truffle.r.runtime.ParallelLoop.ChunkBody;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RError.Message;
 import com.oracle.truffle.r.runtime.RRuntime;
@@ -33,13 +36,19 @@ import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.RList;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
-import com.oracle.truffle.r.runtime.data.nodes.VectorAccess;
-import com.oracle.truffle.r.runtime.data.nodes.VectorAccess.RandomIterator;
-import com.oracle.truffle.r.runtime.ops.na.NACheck;
 
 public abstract class Cdist extends RExternalBuiltinNode.Arg4 {
 
-    private static final NACheck naCheck = NACheck.create();
+    /**
+     * Number of rows of the tiles of the distance matrix, the rows of two tiles should fit into
+     * the L2 cache.
+     */
+    private static final int TILE_ROWS = 64;
+
+    /**
+     * The number of warnings that R keeps.
+     */
+    private static final int MAX_WARNINGS = 50;
 
     @Child private GetFixedAttributeNode getNamesAttrNode = GetFixedAttributeNode.createNames();
 
@@ -51,10 +60,9 @@ public abstract class Cdist extends RExternalBuiltinNode.Arg4 {
         casts.arg(3).asDoubleVector().findFirst();
     }
 
-    @Specialization(guards = {"method == cachedMethod", "xAccess.supports(x)"})
+    @Specialization(guards = "method == cachedMethod")
     protected RDoubleVector cdist(RAbstractDoubleVector x, @SuppressWarnings("unused") int method, RList list, double p,
                     @Cached("method") @SuppressWarnings("unused") int cachedMethod,
-                    @Cached("x.access()") VectorAccess xAccess,
                     @Cached("getMethod(method)") Method methodObj,
                     @Cached("create()") SetAttributeNode setAttrNode,
                     @Cached("create()") SetClassAttributeNode setClassAttrNode,
@@ -65,13 +73,18 @@ public abstract class Cdist extends RExternalBuiltinNode.Arg4 {
         }
         int nr = getDimNode.nrows(x);
         int nc = getDimNode.ncols(x);
-        int n = nr * (nr - 1) / 2; /* avoid int overflow for N ~ 50,000 */
+        int n = (int) ((long) nr * (nr - 1) / 2); /* avoid int overflow for N ~ 50,000 */
         double[] ans = new double[n];
 
-        try (RandomIterator xIter = xAccess.randomAccess(x)) {
-            rdistance(xAccess, xIter, nr, nc, ans, false, methodObj, p);
+        rdistance(x.materialize().getReadonlyData(), nr, nc, ans, methodObj, p);
+        boolean complete = true;
+        for (int i = 0; i < n; i++) {
+            if (RRuntime.isNA(ans[i])) {
+                complete = false;
+                break;
+            }
         }
-        RDoubleVector result = RDataFactory.createDoubleVector(ans, naCheck.neverSeenNA());
+        RDoubleVector result = RDataFactory.createDoubleVector(ans, complete);
         DynamicObject resultAttrs = result.initAttributes();
 
         RStringVector names = (RStringVector) getNamesAttrNode.execute(list);
@@ -95,7 +108,7 @@ public abstract class Cdist extends RExternalBuiltinNode.Arg4 {
                     @Cached("create()") SetAttributeNode setAttrNode,
                     @Cached("create()") SetClassAttributeNode setClassAttrNode,
                     @Cached("create()") GetDimAttributeNode getDimNode) {
-        return cdist(x, method, list, p, method, x.slowPathAccess(), getMethod(method), setAttrNode, setClassAttrNode, getDimNode);
+        return cdist(x, method, list, p, method, getMethod(method), setAttrNode, setClassAttrNode, getDimNode);
     }
 
     private static boolean bothNonNAN(double a, double b) {
@@ -113,30 +126,97 @@ public abstract class Cdist extends RExternalBuiltinNode.Arg4 {
         return Method.values()[method - 1];
     }
 
-    private void rdistance(VectorAccess xAccess, RandomIterator xIter, int nr, int nc, double[] d, boolean diag, Method method, double p) {
-        int ij; /* can exceed 2^31 - 1, but Java can't handle that */
-        //
+    /**
+     * Computes the lower triangle of the distance matrix, column by column, into {@code d}. The
+     * rows of {@code x} are first copied into a row-major array, so that each distance reads two
+     * contiguous rows, and the triangle is then processed in tiles of {@link #TILE_ROWS} by
+     * {@link #TILE_ROWS} rows that stay in cache. Large inputs are spread over the
+     * {@link ParallelLoop} pool, with one task per pair of a short and a long block of columns.
+     */
+    @TruffleBoundary
+    private void rdistance(double[] x, int nr, int nc, double[] d, Method method, double p) {
         if (method == Method.MINKOWSKI) {
             if (!RRuntime.isFinite(p) || p <= 0) {
                 throw error(RError.Message.GENERIC, "distance(): invalid p");
             }
         }
-        int dc = diag ? 0 : 1; /* diag=1: we do the diagonal */
-        ij = 0;
-        naCheck.enable(true);
-        for (int j = 0; j <= nr; j++) {
-            for (int i = j + dc; i < nr; i++) {
-                double r = method.dist(xAccess, xIter, nr, nc, i, j, p);
-                naCheck.check(r);
-                d[ij++] = r;
+        if (method == Method.BINARY) {
+            warnNonFinite(x, nr, nc);
+        }
+        double[] rows = new double[nr * nc];
+        for (int j = 0; j < nc; j++) {
+            for (int i = 0; i < nr; i++) {
+                rows[i * nc + j] = x[j * nr + i];
+            }
+        }
+        int blocks = (nr + TILE_ROWS - 1) / TILE_ROWS;
+        ChunkBody body = (from, to) -> {
+            for (int k = from; k < to; k++) {
+                distanceBlock(rows, nr, nc, d, method, p, k);
+                if (blocks - 1 - k != k) {
+                    distanceBlock(rows, nr, nc, d, method, p, blocks - 1 - k);
+                }
             }
+        };
+        int pairs = (blocks + 1) / 2;
+        double work = (double) nr * nr * nc / 2;
+        if (pairs > 1 && ParallelLoop.isParallel((int) Math.min(Integer.MAX_VALUE, work))) {
+            ParallelLoop.execute(pairs, 1, body);
+        } else {
+            body.execute(0, pairs);
+        }
+    }
+
+    /**
+     * Computes the distances between the rows of block {@code block} and all following rows.
+     */
+    private static void distanceBlock(double[] rows, int nr, int nc, double[] d, Method method, double p, int block) {
+        int j0 = block * TILE_ROWS;
+        int j1 = Math.min(nr, j0 + TILE_ROWS);
+        for (int i0 = j0; i0 < nr; i0 += TILE_ROWS) {
+            int i1 = Math.min(nr, i0 + TILE_ROWS);
+            for (int j = j0; j < j1; j++) {
+                // index of the distance between rows j + 1 and j
+                long column = (long) j * (2L * nr - j - 1) / 2;
+                for (int i = Math.max(i0, j + 1); i < i1; i++) {
+                    d[(int) (column + i - j - 1)] = method.dist(rows, nc, i * nc, j * nc, p);
+                }
+            }
+        }
+    }
+
+    /**
+     * The binary distance treats non-finite values as NA with a warning for every pair of values
+     * that contains one, which is reported here up front, since the distances themselves may be
+     * computed outside of the R evaluation thread. The number of such pairs in a column is the
+     * number of pairs of non-NaN values minus the number of pairs of finite values.
+     */
+    private static void warnNonFinite(double[] x, int nr, int nc) {
+        long count = 0;
+        for (int j = 0; j < nc; j++) {
+            long nonNaN = 0;
+            long finite = 0;
+            for (int i = 0; i < nr; i++) {
+                double value = x[j * nr + i];
+                if (!RRuntime.isNAorNaN(value)) {
+                    nonNaN++;
+                    if (RRuntime.isFinite(value)) {
+                        finite++;
+                    }
+                }
+            }
+            count += nonNaN * (nonNaN - 1) / 2 - finite * (finite - 1) / 2;
+        }
+        // only the first warnings are kept anyway
+        for (long i = 0; i < Math.min(count, MAX_WARNINGS); i++) {
+            RError.warning(RError.SHOW_CALLER2, RError.Message.GENERIC, "treating non-finite values as NA");
         }
     }
 
     public enum Method {
         EUCLIDEAN {
             @Override
-            public double dist(VectorAccess xAccess, RandomIterator xIter, int nr, int nc, final int i1in, final int i2in, double p) {
+            public double dist(double[] x, int nc, final int i1in, final int i2in, double p) {
                 int i1 = i1in;
                 int i2 = i2in;
                 double dev;
@@ -147,15 +227,15 @@ public abstract class Cdist extends RExternalBuiltinNode.Arg4 {
                 count = 0;
                 dist = 0;
                 for (j = 0; j < nc; j++) {
-                    if (bothNonNAN(xAccess.getDouble(xIter, i1), xAccess.getDouble(xIter, i2))) {
-                        dev = (xAccess.getDouble(xIter, i1) - xAccess.getDouble(xIter, i2));
+                    if (bothNonNAN(x[i1], x[i2])) {
+                        dev = (x[i1] - x[i2]);
                         if (!RRuntime.isNAorNaN(dev)) {
                             dist += dev * dev;
                             count++;
                         }
                     }
-                    i1 += nr;
-                    i2 += nr;
+                    i1++;
+                    i2++;
                 }
                 if (count == 0) {
                     return RRuntime.DOUBLE_NA;
@@ -169,7 +249,7 @@ public abstract class Cdist extends RExternalBuiltinNode.Arg4 {
         },
         MAXIMUM {
             @Override
-            public double dist(VectorAccess xAccess, RandomIterator xIter, int nr, int nc, final int i1in, final int i2in, double p) {
+            public double dist(double[] x, int nc, final int i1in, final int i2in, double p) {
                 int i1 = i1in;
                 int i2 = i2in;
                 double dev;
@@ -180,8 +260,8 @@ public abstract class Cdist extends RExternalBuiltinNode.Arg4 {
                 count = 0;
                 dist = -Double.MAX_VALUE;
                 for (j = 0; j < nc; j++) {
-                    if (bothNonNAN(xAccess.getDouble(xIter, i1), xAccess.getDouble(xIter, i2))) {
-                        dev = Math.abs(xAccess.getDouble(xIter, i1) - xAccess.getDouble(xIter, i2));
+                    if (bothNonNAN(x[i1], x[i2])) {
+                        dev = Math.abs(x[i1] - x[i2]);
                         if (!RRuntime.isNAorNaN(dev)) {
                             if (dev > dist) {
                                 dist = dev;
@@ -189,8 +269,8 @@ public abstract class Cdist extends RExternalBuiltinNode.Arg4 {
                             count++;
                         }
                     }
-                    i1 += nr;
-                    i2 += nr;
+                    i1++;
+                    i2++;
                 }
                 if (count == 0) {
                     return RRuntime.DOUBLE_NA;
@@ -201,7 +281,7 @@ public abstract class Cdist extends RExternalBuiltinNode.Arg4 {
         },
         MANHATTAN {
             @Override
-            public double dist(VectorAccess xAccess, RandomIterator xIter, int nr, int nc, final int i1in, final int i2in, double p) {
+            public double dist(double[] x, int nc, final int i1in, final int i2in, double p) {
                 int i1 = i1in;
                 int i2 = i2in;
                 double dev;
@@ -212,15 +292,15 @@ public abstract class Cdist extends RExternalBuiltinNode.Arg4 {
                 count = 0;
                 dist = 0;
                 for (j = 0; j < nc; j++) {
-                    if (bothNonNAN(xAccess.getDouble(xIter, i1), xAccess.getDouble(xIter, i2))) {
-                        dev = Math.abs(xAccess.getDouble(xIter, i1) - xAccess.getDouble(xIter, i2));
+                    if (bothNonNAN(x[i1], x[i2])) {
+                        dev = Math.abs(x[i1] - x[i2]);
                         if (!RRuntime.isNAorNaN(dev)) {
                             dist += dev;
                             count++;
                         }
                     }
-                    i1 += nr;
-                    i2 += nr;
+                    i1++;
+                    i2++;
                 }
                 if (count == 0) {
                     return RRuntime.DOUBLE_NA;
@@ -234,7 +314,7 @@ public abstract class Cdist extends RExternalBuiltinNode.Arg4 {
         },
         CANBERRA {
             @Override
-            public double dist(VectorAccess xAccess, RandomIterator xIter, int nr, int nc, final int i1in, final int i2in, double p) {
+            public double dist(double[] x, int nc, final int i1in, final int i2in, double p) {
                 int i1 = i1in;
                 int i2 = i2in;
                 double dev;
@@ -247,9 +327,9 @@ public abstract class Cdist extends RExternalBuiltinNode.Arg4 {
                 count = 0;
                 dist = 0;
                 for (j = 0; j < nc; j++) {
-                    if (bothNonNAN(xAccess.getDouble(xIter, i1), xAccess.getDouble(xIter, i2))) {
-                        sum = Math.abs(xAccess.getDouble(xIter, i1) + xAccess.getDouble(xIter, i2));
-                        diff = Math.abs(xAccess.getDouble(xIter, i1) - xAccess.getDouble(xIter, i2));
+                    if (bothNonNAN(x[i1], x[i2])) {
+                        sum = Math.abs(x[i1] + x[i2]);
+                        diff = Math.abs(x[i1] - x[i2]);
                         if (sum > DBL_MIN || diff > DBL_MIN) {
                             dev = diff / sum;
                             if (!RRuntime.isNAorNaN(dev) ||
@@ -260,8 +340,8 @@ public abstract class Cdist extends RExternalBuiltinNode.Arg4 {
                             }
                         }
                     }
-                    i1 += nr;
-                    i2 += nr;
+                    i1++;
+                    i2++;
                 }
                 if (count == 0) {
                     return RRuntime.DOUBLE_NA;
@@ -275,7 +355,7 @@ public abstract class Cdist extends RExternalBuiltinNode.Arg4 {
         },
         BINARY {
             @Override
-            public double dist(VectorAccess xAccess, RandomIterator xIter, int nr, int nc, final int i1in, final int i2in, double p) {
+            public double dist(double[] x, int nc, final int i1in, final int i2in, double p) {
                 int i1 = i1in;
                 int i2 = i2in;
                 int total;
@@ -288,21 +368,19 @@ public abstract class Cdist extends RExternalBuiltinNode.Arg4 {
                 dist = 0;
 
                 for (j = 0; j < nc; j++) {
-                    if (bothNonNAN(xAccess.getDouble(xIter, i1), xAccess.getDouble(xIter, i2))) {
-                        if (!bothFinite(xAccess.getDouble(xIter, i1), xAccess.getDouble(xIter, i2))) {
-                            RError.warning(RError.SHOW_CALLER2, RError.Message.GENERIC, "treating non-finite values as NA");
-                        } else {
-                            if (xAccess.getDouble(xIter, i1) != 0. || xAccess.getDouble(xIter, i2) != 0.) {
+                    if (bothNonNAN(x[i1], x[i2])) {
+                        if (bothFinite(x[i1], x[i2])) {
+                            if (x[i1] != 0. || x[i2] != 0.) {
                                 count++;
-                                if (!(xAccess.getDouble(xIter, i1) != 0. && xAccess.getDouble(xIter, i2) != 0.)) {
+                                if (!(x[i1] != 0. && x[i2] != 0.)) {
                                     dist++;
                                 }
                             }
                             total++;
                         }
                     }
-                    i1 += nr;
-                    i2 += nr;
+                    i1++;
+                    i2++;
                 }
 
                 if (total == 0) {
@@ -317,7 +395,7 @@ public abstract class Cdist extends RExternalBuiltinNode.Arg4 {
         },
         MINKOWSKI {
             @Override
-            public double dist(VectorAccess xAccess, RandomIterator xIter, int nr, int nc, final int i1in, final int i2in, double p) {
+            public double dist(double[] x, int nc, final int i1in, final int i2in, double p) {
                 int i1 = i1in;
                 int i2 = i2in;
                 double dev;
@@ -328,15 +406,15 @@ public abstract class Cdist extends RExternalBuiltinNode.Arg4 {
                 count = 0;
                 dist = 0;
                 for (j = 0; j < nc; j++) {
-                    if (bothNonNAN(xAccess.getDouble(xIter, i1), xAccess.getDouble(xIter, i2))) {
-                        dev = (xAccess.getDouble(xIter, i1) - xAccess.getDouble(xIter, i2));
+                    if (bothNonNAN(x[i1], x[i2])) {
+                        dev = (x[i1] - x[i2]);
                         if (!RRuntime.isNAorNaN(dev)) {
                             dist += Math.pow(Math.abs(dev), p);
                             count++;
                         }
                     }
-                    i1 += nr;
-                    i2 += nr;
+                    i1++;
+                    i2++;
                 }
                 if (count == 0) {
                     return RRuntime.DOUBLE_NA;
@@ -348,6 +426,10 @@ public abstract class Cdist extends RExternalBuiltinNode.Arg4 {
             }
         };
 
-        public abstract double dist(VectorAccess xAccess, RandomIterator xIter, int nr, int nc, int i1, int i2, double p);
+        /**
+         * Distance between the rows starting at {@code i1} and {@code i2} of the row-major matrix
+         * {@code x}.
+         */
+        public abstract double dist(double[] x, int nc, int i1, int i2, double p);
     }
 }
@@ -14,6 +14,8 @@ package com.oracle.truffle.r.library.stats;
 import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.nullValue;
 import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.toBoolean;
 
+import java.util.Arrays;
+
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -26,6 +28,8 @@ import com.oracle.truffle.r.nodes.attributes.SpecialAttributesFunctions.SetDimNa
 import com.oracle.truffle.r.nodes.attributes.SpecialAttributesFunctionsFactory.SetDimNamesAttributeNodeGen;
 import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
 import com.oracle.truffle.r.nodes.unary.IsFactorNode;
+import com.oracle.truffle.r.runtime.ParallelLoop;
+import com.oracle.truffle.r.runtime.ParallelLoop.ChunkBody;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RError.Message;
 import com.oracle.truffle.r.runtime.RRuntime;
@@ -151,30 +155,161 @@ public abstract class Covcor extends RExternalBuiltinNode.Arg4 {
         }
     }
 
+    /**
+     * Number of columns of the tiles in {@link #crossprod}.
+     */
+    private static final int TILE_COLUMNS = 16;
+
+    /**
+     * Number of rows of the tiles in {@link #crossprod}, so that a tile of both matrices fits into
+     * the L2 cache.
+     */
+    private static final int TILE_ROWS = 1024;
+
+    /**
+     * Number of multiplications needed for {@code ncx * ncy} pairs of columns with {@code n}
+     * observations, clamped to {@code int} for {@link ParallelLoop#isParallel(int)}.
+     */
+    private static int work(int n, int ncx, int ncy, boolean kendall) {
+        double work = (double) n * ncx * ncy * (kendall ? n : 1);
+        return (int) Math.min(Integer.MAX_VALUE, work);
+    }
+
+    /**
+     * Executes {@code body} for {@code count} columns, in parallel if there is enough work.
+     */
+    private static void forColumns(int count, int work, ChunkBody body) {
+        if (count > 1 && ParallelLoop.isParallel(work)) {
+            ParallelLoop.execute(count, 1, body);
+        } else {
+            body.execute(0, count);
+        }
+    }
+
+    /**
+     * Like {@link #forColumns}, but for loops where the work for column {@code i} grows with
+     * {@code i}, i.e., over the lower triangle of a symmetric result. The short columns at the
+     * start are paired with the long ones at the end, so that all chunks take about the same time.
+     */
+    private static void forTriangle(int count, int work, ChunkBody body) {
+        if (count > 1 && ParallelLoop.isParallel(work)) {
+            ParallelLoop.execute((count + 1) / 2, 1, (from, to) -> {
+                for (int k = from; k < to; k++) {
+                    body.execute(k, k + 1);
+                    if (count - 1 - k != k) {
+                        body.execute(count - 1 - k, count - k);
+                    }
+                }
+            });
+        } else {
+            body.execute(0, count);
+        }
+    }
+
+    /**
+     * Returns the observations selected by {@code ind} (all if {@code null}) of the {@code nc}
+     * columns of {@code x} minus the column means {@code xm}, as a compact {@code nobs * nc}
+     * matrix. Columns flagged in {@code skip} are left zero.
+     */
+    private static double[] center(int n, int nc, double[] x, double[] xm, boolean[] ind, int nobs, boolean[] skip) {
+        double[] result = new double[nobs * nc];
+        for (int i = 0; i < nc; i++) {
+            if (skip != null && skip[i]) {
+                continue;
+            }
+            int xx = i * n;
+            int rr = i * nobs;
+            double mean = xm[i];
+            for (int k = 0; k < n; k++) {
+                if (ind == null || ind[k]) {
+                    result[rr++] = x[xx + k] - mean;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Stores {@code sum(a[, i] * b[, j]) / divisor} for the {@code m}-row matrices {@code a} and
+     * {@code b} into {@code ans[i, j]}; if {@code a == b}, only the lower triangle is computed and
+     * mirrored. The columns are processed in tiles, so that their parts stay in cache while being
+     * combined with each other, but every sum still adds the products in the order of the rows.
+     */
+    private static void crossprod(int m, int nca, int ncb, double[] a, double[] b, double[] ans, double divisor) {
+        boolean symmetric = a == b;
+        int blocks = (nca + TILE_COLUMNS - 1) / TILE_COLUMNS;
+        ChunkBody body = (from, to) -> {
+            double[] sums = new double[TILE_COLUMNS * TILE_COLUMNS];
+            for (int block = from; block < to; block++) {
+                int i0 = block * TILE_COLUMNS;
+                int i1 = Math.min(nca, i0 + TILE_COLUMNS);
+                int jEnd = symmetric ? i1 : ncb;
+                for (int j0 = 0; j0 < jEnd; j0 += TILE_COLUMNS) {
+                    int j1 = Math.min(jEnd, j0 + TILE_COLUMNS);
+                    Arrays.fill(sums, 0);
+                    for (int k0 = 0; k0 < m; k0 += TILE_ROWS) {
+                        int k1 = Math.min(m, k0 + TILE_ROWS);
+                        for (int i = i0; i < i1; i++) {
+                            int aa = i * m;
+                            int jMax = symmetric ? Math.min(j1, i + 1) : j1;
+                            for (int j = j0; j < jMax; j++) {
+                                int bb = j * m;
+                                double sum = sums[(i - i0) * TILE_COLUMNS + j - j0];
+                                for (int k = k0; k < k1; k++) {
+                                    sum += a[aa + k] * b[bb + k];
+                                }
+                                sums[(i - i0) * TILE_COLUMNS + j - j0] = sum;
+                            }
+                        }
+                    }
+                    for (int i = i0; i < i1; i++) {
+                        int jMax = symmetric ? Math.min(j1, i + 1) : j1;
+                        for (int j = j0; j < jMax; j++) {
+                            double result = sums[(i - i0) * TILE_COLUMNS + j - j0] / divisor;
+                            ANS(ans, nca, i, j, result);
+                            if (symmetric) {
+                                ANS(ans, nca, j, i, result);
+                            }
+                        }
+                    }
+                }
+            }
+        };
+        if (symmetric) {
+            forTriangle(blocks, work(m, nca, ncb, false) / 2, body);
+        } else {
+            forColumns(blocks, work(m, nca, ncb, false), body);
+        }
+    }
+
     @TruffleBoundary
     private static void cov_pairwise1(int n, int ncx, double[] x, double[] ans, boolean[] sd_0, boolean cor, boolean kendall) {
-        for (int i = 0; i < ncx; i++) {
-            int xx = i * n;
-            for (int j = 0; j <= i; j++) {
-                int yy = j * n;
+        forTriangle(ncx, work(n, ncx, ncx, kendall), (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int xx = i * n;
+                for (int j = 0; j <= i; j++) {
+                    int yy = j * n;
 
-                COV_PAIRWISE_BODY(ans, n, ncx, i, j, x, x, xx, yy, sd_0, cor, kendall);
+                    COV_PAIRWISE_BODY(ans, n, ncx, i, j, x, x, xx, yy, sd_0, cor, kendall);
 
-                ANS(ans, ncx, j, i, ANS(ans, ncx, i, j));
+                    ANS(ans, ncx, j, i, ANS(ans, ncx, i, j));
+                }
             }
-        }
+        });
     }
 
     @TruffleBoundary
     private static void cov_pairwise2(int n, int ncx, int ncy, double[] x, double[] y, double[] ans, boolean[] sd_0, boolean cor, boolean kendall) {
-        for (int i = 0; i < ncx; i++) {
-            int xx = i * n;
-            for (int j = 0; j < ncy; j++) {
-                int yy = j * n;
+        forColumns(ncx, work(n, ncx, ncy, kendall), (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int xx = i * n;
+                for (int j = 0; j < ncy; j++) {
+                    int yy = j * n;
 
-                COV_PAIRWISE_BODY(ans, n, ncx, i, j, x, y, xx, yy, sd_0, cor, kendall);
+                    COV_PAIRWISE_BODY(ans, n, ncx, i, j, x, y, xx, yy, sd_0, cor, kendall);
+                }
             }
-        }
+        });
     }
 
     /*
@@ -254,42 +389,29 @@ public abstract class Covcor extends RExternalBuiltinNode.Arg4 {
         if (!kendall) {
             MEAN(n, ncx, x, xm, ind, nobs); /* -> xm[] */
             n1 = nobs - 1;
-        }
-        for (int i = 0; i < ncx; i++) {
-            int xx = i * n;
-
-            if (!kendall) {
-                double xxm = xm[i];
-                for (int j = 0; j <= i; j++) {
-                    int yy = j * n;
-                    double yym = xm[j];
-                    double sum = 0;
-                    for (int k = 0; k < n; k++) {
-                        if (ind[k]) {
-                            sum += (x[xx + k] - xxm) * (x[yy + k] - yym);
-                        }
-                    }
-                    double result = sum / n1;
-                    ANS(ans, ncx, j, i, result);
-                    ANS(ans, ncx, i, j, result);
-                }
-            } else { /* Kendall's tau */
-                for (int j = 0; j <= i; j++) {
-                    int yy = j * n;
-                    double sum = 0;
-                    for (int k = 0; k < n; k++) {
-                        if (ind[k]) {
-                            for (n1 = 0; n1 < n; n1++) {
-                                if (ind[n1]) {
-                                    sum += RMath.sign(x[xx + k] - x[xx + n1]) * RMath.sign(x[yy + k] - x[yy + n1]);
+            double[] centered = center(n, ncx, x, xm, ind, nobs, null);
+            crossprod(nobs, ncx, ncx, centered, centered, ans, n1);
+        } else { /* Kendall's tau */
+            forTriangle(ncx, work(n, ncx, ncx, true), (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    int xx = i * n;
+                    for (int j = 0; j <= i; j++) {
+                        int yy = j * n;
+                        double sum = 0;
+                        for (int k = 0; k < n; k++) {
+                            if (ind[k]) {
+                                for (int l = 0; l < n; l++) {
+                                    if (ind[l]) {
+                                        sum += RMath.sign(x[xx + k] - x[xx + l]) * RMath.sign(x[yy + k] - x[yy + l]);
+                                    }
                                 }
                             }
                         }
+                        ANS(ans, ncx, j, i, sum);
+                        ANS(ans, ncx, i, j, sum);
                     }
-                    ANS(ans, ncx, j, i, sum);
-                    ANS(ans, ncx, i, j, sum);
                 }
-            }
+            });
         }
 
         if (cor) {
@@ -332,45 +454,22 @@ public abstract class Covcor extends RExternalBuiltinNode.Arg4 {
         if (!kendall) {
             MEAN_(n, ncx, x, xm, has_na);/* -> xm[] */
             n1 = n - 1;
-        }
-        for (int i = 0; i < ncx; i++) {
-            if (has_na[i]) {
-                for (int j = 0; j <= i; j++) {
-                    ANS(ans, ncx, j, i, RRuntime.DOUBLE_NA);
-                    ANS(ans, ncx, i, j, RRuntime.DOUBLE_NA);
-                }
-            } else {
-                int xx = i * n;
-
-                if (!kendall) {
-                    double xxm = xm[i];
-                    for (int j = 0; j <= i; j++) {
-                        if (has_na[j]) {
-                            ANS(ans, ncx, j, i, RRuntime.DOUBLE_NA);
-                            ANS(ans, ncx, i, j, RRuntime.DOUBLE_NA);
-                        } else {
-                            int yy = j * n;
-                            double yym = xm[j];
-                            double sum = 0;
-                            for (int k = 0; k < n; k++) {
-                                sum += (x[xx + k] - xxm) * (x[yy + k] - yym);
-                            }
-                            double result = sum / n1;
-                            ANS(ans, ncx, j, i, result);
-                            ANS(ans, ncx, i, j, result);
-                        }
+            double[] centered = center(n, ncx, x, xm, null, n, has_na);
+            crossprod(n, ncx, ncx, centered, centered, ans, n1);
+        } else { /* Kendall's tau */
+            forTriangle(ncx, work(n, ncx, ncx, true), (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    if (has_na[i]) {
+                        continue;
                     }
-                } else { /* Kendall's tau */
+                    int xx = i * n;
                     for (int j = 0; j <= i; j++) {
-                        if (has_na[j]) {
-                            ANS(ans, ncx, j, i, RRuntime.DOUBLE_NA);
-                            ANS(ans, ncx, i, j, RRuntime.DOUBLE_NA);
-                        } else {
+                        if (!has_na[j]) {
                             int yy = j * n;
                             double sum = 0;
                             for (int k = 0; k < n; k++) {
-                                for (n1 = 0; n1 < n; n1++) {
-                                    sum += RMath.sign(x[xx + k] - x[xx + n1]) * RMath.sign(x[yy + k] - x[yy + n1]);
+                                for (int l = 0; l < n; l++) {
+                                    sum += RMath.sign(x[xx + k] - x[xx + l]) * RMath.sign(x[yy + k] - x[yy + l]);
                                 }
                             }
                             ANS(ans, ncx, j, i, sum);
@@ -378,6 +477,14 @@ public abstract class Covcor extends RExternalBuiltinNode.Arg4 {
                         }
                     }
                 }
+            });
+        }
+        for (int i = 0; i < ncx; i++) {
+            for (int j = 0; j <= i; j++) {
+                if (has_na[i] || has_na[j]) {
+                    ANS(ans, ncx, j, i, RRuntime.DOUBLE_NA);
+                    ANS(ans, ncx, i, j, RRuntime.DOUBLE_NA);
+                }
             }
         }
 
@@ -461,38 +568,27 @@ public abstract class Covcor extends RExternalBuiltinNode.Arg4 {
             MEAN(n, ncx, x, xm, ind, nobs);/* -> xm[] */
             MEAN(n, ncy, y, ym, ind, nobs);/* -> ym[] */
             n1 = nobs - 1;
-        }
-        for (int i = 0; i < ncx; i++) {
-            int xx = i * n;
-            if (!kendall) {
-                double xxm = xm[i];
-                for (int j = 0; j < ncy; j++) {
-                    int yy = j * n;
-                    double yym = ym[j];
-                    double sum = 0;
-                    for (int k = 0; k < n; k++) {
-                        if (ind[k]) {
-                            sum += (x[xx + k] - xxm) * (y[yy + k] - yym);
-                        }
-                    }
-                    ANS(ans, ncx, i, j, sum / n1);
-                }
-            } else { /* Kendall's tau */
-                for (int j = 0; j < ncy; j++) {
-                    int yy = j * n;
-                    double sum = 0;
-                    for (int k = 0; k < n; k++) {
-                        if (ind[k]) {
-                            for (n1 = 0; n1 < n; n1++) {
-                                if (ind[n1]) {
-                                    sum += RMath.sign(x[xx + k] - x[xx + n1]) * RMath.sign(y[yy + k] - y[yy + n1]);
+            crossprod(nobs, ncx, ncy, center(n, ncx, x, xm, ind, nobs, null), center(n, ncy, y, ym, ind, nobs, null), ans, n1);
+        } else { /* Kendall's tau */
+            forColumns(ncx, work(n, ncx, ncy, true), (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    int xx = i * n;
+                    for (int j = 0; j < ncy; j++) {
+                        int yy = j * n;
+                        double sum = 0;
+                        for (int k = 0; k < n; k++) {
+                            if (ind[k]) {
+                                for (int l = 0; l < n; l++) {
+                                    if (ind[l]) {
+                                        sum += RMath.sign(x[xx + k] - x[xx + l]) * RMath.sign(y[yy + k] - y[yy + l]);
+                                    }
                                 }
                             }
                         }
+                        ANS(ans, ncx, i, j, sum);
                     }
-                    ANS(ans, ncx, i, j, sum);
                 }
-            }
+            });
         }
 
         if (cor) {
@@ -561,45 +657,34 @@ public abstract class Covcor extends RExternalBuiltinNode.Arg4 {
             MEAN_(n, ncx, x, xm, has_na_x);/* -> xm[] */
             MEAN_(n, ncy, y, ym, has_na_y);/* -> ym[] */
             n1 = n - 1;
-        }
-        for (int i = 0; i < ncx; i++) {
-            if (has_na_x[i]) {
-                for (int j = 0; j < ncy; j++) {
-                    ANS(ans, ncx, i, j, RRuntime.DOUBLE_NA);
-                }
-            } else {
-                int xx = i * n;
-                if (!kendall) {
-                    double xxm = xm[i];
-                    for (int j = 0; j < ncy; j++) {
-                        if (has_na_y[j]) {
-                            ANS(ans, ncx, i, j, RRuntime.DOUBLE_NA);
-                        } else {
-                            int yy = j * n;
-                            double yym = ym[j];
-                            double sum = 0;
-                            for (int k = 0; k < n; k++) {
-                                sum += (x[xx + k] - xxm) * (y[yy + k] - yym);
-                            }
-                            ANS(ans, ncx, i, j, sum / n1);
-                        }
+            crossprod(n, ncx, ncy, center(n, ncx, x, xm, null, n, has_na_x), center(n, ncy, y, ym, null, n, has_na_y), ans, n1);
+        } else { /* Kendall's tau */
+            forColumns(ncx, work(n, ncx, ncy, true), (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    if (has_na_x[i]) {
+                        continue;
                     }
-                } else { /* Kendall's tau */
+                    int xx = i * n;
                     for (int j = 0; j < ncy; j++) {
-                        if (has_na_y[j]) {
-                            ANS(ans, ncx, i, j, RRuntime.DOUBLE_NA);
-                        } else {
+                        if (!has_na_y[j]) {
                             int yy = j * n;
                             double sum = 0;
                             for (int k = 0; k < n; k++) {
-                                for (n1 = 0; n1 < n; n1++) {
-                                    sum += RMath.sign(x[xx + k] - x[xx + n1]) * RMath.sign(y[yy + k] - y[yy + n1]);
+                                for (int l = 0; l < n; l++) {
+                                    sum += RMath.sign(x[xx + k] - x[xx + l]) * RMath.sign(y[yy + k] - y[yy + l]);
                                 }
                             }
                             ANS(ans, ncx, i, j, sum);
                         }
                     }
                 }
+            });
+        }
+        for (int i = 0; i < ncx; i++) {
+            for (int j = 0; j < ncy; j++) {
+                if (has_na_x[i] || has_na_y[j]) {
+                    ANS(ans, ncx, i, j, RRuntime.DOUBLE_NA);
+                }
             }
         }
 
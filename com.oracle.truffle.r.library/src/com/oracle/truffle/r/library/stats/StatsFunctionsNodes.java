@@ -6,7 +6,7 @@
  * Copyright (c) 1995, 1996, 1997  Robert Gentleman and Ross Ihaka
  * Copyright (c) 1998-2013, The R Core Team
  * Copyright (c) 2003-2015, The R Foundation
- * Copyright (c) 2016, 2017, Oracle and/or its affiliates
+ * Copyright (c) 2016, 2018, Oracle and/or its affiliates
  *
  * All rights reserved.
  */
@@ -23,9 +23,7 @@ import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.nodes.Node;
-import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.api.profiles.ConditionProfile;
-import com.oracle.truffle.api.profiles.LoopConditionProfile;
 import com.oracle.truffle.r.library.stats.StatsFunctionsNodesFactory.ApproxNodeGen;
 import com.oracle.truffle.r.library.stats.StatsFunctionsNodesFactory.ApproxTestNodeGen;
 import com.oracle.truffle.r.library.stats.StatsFunctionsNodesFactory.Function2_1NodeGen;
@@ -38,17 +36,20 @@ import com.oracle.truffle.r.nodes.attributes.UnaryCopyAttributesNode;
 import com.oracle.truffle.r.nodes.builtin.NodeWithArgumentCasts.Casts;
 import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
 import com.oracle.truffle.r.nodes.profile.VectorLengthProfile;
+import com.oracle.truffle.r.runtime.ParallelLoop;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RError.Message;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RDouble;
+import com.oracle.truffle.r.runtime.data.RDoubleSequence;
 import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
 import com.oracle.truffle.r.runtime.data.nodes.VectorAccess;
 import com.oracle.truffle.r.runtime.data.nodes.VectorAccess.SequentialIterator;
 import com.oracle.truffle.r.runtime.data.nodes.VectorAccess.RandomIterator;
+import com.oracle.truffle.r.runtime.nmath.MathFunctions;
 import com.oracle.truffle.r.runtime.nmath.MathFunctions.Function2_1;
 import com.oracle.truffle.r.runtime.nmath.MathFunctions.Function2_2;
 import com.oracle.truffle.r.runtime.nmath.MathFunctions.Function3_1;
@@ -68,23 +69,40 @@ public final class StatsFunctionsNodes {
     }
 
     static final class StatFunctionProfiles {
-        final BranchProfile nan = BranchProfile.create();
-        final NACheck aCheck = NACheck.create();
-        final NACheck bCheck = NACheck.create();
-        final NACheck cCheck = NACheck.create();
-        final NACheck dCheck = NACheck.create();
+        final ConditionProfile parallel = ConditionProfile.createBinaryProfile();
         final ConditionProfile copyAttrsFromA = ConditionProfile.createBinaryProfile();
         final ConditionProfile copyAttrsFromB = ConditionProfile.createBinaryProfile();
         final ConditionProfile copyAttrsFromC = ConditionProfile.createBinaryProfile();
         final ConditionProfile copyAttrsFromD = ConditionProfile.createBinaryProfile();
         final VectorLengthProfile resultVectorLengthProfile = VectorLengthProfile.create();
-        final LoopConditionProfile loopConditionProfile = LoopConditionProfile.createCountingProfile();
 
         public static StatFunctionProfiles create() {
             return new StatFunctionProfiles();
         }
     }
 
+    /**
+     * Returns the elements of an argument for the batch evaluation without creating a vector: the
+     * recycled scalars (usually the distribution parameters) and sequences are read directly, only
+     * vectors that are not backed by an array (e.g., foreign arrays) are materialized.
+     */
+    private static double[] getData(RAbstractDoubleVector vector, int length) {
+        if (length == 1) {
+            return new double[]{vector.getDataAt(0)};
+        } else if (vector instanceof RDoubleVector) {
+            return ((RDoubleVector) vector).getReadonlyData();
+        } else if (vector instanceof RDoubleSequence) {
+            RDoubleSequence sequence = (RDoubleSequence) vector;
+            double[] data = new double[length];
+            for (int i = 0; i < length; i++) {
+                data[i] = sequence.getStart() + sequence.getStride() * i;
+            }
+            return data;
+        } else {
+            return vector.materialize().getReadonlyData();
+        }
+    }
+
     private static RAbstractDoubleVector evaluate4(Node node, Function4_2 function, RAbstractDoubleVector a, RAbstractDoubleVector b, RAbstractDoubleVector c, RAbstractDoubleVector d, boolean x,
                     boolean y, StatFunctionProfiles profiles, UnaryCopyAttributesNode copyAttributesNode) {
         int aLength = a.getLength();
@@ -98,40 +116,20 @@ public final class StatsFunctionsNodes {
         RBaseNode.reportWork(node, length);
         double[] result = new double[length];
 
-        boolean complete = true;
-        boolean nans = false;
-        profiles.aCheck.enable(a);
-        profiles.bCheck.enable(b);
-        profiles.cCheck.enable(c);
-        profiles.dCheck.enable(d);
-        profiles.loopConditionProfile.profileCounted(length);
-        for (int i = 0; profiles.loopConditionProfile.inject(i < length); i++) {
-            double aValue = a.getDataAt(i % aLength);
-            double bValue = b.getDataAt(i % bLength);
-            double cValue = c.getDataAt(i % cLength);
-            double dValue = d.getDataAt(i % dLength);
-            double value;
-            if (Double.isNaN(aValue) || Double.isNaN(bValue) || Double.isNaN(cValue) || Double.isNaN(dValue)) {
-                profiles.nan.enter();
-                if (profiles.aCheck.check(aValue) || profiles.bCheck.check(bValue) || profiles.cCheck.check(cValue) || profiles.cCheck.check(dValue)) {
-                    value = RRuntime.DOUBLE_NA;
-                    complete = false;
-                } else {
-                    value = Double.NaN;
-                }
-            } else {
-                value = function.evaluate(aValue, bValue, cValue, dValue, x, y);
-                if (Double.isNaN(value)) {
-                    profiles.nan.enter();
-                    nans = true;
-                }
-            }
-            result[i] = value;
-        }
-        if (nans) {
+        double[] aData = getData(a, aLength);
+        double[] bData = getData(b, bLength);
+        double[] cData = getData(c, cLength);
+        double[] dData = getData(d, dLength);
+        int flags;
+        if (profiles.parallel.profile(function.isParallelizable() && ParallelLoop.isParallel(length))) {
+            flags = MathFunctions.evaluateParallel(function, aData, bData, cData, dData, x, y, result);
+        } else {
+            flags = function.evaluate(aData, bData, cData, dData, x, y, result, 0, length);
+        }
+        if ((flags & MathFunctions.BATCH_NAN_PRODUCED) != 0) {
             RError.warning(RError.SHOW_CALLER, RError.Message.NAN_PRODUCED);
         }
-        RDoubleVector resultVec = RDataFactory.createDoubleVector(result, complete);
+        RDoubleVector resultVec = RDataFactory.createDoubleVector(result, (flags & MathFunctions.BATCH_NA) == 0);
 
         // copy attributes if necessary:
         if (profiles.copyAttrsFromA.profile(aLength == length)) {
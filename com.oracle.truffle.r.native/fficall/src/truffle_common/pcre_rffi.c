@@ -31,7 +31,7 @@ extern char *pcre_maketables();
 extern void *pcre_compile(char *pattern, int options, char **errorMessage, int *errOffset, char *tables);
 extern int  pcre_exec(void *code, void *extra, char* subject, int subjectLength, int startOffset, int options, int *ovector, int ovecSize);
 extern int pcre_fullinfo(void *code, void *extra, int what, void *where);
-extern void pcre_free(void *code);
+extern void (*pcre_free)(void *code);
 
 char *call_pcre_maketables() {
     return pcre_maketables();
@@ -82,3 +82,7 @@ int call_pcre_getcapturenames(void (*setcapturename)(int i, char *name), long co
     }
     return res;
 }
+
+void call_pcre_free(long code) {
+    (*pcre_free)((void *) code);
+}
@@ -0,0 +1,353 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.r.launcher.RVersionNumber;
+import com.oracle.truffle.r.runtime.FastROptions;
+import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.RSerialize;
+import com.oracle.truffle.r.runtime.Utils;
+import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RExternalPtr;
+import com.oracle.truffle.r.runtime.data.RList;
+import com.oracle.truffle.r.runtime.data.RStringVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractListVector;
+import com.oracle.truffle.r.runtime.env.REnvironment;
+import com.oracle.truffle.r.runtime.env.REnvironment.PutException;
+import com.oracle.truffle.r.runtime.env.frame.ActiveBinding;
+
+/**
+ * Persists the bindings that evaluating the base package loader ({@code library/base/R/base})
+ * creates, replaces or removes in the base environment, so that later launches can restore them
+ * instead of evaluating the loader. The snapshot file (see {@link FastROptions#BaseSnapshot})
+ * starts with two text header blocks, followed by the changed bindings and the names of the removed
+ * ones as a list in {@link RSerialize} format. The first block identifies the FastR version and
+ * the size and modification time of the loader source and of the lazy-load database it refers to,
+ * the second one their SHA-256 digests. Only if the first block does not match are the files
+ * hashed and compared with the second one; if that matches, the first block is updated. If neither
+ * matches, or anything goes wrong while reading, the base package is loaded as usual and the
+ * snapshot is rewritten.
+ *
+ * A snapshot can only reproduce changes to the base environment, so none is written (and the
+ * reason is reported) if the loader changes options or the namespace registry, or if it creates
+ * bindings that cannot be restored meaningfully: active bindings and values holding native
+ * resources (external pointers, e.g., registered native symbols).
+ */
+final class BaseSnapshot {
+
+    private static final String MAGIC = "FastR base snapshot 3";
+
+    private BaseSnapshot() {
+        // no instances
+    }
+
+    private static Path snapshotPath() {
+        String path = FastROptions.BaseSnapshot.getStringValue();
+        return path == null || path.isEmpty() ? null : Paths.get(path);
+    }
+
+    /**
+     * The loader source and, since the promises created by the loader point into it, the lazy-load
+     * database.
+     */
+    private static Path[] files(Source baseSource) {
+        if (baseSource.getPath() == null) {
+            return new Path[0];
+        }
+        return new Path[]{Paths.get(baseSource.getPath()), Paths.get(baseSource.getPath() + ".rdb"), Paths.get(baseSource.getPath() + ".rdx")};
+    }
+
+    /**
+     * The first header block, which identifies the files by size and modification time. It does
+     * not identify a loader source that is not read from a file, so the digests are always checked
+     * in that case.
+     */
+    private static String stamps(Source baseSource) {
+        StringBuilder str = new StringBuilder(MAGIC).append('\n');
+        str.append(RVersionNumber.FULL).append('\n');
+        for (Path file : files(baseSource)) {
+            String stamp;
+            try {
+                stamp = Files.size(file) + " " + Files.getLastModifiedTime(file).toMillis();
+            } catch (IOException e) {
+                stamp = "missing";
+            }
+            str.append(file).append(' ').append(stamp).append('\n');
+        }
+        return str.append('\n').toString();
+    }
+
+    /**
+     * The second header block, which identifies the FastR version again and the contents of the
+     * files.
+     */
+    private static String digests(Source baseSource) {
+        StringBuilder str = new StringBuilder(RVersionNumber.FULL).append('\n');
+        str.append("loader ").append(digest(baseSource.getCharacters().toString().getBytes(StandardCharsets.UTF_8))).append('\n');
+        Path[] files = files(baseSource);
+        for (int i = 1; i < files.length; i++) {
+            String hash;
+            try {
+                hash = digest(Files.readAllBytes(files[i]));
+            } catch (IOException e) {
+                hash = "missing";
+            }
+            str.append(files[i].getFileName()).append(' ').append(hash).append('\n');
+        }
+        return str.append('\n').toString();
+    }
+
+    private static String digest(byte[] data) {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw RInternalError.shouldNotReachHere(e);
+        }
+        StringBuilder str = new StringBuilder();
+        for (byte b : md.digest(data)) {
+            str.append(String.format("%02x", b & 0xff));
+        }
+        return str.toString();
+    }
+
+    /**
+     * Returns the index after the empty line that ends the header block starting at {@code from},
+     * or -1 if there is none.
+     */
+    private static int blockEnd(byte[] data, int from) {
+        for (int i = from; i < data.length - 1; i++) {
+            if (data[i] == '\n' && data[i + 1] == '\n') {
+                return i + 2;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean matches(byte[] data, int from, int to, String block) {
+        return Arrays.equals(block.getBytes(StandardCharsets.UTF_8), Arrays.copyOfRange(data, from, to));
+    }
+
+    /**
+     * Restores the snapshot into {@code baseEnv}, returns {@code false} if there is no valid
+     * snapshot and the base package needs to be loaded normally.
+     */
+    static boolean restore(Source baseSource, REnvironment baseEnv) {
+        Path path = snapshotPath();
+        if (path == null || !Files.isRegularFile(path)) {
+            return false;
+        }
+        RList bindings;
+        RStringVector removed;
+        try {
+            byte[] data = Files.readAllBytes(path);
+            int stampsEnd = blockEnd(data, 0);
+            int digestsEnd = stampsEnd == -1 ? -1 : blockEnd(data, stampsEnd);
+            if (digestsEnd == -1 || !matches(data, 0, MAGIC.length() + 1, MAGIC + '\n')) {
+                return false;
+            }
+            boolean stamped = baseSource.getPath() != null;
+            String stamps = stamps(baseSource);
+            if (!stamped || !matches(data, 0, stampsEnd, stamps)) {
+                String digests = digests(baseSource);
+                if (!matches(data, stampsEnd, digestsEnd, digests)) {
+                    return false;
+                }
+                if (stamped) {
+                    // same contents, e.g., reinstalled files, only the first block is out of date
+                    write(path, stamps + digests, Arrays.copyOfRange(data, digestsEnd, data.length));
+                }
+            }
+            Object value = RSerialize.unserialize(Arrays.copyOfRange(data, digestsEnd, data.length), null, "base", null);
+            if (!(value instanceof RList) || ((RList) value).getLength() != 2) {
+                return false;
+            }
+            RList contents = (RList) value;
+            if (!(contents.getDataAt(0) instanceof RList) || !(contents.getDataAt(1) instanceof RStringVector)) {
+                return false;
+            }
+            bindings = (RList) contents.getDataAt(0);
+            removed = (RStringVector) contents.getDataAt(1);
+        } catch (IOException | RuntimeException e) {
+            // a corrupt or incompatible snapshot is ignored
+            return false;
+        }
+        RStringVector names = bindings.getNames();
+        if (names == null) {
+            return false;
+        }
+        try {
+            for (int i = 0; i < bindings.getLength(); i++) {
+                baseEnv.put(names.getDataAt(i), bindings.getDataAt(i));
+            }
+            for (int i = 0; i < removed.getLength(); i++) {
+                baseEnv.rm(removed.getDataAt(i));
+            }
+        } catch (PutException e) {
+            throw RInternalError.shouldNotReachHere(e);
+        }
+        return true;
+    }
+
+    private static void write(Path path, String header, byte[] data) throws IOException {
+        byte[] headerBytes = header.getBytes(StandardCharsets.UTF_8);
+        // write to a temporary file first, concurrent launches must not see partial snapshots
+        Path tmp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            byte[] fileContents = Arrays.copyOf(headerBytes, headerBytes.length + data.length);
+            System.arraycopy(data, 0, fileContents, headerBytes.length, data.length);
+            Files.write(tmp, fileContents);
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * The state that loading the base package can change, captured before the loader runs and
+     * compared by value identity afterwards.
+     */
+    static final class State {
+        private final Map<String, Object> bindings;
+        private final Map<String, Object> options;
+        private final Map<String, Object> namespaces;
+
+        private State(REnvironment baseEnv) {
+            this.bindings = bindings(baseEnv);
+            this.options = new HashMap<>();
+            for (Map.Entry<String, Object> entry : RContext.getInstance().stateROptions.getValues()) {
+                options.put(entry.getKey(), entry.getValue());
+            }
+            this.namespaces = bindings(REnvironment.getNamespaceRegistry());
+        }
+    }
+
+    static State capture(REnvironment baseEnv) {
+        return new State(baseEnv);
+    }
+
+    private static Map<String, Object> bindings(REnvironment env) {
+        RStringVector names = env.ls(true, null, false);
+        Map<String, Object> result = new HashMap<>(names.getLength() * 2);
+        for (int i = 0; i < names.getLength(); i++) {
+            result.put(names.getDataAt(i), env.get(names.getDataAt(i)));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the name of an entry that was added, removed or replaced between {@code before} and
+     * {@code after}, or {@code null} if there is none.
+     */
+    private static String findChange(Map<String, Object> before, Map<String, Object> after) {
+        for (Map.Entry<String, Object> entry : after.entrySet()) {
+            if (before.get(entry.getKey()) != entry.getValue()) {
+                return entry.getKey();
+            }
+        }
+        for (String name : before.keySet()) {
+            if (!after.containsKey(name)) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes the bindings of {@code baseEnv} that were created or replaced since {@code before} was
+     * captured, and the names of those that were removed, to the snapshot file.
+     */
+    static void save(Source baseSource, REnvironment baseEnv, State before) {
+        Path path = snapshotPath();
+        if (path == null) {
+            return;
+        }
+        State after = capture(baseEnv);
+        String changed = findChange(before.options, after.options);
+        if (changed != null) {
+            Utils.warn("base snapshot not written, the base package loader changed option '" + changed + "'");
+            return;
+        }
+        changed = findChange(before.namespaces, after.namespaces);
+        if (changed != null) {
+            Utils.warn("base snapshot not written, the base package loader changed namespace '" + changed + "'");
+            return;
+        }
+        List<String> names = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : after.bindings.entrySet()) {
+            Object value = entry.getValue();
+            if (before.bindings.get(entry.getKey()) != value) {
+                if (ActiveBinding.isActiveBinding(value) || holdsNativeResource(value, 0)) {
+                    Utils.warn("base snapshot not written, binding '" + entry.getKey() + "' created by the base package loader cannot be restored");
+                    return;
+                }
+                names.add(entry.getKey());
+                values.add(value);
+            }
+        }
+        List<String> removed = new ArrayList<>();
+        for (String name : before.bindings.keySet()) {
+            if (!after.bindings.containsKey(name)) {
+                removed.add(name);
+            }
+        }
+        RList bindings = RDataFactory.createList(values.toArray(), RDataFactory.createStringVector(names.toArray(new String[names.size()]), true));
+        RList contents = RDataFactory.createList(new Object[]{bindings, RDataFactory.createStringVector(removed.toArray(new String[removed.size()]), true)});
+        try {
+            write(path, stamps(baseSource) + digests(baseSource), RSerialize.serialize(contents, RSerialize.XDR, RSerialize.DEFAULT_VERSION, null));
+        } catch (IOException | RuntimeException e) {
+            // the snapshot is only an optimization, the next launch will try again
+        }
+    }
+
+    private static boolean holdsNativeResource(Object value, int depth) {
+        if (value instanceof RExternalPtr) {
+            return true;
+        } else if (value instanceof RAbstractListVector && depth < 4) {
+            RAbstractListVector list = (RAbstractListVector) value;
+            for (int i = 0; i < list.getLength(); i++) {
+                if (holdsNativeResource(list.getDataAt(i), depth + 1)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -112,10 +112,14 @@ public final class RBuiltinPackages implements RBuiltinLookup {
         // Any RBuiltinKind.SUBSTITUTE functions installed above should not be overridden
         try {
             RContext.getInstance().setLoadingBase(true);
-            try {
-                RContext.getEngine().parseAndEval(baseSource, baseFrame, false);
-            } catch (ParseException e) {
-                throw new RInternalError(e, "error while parsing base source from %s", baseSource.getName());
+            if (!BaseSnapshot.restore(baseSource, baseEnv)) {
+                BaseSnapshot.State before = BaseSnapshot.capture(baseEnv);
+                try {
+                    RContext.getEngine().parseAndEval(baseSource, baseFrame, false);
+                } catch (ParseException e) {
+                    throw new RInternalError(e, "error while parsing base source from %s", baseSource.getName());
+                }
+                BaseSnapshot.save(baseSource, baseEnv, before);
             }
             // forcibly clear last.warnings during startup:
             FrameSlot slot = baseFrame.getFrameDescriptor().findFrameSlot("last.warning");
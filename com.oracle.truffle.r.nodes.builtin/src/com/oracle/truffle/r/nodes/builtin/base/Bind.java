@@ -70,8 +70,11 @@ import com.oracle.truffle.r.runtime.Utils;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.data.RArgsValuesAndNames;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.RFunction;
+import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RList;
+import com.oracle.truffle.r.runtime.data.RLogicalVector;
 import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RPromise;
 import com.oracle.truffle.r.runtime.data.RStringVector;
@@ -472,6 +475,7 @@ public abstract class Bind extends RBaseNode {
     private final BranchProfile everSeenNotEqualRows = BranchProfile.create();
     private final BranchProfile everSeenNotEqualColumns = BranchProfile.create();
     private final ConditionProfile needsDimNames = ConditionProfile.createBinaryProfile();
+    private final ConditionProfile arrayCopyProfile = ConditionProfile.createBinaryProfile();
 
     @Specialization(guards = {"precedence != NO_PRECEDENCE", "args.length == 1"})
     protected Object allOneElem(int deparseLevel, Object[] args, RArgsValuesAndNames promiseArgs, @SuppressWarnings("unused") int precedence,
@@ -547,9 +551,8 @@ public abstract class Bind extends RBaseNode {
             assert dims.length == 2;
             for (int col = 0; col < dims[1]; col++) {
                 int rowsCount = Math.min(dims[0], resultDimensions[0]);
-                for (int row = 0; row < rowsCount; row++) {
-                    result.transferElementSameType(ind++, vec, dims[0] * col + row);
-                }
+                transferElements(result, ind, vec, dims[0] * col, rowsCount);
+                ind += rowsCount;
                 if (rowsAndColumnsNotEqual) {
                     everSeenNotEqualRows.enter();
                     if (rowsCount < resultDimensions[0]) {
@@ -599,6 +602,8 @@ public abstract class Bind extends RBaseNode {
         @Child private ClassHierarchyNode classHierarchy = ClassHierarchyNodeGen.create(false, false);
         private final ConditionProfile hasClassProfile = ConditionProfile.createBinaryProfile();
         private final ConditionProfile hasDispatchFunction = ConditionProfile.createBinaryProfile();
+        private final ConditionProfile dataFrameProfile = ConditionProfile.createBinaryProfile();
+        private final ConditionProfile sameClassProfile = ConditionProfile.createBinaryProfile();
 
         @Child private Bind bind;
         @Child private RExplicitCallNode dispatchCallNode;
@@ -623,6 +628,12 @@ public abstract class Bind extends RBaseNode {
         protected Object bind(VirtualFrame frame, int deparseLevel, RArgsValuesAndNames args) {
             RFunction dispatchFunction = createDispatchFunction(frame, args.getArguments(), deparseLevel);
             if (hasDispatchFunction.profile(dispatchFunction != null)) {
+                if (type == BindType.rbind) {
+                    Object result = DataFrameBind.rbind(dispatchFunction, args);
+                    if (dataFrameProfile.profile(result != null)) {
+                        return result;
+                    }
+                }
                 if (dispatchCallNode == null) {
                     CompilerDirectives.transferToInterpreterAndInvalidate();
                     dispatchCallNode = insert(RExplicitCallNode.create());
@@ -663,6 +674,7 @@ public abstract class Bind extends RBaseNode {
             boolean anyS4 = false;
 
             Result result = null;
+            RStringVector lastClass = null;
             for (Object arg : args) {
                 if (tryS4 && !anyS4 && RRuntime.isS4Object(arg)) {
                     anyS4 = true;
@@ -670,6 +682,11 @@ public abstract class Bind extends RBaseNode {
 
                 RStringVector clazz = classHierarchy.execute(arg);
                 if (hasClassProfile.profile(clazz != null)) {
+                    if (sameClassProfile.profile(lastClass != null && sameClass(clazz, lastClass))) {
+                        // e.g. do.call(rbind, frames): the lookup gives the same result again
+                        continue;
+                    }
+                    lastClass = clazz;
                     if (lookup == null) {
                         CompilerDirectives.transferToInterpreterAndInvalidate();
                         lookup = insert(S3FunctionLookupNode.create(false, false));
@@ -700,6 +717,22 @@ public abstract class Bind extends RBaseNode {
             }
             return dispatchFunction;
         }
+
+        @TruffleBoundary
+        private static boolean sameClass(RStringVector clazz, RStringVector other) {
+            if (clazz == other) {
+                return true;
+            }
+            if (clazz.getLength() != other.getLength()) {
+                return false;
+            }
+            for (int i = 0; i < clazz.getLength(); i++) {
+                if (!clazz.getDataAt(i).equals(other.getDataAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
     }
 
     public RVector<?> genericRBind(RArgsValuesAndNames promiseArgs, RAbstractVector[] vectors, RVector<?> result, int[] resultDimensions, int[] firstDims, boolean rowsAndColumnsNotEqual,
@@ -735,9 +768,8 @@ public abstract class Bind extends RBaseNode {
             int srcInd = 0;
             int j = 0;
             for (; j < vecLength / firstDims[i]; j++) {
-                for (int k = dstRowInd; k < dstRowInd + firstDims[i]; k++) {
-                    result.transferElementSameType(j * resultDimensions[0] + k, vec, srcInd++);
-                }
+                transferElements(result, j * resultDimensions[0] + dstRowInd, vec, srcInd, firstDims[i]);
+                srcInd += firstDims[i];
             }
             if (rowsAndColumnsNotEqual) {
                 everSeenNotEqualColumns.enter();
@@ -764,6 +796,27 @@ public abstract class Bind extends RBaseNode {
         return result;
     }
 
+    /**
+     * Copies {@code length} consecutive elements, with a single array copy if both vectors keep
+     * their elements in Java arrays of the same type.
+     */
+    private void transferElements(RVector<?> result, int toIndex, RAbstractVector vec, int fromIndex, int length) {
+        if (arrayCopyProfile.profile(length > 1 && canCopyArrays(result, vec))) {
+            System.arraycopy(((RVector<?>) vec).getInternalManagedData(), fromIndex, result.getInternalManagedData(), toIndex, length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                result.transferElementSameType(toIndex + i, vec, fromIndex + i);
+            }
+        }
+    }
+
+    private static boolean canCopyArrays(RVector<?> result, RAbstractVector vec) {
+        // complex vectors are excluded because they store two doubles per element, vectors with
+        // a native mirror do not hold their data in a Java array anymore
+        return vec.getClass() == result.getClass() && (vec instanceof RDoubleVector || vec instanceof RIntVector || vec instanceof RLogicalVector || vec instanceof RStringVector) &&
+                        !((RVector<?>) vec).hasNativeMemoryData() && !result.hasNativeMemoryData();
+    }
+
     private boolean dimResultNamesComplete(String[] rowDimNamesArray) {
         for (String s : rowDimNamesArray) {
             if (dimNamesInComplete.profile(s == RRuntime.STRING_NA)) {
@@ -0,0 +1,380 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.base;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.r.runtime.ParallelLoop;
+import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.data.RArgsValuesAndNames;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RFunction;
+import com.oracle.truffle.r.runtime.data.RIntVector;
+import com.oracle.truffle.r.runtime.data.RList;
+import com.oracle.truffle.r.runtime.data.RNull;
+import com.oracle.truffle.r.runtime.data.RStringVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractLogicalVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+import com.oracle.truffle.r.runtime.env.REnvironment;
+
+/**
+ * Implementation of {@code rbind.data.frame} for the common case of binding data frames that all
+ * have the same columns, e.g., {@code do.call(rbind, chunks)}. The R function extends every result
+ * column once per argument, this computes the number of rows and the column types up front,
+ * allocates each column once and fills the columns in parallel.
+ *
+ * Only arguments for which the R function would produce the same result are handled: unnamed
+ * plain data frames with automatic row names, the same column names in the same order, and
+ * columns that are either attribute-free logical, integer, double or character vectors of the same
+ * type in all arguments, or factors in all arguments. Everything else is left to the R function.
+ */
+final class DataFrameBind {
+
+    private static final int LOGICAL = 0;
+    private static final int INTEGER = 1;
+    private static final int DOUBLE = 2;
+    private static final int STRING = 3;
+    private static final int FACTOR = 4;
+
+    private static final String CLASS_ORDERED = "ordered";
+
+    private DataFrameBind() {
+        // no instances
+    }
+
+    /**
+     * Returns the result of {@code rbind} on the given arguments if {@code dispatchFunction} is
+     * {@code base::rbind.data.frame} and the arguments can be handled, otherwise {@code null}.
+     */
+    @TruffleBoundary
+    static RList rbind(RFunction dispatchFunction, RArgsValuesAndNames args) {
+        if (args.getSignature().getNonNullCount() != 0 || dispatchFunction != REnvironment.baseNamespaceEnv().get("rbind.data.frame")) {
+            return null;
+        }
+        // like rbind.data.frame, ignore NULL and zero-column arguments; zero-row data frames
+        // contribute no data, but still determine the column types and add their factor levels
+        ArrayList<RList> frames = new ArrayList<>(args.getLength());
+        boolean anyFrame = false;
+        long totalRows = 0;
+        int[] rows = new int[args.getLength()];
+        for (Object arg : args.getArguments()) {
+            if (arg == RNull.instance) {
+                continue;
+            }
+            if (!(arg instanceof RList) || !isPlainDataFrame((RList) arg)) {
+                return null;
+            }
+            RList frame = (RList) arg;
+            if (frame.getLength() == 0) {
+                continue;
+            }
+            anyFrame = true;
+            int frameRows = getAutomaticRowCount(frame);
+            if (frameRows < 0) {
+                return null;
+            }
+            rows[frames.size()] = frameRows;
+            frames.add(frame);
+            totalRows += frameRows;
+        }
+        if (!anyFrame || totalRows == 0 || totalRows > Integer.MAX_VALUE) {
+            return null;
+        }
+        RList first = frames.get(0);
+        int columnCount = first.getLength();
+        RStringVector names = first.getNames();
+        for (RList frame : frames) {
+            if (frame.getLength() != columnCount || !sameNames(names, frame.getNames())) {
+                return null;
+            }
+        }
+        Column[] columns = new Column[columnCount];
+        for (int j = 0; j < columnCount; j++) {
+            columns[j] = Column.create(frames, rows, j);
+            if (columns[j] == null) {
+                return null;
+            }
+        }
+
+        int resultRows = (int) totalRows;
+        Object[] data = new Object[columnCount];
+        if (columnCount > 1 && ParallelLoop.isParallel((int) Math.min(Integer.MAX_VALUE, totalRows * columnCount))) {
+            ParallelLoop.execute(columnCount, 1, (from, to) -> fillColumns(columns, rows, resultRows, data, from, to));
+        } else {
+            fillColumns(columns, rows, resultRows, data, 0, columnCount);
+        }
+        Object[] resultColumns = new Object[columnCount];
+        for (int j = 0; j < columnCount; j++) {
+            resultColumns[j] = columns[j].createVector(data[j]);
+        }
+
+        RList result = RDataFactory.createList(resultColumns, (RStringVector) names.copy());
+        // automatic row names, as created by .set_row_names
+        result.setRowNames(RDataFactory.createIntVector(new int[]{RRuntime.INT_NA, -resultRows}, RDataFactory.INCOMPLETE_VECTOR));
+        result.setClassAttr(RDataFactory.createStringVectorFromScalar(RRuntime.CLASS_DATA_FRAME));
+        return result;
+    }
+
+    private static void fillColumns(Column[] columns, int[] rows, int resultRows, Object[] data, int from, int to) {
+        for (int j = from; j < to; j++) {
+            data[j] = columns[j].fill(rows, resultRows);
+        }
+    }
+
+    private static boolean isPlainDataFrame(RList frame) {
+        DynamicObject attributes = frame.getAttributes();
+        if (attributes == null || attributes.size() != 3 || frame.getNames() == null) {
+            return false;
+        }
+        return isClass(frame.getAttr(RRuntime.CLASS_ATTR_KEY), RRuntime.CLASS_DATA_FRAME);
+    }
+
+    /**
+     * Returns the number of rows of a data frame with automatic row names, i.e., compact row names
+     * {@code c(NA, -n)}, or -1 if it has other row names.
+     */
+    private static int getAutomaticRowCount(RList frame) {
+        Object rowNames = frame.getAttr(RRuntime.ROWNAMES_ATTR_KEY);
+        if (rowNames instanceof RAbstractIntVector) {
+            RAbstractIntVector compact = (RAbstractIntVector) rowNames;
+            if (compact.getLength() == 0) {
+                return 0;
+            } else if (compact.getLength() == 2 && RRuntime.isNA(compact.getDataAt(0))) {
+                int n = compact.getDataAt(1);
+                if (n <= 0 && n != RRuntime.INT_NA) {
+                    return -n;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static boolean sameNames(RStringVector names, RStringVector other) {
+        if (other == null || other.getLength() != names.getLength()) {
+            return false;
+        }
+        for (int i = 0; i < names.getLength(); i++) {
+            if (!names.getDataAt(i).equals(other.getDataAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isClass(Object classAttr, String... expected) {
+        if (!(classAttr instanceof RAbstractStringVector) || ((RAbstractStringVector) classAttr).getLength() != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (!expected[i].equals(((RAbstractStringVector) classAttr).getDataAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasNoAttributes(RAbstractVector vector) {
+        DynamicObject attributes = vector.getAttributes();
+        return attributes == null || attributes.size() == 0;
+    }
+
+    /**
+     * One result column: the data of the column in each of the bound data frames, and for
+     * factors the mapping of their codes to the combined levels.
+     */
+    private static final class Column {
+        private final int kind;
+        private final Object[] chunks;
+        private final boolean complete;
+        private final int[][] levelMaps;
+        private final String[] levels;
+        private final boolean ordered;
+
+        private Column(int kind, Object[] chunks, boolean complete, int[][] levelMaps, String[] levels, boolean ordered) {
+            this.kind = kind;
+            this.chunks = chunks;
+            this.complete = complete;
+            this.levelMaps = levelMaps;
+            this.levels = levels;
+            this.ordered = ordered;
+        }
+
+        static Column create(ArrayList<RList> frames, int[] rows, int j) {
+            Object template = frames.get(0).getDataAt(j);
+            int kind = getKind(template);
+            if (kind < 0) {
+                return null;
+            }
+            Object[] chunks = new Object[frames.size()];
+            boolean complete = true;
+            int[][] levelMaps = kind == FACTOR ? new int[frames.size()][] : null;
+            HashMap<String, Integer> levelIndex = kind == FACTOR ? new HashMap<>() : null;
+            ArrayList<String> levels = kind == FACTOR ? new ArrayList<>() : null;
+            boolean ordered = true;
+            for (int i = 0; i < frames.size(); i++) {
+                Object value = frames.get(i).getDataAt(j);
+                if (getKind(value) != kind || ((RAbstractVector) value).getLength() != rows[i]) {
+                    return null;
+                }
+                RAbstractVector vector = (RAbstractVector) value;
+                complete &= vector.isComplete();
+                switch (kind) {
+                    case LOGICAL:
+                        chunks[i] = ((RAbstractLogicalVector) vector).materialize().getReadonlyData();
+                        break;
+                    case INTEGER:
+                        chunks[i] = ((RAbstractIntVector) vector).materialize().getReadonlyData();
+                        break;
+                    case DOUBLE:
+                        chunks[i] = ((RAbstractDoubleVector) vector).materialize().getReadonlyData();
+                        break;
+                    case STRING:
+                        chunks[i] = ((RAbstractStringVector) vector).materialize().getReadonlyData();
+                        break;
+                    case FACTOR:
+                        chunks[i] = ((RAbstractIntVector) vector).materialize().getReadonlyData();
+                        ordered &= isClass(vector.getAttr(RRuntime.CLASS_ATTR_KEY), CLASS_ORDERED, RRuntime.CLASS_FACTOR);
+                        RAbstractStringVector frameLevels = (RAbstractStringVector) vector.getAttr(RRuntime.LEVELS_ATTR_KEY);
+                        int[] map = new int[frameLevels.getLength()];
+                        for (int k = 0; k < map.length; k++) {
+                            String level = frameLevels.getDataAt(k);
+                            if (RRuntime.isNA(level)) {
+                                return null;
+                            }
+                            Integer index = levelIndex.get(level);
+                            if (index == null) {
+                                index = levels.size() + 1;
+                                levelIndex.put(level, index);
+                                levels.add(level);
+                            }
+                            map[k] = index;
+                        }
+                        levelMaps[i] = map;
+                        break;
+                    default:
+                        throw RInternalError.shouldNotReachHere();
+                }
+            }
+            return new Column(kind, chunks, complete, levelMaps, kind == FACTOR ? levels.toArray(new String[levels.size()]) : null, ordered);
+        }
+
+        private static int getKind(Object value) {
+            if (!(value instanceof RAbstractVector)) {
+                return -1;
+            }
+            RAbstractVector vector = (RAbstractVector) value;
+            if (hasNoAttributes(vector)) {
+                if (vector instanceof RAbstractLogicalVector) {
+                    return LOGICAL;
+                } else if (vector instanceof RAbstractIntVector) {
+                    return INTEGER;
+                } else if (vector instanceof RAbstractDoubleVector) {
+                    return DOUBLE;
+                } else if (vector instanceof RAbstractStringVector) {
+                    return STRING;
+                }
+            } else if (vector instanceof RAbstractIntVector && vector.getAttributes().size() == 2 && vector.getAttr(RRuntime.LEVELS_ATTR_KEY) instanceof RAbstractStringVector) {
+                Object classAttr = vector.getAttr(RRuntime.CLASS_ATTR_KEY);
+                if (isClass(classAttr, RRuntime.CLASS_FACTOR) || isClass(classAttr, CLASS_ORDERED, RRuntime.CLASS_FACTOR)) {
+                    return FACTOR;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Copies the chunks into a new array. Only touches arrays, so that it can run in parallel.
+         */
+        Object fill(int[] rows, int resultRows) {
+            Object result;
+            switch (kind) {
+                case LOGICAL:
+                    result = new byte[resultRows];
+                    break;
+                case INTEGER:
+                case FACTOR:
+                    result = new int[resultRows];
+                    break;
+                case DOUBLE:
+                    result = new double[resultRows];
+                    break;
+                default:
+                    result = new String[resultRows];
+                    break;
+            }
+            int offset = 0;
+            for (int i = 0; i < chunks.length; i++) {
+                if (rows[i] == 0) {
+                    continue;
+                } else if (kind == FACTOR) {
+                    int[] codes = (int[]) chunks[i];
+                    int[] map = levelMaps[i];
+                    int[] target = (int[]) result;
+                    for (int k = 0; k < rows[i]; k++) {
+                        int code = codes[k];
+                        target[offset + k] = code == RRuntime.INT_NA || code < 1 || code > map.length ? RRuntime.INT_NA : map[code - 1];
+                    }
+                } else {
+                    System.arraycopy(chunks[i], 0, result, offset, rows[i]);
+                }
+                offset += rows[i];
+            }
+            return result;
+        }
+
+        Object createVector(Object data) {
+            switch (kind) {
+                case LOGICAL:
+                    return RDataFactory.createLogicalVector((byte[]) data, complete);
+                case INTEGER:
+                    return RDataFactory.createIntVector((int[]) data, complete);
+                case DOUBLE:
+                    return RDataFactory.createDoubleVector((double[]) data, complete);
+                case STRING:
+                    return RDataFactory.createStringVector((String[]) data, complete);
+                default:
+                    RIntVector factor = RDataFactory.createIntVector((int[]) data, isCompleteFactor((int[]) data));
+                    factor.setAttr(RRuntime.LEVELS_ATTR_KEY, RDataFactory.createStringVector(levels, RDataFactory.COMPLETE_VECTOR));
+                    factor.setClassAttr(ordered ? RDataFactory.createStringVector(new String[]{CLASS_ORDERED, RRuntime.CLASS_FACTOR}, RDataFactory.COMPLETE_VECTOR)
+                                    : RDataFactory.createStringVectorFromScalar(RRuntime.CLASS_FACTOR));
+                    return factor;
+            }
+        }
+
+        private static boolean isCompleteFactor(int[] codes) {
+            for (int code : codes) {
+                if (code == RRuntime.INT_NA) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -28,6 +28,7 @@ import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.toBoolean;
 import static com.oracle.truffle.r.runtime.RVisibility.CUSTOM;
 import static com.oracle.truffle.r.runtime.builtins.RBehavior.COMPLEX;
 
+import java.util.Arrays;
 import java.util.function.Supplier;
 
 import com.oracle.truffle.api.CompilerDirectives;
@@ -76,6 +77,7 @@ import com.oracle.truffle.r.runtime.data.RList;
 import com.oracle.truffle.r.runtime.data.RPairList;
 import com.oracle.truffle.r.runtime.data.RPromise;
 import com.oracle.truffle.r.runtime.data.RPromise.PromiseState;
+import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.RSymbol;
 import com.oracle.truffle.r.runtime.data.model.RAbstractListVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
@@ -130,6 +132,7 @@ public abstract class DoCall extends RBuiltinNode.Arg4 implements InternalRSynta
         private final ValueProfile frameProfile = ValueProfile.createClassProfile();
         private final RNodeClosureCache languagesClosureCache = new RNodeClosureCache();
         private final SymbolClosureCache symbolsClosureCache = new SymbolClosureCache();
+        private CachedSignature cachedSignature;
 
         public static DoCallInternal create() {
             return DoCallInternalNodeGen.create();
@@ -260,8 +263,25 @@ public abstract class DoCall extends RBuiltinNode.Arg4 implements InternalRSynta
                 CompilerDirectives.transferToInterpreterAndInvalidate();
                 getNamesNode = insert(GetNamesAttributeNode.create());
             }
-            ArgumentsSignature signature = ArgumentsSignature.fromNamesAttribute(getNamesNode.getNames(argsAsList));
-            return signature == null ? ArgumentsSignature.empty(argsAsList.getLength()) : signature;
+            return getSignature(getNamesNode.getNames(argsAsList), argsAsList.getLength());
+        }
+
+        /**
+         * Argument lists passed to the same {@code do.call} usually have the same names, e.g., in
+         * {@code lapply(chunks, function(x) do.call(f, x))}. Reusing the last signature avoids
+         * interning all names again and keeps the signature identical, so that the argument
+         * matching cached for it in the call is reused.
+         */
+        @TruffleBoundary
+        private ArgumentsSignature getSignature(RStringVector names, int length) {
+            String[] data = names == null ? null : names.getReadonlyData();
+            CachedSignature cached = cachedSignature;
+            if (cached != null && cached.length == length && (data == null ? cached.names == null : Arrays.equals(data, cached.names))) {
+                return cached.signature;
+            }
+            ArgumentsSignature signature = data == null ? ArgumentsSignature.empty(length) : ArgumentsSignature.fromNamesAttribute(names);
+            cachedSignature = new CachedSignature(data == null ? null : data.clone(), length, signature);
+            return signature;
         }
 
         @TruffleBoundary
@@ -278,6 +298,18 @@ public abstract class DoCall extends RBuiltinNode.Arg4 implements InternalRSynta
         }
     }
 
+    private static final class CachedSignature {
+        private final String[] names;
+        private final int length;
+        private final ArgumentsSignature signature;
+
+        CachedSignature(String[] names, int length, ArgumentsSignature signature) {
+            this.names = names;
+            this.length = length;
+            this.signature = signature;
+        }
+    }
+
     static class SlowPathExplicitCall extends TruffleBoundaryNode {
         @Child private RExplicitCallNode slowPathCallNode;
 
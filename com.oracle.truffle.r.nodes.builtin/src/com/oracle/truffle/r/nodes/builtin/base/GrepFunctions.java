@@ -124,6 +124,7 @@ public class GrepFunctions {
     public static class CommonCodeNode extends RBaseNode {
         @Child protected PCRERFFI.MaketablesNode maketablesNode = RFFIFactory.getPCRERFFI().createMaketablesNode();
         @Child protected PCRERFFI.CompileNode compileNode = RFFIFactory.getPCRERFFI().createCompileNode();
+        @Child protected PCRERFFI.FreeNode freeNode = RFFIFactory.getPCRERFFI().createFreeNode();
 
         /**
          * Temporary method that handles the check for the arguments that are common to the majority
@@ -218,6 +219,16 @@ public class GrepFunctions {
             }
             return pcre;
         }
+
+        /**
+         * Releases a pattern returned by {@link #compilePerlPattern}, {@code pcre} may be
+         * {@code null} or failed.
+         */
+        protected void freePerlPattern(PCRERFFI.Result pcre) {
+            if (pcre != null && pcre.result != 0) {
+                freeNode.execute(pcre.result);
+            }
+        }
     }
 
     protected static final class GrepCommonCodeNode extends CommonCodeNode {
@@ -244,15 +255,19 @@ public class GrepFunctions {
                     findAllMatches(matches, pattern, vector, fixed, ignoreCase);
                 } else {
                     PCRERFFI.Result pcre = compilePerlPattern(pattern, ignoreCase);
-                    // TODO pcre_study for vectors > 10 ? (cf GnuR)
-                    int[] ovector = new int[30];
-                    for (int i = 0; i < len; i++) {
-                        String text = vector.getDataAt(i);
-                        if (!RRuntime.isNA(text)) {
-                            if (execNode.execute(pcre.result, 0, text, 0, 0, ovector) >= 0) {
-                                matches[i] = true;
+                    try {
+                        // TODO pcre_study for vectors > 10 ? (cf GnuR)
+                        int[] ovector = new int[30];
+                        for (int i = 0; i < len; i++) {
+                            String text = vector.getDataAt(i);
+                            if (!RRuntime.isNA(text)) {
+                                if (execNode.execute(pcre.result, 0, text, 0, 0, ovector) >= 0) {
+                                    matches[i] = true;
+                                }
                             }
                         }
+                    } finally {
+                        freePerlPattern(pcre);
                     }
                 }
 
@@ -429,6 +444,7 @@ public class GrepFunctions {
 
         protected RStringVector doSub(String patternArg, String replacementArg, RAbstractStringVector vector, boolean ignoreCase, boolean perlPar,
                         boolean fixedPar, @SuppressWarnings("unused") boolean useBytes, boolean gsub) {
+            PCRERFFI.Result pcre = null;
             try {
                 boolean perl = perlPar;
                 boolean fixed = fixedPar;
@@ -453,7 +469,6 @@ public class GrepFunctions {
                     perl = false;
                 }
 
-                PCRERFFI.Result pcre = null;
                 if (fixed) {
                     // TODO case
                 } else if (perl) {
@@ -554,6 +569,8 @@ public class GrepFunctions {
                 return ret;
             } catch (PatternSyntaxException e) {
                 throw error(Message.INVALID_REGEXP_REASON, patternArg, e.getMessage());
+            } finally {
+                freePerlPattern(pcre);
             }
         }
 
@@ -895,51 +912,55 @@ public class GrepFunctions {
                 }
             } else if (perl) {
                 PCRERFFI.Result pcre = common.compilePerlPattern(pattern, ignoreCase);
-                int maxCaptureCount = getCaptureCountNode.execute(pcre.result, 0);
-                if (maxCaptureCount < 0) {
-                    throw error(Message.PCRE_FULLINFO_RETURNED, maxCaptureCount);
-                }
+                try {
+                    int maxCaptureCount = getCaptureCountNode.execute(pcre.result, 0);
+                    if (maxCaptureCount < 0) {
+                        throw error(Message.PCRE_FULLINFO_RETURNED, maxCaptureCount);
+                    }
 
-                String[] captureNames = getCaptureNamesNode.execute(pcre.result, 0, maxCaptureCount);
-                assert maxCaptureCount == captureNames.length;
-                for (int i = 0; i < captureNames.length; i++) {
-                    if (captureNames[i] == null) {
-                        captureNames[i] = "";
+                    String[] captureNames = getCaptureNamesNode.execute(pcre.result, 0, maxCaptureCount);
+                    assert maxCaptureCount == captureNames.length;
+                    for (int i = 0; i < captureNames.length; i++) {
+                        if (captureNames[i] == null) {
+                            captureNames[i] = "";
+                        }
                     }
-                }
 
-                int[] ovector = new int[(maxCaptureCount + 1) * 3];
-                int offset = 0;
-                while (true) {
-                    int captureCount = execNode.execute(pcre.result, 0, text, offset, 0, ovector);
-                    if (captureCount >= 0) {
-                        assert captureCount - 1 == captureNames.length || captureCount == captureNames.length : captureCount + ", " + captureNames.length;
-
-                        int[] captureStart = null;
-                        int[] captureLength = null;
-                        if (captureCount > 1) {
-                            captureStart = new int[captureCount - 1];
-                            captureLength = new int[captureCount - 1];
-                            int ind = 0;
-                            for (int i = 2; i < captureCount * 2; i += 2) {
-                                captureStart[ind] = ovector[i] + 1;
-                                captureLength[ind] = ovector[i + 1] - ovector[i];
-                                ind++;
+                    int[] ovector = new int[(maxCaptureCount + 1) * 3];
+                    int offset = 0;
+                    while (true) {
+                        int captureCount = execNode.execute(pcre.result, 0, text, offset, 0, ovector);
+                        if (captureCount >= 0) {
+                            assert captureCount - 1 == captureNames.length || captureCount == captureNames.length : captureCount + ", " + captureNames.length;
+
+                            int[] captureStart = null;
+                            int[] captureLength = null;
+                            if (captureCount > 1) {
+                                captureStart = new int[captureCount - 1];
+                                captureLength = new int[captureCount - 1];
+                                int ind = 0;
+                                for (int i = 2; i < captureCount * 2; i += 2) {
+                                    captureStart[ind] = ovector[i] + 1;
+                                    captureLength[ind] = ovector[i + 1] - ovector[i];
+                                    ind++;
+                                }
                             }
-                        }
-                        // R starts counting at index 1
-                        list.add(new Info(ovector[0] + 1, ovector[1] - ovector[0], captureStart, captureLength, captureNames));
-                        if (onlyFirst) {
+                            // R starts counting at index 1
+                            list.add(new Info(ovector[0] + 1, ovector[1] - ovector[0], captureStart, captureLength, captureNames));
+                            if (onlyFirst) {
+                                break;
+                            }
+                            offset = ovector[1];
+                        } else {
                             break;
                         }
-                        offset = ovector[1];
-                    } else {
-                        break;
                     }
-                }
-                if (list.isEmpty() && maxCaptureCount > 0) {
-                    // at least a return array of emtpty string names, is necessary for output
-                    list.add(new Info(-1, -1, null, null, captureNames));
+                    if (list.isEmpty() && maxCaptureCount > 0) {
+                        // at least a return array of emtpty string names, is necessary for output
+                        list.add(new Info(-1, -1, null, null, captureNames));
+                    }
+                } finally {
+                    common.freePerlPattern(pcre);
                 }
             } else {
                 Matcher m = getPatternMatcher(pattern, text, ignoreCase);
@@ -1413,57 +1434,65 @@ public class GrepFunctions {
             long pcreTables = perl ? common.maketablesNode.execute() : 0;
             PCRERFFI.Result[] pcreSplits = perl ? new PCRERFFI.Result[splits.length] : null;
 
-            na.enable(x);
-            for (int i = 0; i < splits.length; i++) {
-                String currentSplit = split.getDataAt(i);
-                splits[i] = fixed || perl ? split.getDataAt(i) : RegExp.checkPreDefinedClasses(split.getDataAt(i));
-                if (perl) {
-                    if (!currentSplit.isEmpty()) {
-                        pcreSplits[i] = common.compileNode.execute(currentSplit, 0, pcreTables);
-                        if (pcreSplits[i].result == 0) {
-                            // TODO output warning if pcre.errorMessage not NULL
-                            throw error(RError.Message.INVALID_REGEXP, currentSplit);
+            try {
+                na.enable(x);
+                for (int i = 0; i < splits.length; i++) {
+                    String currentSplit = split.getDataAt(i);
+                    splits[i] = fixed || perl ? split.getDataAt(i) : RegExp.checkPreDefinedClasses(split.getDataAt(i));
+                    if (perl) {
+                        if (!currentSplit.isEmpty()) {
+                            pcreSplits[i] = common.compileNode.execute(currentSplit, 0, pcreTables);
+                            if (pcreSplits[i].result == 0) {
+                                // TODO output warning if pcre.errorMessage not NULL
+                                throw error(RError.Message.INVALID_REGEXP, currentSplit);
+                            }
+                            // TODO pcre_study for vectors > 10 ? (cf GnuR)
                         }
-                        // TODO pcre_study for vectors > 10 ? (cf GnuR)
                     }
                 }
-            }
-            for (int i = 0; i < x.getLength(); i++) {
-                String data = x.getDataAt(i);
-                assert data != null;
-                if (data.length() == 0) {
-                    result[i] = RDataFactory.createEmptyStringVector();
-                    continue;
-                }
-                String currentSplit = splits[i % splits.length];
-                try {
-                    if (currentSplit.isEmpty()) {
-                        result[i] = na.check(data) ? RDataFactory.createNAStringVector() : emptySplitIntl(data);
-                    } else if (RRuntime.isNA(currentSplit)) {
-                        // NA doesn't split
-                        result[i] = RDataFactory.createStringVectorFromScalar(data);
-                    } else {
-                        RStringVector resultItem;
-                        if (na.check(data)) {
-                            resultItem = RDataFactory.createNAStringVector();
+                for (int i = 0; i < x.getLength(); i++) {
+                    String data = x.getDataAt(i);
+                    assert data != null;
+                    if (data.length() == 0) {
+                        result[i] = RDataFactory.createEmptyStringVector();
+                        continue;
+                    }
+                    String currentSplit = splits[i % splits.length];
+                    try {
+                        if (currentSplit.isEmpty()) {
+                            result[i] = na.check(data) ? RDataFactory.createNAStringVector() : emptySplitIntl(data);
+                        } else if (RRuntime.isNA(currentSplit)) {
+                            // NA doesn't split
+                            result[i] = RDataFactory.createStringVectorFromScalar(data);
                         } else {
-                            if (perl) {
-                                resultItem = splitPerl(data, pcreSplits[i % splits.length]);
+                            RStringVector resultItem;
+                            if (na.check(data)) {
+                                resultItem = RDataFactory.createNAStringVector();
                             } else {
-                                resultItem = splitIntl(data, currentSplit, fixed);
-                            }
-                            if (resultItem.getLength() == 0) {
-                                if (fixed) {
-                                    resultItem = RDataFactory.createStringVector(data);
+                                if (perl) {
+                                    resultItem = splitPerl(data, pcreSplits[i % splits.length]);
                                 } else {
-                                    resultItem = RDataFactory.createStringVector(data.length());
+                                    resultItem = splitIntl(data, currentSplit, fixed);
+                                }
+                                if (resultItem.getLength() == 0) {
+                                    if (fixed) {
+                                        resultItem = RDataFactory.createStringVector(data);
+                                    } else {
+                                        resultItem = RDataFactory.createStringVector(data.length());
+                                    }
                                 }
                             }
+                            result[i] = resultItem;
                         }
-                        result[i] = resultItem;
+                    } catch (PatternSyntaxException e) {
+                        throw error(Message.INVALID_REGEXP_REASON, currentSplit, e.getMessage());
+                    }
+                }
+            } finally {
+                if (perl) {
+                    for (PCRERFFI.Result pcre : pcreSplits) {
+                        common.freePerlPattern(pcre);
                     }
-                } catch (PatternSyntaxException e) {
-                    throw error(Message.INVALID_REGEXP_REASON, currentSplit, e.getMessage());
                 }
             }
             RList ret = RDataFactory.createList(result);
@@ -31,8 +31,6 @@ import static com.oracle.truffle.r.runtime.RDispatch.INTERNAL_GENERIC;
 import static com.oracle.truffle.r.runtime.builtins.RBehavior.PURE;
 import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
 
-import java.util.Arrays;
-
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.dsl.Cached;
@@ -171,18 +169,20 @@ public abstract class Repeat extends RBuiltinNode.Arg2 {
             int lengthOut = lengthOutProfile.profile(lengthOutIn);
             int each = eachProfile.profile(eachIn);
 
-            // fast path for very simple case of filling with a single double values:
+            // fast path for very simple case of filling with a single double or integer value, long
+            // results are compact constant sequences:
             if (trySimple) {
-                if (x instanceof RAbstractDoubleVector && x.getLength() == 1 && times.getLength() == 1 && each == 1 && getNames.getNames(x) == null) {
-                    RAbstractDoubleVector doubleVector = (RAbstractDoubleVector) x;
+                if ((x instanceof RAbstractDoubleVector || x instanceof RAbstractIntVector) && x.getLength() == 1 && times.getLength() == 1 && each == 1 && getNames.getNames(x) == null) {
                     int t = times.getDataAt(0);
                     if (t < 0) {
                         throw error(RError.Message.INVALID_ARGUMENT, "times");
                     }
                     int length = lengthOutOrTimes.profile(!RRuntime.isNA(lengthOut)) ? lengthOut : t;
-                    double[] data = new double[length];
-                    Arrays.fill(data, doubleVector.getDataAt(0));
-                    return RDataFactory.createDoubleVector(data, !RRuntime.isNA(doubleVector.getDataAt(0)));
+                    if (x instanceof RAbstractDoubleVector) {
+                        return RDataFactory.createDoubleConstant(((RAbstractDoubleVector) x).getDataAt(0), length);
+                    } else {
+                        return RDataFactory.createIntConstant(((RAbstractIntVector) x).getDataAt(0), length);
+                    }
                 } else {
                     CompilerDirectives.transferToInterpreterAndInvalidate();
                     trySimple = false;
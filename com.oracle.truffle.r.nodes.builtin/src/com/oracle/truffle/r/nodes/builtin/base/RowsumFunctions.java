@@ -23,18 +23,17 @@ import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.toBoolean;
 import static com.oracle.truffle.r.runtime.builtins.RBehavior.PURE;
 import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.INTERNAL;
 
-import java.util.HashMap;
-
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.ParallelLoop;
 import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RFunction;
-import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RList;
 import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RVector;
@@ -42,7 +41,7 @@ import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
-import com.oracle.truffle.r.runtime.ops.na.NACheck;
+import com.oracle.truffle.r.runtime.nodes.GroupingHelper;
 
 // Translated from main/unique.c
 
@@ -52,8 +51,12 @@ public class RowsumFunctions {
     @RBuiltin(name = "rowsum_matrix", kind = INTERNAL, parameterNames = {"x", "g", "uniqueg", "snarm", "rn"}, behavior = PURE)
     public abstract static class Rowsum extends RBuiltinNode.Arg5 {
 
+        /**
+         * The minimal number of columns summed by one parallel task.
+         */
+        private static final int COLUMN_CHUNK_SIZE = 4;
+
         private final ConditionProfile typeProfile = ConditionProfile.createBinaryProfile();
-        private final NACheck na = NACheck.create();
 
         static {
             Casts casts = new Casts(Rowsum.class);
@@ -74,68 +77,43 @@ public class RowsumFunctions {
             int p = xv.isMatrix() ? xv.getDimensions()[1] : 1;
             int n = g.getLength();
             int ng = uniqueg.getLength();
-            HashMap<Object, Integer> table = new HashMap<>();
-            for (int i = 0; i < ng; i++) {
-                // uniqueg has no duplicates (by definition)
-                table.put(uniqueg.getDataAtAsObject(i), i);
-            }
-            int[] matches = new int[n];
+            // uniqueg has no duplicates (by definition)
+            int[] codes = GroupingHelper.computeCodes(g, uniqueg);
             for (int i = 0; i < n; i++) {
-                Integer hi = table.get(g.getDataAtAsObject(i));
-                matches[i] = xv == null ? 0 : hi + 1;
+                if (codes[i] < 0) {
+                    throw RInternalError.shouldNotReachHere("group not found in uniqueg");
+                }
             }
-            int offset = 0;
-            int offsetg = 0;
 
-            boolean isInt = xv instanceof RIntVector;
+            boolean isInt = xv instanceof RAbstractIntVector;
             RVector<?> result;
-            na.enable(xv);
-            boolean complete = xv.isComplete();
+            boolean parallel = p > 1 && ParallelLoop.isParallel(n * p);
 
             if (typeProfile.profile(isInt)) {
-                RAbstractIntVector xi = (RAbstractIntVector) xv;
+                int[] xi = ((RAbstractIntVector) xv).materialize().getReadonlyData();
                 int[] ansi = new int[ng * p];
+                boolean[] columnIncomplete = new boolean[p];
+                if (parallel) {
+                    ParallelLoop.execute(p, COLUMN_CHUNK_SIZE, (from, to) -> sumIntColumns(xi, codes, ansi, columnIncomplete, n, ng, narm, from, to));
+                } else {
+                    sumIntColumns(xi, codes, ansi, columnIncomplete, n, ng, narm, 0, p);
+                }
+                boolean complete = xv.isComplete();
                 for (int i = 0; i < p; i++) {
-                    for (int j = 0; j < n; j++) {
-                        int midx = matches[j] - 1 + offsetg;
-                        int itmp = ansi[midx];
-                        if (na.check(xi.getDataAt(j + offset))) {
-                            if (!narm) {
-                                ansi[midx] = RRuntime.INT_NA;
-                                complete = RDataFactory.INCOMPLETE_VECTOR;
-                            }
-                        } else if (!na.check(itmp)) {
-                            long dtmp = itmp;
-                            int jtmp = xi.getDataAt(j + offset);
-                            dtmp += jtmp;
-                            if (dtmp < Integer.MIN_VALUE || dtmp > Integer.MAX_VALUE) {
-                                itmp = RRuntime.INT_NA;
-                                complete = RDataFactory.INCOMPLETE_VECTOR;
-                            } else {
-                                itmp += jtmp;
-                            }
-                            ansi[midx] = itmp;
-                        }
+                    if (columnIncomplete[i]) {
+                        complete = RDataFactory.INCOMPLETE_VECTOR;
                     }
-                    offset += n;
-                    offsetg += ng;
                 }
                 result = RDataFactory.createIntVector(ansi, complete, new int[]{ng, p});
             } else {
-                RAbstractDoubleVector xd = (RAbstractDoubleVector) xv;
+                double[] xd = ((RAbstractDoubleVector) xv).materialize().getReadonlyData();
                 double[] ansd = new double[ng * p];
-                for (int i = 0; i < p; i++) {
-                    for (int j = 0; j < n; j++) {
-                        int midx = matches[j] - 1 + offsetg;
-                        double dtmp = xd.getDataAt(j + offset);
-                        if (!narm || !Double.isNaN(dtmp)) {
-                            ansd[midx] += dtmp;
-                        }
-                    }
-                    offset += n;
-                    offsetg += ng;
+                if (parallel) {
+                    ParallelLoop.execute(p, COLUMN_CHUNK_SIZE, (from, to) -> sumDoubleColumns(xd, codes, ansd, n, ng, narm, from, to));
+                } else {
+                    sumDoubleColumns(xd, codes, ansd, n, ng, narm, 0, p);
                 }
-                result = RDataFactory.createDoubleVector(ansd, complete, new int[]{ng, p});
+                result = RDataFactory.createDoubleVector(ansd, xv.isComplete(), new int[]{ng, p});
             }
             RList dn2 = xv.materialize().getDimNames();
             Object dn2Obj = RNull.instance;
@@ -146,5 +124,46 @@ public class RowsumFunctions {
             result.setDimNames(dimNames);
             return result;
         }
+
+        private static void sumIntColumns(int[] x, int[] codes, int[] ans, boolean[] columnIncomplete, int n, int ng, boolean narm, int fromColumn, int toColumn) {
+            for (int i = fromColumn; i < toColumn; i++) {
+                int offset = i * n;
+                int offsetg = i * ng;
+                boolean incomplete = false;
+                for (int j = 0; j < n; j++) {
+                    int midx = codes[j] + offsetg;
+                    int itmp = ans[midx];
+                    int value = x[j + offset];
+                    if (RRuntime.isNA(value)) {
+                        if (!narm) {
+                            ans[midx] = RRuntime.INT_NA;
+                            incomplete = true;
+                        }
+                    } else if (!RRuntime.isNA(itmp)) {
+                        long dtmp = (long) itmp + value;
+                        if (dtmp < Integer.MIN_VALUE || dtmp > Integer.MAX_VALUE) {
+                            ans[midx] = RRuntime.INT_NA;
+                            incomplete = true;
+                        } else {
+                            ans[midx] = (int) dtmp;
+                        }
+                    }
+                }
+                columnIncomplete[i] = incomplete;
+            }
+        }
+
+        private static void sumDoubleColumns(double[] x, int[] codes, double[] ans, int n, int ng, boolean narm, int fromColumn, int toColumn) {
+            for (int i = fromColumn; i < toColumn; i++) {
+                int offset = i * n;
+                int offsetg = i * ng;
+                for (int j = 0; j < n; j++) {
+                    double dtmp = x[j + offset];
+                    if (!narm || !Double.isNaN(dtmp)) {
+                        ans[codes[j] + offsetg] += dtmp;
+                    }
+                }
+            }
+        }
     }
 }
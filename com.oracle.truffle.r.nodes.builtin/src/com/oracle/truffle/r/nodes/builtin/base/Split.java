@@ -25,8 +25,6 @@ package com.oracle.truffle.r.nodes.builtin.base;
 import static com.oracle.truffle.r.runtime.builtins.RBehavior.PURE;
 import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.INTERNAL;
 
-import java.util.Arrays;
-
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.profiles.ConditionProfile;
@@ -52,8 +50,8 @@ import com.oracle.truffle.r.runtime.nodes.RBaseNode;
  * TODO Can we find a way to efficiently write the specializations as generics? The code is
  * identical except for the argument type.
  *
- * TODO: GNU R preserves the corresponding values of names attribute. There are (ignored) tests for
- * this in TestBuiltin_split.
+ * The group sizes are counted in a first pass over the factor codes, so that every group is
+ * allocated exactly once. Elements whose factor code is {@code NA} are dropped.
  */
 @RBuiltin(name = "split", kind = INTERNAL, parameterNames = {"x", "f"}, behavior = PURE)
 public abstract class Split extends RBuiltinNode.Arg2 {
@@ -61,9 +59,6 @@ public abstract class Split extends RBuiltinNode.Arg2 {
     @Child private RFactorNodes.GetLevels getLevelNode = new RFactorNodes.GetLevels();
     @Child private GetSplitNames getSplitNames = GetSplitNamesNodeGen.create();
 
-    private static final int INITIAL_SIZE = 5;
-    private static final int SCALE_FACTOR = 2;
-
     static {
         Casts.noCasts(Split.class);
     }
@@ -72,173 +67,155 @@ public abstract class Split extends RBuiltinNode.Arg2 {
     protected RList split(RAbstractVector x, RAbstractIntVector f,
                     @Cached("x.access()") VectorAccess xAccess,
                     @Cached("f.access()") VectorAccess fAccess) {
-        try (SequentialIterator xIter = xAccess.access(x); SequentialIterator fIter = fAccess.access(f)) {
-            RStringVector names = getLevelNode.execute(f);
-            int nLevels = getNLevels(names);
-            int[] collectResultSize = new int[nLevels];
-            Object[] results = new Object[nLevels];
+        RStringVector names = getLevelNode.execute(f);
+        int nLevels = getNLevels(names);
+        // the sizes are known up-front, so that each group is allocated once with its final size
+        int[] resultSizes = countGroups(x.getLength(), f, fAccess, nLevels);
+        RStringVector[] resultNames = getSplitNames.getNames(x, f, fAccess, nLevels, resultSizes);
+        int[] fillIndexes = new int[nLevels];
+        Object[] results = new Object[nLevels];
 
+        try (SequentialIterator xIter = xAccess.access(x); SequentialIterator fIter = fAccess.access(f)) {
             switch (xAccess.getType()) {
                 case Character: {
-                    // Initialize result arrays
-                    String[][] collectResults = new String[nLevels][INITIAL_SIZE];
+                    String[][] collectResults = new String[nLevels][];
+                    for (int i = 0; i < nLevels; i++) {
+                        collectResults[i] = new String[resultSizes[i]];
+                    }
 
                     // perform split
                     while (xAccess.next(xIter)) {
                         fAccess.nextWithWrap(fIter);
-                        int resultIndex = fAccess.getInt(fIter) - 1; // a factor is a 1-based int
-                                                                     // vector
-                        String[] collect = collectResults[resultIndex];
-                        if (collect.length == collectResultSize[resultIndex]) {
-                            collectResults[resultIndex] = collect = Arrays.copyOf(collect, collect.length * SCALE_FACTOR);
+                        int resultIndex = getResultIndex(fAccess, fIter, nLevels);
+                        if (resultIndex >= 0) {
+                            collectResults[resultIndex][fillIndexes[resultIndex]++] = xAccess.getString(xIter);
                         }
-                        collect[collectResultSize[resultIndex]++] = xAccess.getString(xIter);
                     }
 
-                    RStringVector[] resultNames = getSplitNames.getNames(x, fAccess, fIter, nLevels, collectResultSize);
                     for (int i = 0; i < nLevels; i++) {
-                        results[i] = RDataFactory.createStringVector(Arrays.copyOfRange(collectResults[i], 0, collectResultSize[i]), x.isComplete(),
-                                        (resultNames != null) ? resultNames[i] : null);
+                        results[i] = RDataFactory.createStringVector(collectResults[i], x.isComplete(), (resultNames != null) ? resultNames[i] : null);
                     }
                     break;
                 }
                 case Complex: {
-                    // Initialize result arrays
-                    double[][] collectResults = new double[nLevels][INITIAL_SIZE * 2];
+                    double[][] collectResults = new double[nLevels][];
+                    for (int i = 0; i < nLevels; i++) {
+                        collectResults[i] = new double[resultSizes[i] * 2];
+                    }
 
                     // perform split
                     while (xAccess.next(xIter)) {
                         fAccess.nextWithWrap(fIter);
-                        int resultIndex = fAccess.getInt(fIter) - 1; // a factor is a 1-based int
-                                                                     // vector
-                        double[] collect = collectResults[resultIndex];
-                        if (collect.length == collectResultSize[resultIndex] * 2) {
-                            collectResults[resultIndex] = collect = Arrays.copyOf(collect, collect.length * SCALE_FACTOR);
+                        int resultIndex = getResultIndex(fAccess, fIter, nLevels);
+                        if (resultIndex >= 0) {
+                            int index = fillIndexes[resultIndex]++ * 2;
+                            collectResults[resultIndex][index] = xAccess.getComplexR(xIter);
+                            collectResults[resultIndex][index + 1] = xAccess.getComplexI(xIter);
                         }
-                        collect[collectResultSize[resultIndex] * 2] = xAccess.getComplexR(xIter);
-                        collect[collectResultSize[resultIndex] * 2 + 1] = xAccess.getComplexI(xIter);
-                        collectResultSize[resultIndex]++;
                     }
 
-                    RStringVector[] resultNames = getSplitNames.getNames(x, fAccess, fIter, nLevels, collectResultSize);
                     for (int i = 0; i < nLevels; i++) {
-                        results[i] = RDataFactory.createComplexVector(Arrays.copyOfRange(collectResults[i], 0, collectResultSize[i] * 2), x.isComplete(),
-                                        (resultNames != null) ? resultNames[i] : null);
+                        results[i] = RDataFactory.createComplexVector(collectResults[i], x.isComplete(), (resultNames != null) ? resultNames[i] : null);
                     }
                     break;
                 }
                 case Double: {
-                    // Initialize result arrays
-                    double[][] collectResults = new double[nLevels][INITIAL_SIZE];
+                    double[][] collectResults = new double[nLevels][];
+                    for (int i = 0; i < nLevels; i++) {
+                        collectResults[i] = new double[resultSizes[i]];
+                    }
 
                     // perform split
                     while (xAccess.next(xIter)) {
                         fAccess.nextWithWrap(fIter);
-                        int resultIndex = fAccess.getInt(fIter) - 1; // a factor is a 1-based int
-                                                                     // vector
-                        double[] collect = collectResults[resultIndex];
-                        if (collect.length == collectResultSize[resultIndex]) {
-                            collectResults[resultIndex] = collect = Arrays.copyOf(collect, collect.length * SCALE_FACTOR);
+                        int resultIndex = getResultIndex(fAccess, fIter, nLevels);
+                        if (resultIndex >= 0) {
+                            collectResults[resultIndex][fillIndexes[resultIndex]++] = xAccess.getDouble(xIter);
                         }
-                        collect[collectResultSize[resultIndex]++] = xAccess.getDouble(xIter);
                     }
 
-                    RStringVector[] resultNames = getSplitNames.getNames(x, fAccess, fIter, nLevels, collectResultSize);
                     for (int i = 0; i < nLevels; i++) {
-                        results[i] = RDataFactory.createDoubleVector(Arrays.copyOfRange(collectResults[i], 0, collectResultSize[i]), x.isComplete(),
-                                        (resultNames != null) ? resultNames[i] : null);
+                        results[i] = RDataFactory.createDoubleVector(collectResults[i], x.isComplete(), (resultNames != null) ? resultNames[i] : null);
                     }
                     break;
                 }
                 case Integer: {
-                    // Initialize result arrays
-                    int[][] collectResults = new int[nLevels][INITIAL_SIZE];
+                    int[][] collectResults = new int[nLevels][];
+                    for (int i = 0; i < nLevels; i++) {
+                        collectResults[i] = new int[resultSizes[i]];
+                    }
 
                     // perform split
                     while (xAccess.next(xIter)) {
                         fAccess.nextWithWrap(fIter);
-                        int resultIndex = fAccess.getInt(fIter) - 1; // a factor is a 1-based int
-                                                                     // vector
-                        int[] collect = collectResults[resultIndex];
-                        if (collect.length == collectResultSize[resultIndex]) {
-                            collectResults[resultIndex] = collect = Arrays.copyOf(collect, collect.length * SCALE_FACTOR);
+                        int resultIndex = getResultIndex(fAccess, fIter, nLevels);
+                        if (resultIndex >= 0) {
+                            collectResults[resultIndex][fillIndexes[resultIndex]++] = xAccess.getInt(xIter);
                         }
-                        collect[collectResultSize[resultIndex]++] = xAccess.getInt(xIter);
                     }
 
-                    RStringVector[] resultNames = getSplitNames.getNames(x, fAccess, fIter, nLevels, collectResultSize);
                     for (int i = 0; i < nLevels; i++) {
-                        results[i] = RDataFactory.createIntVector(Arrays.copyOfRange(collectResults[i], 0, collectResultSize[i]), x.isComplete(),
-                                        (resultNames != null) ? resultNames[i] : null);
+                        results[i] = RDataFactory.createIntVector(collectResults[i], x.isComplete(), (resultNames != null) ? resultNames[i] : null);
                     }
                     break;
                 }
                 case List: {
-                    // Initialize result arrays
-                    Object[][] collectResults = new Object[nLevels][INITIAL_SIZE];
+                    Object[][] collectResults = new Object[nLevels][];
+                    for (int i = 0; i < nLevels; i++) {
+                        collectResults[i] = new Object[resultSizes[i]];
+                    }
 
                     // perform split
                     while (xAccess.next(xIter)) {
                         fAccess.nextWithWrap(fIter);
-                        int resultIndex = fAccess.getInt(fIter) - 1; // a factor is a 1-based int
-                                                                     // vector
-                        Object[] collect = collectResults[resultIndex];
-                        if (collect.length == collectResultSize[resultIndex]) {
-                            collectResults[resultIndex] = collect = Arrays.copyOf(collect, collect.length * SCALE_FACTOR);
+                        int resultIndex = getResultIndex(fAccess, fIter, nLevels);
+                        if (resultIndex >= 0) {
+                            collectResults[resultIndex][fillIndexes[resultIndex]++] = xAccess.getListElement(xIter);
                         }
-                        collect[collectResultSize[resultIndex]++] = xAccess.getListElement(xIter);
                     }
 
-                    RStringVector[] resultNames = getSplitNames.getNames(x, fAccess, fIter, nLevels, collectResultSize);
                     for (int i = 0; i < nLevels; i++) {
-                        results[i] = RDataFactory.createList(Arrays.copyOfRange(collectResults[i], 0, collectResultSize[i]),
-                                        (resultNames != null) ? resultNames[i] : null);
+                        results[i] = RDataFactory.createList(collectResults[i], (resultNames != null) ? resultNames[i] : null);
                     }
                     break;
                 }
                 case Logical: {
-                    // Initialize result arrays
-                    byte[][] collectResults = new byte[nLevels][INITIAL_SIZE];
+                    byte[][] collectResults = new byte[nLevels][];
+                    for (int i = 0; i < nLevels; i++) {
+                        collectResults[i] = new byte[resultSizes[i]];
+                    }
 
                     // perform split
                     while (xAccess.next(xIter)) {
                         fAccess.nextWithWrap(fIter);
-                        int resultIndex = fAccess.getInt(fIter) - 1; // a factor is a 1-based int
-                                                                     // vector
-                        byte[] collect = collectResults[resultIndex];
-                        if (collect.length == collectResultSize[resultIndex]) {
-                            collectResults[resultIndex] = collect = Arrays.copyOf(collect, collect.length * SCALE_FACTOR);
+                        int resultIndex = getResultIndex(fAccess, fIter, nLevels);
+                        if (resultIndex >= 0) {
+                            collectResults[resultIndex][fillIndexes[resultIndex]++] = xAccess.getLogical(xIter);
                         }
-                        collect[collectResultSize[resultIndex]++] = xAccess.getLogical(xIter);
                     }
 
-                    RStringVector[] resultNames = getSplitNames.getNames(x, fAccess, fIter, nLevels, collectResultSize);
                     for (int i = 0; i < nLevels; i++) {
-                        results[i] = RDataFactory.createLogicalVector(Arrays.copyOfRange(collectResults[i], 0, collectResultSize[i]), x.isComplete(),
-                                        (resultNames != null) ? resultNames[i] : null);
+                        results[i] = RDataFactory.createLogicalVector(collectResults[i], x.isComplete(), (resultNames != null) ? resultNames[i] : null);
                     }
                     break;
                 }
                 case Raw: {
-                    // Initialize result arrays
-                    byte[][] collectResults = new byte[nLevels][INITIAL_SIZE];
+                    byte[][] collectResults = new byte[nLevels][];
+                    for (int i = 0; i < nLevels; i++) {
+                        collectResults[i] = new byte[resultSizes[i]];
+                    }
 
                     // perform split
                     while (xAccess.next(xIter)) {
                         fAccess.nextWithWrap(fIter);
-                        int resultIndex = fAccess.getInt(fIter) - 1; // a factor is a 1-based int
-                                                                     // vector
-                        byte[] collect = collectResults[resultIndex];
-                        if (collect.length == collectResultSize[resultIndex]) {
-                            collectResults[resultIndex] = collect = Arrays.copyOf(collect, collect.length * SCALE_FACTOR);
+                        int resultIndex = getResultIndex(fAccess, fIter, nLevels);
+                        if (resultIndex >= 0) {
+                            collectResults[resultIndex][fillIndexes[resultIndex]++] = xAccess.getRaw(xIter);
                         }
-                        collect[collectResultSize[resultIndex]++] = xAccess.getRaw(xIter);
                     }
 
-                    RStringVector[] resultNames = getSplitNames.getNames(x, fAccess, fIter, nLevels, collectResultSize);
                     for (int i = 0; i < nLevels; i++) {
-                        results[i] = RDataFactory.createRawVector(Arrays.copyOfRange(collectResults[i], 0, collectResultSize[i]),
-                                        (resultNames != null) ? resultNames[i] : null);
+                        results[i] = RDataFactory.createRawVector(collectResults[i], (resultNames != null) ? resultNames[i] : null);
                     }
                     break;
                 }
@@ -259,15 +236,17 @@ public abstract class Split extends RBuiltinNode.Arg2 {
         private final ConditionProfile namesProfile = ConditionProfile.createBinaryProfile();
         @Child private GetNamesAttributeNode getNamesNode = GetNamesAttributeNode.create();
 
-        private RStringVector[] getNames(RAbstractVector x, VectorAccess fAccess, SequentialIterator fIter, int nLevels, int[] collectResultSize) {
+        private RStringVector[] getNames(RAbstractVector x, RAbstractIntVector f, VectorAccess fAccess, int nLevels, int[] resultSizes) {
             RStringVector xNames = getNamesNode.getNames(x);
             if (namesProfile.profile(xNames != null)) {
                 String[][] namesArr = new String[nLevels][];
                 int[] resultNamesIdxs = new int[nLevels];
                 for (int i = 0; i < nLevels; i++) {
-                    namesArr[i] = new String[collectResultSize[i]];
+                    namesArr[i] = new String[resultSizes[i]];
+                }
+                try (SequentialIterator fIter = fAccess.access(f)) {
+                    execute(fAccess, fIter, xNames, namesArr, resultNamesIdxs);
                 }
-                execute(fAccess, fIter, xNames, namesArr, resultNamesIdxs);
                 RStringVector[] resultNames = new RStringVector[nLevels];
                 for (int i = 0; i < nLevels; i++) {
                     resultNames[i] = RDataFactory.createStringVector(namesArr[i], xNames.isComplete());
@@ -285,9 +264,10 @@ public abstract class Split extends RBuiltinNode.Arg2 {
             try (SequentialIterator namesIter = namesAccess.access(names)) {
                 while (namesAccess.next(namesIter)) {
                     fAccess.nextWithWrap(fIter);
-                    int resultIndex = fAccess.getInt(fIter) - 1; // a factor is a 1-based int
-                                                                 // vector
-                    namesArr[resultIndex][resultNamesIdxs[resultIndex]++] = namesAccess.getString(namesIter);
+                    int resultIndex = getResultIndex(fAccess, fIter, namesArr.length);
+                    if (resultIndex >= 0) {
+                        namesArr[resultIndex][resultNamesIdxs[resultIndex]++] = namesAccess.getString(namesIter);
+                    }
                 }
             }
         }
@@ -298,6 +278,33 @@ public abstract class Split extends RBuiltinNode.Arg2 {
         }
     }
 
+    /**
+     * Counts the elements of each group in one pass over the factor codes, recycling the factor to
+     * the length of {@code x}.
+     */
+    private static int[] countGroups(int length, RAbstractIntVector f, VectorAccess fAccess, int nLevels) {
+        int[] counts = new int[nLevels];
+        try (SequentialIterator fIter = fAccess.access(f)) {
+            for (int i = 0; i < length; i++) {
+                fAccess.nextWithWrap(fIter);
+                int resultIndex = getResultIndex(fAccess, fIter, nLevels);
+                if (resultIndex >= 0) {
+                    counts[resultIndex]++;
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the 0-based group of the current factor code, or {@code -1} if the code is
+     * {@code NA}, in which case the element is dropped like in GNU R.
+     */
+    private static int getResultIndex(VectorAccess fAccess, SequentialIterator fIter, int nLevels) {
+        int level = fAccess.getInt(fIter); // a factor is a 1-based int vector
+        return level >= 1 && level <= nLevels ? level - 1 : -1;
+    }
+
     private static int getNLevels(RStringVector levels) {
         return levels != null ? levels.getLength() : 0;
     }
@@ -65,6 +65,11 @@ public class TrigExpFunctions {
             return Math.exp(op);
         }
 
+        @Override
+        public boolean isPure() {
+            return true;
+        }
+
         @Override
         public RComplex op(double re, double im) {
             if (calculatePowNode == null) {
@@ -85,6 +90,11 @@ public class TrigExpFunctions {
             return Math.expm1(op);
         }
 
+        @Override
+        public boolean isPure() {
+            return true;
+        }
+
         @Override
         public RComplex op(double re, double im) {
             if (calculatePowNode == null) {
@@ -104,6 +114,11 @@ public class TrigExpFunctions {
             return Math.sin(op);
         }
 
+        @Override
+        public boolean isPure() {
+            return true;
+        }
+
         @Override
         public RComplex op(double re, double im) {
             double sinRe = Math.sin(re) * Math.cosh(im);
@@ -120,6 +135,11 @@ public class TrigExpFunctions {
             return Math.sinh(op);
         }
 
+        @Override
+        public boolean isPure() {
+            return true;
+        }
+
         @Override
         public RComplex op(double re, double im) {
             double sinhRe = Math.sinh(re) * Math.cos(im);
@@ -148,6 +168,11 @@ public class TrigExpFunctions {
             return Math.cos(op);
         }
 
+        @Override
+        public boolean isPure() {
+            return true;
+        }
+
         @Override
         public RComplex op(double re, double im) {
             double cosRe = Math.cos(re) * Math.cosh(im);
@@ -163,6 +188,11 @@ public class TrigExpFunctions {
             return Math.cosh(op);
         }
 
+        @Override
+        public boolean isPure() {
+            return true;
+        }
+
         @Override
         public RComplex op(double re, double im) {
             double cosRe = Math.cosh(re) * Math.cos(im);
@@ -194,6 +224,11 @@ public class TrigExpFunctions {
             return Math.tan(op);
         }
 
+        @Override
+        public boolean isPure() {
+            return true;
+        }
+
         @Override
         public RComplex op(double re, double im) {
             RComplex sin = sinNode.op(re, im);
@@ -214,6 +249,11 @@ public class TrigExpFunctions {
             return Math.tanh(op);
         }
 
+        @Override
+        public boolean isPure() {
+            return true;
+        }
+
         @Override
         public RComplex op(double re, double im) {
             RComplex tan = tanNode.op(Math.PI + im, -re);
@@ -75,9 +75,14 @@ public abstract class Vector extends RBuiltinNode.Arg2 {
     // Note: we have to handle RPairList separately. In other circumstances it is not seen as a
     // vector, e.g. is.vector(vector('pairlist',1)) is FALSE, so we cannot just turn it into
     // RAbstractVector. Note2: pair list of size == 0 is RNull -> we have to return Object.
+    // Note3: long zero filled integer and double vectors are compact constant sequences.
     private static Object createType(RType type, int length) {
         if (type == RType.PairList) {
             return RDataFactory.createPairList(length, SEXPTYPE.LISTSXP);
+        } else if (length >= 0 && type == RType.Integer) {
+            return RDataFactory.createIntConstant(0, length);
+        } else if (length >= 0 && type == RType.Double) {
+            return RDataFactory.createDoubleConstant(0, length);
         }
         return type.create(length, false);
     }
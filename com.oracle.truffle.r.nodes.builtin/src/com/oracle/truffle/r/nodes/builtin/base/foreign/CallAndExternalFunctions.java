@@ -530,8 +530,7 @@ public class CallAndExternalFunctions {
                 case "influence":
                     return Influence.create();
                 case "mvfft":
-                    // TODO: only transforms arguments and then calls already ported fft
-                    return new UnimplementedExternal(name);
+                    return MvfftNodeGen.create();
                 case "nextn":
                     // TODO: do not want to pull in fourier.c, should be simple to port
                     return new UnimplementedExternal(name);
@@ -0,0 +1,579 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.base.foreign;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.ParallelLoop;
+
+/**
+ * A discrete Fourier transform of one length, implemented in Java. The transform uses the same
+ * conventions as {@code fft_work} in GNU R: the forward transform computes
+ * {@code sum(z[j] * exp(-2*pi*i*j*k/n))}, the inverse transform uses the positive exponent and
+ * neither of them is scaled.
+ *
+ * Lengths with only small prime factors are transformed by a self-sorting (Stockham) mixed-radix
+ * FFT with specialized radix 2, 3, 4 and 5 butterflies. Lengths with large prime factors, for which
+ * the mixed-radix FFT degenerates to a quadratic algorithm, are reduced to a power of two transform
+ * by Bluestein's algorithm. The inverse transform is computed as
+ * {@code conj(fft(conj(z)))}, so that both directions share one plan.
+ *
+ * Plans, i.e., the factorization and the twiddle factors, are kept in a small LRU cache, see
+ * {@link #get(int)}, because programs tend to transform many series of the same length.
+ */
+public final class FftPlan {
+
+    private static final int MAX_CACHED_PLANS = 32;
+
+    /**
+     * Longer plans are not cached, building them is cheap compared to the transform itself.
+     */
+    private static final int MAX_CACHED_LENGTH = 1 << 20;
+
+    /**
+     * The minimal number of complex elements processed by one parallel task.
+     */
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private static final LinkedHashMap<Integer, FftPlan> cache = new LinkedHashMap<Integer, FftPlan>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, FftPlan> eldest) {
+            return size() > MAX_CACHED_PLANS;
+        }
+    };
+
+    private static final double SIN_PI_3 = 0.86602540378443864676;
+    private static final double COS_2PI_5 = 0.30901699437494742410;
+    private static final double COS_4PI_5 = -0.80901699437494742410;
+    private static final double SIN_2PI_5 = 0.95105651629515357212;
+    private static final double SIN_4PI_5 = 0.58778525229247312917;
+
+    private final int n;
+
+    /**
+     * The radices of the Stockham stages, or {@code null} for Bluestein's algorithm.
+     */
+    private final int[] radices;
+
+    /**
+     * The twiddle factors of each stage, interleaved real and imaginary parts, see
+     * {@link #stage}.
+     */
+    private final double[][] twiddles;
+
+    /**
+     * {@code roots[s]} are the {@code radices[s]}-th roots of unity for the generic butterfly, or
+     * {@code null} for the specialized radices.
+     */
+    private final double[][] roots;
+
+    /**
+     * The power of two plan and the chirp {@code exp(-pi*i*k^2/n)} used by Bluestein's algorithm,
+     * and the transformed convolution kernel (already divided by the length of the convolution).
+     */
+    private final FftPlan convolution;
+    private final double[] chirp;
+    private final double[] kernel;
+
+    private FftPlan(int n) {
+        assert n >= 1;
+        this.n = n;
+        int[] factors = factorize(n);
+        if (useBluestein(n, factors)) {
+            this.radices = null;
+            this.twiddles = null;
+            this.roots = null;
+            int m = Integer.highestOneBit(2 * n - 1);
+            if (m < 2 * n - 1) {
+                m *= 2;
+            }
+            this.convolution = new FftPlan(m);
+            this.chirp = new double[2 * n];
+            long twoN = 2L * n;
+            for (int k = 0; k < n; k++) {
+                // reduce k^2 modulo 2n first to keep the angle accurate
+                double angle = -Math.PI * ((long) k * k % twoN) / n;
+                chirp[2 * k] = Math.cos(angle);
+                chirp[2 * k + 1] = Math.sin(angle);
+            }
+            double[] b = new double[4 * m];
+            for (int k = 0; k < n; k++) {
+                b[2 * k] = chirp[2 * k] / m;
+                b[2 * k + 1] = -chirp[2 * k + 1] / m;
+                if (k > 0) {
+                    b[2 * (m - k)] = b[2 * k];
+                    b[2 * (m - k) + 1] = b[2 * k + 1];
+                }
+            }
+            int result = convolution.stockham(b, 0, 2 * m, false);
+            this.kernel = new double[2 * m];
+            System.arraycopy(b, result, kernel, 0, 2 * m);
+        } else {
+            this.radices = factors;
+            this.twiddles = new double[factors.length][];
+            this.roots = new double[factors.length][];
+            int ns = 1;
+            for (int s = 0; s < factors.length; s++) {
+                int radix = factors[s];
+                double[] tw = new double[2 * ns * (radix - 1)];
+                for (int q = 0; q < ns; q++) {
+                    for (int r = 1; r < radix; r++) {
+                        double angle = -2 * Math.PI * ((long) r * q) / ((long) ns * radix);
+                        tw[2 * (q * (radix - 1) + r - 1)] = Math.cos(angle);
+                        tw[2 * (q * (radix - 1) + r - 1) + 1] = Math.sin(angle);
+                    }
+                }
+                twiddles[s] = tw;
+                if (radix > 5) {
+                    double[] root = new double[2 * radix];
+                    for (int r = 0; r < radix; r++) {
+                        double angle = -2 * Math.PI * r / radix;
+                        root[2 * r] = Math.cos(angle);
+                        root[2 * r + 1] = Math.sin(angle);
+                    }
+                    roots[s] = root;
+                }
+                ns *= radix;
+            }
+            this.convolution = null;
+            this.chirp = null;
+            this.kernel = null;
+        }
+    }
+
+    /**
+     * Returns the plan for transforms of length {@code n}, from the cache if possible.
+     */
+    @TruffleBoundary
+    public static FftPlan get(int n) {
+        if (n > MAX_CACHED_LENGTH) {
+            return new FftPlan(n);
+        }
+        synchronized (cache) {
+            FftPlan plan = cache.get(n);
+            if (plan != null) {
+                return plan;
+            }
+        }
+        // build outside of the lock, a concurrent duplicate is harmless
+        FftPlan plan = new FftPlan(n);
+        synchronized (cache) {
+            cache.put(n, plan);
+        }
+        return plan;
+    }
+
+    public int getLength() {
+        return n;
+    }
+
+    /**
+     * Splits {@code n} into radices 4, 2, 3, 5 and the remaining primes, in this order.
+     */
+    private static int[] factorize(int n) {
+        ArrayList<Integer> factors = new ArrayList<>();
+        int rest = n;
+        while (rest % 4 == 0) {
+            factors.add(4);
+            rest /= 4;
+        }
+        for (int p = 2; p <= rest / p; p = p == 2 ? 3 : p + 2) {
+            while (rest % p == 0) {
+                factors.add(p);
+                rest /= p;
+            }
+        }
+        if (rest > 1) {
+            factors.add(rest);
+        }
+        int[] result = new int[factors.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = factors.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Estimates whether Bluestein's algorithm, which costs three power of two transforms of at
+     * least twice the length, is cheaper than the generic butterflies for the large factors.
+     */
+    private static boolean useBluestein(int n, int[] factors) {
+        if (n > 1 << 28) {
+            // the convolution would not fit into an array
+            return false;
+        }
+        double direct = 0;
+        for (int radix : factors) {
+            direct += radix > 5 ? radix : 2;
+        }
+        int m = Integer.highestOneBit(2 * n - 1) * 2;
+        double bluestein = 3.0 * m / n * (2 + Math.log(m) / Math.log(4) * 2);
+        return direct > bluestein;
+    }
+
+    /**
+     * The size of the work array required by {@link #transform(double[], int, int, boolean, double[],
+     * boolean)}.
+     */
+    private int workSize() {
+        return radices != null ? 4 * n : 4 * convolution.n;
+    }
+
+    public double[] createWork() {
+        return new double[workSize()];
+    }
+
+    /**
+     * Transforms the elements {@code offset + k * stride} ({@code k = 0 .. n-1}) of the complex
+     * array {@code z}, which holds interleaved real and imaginary parts, in place. {@code work}
+     * must have been created by {@link #createWork()} and must not be used by other threads
+     * concurrently. If {@code parallel} is {@code true}, the stages of the transform are split
+     * across threads, see {@link ParallelLoop}.
+     */
+    public void transform(double[] z, int offset, int stride, boolean inverse, double[] work, boolean parallel) {
+        double sign = inverse ? -1 : 1;
+        for (int k = 0, i = 2 * offset; k < n; k++, i += 2 * stride) {
+            work[2 * k] = z[i];
+            work[2 * k + 1] = sign * z[i + 1];
+        }
+        int result = radices != null ? stockham(work, 0, 2 * n, parallel) : bluestein(work, parallel);
+        for (int k = 0, i = 2 * offset; k < n; k++, i += 2 * stride) {
+            z[i] = work[result + 2 * k];
+            z[i + 1] = sign * work[result + 2 * k + 1];
+        }
+    }
+
+    /**
+     * Transforms all dimension {@code n} series of the complex array {@code z}, which is laid out
+     * like an array of dimensions {@code nspn x n x nseg}. This corresponds to
+     * {@code fft_work(z, nseg, n, nspn, inverse ? 2 : -2, ...)} in GNU R. The series are processed
+     * in parallel if there are enough of them, a single long series is split by stages.
+     */
+    @TruffleBoundary
+    public static void transform(double[] z, int nseg, int n, int nspn, boolean inverse) {
+        if (n <= 1) {
+            return;
+        }
+        FftPlan plan = get(n);
+        int count = nseg * nspn;
+        if (count > 1 && ParallelLoop.isParallel(z.length / 2)) {
+            ParallelLoop.execute(count, Math.max(1, CHUNK_SIZE / n), (from, to) -> plan.transformSeries(z, nspn, inverse, from, to, plan.createWork(), false));
+        } else {
+            plan.transformSeries(z, nspn, inverse, 0, count, plan.createWork(), count == 1 && ParallelLoop.isParallel(n));
+        }
+    }
+
+    private void transformSeries(double[] z, int nspn, boolean inverse, int from, int to, double[] work, boolean parallel) {
+        for (int t = from; t < to; t++) {
+            int seg = t / nspn;
+            int start = t - seg * nspn;
+            transform(z, seg * n * nspn + start, nspn, inverse, work, parallel);
+        }
+    }
+
+    /**
+     * Runs the stages on the data at {@code w[a]}, using {@code w[b]} as the second buffer.
+     * Returns the offset of the buffer that holds the result.
+     */
+    private int stockham(double[] w, int a, int b, boolean parallel) {
+        int in = a;
+        int out = b;
+        int ns = 1;
+        for (int s = 0; s < radices.length; s++) {
+            int radix = radices[s];
+            int butterflies = n / radix;
+            int stageIn = in;
+            int stageOut = out;
+            int stageNs = ns;
+            int stage = s;
+            if (parallel && butterflies >= 2 * CHUNK_SIZE) {
+                ParallelLoop.execute(butterflies, CHUNK_SIZE, (from, to) -> stage(stage, w, stageIn, stageOut, stageNs, from, to));
+            } else {
+                stage(s, w, in, out, ns, 0, butterflies);
+            }
+            ns *= radix;
+            int tmp = in;
+            in = out;
+            out = tmp;
+        }
+        return in;
+    }
+
+    /**
+     * Butterflies {@code from} to {@code to} of one Stockham stage: butterfly {@code j} reads the
+     * elements {@code j + r * n / radix} of the input, multiplies them by the twiddle factors
+     * {@code exp(-2*pi*i*r*q/(ns*radix))} with {@code q = j % ns}, transforms them with a DFT of
+     * length {@code radix} and writes the results to the elements
+     * {@code (j - q) * radix + q + r * ns} of the output.
+     */
+    private void stage(int s, double[] w, int in, int out, int ns, int from, int to) {
+        int radix = radices[s];
+        double[] tw = twiddles[s];
+        int m = n / radix;
+        int q = from % ns;
+        switch (radix) {
+            case 2:
+                for (int j = from; j < to; j++) {
+                    int i0 = in + 2 * j;
+                    int i1 = i0 + 2 * m;
+                    double a0r = w[i0];
+                    double a0i = w[i0 + 1];
+                    double a1r = w[i1];
+                    double a1i = w[i1 + 1];
+                    if (q != 0) {
+                        double wr = tw[2 * q];
+                        double wi = tw[2 * q + 1];
+                        double t = a1r * wr - a1i * wi;
+                        a1i = a1r * wi + a1i * wr;
+                        a1r = t;
+                    }
+                    int o0 = out + 2 * ((j - q) * 2 + q);
+                    int o1 = o0 + 2 * ns;
+                    w[o0] = a0r + a1r;
+                    w[o0 + 1] = a0i + a1i;
+                    w[o1] = a0r - a1r;
+                    w[o1 + 1] = a0i - a1i;
+                    if (++q == ns) {
+                        q = 0;
+                    }
+                }
+                break;
+            case 3:
+                for (int j = from; j < to; j++) {
+                    int i0 = in + 2 * j;
+                    int i1 = i0 + 2 * m;
+                    int i2 = i1 + 2 * m;
+                    double a0r = w[i0];
+                    double a0i = w[i0 + 1];
+                    double a1r = w[i1];
+                    double a1i = w[i1 + 1];
+                    double a2r = w[i2];
+                    double a2i = w[i2 + 1];
+                    if (q != 0) {
+                        int t0 = 4 * q;
+                        double t = a1r * tw[t0] - a1i * tw[t0 + 1];
+                        a1i = a1r * tw[t0 + 1] + a1i * tw[t0];
+                        a1r = t;
+                        t = a2r * tw[t0 + 2] - a2i * tw[t0 + 3];
+                        a2i = a2r * tw[t0 + 3] + a2i * tw[t0 + 2];
+                        a2r = t;
+                    }
+                    double sr = a1r + a2r;
+                    double si = a1i + a2i;
+                    double tr = a0r - 0.5 * sr;
+                    double ti = a0i - 0.5 * si;
+                    double dr = SIN_PI_3 * (a1r - a2r);
+                    double di = SIN_PI_3 * (a1i - a2i);
+                    int o0 = out + 2 * ((j - q) * 3 + q);
+                    int o1 = o0 + 2 * ns;
+                    int o2 = o1 + 2 * ns;
+                    w[o0] = a0r + sr;
+                    w[o0 + 1] = a0i + si;
+                    w[o1] = tr + di;
+                    w[o1 + 1] = ti - dr;
+                    w[o2] = tr - di;
+                    w[o2 + 1] = ti + dr;
+                    if (++q == ns) {
+                        q = 0;
+                    }
+                }
+                break;
+            case 4:
+                for (int j = from; j < to; j++) {
+                    int i0 = in + 2 * j;
+                    int i1 = i0 + 2 * m;
+                    int i2 = i1 + 2 * m;
+                    int i3 = i2 + 2 * m;
+                    double a0r = w[i0];
+                    double a0i = w[i0 + 1];
+                    double a1r = w[i1];
+                    double a1i = w[i1 + 1];
+                    double a2r = w[i2];
+                    double a2i = w[i2 + 1];
+                    double a3r = w[i3];
+                    double a3i = w[i3 + 1];
+                    if (q != 0) {
+                        int t0 = 6 * q;
+                        double t = a1r * tw[t0] - a1i * tw[t0 + 1];
+                        a1i = a1r * tw[t0 + 1] + a1i * tw[t0];
+                        a1r = t;
+                        t = a2r * tw[t0 + 2] - a2i * tw[t0 + 3];
+                        a2i = a2r * tw[t0 + 3] + a2i * tw[t0 + 2];
+                        a2r = t;
+                        t = a3r * tw[t0 + 4] - a3i * tw[t0 + 5];
+                        a3i = a3r * tw[t0 + 5] + a3i * tw[t0 + 4];
+                        a3r = t;
+                    }
+                    double t0r = a0r + a2r;
+                    double t0i = a0i + a2i;
+                    double t1r = a0r - a2r;
+                    double t1i = a0i - a2i;
+                    double t2r = a1r + a3r;
+                    double t2i = a1i + a3i;
+                    double t3r = a1r - a3r;
+                    double t3i = a1i - a3i;
+                    int o0 = out + 2 * ((j - q) * 4 + q);
+                    int o1 = o0 + 2 * ns;
+                    int o2 = o1 + 2 * ns;
+                    int o3 = o2 + 2 * ns;
+                    w[o0] = t0r + t2r;
+                    w[o0 + 1] = t0i + t2i;
+                    w[o1] = t1r + t3i;
+                    w[o1 + 1] = t1i - t3r;
+                    w[o2] = t0r - t2r;
+                    w[o2 + 1] = t0i - t2i;
+                    w[o3] = t1r - t3i;
+                    w[o3 + 1] = t1i + t3r;
+                    if (++q == ns) {
+                        q = 0;
+                    }
+                }
+                break;
+            case 5:
+                double[] a5 = new double[10];
+                for (int j = from; j < to; j++) {
+                    load(w, in, j, m, 5, q, tw, a5);
+                    double b1r = a5[2] + a5[8];
+                    double b1i = a5[3] + a5[9];
+                    double b2r = a5[4] + a5[6];
+                    double b2i = a5[5] + a5[7];
+                    double d1r = a5[2] - a5[8];
+                    double d1i = a5[3] - a5[9];
+                    double d2r = a5[4] - a5[6];
+                    double d2i = a5[5] - a5[7];
+                    double t1r = a5[0] + COS_2PI_5 * b1r + COS_4PI_5 * b2r;
+                    double t1i = a5[1] + COS_2PI_5 * b1i + COS_4PI_5 * b2i;
+                    double t2r = a5[0] + COS_4PI_5 * b1r + COS_2PI_5 * b2r;
+                    double t2i = a5[1] + COS_4PI_5 * b1i + COS_2PI_5 * b2i;
+                    double u1r = SIN_2PI_5 * d1r + SIN_4PI_5 * d2r;
+                    double u1i = SIN_2PI_5 * d1i + SIN_4PI_5 * d2i;
+                    double u2r = SIN_4PI_5 * d1r - SIN_2PI_5 * d2r;
+                    double u2i = SIN_4PI_5 * d1i - SIN_2PI_5 * d2i;
+                    int o0 = out + 2 * ((j - q) * 5 + q);
+                    int step = 2 * ns;
+                    w[o0] = a5[0] + b1r + b2r;
+                    w[o0 + 1] = a5[1] + b1i + b2i;
+                    w[o0 + step] = t1r + u1i;
+                    w[o0 + step + 1] = t1i - u1r;
+                    w[o0 + 2 * step] = t2r + u2i;
+                    w[o0 + 2 * step + 1] = t2i - u2r;
+                    w[o0 + 3 * step] = t2r - u2i;
+                    w[o0 + 3 * step + 1] = t2i + u2r;
+                    w[o0 + 4 * step] = t1r - u1i;
+                    w[o0 + 4 * step + 1] = t1i + u1r;
+                    if (++q == ns) {
+                        q = 0;
+                    }
+                }
+                break;
+            default:
+                double[] root = roots[s];
+                double[] a = new double[2 * radix];
+                for (int j = from; j < to; j++) {
+                    load(w, in, j, m, radix, q, tw, a);
+                    int o0 = out + 2 * ((j - q) * radix + q);
+                    for (int k = 0; k < radix; k++) {
+                        double yr = a[0];
+                        double yi = a[1];
+                        int e = 0;
+                        for (int r = 1; r < radix; r++) {
+                            e += k;
+                            if (e >= radix) {
+                                e -= radix;
+                            }
+                            yr += a[2 * r] * root[2 * e] - a[2 * r + 1] * root[2 * e + 1];
+                            yi += a[2 * r] * root[2 * e + 1] + a[2 * r + 1] * root[2 * e];
+                        }
+                        w[o0 + 2 * k * ns] = yr;
+                        w[o0 + 2 * k * ns + 1] = yi;
+                    }
+                    if (++q == ns) {
+                        q = 0;
+                    }
+                }
+                break;
+        }
+    }
+
+    /**
+     * Loads the inputs of butterfly {@code j} into {@code a} and applies the twiddle factors.
+     */
+    private static void load(double[] w, int in, int j, int m, int radix, int q, double[] tw, double[] a) {
+        a[0] = w[in + 2 * j];
+        a[1] = w[in + 2 * j + 1];
+        int t0 = 2 * q * (radix - 1) - 2;
+        for (int r = 1; r < radix; r++) {
+            int i = in + 2 * (j + r * m);
+            double xr = w[i];
+            double xi = w[i + 1];
+            if (q != 0) {
+                double wr = tw[t0 + 2 * r];
+                double wi = tw[t0 + 2 * r + 1];
+                a[2 * r] = xr * wr - xi * wi;
+                a[2 * r + 1] = xr * wi + xi * wr;
+            } else {
+                a[2 * r] = xr;
+                a[2 * r + 1] = xi;
+            }
+        }
+    }
+
+    /**
+     * Bluestein's algorithm on the data at {@code w[0]}: with the chirp {@code c[k]}, the transform
+     * is {@code c[k] * sum(z[j] * c[j] * conj(c[k - j]))}, i.e., a convolution, which is computed
+     * by power of two transforms. The inverse transform of the convolution is again done by
+     * conjugation. Returns the offset of the result in {@code w}.
+     */
+    private int bluestein(double[] w, boolean parallel) {
+        int m = convolution.n;
+        for (int k = n - 1; k >= 0; k--) {
+            double xr = w[2 * k];
+            double xi = w[2 * k + 1];
+            w[2 * k] = xr * chirp[2 * k] - xi * chirp[2 * k + 1];
+            w[2 * k + 1] = xr * chirp[2 * k + 1] + xi * chirp[2 * k];
+        }
+        for (int i = 2 * n; i < 2 * m; i++) {
+            w[i] = 0;
+        }
+        int a = convolution.stockham(w, 0, 2 * m, parallel);
+        for (int k = 0; k < m; k++) {
+            double xr = w[a + 2 * k];
+            double xi = w[a + 2 * k + 1];
+            w[a + 2 * k] = xr * kernel[2 * k] - xi * kernel[2 * k + 1];
+            w[a + 2 * k + 1] = -(xr * kernel[2 * k + 1] + xi * kernel[2 * k]);
+        }
+        int c = convolution.stockham(w, a, 2 * m - a, parallel);
+        for (int k = 0; k < n; k++) {
+            double xr = w[c + 2 * k];
+            double xi = -w[c + 2 * k + 1];
+            w[c + 2 * k] = xr * chirp[2 * k] - xi * chirp[2 * k + 1];
+            w[c + 2 * k + 1] = xr * chirp[2 * k + 1] + xi * chirp[2 * k];
+        }
+        return c;
+    }
+}
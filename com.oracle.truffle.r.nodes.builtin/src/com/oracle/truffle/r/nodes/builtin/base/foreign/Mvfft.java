@@ -0,0 +1,56 @@
+/*
+ * This material is distributed under the GNU General Public License
+ * Version 2. You may review the terms of this license at
+ * http://www.gnu.org/licenses/gpl-2.0.html
+ *
+ * Copyright (c) 1995-2012, The R Core Team
+ * Copyright (c) 2003, The R Foundation
+ * Copyright (c) 2018, Oracle and/or its affiliates
+ *
+ * All rights reserved.
+ */
+package com.oracle.truffle.r.nodes.builtin.base.foreign;
+
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.complexValue;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.numericValue;
+
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.r.nodes.attributes.SpecialAttributesFunctions.GetDimAttributeNode;
+import com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef;
+import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
+import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.data.RComplexVector;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.model.RAbstractComplexVector;
+
+/**
+ * The {@code mvfft} external of the stats package: transforms each column of a matrix, see
+ * {@link FftPlan}.
+ */
+public abstract class Mvfft extends RExternalBuiltinNode.Arg2 {
+
+    static {
+        Casts casts = new Casts(Mvfft.class);
+        casts.arg(0).mustNotBeMissing().mustBe(numericValue().or(complexValue()), RError.Message.NON_NUMERIC_ARGUMENT).asComplexVector(true, true, true);
+        casts.arg(1).mustNotBeNull().asLogicalVector().findFirst().map(Predef.toBoolean());
+    }
+
+    @Specialization
+    public Object execute(RAbstractComplexVector zVec, boolean inverse,
+                    @Cached("create()") GetDimAttributeNode getDimNode) {
+        int[] d = getDimNode.getDimensions(zVec);
+        if (d == null || d.length > 2) {
+            throw error(RError.Message.MULTIVARIATE_SERIES_REQUIRED);
+        }
+        double[] z = zVec.materialize().getDataTemp();
+        int n = d[0];
+        if (n > 1) {
+            // the columns are the series, i.e., nseg = ncol(z)
+            FftPlan.transform(z, zVec.getLength() / n, n, 1, inverse);
+        }
+        RComplexVector result = RDataFactory.createComplexVector(z, zVec.isComplete());
+        result.copyAttributesFrom(zVec);
+        return result;
+    }
+}
@@ -24,7 +24,6 @@ package com.oracle.truffle.r.nodes.builtin.base.printer;
 
 import java.io.IOException;
 import java.io.Writer;
-import java.util.Arrays;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.r.runtime.data.RAttributeStorage;
@@ -35,7 +34,8 @@ import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 
 public class AnyVectorToStringVectorWriter extends Writer implements PrettyWriter {
     private RAbstractVector vector;
-    private StringBuilder sb = new StringBuilder();
+    private final StringBuilder sb = new StringBuilder();
+    private boolean collecting = true;
     private String[] stringElements = null;
     private int levelCounter = 0;
     private boolean addSpaces;
@@ -73,7 +73,8 @@ public class AnyVectorToStringVectorWriter extends Writer implements PrettyWrite
     @Override
     public void beginElement(int index, FormatMetrics fm) {
         if (levelCounter == 1) {
-            sb = new StringBuilder();
+            sb.setLength(0);
+            collecting = true;
         }
     }
 
@@ -87,21 +88,21 @@ public class AnyVectorToStringVectorWriter extends Writer implements PrettyWrite
                                 s.length() < fm.originalMaxWidth;
             }
 
-            if (addSpaces) {
-                int ns = fm.getOriginalMaxWidth() - s.length();
-                char[] spaces = new char[ns];
-                Arrays.fill(spaces, ' ');
-                stringElements[index] = new StringBuilder().append(spaces).append(s).toString();
+            int ns = fm.getOriginalMaxWidth() - s.length();
+            if (addSpaces && ns > 0) {
+                sb.setLength(0);
+                Utils.appendBlanks(sb, ns);
+                stringElements[index] = sb.append(s).toString();
             } else {
-                stringElements[index] = sb.toString().trim();
+                stringElements[index] = s;
             }
-            sb = null;
+            collecting = false;
         }
     }
 
     @Override
     public void write(char[] cbuf, int off, int len) throws IOException {
-        if (sb != null) {
+        if (collecting) {
             sb.append(cbuf, off, len);
         }
     }
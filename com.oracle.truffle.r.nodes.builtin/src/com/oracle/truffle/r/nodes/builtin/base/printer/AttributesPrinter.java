@@ -100,6 +100,7 @@ final class AttributesPrinter implements ValuePrinter<RAttributable> {
                 // throw new UnsupportedOperationException("TODO");
             } else {
                 if (a.getValue() instanceof RAttributable && ((RAttributable) a.getValue()).isObject()) {
+                    printCtx.output().flush();
                     RContext.getEngine().printResult(ctx, a.getValue());
                 } else {
                     ValuePrinters.INSTANCE.print(a.getValue(), printCtx);
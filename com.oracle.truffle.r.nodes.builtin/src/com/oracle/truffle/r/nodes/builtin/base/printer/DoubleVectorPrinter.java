@@ -5,7 +5,7 @@
  *
  * Copyright (c) 1995, 1996  Robert Gentleman and Ross Ihaka
  * Copyright (c) 1997-2013,  The R Core Team
- * Copyright (c) 2016, 2017, Oracle and/or its affiliates
+ * Copyright (c) 2016, 2018, Oracle and/or its affiliates
  *
  * All rights reserved.
  */
@@ -37,6 +37,10 @@ public final class DoubleVectorPrinter extends VectorPrinter<RAbstractDoubleVect
 
     private final class DoubleVectorPrintJob extends VectorPrintJob {
 
+        // reused for all elements, so that printing does not create a string per element
+        private final StringBuilder buffer = new StringBuilder();
+        private char[] chars = new char[32];
+
         protected DoubleVectorPrintJob(RAbstractDoubleVector vector, int indx, PrintContext printCtx) {
             super(vector, indx, printCtx);
         }
@@ -49,8 +53,14 @@ public final class DoubleVectorPrinter extends VectorPrinter<RAbstractDoubleVect
         @Override
         protected void printElement(int i, FormatMetrics fm) throws IOException {
             DoubleVectorMetrics dfm = (DoubleVectorMetrics) fm;
-            String v = encodeReal(access.getDouble(iterator, i), dfm.maxWidth, dfm.d, dfm.e, '.', printCtx.parameters());
-            out.print(v);
+            buffer.setLength(0);
+            encodeReal(buffer, access.getDouble(iterator, i), dfm.maxWidth, dfm.d, dfm.e, '.', printCtx.parameters().getNaString());
+            int length = buffer.length();
+            if (chars.length < length) {
+                chars = new char[length];
+            }
+            buffer.getChars(0, length, chars, 0);
+            out.write(chars, 0, length);
         }
 
         @Override
@@ -370,6 +380,10 @@ public final class DoubleVectorPrinter extends VectorPrinter<RAbstractDoubleVect
 
     @TruffleBoundary
     public static String encodeReal(double x, int digits, char cdec, int sciPen, String naString) {
+        StringBuilder str = new StringBuilder();
+        if (RRuntime.appendWholeNumber(str, x, digits, sciPen, cdec)) {
+            return str.toString();
+        }
         RDouble value = RDouble.valueOf(x);
         VectorAccess access = value.slowPathAccess();
         try (RandomIterator iter = access.randomAccess(value)) {
@@ -410,10 +424,21 @@ public final class DoubleVectorPrinter extends VectorPrinter<RAbstractDoubleVect
 
     @TruffleBoundary
     static String encodeReal(double initialX, int w, int d, int e, char cdec, String naString) {
+        StringBuilder str = new StringBuilder(w);
+        encodeReal(str, initialX, w, d, e, cdec, naString);
+        return str.toString();
+    }
+
+    /**
+     * Appends the formatted value to {@code str}, which allows the printer to reuse one buffer for
+     * all the elements of a vector.
+     */
+    @TruffleBoundary
+    static void encodeReal(StringBuilder str, double initialX, int w, int d, int e, char cdec, String naString) {
         /* IEEE allows signed zeros (yuck!) */
         double x = RRuntime.normalizeZero(initialX);
+        int start = str.length();
 
-        StringBuilder str = new StringBuilder(w);
         if (!RRuntime.isFinite(x)) {
             String id;
             if (RRuntime.isNA(x)) {
@@ -550,15 +575,14 @@ public final class DoubleVectorPrinter extends VectorPrinter<RAbstractDoubleVect
                         // the leftover is large enough to increment from rounding, so re-run
                         x = startingX + DECIMAL_VALUES[-d + DECIMAL_SHIFT][1];
                         finalRun = true;
-                        str.setLength(0);
+                        str.setLength(start);
                     } else {
                         break;
                     }
                 }
             }
         }
-        assert str.length() >= w;
-        return str.toString();
+        assert str.length() - start >= w;
     }
 
     private static double appendDigit(double x, int digit, StringBuilder str) {
@@ -576,8 +600,11 @@ public final class DoubleVectorPrinter extends VectorPrinter<RAbstractDoubleVect
             int w = Math.max(trim ? 1 : dfm.maxWidth, width);
 
             String[] result = new String[length];
+            StringBuilder str = new StringBuilder(w);
             for (int i = 0; i < length; i++) {
-                result[i] = encodeReal(access.getDouble(iter, i), w, dfm.d, dfm.e, decimalMark, pp);
+                str.setLength(0);
+                encodeReal(str, access.getDouble(iter, i), w, dfm.d, dfm.e, decimalMark, pp.getNaString());
+                result[i] = str.toString();
             }
             return result;
         }
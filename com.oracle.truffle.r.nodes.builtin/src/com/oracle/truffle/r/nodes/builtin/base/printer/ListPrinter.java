@@ -203,6 +203,7 @@ final class ListPrinter extends AbstractValuePrinter<RAbstractListVector> {
                 out.println(tagbuf);
                 Object si = s.getDataAt(i);
                 if (si instanceof RAttributable && ((RAttributable) si).isObject()) {
+                    printCtx.output().flush();
                     RContext.getEngine().printResult(RContext.getInstance(), si);
                 } else {
                     ValuePrinters.INSTANCE.print(si, printCtx);
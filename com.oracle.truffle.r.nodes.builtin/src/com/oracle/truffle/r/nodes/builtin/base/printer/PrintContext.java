@@ -118,6 +118,8 @@ final class PrintContext {
 
         PrintContext ctx = ctxStack.pop();
 
+        // the writer may buffer the output, a nested context must not keep it back
+        ctx.out.flush();
         if (ctxStack.isEmpty()) {
             ctx.out.close();
             printCtxTL.remove();
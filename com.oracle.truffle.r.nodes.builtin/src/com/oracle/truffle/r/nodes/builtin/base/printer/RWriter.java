@@ -27,18 +27,45 @@ import java.io.Writer;
 
 import com.oracle.truffle.r.runtime.conn.StdConnections;
 
+/**
+ * Writes the printed output to the current standard output connection. The output is collected
+ * in a buffer and handed to the connection in larger pieces, because the printers emit many tiny
+ * strings (single elements, gaps and labels). The buffer must be flushed before any R code that
+ * may write to the standard output is invoked during printing.
+ */
 class RWriter extends Writer {
 
+    private static final int BUFFER_SIZE = 8192;
+
+    private final StringBuilder buffer = new StringBuilder(BUFFER_SIZE);
+
     @Override
     public void write(char[] cbuf, int off, int len) throws IOException {
-        StdConnections.getStdout().writeString(new String(cbuf, off, len), false);
+        buffer.append(cbuf, off, len);
+        if (buffer.length() >= BUFFER_SIZE) {
+            flush();
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        buffer.append(str, off, off + len);
+        if (buffer.length() >= BUFFER_SIZE) {
+            flush();
+        }
     }
 
     @Override
     public void flush() throws IOException {
+        if (buffer.length() > 0) {
+            String s = buffer.toString();
+            buffer.setLength(0);
+            StdConnections.getStdout().writeString(s, false);
+        }
     }
 
     @Override
     public void close() throws IOException {
+        flush();
     }
 }
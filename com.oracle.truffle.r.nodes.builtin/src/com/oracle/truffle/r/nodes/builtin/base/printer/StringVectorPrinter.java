@@ -5,16 +5,16 @@
  *
  * Copyright (c) 1995, 1996  Robert Gentleman and Ross Ihaka
  * Copyright (c) 1997-2013,  The R Core Team
- * Copyright (c) 2016, 2017, Oracle and/or its affiliates
+ * Copyright (c) 2016, 2018, Oracle and/or its affiliates
  *
  * All rights reserved.
  */
 package com.oracle.truffle.r.nodes.builtin.base.printer;
 
-import static com.oracle.truffle.r.nodes.builtin.base.printer.Utils.asBlankArg;
+import static com.oracle.truffle.r.nodes.builtin.base.printer.Utils.appendBlanks;
+import static com.oracle.truffle.r.nodes.builtin.base.printer.Utils.printBlanks;
 
 import java.io.IOException;
-import java.util.Arrays;
 
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
@@ -58,9 +58,8 @@ final class StringVectorPrinter extends VectorPrinter<RAbstractStringVector> {
         protected void printCell(int i, FormatMetrics fm) throws IOException {
             String s = access.getString(iterator, i);
             String outS = StringVectorPrinter.encode(s, fm.maxWidth, printCtx.parameters());
-            int g = printCtx.parameters().getGap();
-            String fmt = "%" + asBlankArg(g) + "s%s";
-            printCtx.output().printf(fmt, "", outS);
+            printBlanks(out, printCtx.parameters().getGap());
+            out.print(outS);
         }
 
         @Override
@@ -149,21 +148,14 @@ final class StringVectorPrinter extends VectorPrinter<RAbstractStringVector> {
                 break;
         }
 
-        StringBuilder sb = new StringBuilder();
-
-        if (bl > 0) {
-            char[] sp = new char[bl];
-            Arrays.fill(sp, ' ');
-            sb.append(sp);
+        if (bl <= 0 && br <= 0) {
+            return s;
         }
 
+        StringBuilder sb = new StringBuilder(w);
+        appendBlanks(sb, bl);
         sb.append(s);
-
-        if (br > 0) {
-            char[] sp = new char[br];
-            Arrays.fill(sp, ' ');
-            sb.append(sp);
-        }
+        appendBlanks(sb, br);
 
         return sb.toString();
     }
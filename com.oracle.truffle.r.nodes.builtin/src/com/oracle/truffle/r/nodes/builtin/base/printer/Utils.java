@@ -22,6 +22,8 @@
  */
 package com.oracle.truffle.r.nodes.builtin.base.printer;
 
+import java.io.PrintWriter;
+
 import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 
@@ -44,6 +46,33 @@ final class Utils {
         return blanks == 0 ? "" : blanks + "";
     }
 
+    private static final String BLANKS = "                                                                ";
+
+    /**
+     * Prints {@code blanks} spaces, the equivalent of {@code printf("%*s", blanks, "")} for a
+     * non-negative width, without going through a formatter.
+     */
+    static void printBlanks(PrintWriter out, int blanks) {
+        int remaining = blanks;
+        while (remaining > 0) {
+            int chunk = Math.min(remaining, BLANKS.length());
+            out.write(BLANKS, 0, chunk);
+            remaining -= chunk;
+        }
+    }
+
+    /**
+     * Appends {@code blanks} spaces to {@code sb}.
+     */
+    static void appendBlanks(StringBuilder sb, int blanks) {
+        int remaining = blanks;
+        while (remaining > 0) {
+            int chunk = Math.min(remaining, BLANKS.length());
+            sb.append(BLANKS, 0, chunk);
+            remaining -= chunk;
+        }
+    }
+
     @SuppressWarnings("unchecked")
     static <T> T castTo(Object x) {
         if (x instanceof RNull) {
@@ -5,7 +5,7 @@
  *
  * Copyright (c) 1995, 1996  Robert Gentleman and Ross Ihaka
  * Copyright (c) 1997-2013,  The R Core Team
- * Copyright (c) 2016, 2017, Oracle and/or its affiliates
+ * Copyright (c) 2016, 2018, Oracle and/or its affiliates
  *
  * All rights reserved.
  */
@@ -13,6 +13,7 @@ package com.oracle.truffle.r.nodes.builtin.base.printer;
 
 import static com.oracle.truffle.r.nodes.builtin.base.printer.Utils.asBlankArg;
 import static com.oracle.truffle.r.nodes.builtin.base.printer.Utils.indexWidth;
+import static com.oracle.truffle.r.nodes.builtin.base.printer.Utils.printBlanks;
 
 import java.io.IOException;
 import java.io.PrintWriter;
@@ -191,7 +192,7 @@ abstract class VectorPrinter<T extends RAbstractVector> extends AbstractValuePri
                     out.println();
                     width = doLab(i);
                 }
-                out.printf("%" + asBlankArg(gap) + "s", "");
+                printBlanks(out, gap);
                 printElementAndNotify(i, fm);
                 width += w + gap;
             }
@@ -212,13 +213,14 @@ abstract class VectorPrinter<T extends RAbstractVector> extends AbstractValuePri
             int nperline;
             int wn;
 
-            FormatMetrics fm = formatVector(0, n);
+            /* only the first max.print elements are formatted and printed */
+            FormatMetrics fm = formatVector(0, nPr);
 
             PrintParameters pp = printCtx.parameters();
 
             VectorAccess namesAccess = names.slowPathAccess();
             try (RandomIterator namesIter = namesAccess.randomAccess(names)) {
-                wn = StringVectorPrinter.formatString(namesIter, namesAccess, 0, n, false, pp);
+                wn = StringVectorPrinter.formatString(namesIter, namesAccess, 0, nPr, false, pp);
             }
             if (fm.maxWidth < wn) {
                 fm.maxWidth = wn;
@@ -230,8 +232,8 @@ abstract class VectorPrinter<T extends RAbstractVector> extends AbstractValuePri
             if (nperline <= 0) {
                 nperline = 1;
             }
-            nlines = n / nperline;
-            if (n % nperline != 0) {
+            nlines = nPr / nperline;
+            if (nPr % nperline != 0) {
                 nlines += 1;
             }
 
@@ -243,16 +245,19 @@ abstract class VectorPrinter<T extends RAbstractVector> extends AbstractValuePri
                 if (i > 0) {
                     out.println();
                 }
-                for (j = 0; j < nperline && (k = i * nperline + j) < n; j++) {
+                for (j = 0; j < nperline && (k = i * nperline + j) < nPr; j++) {
                     StringVectorPrinter.printString(names.getDataAt(k), w, namesPrintCtx);
-                    out.printf("%" + asBlankArg(gap) + "s", "");
+                    printBlanks(out, gap);
                 }
                 out.println();
-                for (j = 0; j < nperline && (k = i * nperline + j) < n; j++) {
+                for (j = 0; j < nperline && (k = i * nperline + j) < nPr; j++) {
                     printElementAndNotify(k, fm);
-                    out.printf("%" + asBlankArg(gap) + "s", "");
+                    printBlanks(out, gap);
                 }
             }
+            if (nPr < n) {
+                out.printf("\n [ reached getOption(\"max.print\") -- omitted %d entries ]", n - nPr);
+            }
         }
 
         private void printMatrix() throws IOException {
@@ -715,6 +715,9 @@ public class FastRInterop {
         @TruffleBoundary
         public Object toArray(RAbstractIntVector vec, @SuppressWarnings("unused") RMissing className, boolean flat,
                         @Cached("createR2Foreign()") R2Foreign r2Foreign) {
+            if (isOneDimensional(vec, flat)) {
+                return JavaInterop.asTruffleObject(vec.materialize().getDataCopy());
+            }
             return toArray(vec, flat, int.class, (array, i) -> Array.set(array, i, r2Foreign.execute(vec.getDataAt(i))));
         }
 
@@ -743,6 +746,9 @@ public class FastRInterop {
         @Specialization
         @TruffleBoundary
         public Object toArray(RAbstractDoubleVector vec, @SuppressWarnings("unused") RMissing className, boolean flat) {
+            if (isOneDimensional(vec, flat)) {
+                return JavaInterop.asTruffleObject(vec.materialize().getDataCopy());
+            }
             return toArray(vec, flat, double.class, (array, i) -> Array.set(array, i, vec.getDataAt(i)));
         }
 
@@ -771,6 +777,9 @@ public class FastRInterop {
         @Specialization
         @TruffleBoundary
         public Object toArray(RAbstractStringVector vec, @SuppressWarnings("unused") RMissing className, boolean flat) {
+            if (isOneDimensional(vec, flat)) {
+                return JavaInterop.asTruffleObject(vec.materialize().getDataCopy());
+            }
             return toArray(vec, flat, String.class, (array, i) -> Array.set(array, i, vec.getDataAt(i)));
         }
 
@@ -783,6 +792,9 @@ public class FastRInterop {
         @Specialization
         @TruffleBoundary
         public Object toArray(RAbstractRawVector vec, @SuppressWarnings("unused") RMissing className, boolean flat) {
+            if (isOneDimensional(vec, flat)) {
+                return JavaInterop.asTruffleObject(vec.materialize().getDataCopy());
+            }
             return toArray(vec, flat, byte.class, (array, i) -> Array.set(array, i, vec.getRawDataAt(i)));
         }
 
@@ -839,6 +851,14 @@ public class FastRInterop {
             return dims;
         }
 
+        /**
+         * One-dimensional arrays of the vector's own element type are created with a single bulk
+         * copy of the vector data instead of element by element.
+         */
+        private static boolean isOneDimensional(RAbstractVector vec, boolean flat) {
+            return getDim(flat, vec).length == 1;
+        }
+
         private static Object toArray(RAbstractVector vec, boolean flat, Class<?> clazz, VecElementToArray vecToArray) throws IllegalArgumentException, ArrayIndexOutOfBoundsException {
             int[] dims = getDim(flat, vec);
             // TODO need ForeignAccess.sendNew(multiDimArrayClass, dims)
@@ -857,6 +877,7 @@ public class FastRInterop {
             int[] dims = getDim(flat, vec);
             final Object array = Array.newInstance(clazz, dims);
             TruffleObject truffleArray = JavaInterop.asTruffleObject(array);
+            Node write = Message.WRITE.createNode();
 
             for (int d = 0; d < dims.length; d++) {
                 int dim = dims[d];
@@ -864,7 +885,7 @@ public class FastRInterop {
                 for (int i = 0; i < dim; i++) {
                     try {
                         Object value = r2Foreign.execute(vec.getDataAtAsObject(i));
-                        ForeignAccess.sendWrite(Message.WRITE.createNode(), truffleArray, i, value);
+                        ForeignAccess.sendWrite(write, truffleArray, i, value);
                     } catch (InteropException ex) {
                         throw error(RError.Message.GENERIC, ex.getMessage());
                     }
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.fastr;
+
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.singleElement;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.stringValue;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.toBoolean;
+import static com.oracle.truffle.r.runtime.RVisibility.ON;
+import static com.oracle.truffle.r.runtime.builtins.RBehavior.IO;
+import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.Utils;
+import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.data.NativeDataAccess;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RMissing;
+import com.oracle.truffle.r.runtime.data.RVector;
+
+/**
+ * Creates an integer or double vector whose data are a memory mapped file. The vector uses the
+ * native memory representation (see {@link NativeDataAccess}), so it can be used by arithmetic,
+ * subsetting and {@code .Call} without copying.
+ *
+ * If {@code readonly} is {@code TRUE}, the file is mapped read-only and the vector is shared
+ * permanently, i.e. any modification on the R side creates a heap copy first. Otherwise updates of
+ * the vector are written through to the file. The mapping is released together with the vector.
+ */
+@RBuiltin(name = ".fastr.mmap.vector", visibility = ON, kind = PRIMITIVE, parameterNames = {"path", "type", "length", "readonly"}, behavior = IO)
+public abstract class FastRMmapVector extends RBuiltinNode.Arg4 {
+
+    @Override
+    public Object[] getDefaultParameterValues() {
+        return new Object[]{RMissing.instance, "double", RRuntime.INT_NA, RRuntime.LOGICAL_TRUE};
+    }
+
+    static {
+        Casts casts = new Casts(FastRMmapVector.class);
+        casts.arg("path").mustBe(stringValue()).asStringVector().mustBe(singleElement()).findFirst();
+        casts.arg("type").mustBe(stringValue()).asStringVector().mustBe(singleElement()).findFirst();
+        casts.arg("length").asIntegerVector().findFirst(RRuntime.INT_NA);
+        casts.arg("readonly").asLogicalVector().findFirst().mustNotBeNA().map(toBoolean());
+    }
+
+    @Specialization
+    @TruffleBoundary
+    protected RVector<?> mmap(String path, String type, int length, boolean readonly) {
+        int elementSize;
+        switch (type) {
+            case "double":
+                elementSize = Double.BYTES;
+                break;
+            case "integer":
+                elementSize = Integer.BYTES;
+                break;
+            default:
+                throw error(RError.Message.INVALID_ARGUMENT, "type");
+        }
+        if (length != RRuntime.INT_NA && length < 0) {
+            throw error(RError.Message.INVALID_ARGUMENT, "length");
+        }
+        StandardOpenOption[] options = readonly ? new StandardOpenOption[]{StandardOpenOption.READ}
+                        : new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE};
+        MappedByteBuffer buffer;
+        int actualLength;
+        try (FileChannel channel = FileChannel.open(Paths.get(Utils.tildeExpand(path)), options)) {
+            long fileElements = channel.size() / elementSize;
+            if (length == RRuntime.INT_NA) {
+                if (fileElements > Integer.MAX_VALUE) {
+                    throw error(RError.Message.GENERIC, "file too large to be mapped as a single vector");
+                }
+                actualLength = (int) fileElements;
+            } else {
+                if (readonly && length > fileElements) {
+                    throw error(RError.Message.GENERIC, "file is shorter than the requested length");
+                }
+                actualLength = length;
+            }
+            long byteSize = (long) actualLength * elementSize;
+            if (byteSize > Integer.MAX_VALUE) {
+                throw error(RError.Message.GENERIC, "mapped region must not exceed " + Integer.MAX_VALUE + " bytes");
+            }
+            // the mapping stays valid after the channel is closed
+            buffer = channel.map(readonly ? MapMode.READ_ONLY : MapMode.READ_WRITE, 0, byteSize);
+        } catch (IOException e) {
+            throw error(RError.Message.GENERIC, "cannot map file '" + path + "': " + e.getMessage());
+        }
+        long address = actualLength == 0 ? 0 : NativeDataAccess.getDirectBufferAddress(buffer);
+        if (address == 0) {
+            return elementSize == Double.BYTES ? RDataFactory.createEmptyDoubleVector() : RDataFactory.createEmptyIntVector();
+        }
+        RVector<?> result = elementSize == Double.BYTES ? RDataFactory.createDoubleVectorFromNative(address, actualLength) : RDataFactory.createIntVectorFromNative(address, actualLength);
+        NativeDataAccess.setExternalDataOwner(result, buffer);
+        if (readonly) {
+            result.makeSharedPermanent();
+        }
+        return result;
+    }
+}
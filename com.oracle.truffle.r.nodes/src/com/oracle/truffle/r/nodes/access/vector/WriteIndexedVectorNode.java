@@ -298,7 +298,8 @@ abstract class WriteIndexedVectorAccessNode extends Node {
         int stride = strideProfile.profile(position.getStride());
         int end = start + positionLength * stride;
 
-        if (start < 0 || end <= 0) {
+        // zero stride sequences, e.g. from cummax, repeat the same position
+        if (start < 0 || end <= 0 || stride == 0) {
             throw new SlowPathException("rewrite to doIntegerPosition");
         }
 
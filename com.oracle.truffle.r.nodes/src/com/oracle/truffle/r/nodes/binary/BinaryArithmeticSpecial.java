@@ -43,7 +43,8 @@ import com.oracle.truffle.r.runtime.ops.UnaryArithmeticFactory;
  * Fast-path for scalar values: these cannot have any class attribute. Note: we intentionally use
  * empty type system to avoid conversions to vector types. Some binary operations have simple NA
  * handling, which is replicated here, others (notably pow and mul) throw
- * {@link RSpecialFactory#throwFullCallNeeded()} on NA.
+ * {@link RSpecialFactory#throwFullCallNeeded()} on NA. Nested arithmetic on vectors is evaluated
+ * element-wise by {@link FusedArithmeticNode}.
  */
 @NodeChild(value = "left", type = RNode.class)
 @NodeChild(value = "right", type = RNode.class)
@@ -67,11 +68,13 @@ public abstract class BinaryArithmeticSpecial extends RNode {
             if (signature.getNonNullCount() == 0) {
                 if (arguments.length == 2) {
                     boolean handleIntegers = !(binaryFactory == BinaryArithmetic.POW || binaryFactory == BinaryArithmetic.DIV);
+                    RNode special;
                     if (handleIntegers) {
-                        return IntegerBinaryArithmeticSpecialNodeGen.create(binaryFactory, unaryFactory, arguments[0], arguments[1]);
+                        special = IntegerBinaryArithmeticSpecialNodeGen.create(binaryFactory, unaryFactory, arguments[0], arguments[1]);
                     } else {
-                        return BinaryArithmeticSpecialNodeGen.create(binaryFactory, unaryFactory, arguments[0], arguments[1]);
+                        special = BinaryArithmeticSpecialNodeGen.create(binaryFactory, unaryFactory, arguments[0], arguments[1]);
                     }
+                    return FusedArithmeticNode.tryCreate(special, binaryFactory, arguments);
                 } else if (arguments.length == 1 && unaryFactory != null) {
                     return UnaryArithmeticSpecialNodeGen.create(unaryFactory, arguments[0]);
                 }
@@ -84,6 +84,22 @@ public final class BinaryMapArithmeticFunctionNode extends BinaryMapNAFunctionNo
         return arithmetic instanceof Add || arithmetic instanceof Subtract;
     }
 
+    @Override
+    public boolean isParallelizable() {
+        return arithmetic.isPure();
+    }
+
+    @Override
+    public double applyDoublePure(double left, double right) {
+        // same as applyDouble, the corner cases of pow and mod do not apply to pure operations
+        if (RRuntime.isNA(left)) {
+            return RRuntime.DOUBLE_NA;
+        } else if (RRuntime.isNA(right)) {
+            return Double.isNaN(left) ? left : RRuntime.DOUBLE_NA;
+        }
+        return arithmetic.op(left, right);
+    }
+
     @Override
     public double applyDouble(double left, double right) {
         if (leftNACheck.check(left)) {
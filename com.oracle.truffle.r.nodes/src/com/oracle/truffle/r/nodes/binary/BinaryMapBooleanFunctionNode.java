@@ -56,6 +56,20 @@ public final class BinaryMapBooleanFunctionNode extends BinaryMapNAFunctionNode
         return false;
     }
 
+    @Override
+    public boolean isParallelizable() {
+        return operation.isPure();
+    }
+
+    @Override
+    public byte applyLogicalPure(double left, double right) {
+        // same as applyLogical, the corner cases of "&" and "|" do not apply to pure operations
+        if (Double.isNaN(left) || Double.isNaN(right)) {
+            return RRuntime.LOGICAL_NA;
+        }
+        return RRuntime.asLogical(operation.op(left, right));
+    }
+
     @Override
     public byte applyLogical(byte left, byte right) {
         assert RLogical.isValid(left);
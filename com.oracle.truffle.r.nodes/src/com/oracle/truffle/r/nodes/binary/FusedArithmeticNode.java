@@ -0,0 +1,484 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.binary;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+import com.oracle.truffle.api.profiles.BranchProfile;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.r.nodes.function.ClassHierarchyNode;
+import com.oracle.truffle.r.nodes.function.call.RExplicitCallNode;
+import com.oracle.truffle.r.runtime.ArgumentsSignature;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.builtins.RBuiltinDescriptor;
+import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.data.RArgsValuesAndNames;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RFunction;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+import com.oracle.truffle.r.runtime.nodes.RBaseNode;
+import com.oracle.truffle.r.runtime.nodes.RNode;
+import com.oracle.truffle.r.runtime.nodes.RSyntaxCall;
+import com.oracle.truffle.r.runtime.nodes.RSyntaxConstant;
+import com.oracle.truffle.r.runtime.nodes.RSyntaxElement;
+import com.oracle.truffle.r.runtime.nodes.RSyntaxLookup;
+import com.oracle.truffle.r.runtime.nodes.RSyntaxNode;
+import com.oracle.truffle.r.runtime.ops.BinaryArithmetic;
+import com.oracle.truffle.r.runtime.ops.BinaryArithmeticFactory;
+
+/**
+ * Evaluates a tree of nested arithmetic specials, e.g., {@code a * b + c * d - e}, in a single loop
+ * over the elements, so that no temporary vector is allocated for the intermediate results.
+ *
+ * The operators and the leaves (lookups and double constants) are evaluated in the order of the
+ * nested calls, i.e., each operator is looked up right before its operands. If an operator does not
+ * resolve to the arithmetic builtin, its call is evaluated as a regular call, which evaluates its
+ * operands itself. The loop is used if all the leaves are double scalars or attribute-less double
+ * vectors of the same length and all operators resolved to the builtins. Otherwise the result is
+ * computed from the already evaluated leaves with the regular arithmetic nodes, or dispatched if
+ * they have a class. This is decided on every execution, the profiles keep the compiled code limited
+ * to the cases that were seen.
+ *
+ * Only {@code +}, {@code -}, {@code *} and {@code /} are fused: for these the result of an element
+ * only depends on the two operand elements and the NA handling of the specials, an NA operand gives
+ * NA, can be applied in the loop. {@code ^} and {@code %%} have exceptions ({@code 1 ^ NA} is
+ * {@code 1}), and {@code %/%} on doubles is rarely nested.
+ */
+public final class FusedArithmeticNode extends RNode {
+
+    @Child private CallElementNode root;
+    private final int leafCount;
+    private final int callCount;
+
+    private final ConditionProfile fusedProfile = ConditionProfile.createBinaryProfile();
+    private final ConditionProfile scalarProfile = ConditionProfile.createBinaryProfile();
+
+    private FusedArithmeticNode(CallElementNode root, int leafCount, int callCount) {
+        this.root = root;
+        this.leafCount = leafCount;
+        this.callCount = callCount;
+    }
+
+    /**
+     * Wraps the given special into a fused node if at least one of the arguments is a nested
+     * arithmetic call and the whole tree consists of fusible operations, parentheses, lookups and
+     * double constants. Returns the original special otherwise.
+     */
+    public static RNode tryCreate(RNode special, BinaryArithmeticFactory binaryFactory, RNode[] arguments) {
+        String name = getFusibleName(binaryFactory);
+        if (name == null || arguments.length != 2) {
+            return special;
+        }
+        RSyntaxElement left = arguments[0].asRSyntaxNode();
+        RSyntaxElement right = arguments[1].asRSyntaxNode();
+        if (!(left instanceof RSyntaxCall || right instanceof RSyntaxCall)) {
+            // nothing to fuse
+            return special;
+        }
+        RBuiltinDescriptor builtin = RContext.lookupBuiltinDescriptor(name);
+        if (builtin == null) {
+            return special;
+        }
+        Builder builder = new Builder();
+        int function = builder.callCount++;
+        ElementNode leftElement = builder.process(left);
+        ElementNode rightElement = leftElement == null ? null : builder.process(right);
+        if (rightElement == null) {
+            return special;
+        }
+        // the call site has already checked the operator, the special is the regular call
+        RNode functionNode = RContext.getASTBuilder().lookup(RSyntaxNode.LAZY_DEPARSE, name, true).asRNode();
+        CallElementNode root = new OperationElementNode(binaryFactory, function, functionNode, builtin, null, special, leftElement, rightElement);
+        return new FusedArithmeticNode(root, builder.leafCount, builder.callCount);
+    }
+
+    private static String getFusibleName(BinaryArithmeticFactory binaryFactory) {
+        if (binaryFactory == BinaryArithmetic.ADD) {
+            return "+";
+        } else if (binaryFactory == BinaryArithmetic.SUBTRACT) {
+            return "-";
+        } else if (binaryFactory == BinaryArithmetic.MULTIPLY) {
+            return "*";
+        } else if (binaryFactory == BinaryArithmetic.DIV) {
+            return "/";
+        }
+        return null;
+    }
+
+    private static BinaryArithmeticFactory getFusibleFactory(String name) {
+        switch (name) {
+            case "+":
+                return BinaryArithmetic.ADD;
+            case "-":
+                return BinaryArithmetic.SUBTRACT;
+            case "*":
+                return BinaryArithmetic.MULTIPLY;
+            case "/":
+                return BinaryArithmetic.DIV;
+            default:
+                return null;
+        }
+    }
+
+    private static final class Builder {
+        private int leafCount;
+        private int callCount;
+
+        ElementNode process(RSyntaxElement element) {
+            if (element instanceof RSyntaxLookup) {
+                if (ArgumentsSignature.VARARG_NAME.equals(((RSyntaxLookup) element).getIdentifier())) {
+                    return null;
+                }
+                return addLeaf(element);
+            } else if (element instanceof RSyntaxConstant) {
+                return ((RSyntaxConstant) element).getValue() instanceof Double ? addLeaf(element) : null;
+            } else if (element instanceof RSyntaxCall && element instanceof RSyntaxNode) {
+                RSyntaxCall call = (RSyntaxCall) element;
+                RSyntaxElement lhs = call.getSyntaxLHS();
+                RSyntaxElement[] args = call.getSyntaxArguments();
+                if (!(lhs instanceof RSyntaxLookup) || call.getSyntaxSignature().getNonNullCount() != 0) {
+                    return null;
+                }
+                String name = ((RSyntaxLookup) lhs).getIdentifier();
+                BinaryArithmeticFactory factory = getFusibleFactory(name);
+                boolean paren = "(".equals(name) && args.length == 1;
+                if (!paren && (factory == null || args.length != 2)) {
+                    return null;
+                }
+                RBuiltinDescriptor builtin = RContext.lookupBuiltinDescriptor(name);
+                if (builtin == null) {
+                    return null;
+                }
+                int function = callCount++;
+                RNode functionNode = RContext.getASTBuilder().process(lhs).asRNode();
+                ElementNode left = process(args[0]);
+                if (paren) {
+                    // parentheses only need to resolve to the builtin
+                    return left == null ? null : new ParenElementNode(function, functionNode, builtin, call, left);
+                }
+                ElementNode right = left == null ? null : process(args[1]);
+                return right == null ? null : new OperationElementNode(factory, function, functionNode, builtin, call, null, left, right);
+            }
+            return null;
+        }
+
+        private ElementNode addLeaf(RSyntaxElement element) {
+            return new LeafElementNode(leafCount++, RContext.getASTBuilder().process(element).asRNode());
+        }
+    }
+
+    @Override
+    public Object execute(VirtualFrame frame) {
+        Object[] values = new Object[leafCount];
+        Object[] functionValues = new Object[callCount];
+        Object[] callValues = new Object[callCount];
+        boolean builtins = root.evaluate(frame, values, functionValues, callValues);
+        if (builtins) {
+            double[][] inputs = new double[leafCount][];
+            int length = getFusedLength(values, inputs);
+            if (fusedProfile.profile(length >= 0)) {
+                if (scalarProfile.profile(length == 1 && allScalars(values))) {
+                    return root.execute(inputs, 0);
+                }
+                double[] result = new double[length];
+                for (int i = 0; i < length; i++) {
+                    result[i] = root.execute(inputs, i);
+                }
+                return RDataFactory.createDoubleVector(result, RDataFactory.INCOMPLETE_VECTOR);
+            }
+        }
+        // the leaves must not be evaluated again, e.g., they might be active bindings
+        return root.executeGeneric(frame, values, functionValues, callValues);
+    }
+
+    /**
+     * The values are other numbers, e.g., integers, which the regular nodes handle, or have
+     * attributes or vectors of different lengths, which need recycling.
+     */
+    private static final int NOT_FUSIBLE = -1;
+
+    /**
+     * Fills {@code inputs} with the data of the leaves and returns the length of the result, or
+     * {@link #NOT_FUSIBLE} if the values cannot be handled by the fused loop.
+     */
+    @ExplodeLoop
+    private static int getFusedLength(Object[] values, double[][] inputs) {
+        int length = 1;
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            double[] data;
+            if (value instanceof Double) {
+                data = new double[]{(double) value};
+            } else if (value instanceof RAbstractDoubleVector && ((RAbstractDoubleVector) value).getAttributes() == null) {
+                data = ((RAbstractDoubleVector) value).materialize().getReadonlyData();
+            } else {
+                return NOT_FUSIBLE;
+            }
+            if (data.length != 1) {
+                if (length != 1 && data.length != length) {
+                    // recycling (and the length warning) is left to the regular nodes
+                    return NOT_FUSIBLE;
+                }
+                length = data.length;
+            }
+            inputs[i] = data;
+        }
+        return length;
+    }
+
+    @ExplodeLoop
+    private static boolean allScalars(Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            if (!(values[i] instanceof Double)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private abstract static class ElementNode extends RBaseNode {
+        /**
+         * Evaluates the operators and leaves of this subtree in R's evaluation order. Returns
+         * {@code false} if an operator did not resolve to the arithmetic builtin, in which case its
+         * call has been evaluated regularly and its value stored in {@code callValues}.
+         */
+        protected abstract boolean evaluate(VirtualFrame frame, Object[] values, Object[] functionValues, Object[] callValues);
+
+        protected abstract double execute(double[][] inputs, int index);
+
+        /**
+         * Computes the value of this subtree from the values of the leaves with the regular
+         * arithmetic, including dispatch on classes.
+         */
+        protected abstract Object executeGeneric(VirtualFrame frame, Object[] values, Object[] functionValues, Object[] callValues);
+    }
+
+    private static final class LeafElementNode extends ElementNode {
+        private final int input;
+
+        @Child private RNode value;
+
+        LeafElementNode(int input, RNode value) {
+            this.input = input;
+            this.value = value;
+        }
+
+        @Override
+        protected boolean evaluate(VirtualFrame frame, Object[] values, Object[] functionValues, Object[] callValues) {
+            values[input] = value.execute(frame);
+            return true;
+        }
+
+        @Override
+        protected double execute(double[][] inputs, int index) {
+            double[] data = inputs[input];
+            return data.length == 1 ? data[0] : data[index];
+        }
+
+        @Override
+        protected Object executeGeneric(VirtualFrame frame, Object[] values, Object[] functionValues, Object[] callValues) {
+            return values[input];
+        }
+    }
+
+    /**
+     * A call of an operator or of parentheses. Errors and warnings raised by the regular arithmetic
+     * nodes below this node report {@link #call} (through {@link RSyntaxCall}), the call that would
+     * have raised them without fusion.
+     */
+    private abstract static class CallElementNode extends ElementNode implements RSyntaxCall {
+        protected final int function;
+        private final RBuiltinDescriptor expectedFunction;
+        /**
+         * The original call, {@code null} for the root, which is the call of the enclosing special.
+         */
+        private final RSyntaxCall call;
+
+        @Child private RNode functionNode;
+        @Child private RNode regularCall;
+
+        private final BranchProfile redefinedProfile = BranchProfile.create();
+
+        CallElementNode(int function, RNode functionNode, RBuiltinDescriptor expectedFunction, RSyntaxCall call, RNode regularCall) {
+            this.function = function;
+            this.functionNode = functionNode;
+            this.expectedFunction = expectedFunction;
+            this.call = call;
+            this.regularCall = regularCall;
+        }
+
+        /**
+         * Looks up the operator, or evaluates the whole call regularly if it does not resolve to
+         * the builtin. Returns {@code true} if the operands still need to be evaluated.
+         */
+        protected final boolean evaluateFunction(VirtualFrame frame, Object[] functionValues, Object[] callValues) {
+            Object value = functionNode.execute(frame);
+            if (value instanceof RFunction && ((RFunction) value).getRBuiltin() == expectedFunction) {
+                functionValues[function] = value;
+                return true;
+            }
+            redefinedProfile.enter();
+            if (regularCall == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                regularCall = insert(RContext.getASTBuilder().process(call).asRNode());
+            }
+            callValues[function] = regularCall.execute(frame);
+            return false;
+        }
+
+        @Override
+        protected RSyntaxNode getRSyntaxNode() {
+            return call == null ? super.getRSyntaxNode() : (RSyntaxNode) call;
+        }
+
+        private RSyntaxCall getCall() {
+            return (RSyntaxCall) getRSyntaxNode();
+        }
+
+        @Override
+        public RSyntaxElement getSyntaxLHS() {
+            return getCall().getSyntaxLHS();
+        }
+
+        @Override
+        public ArgumentsSignature getSyntaxSignature() {
+            return getCall().getSyntaxSignature();
+        }
+
+        @Override
+        public RSyntaxElement[] getSyntaxArguments() {
+            return getCall().getSyntaxArguments();
+        }
+
+        @Override
+        public SourceSection getLazySourceSection() {
+            return getCall().getLazySourceSection();
+        }
+
+        @Override
+        public void setSourceSection(SourceSection source) {
+            // ignored, the source section belongs to the original call
+        }
+    }
+
+    private static final class ParenElementNode extends CallElementNode {
+        @Child private ElementNode operand;
+
+        ParenElementNode(int function, RNode functionNode, RBuiltinDescriptor expectedFunction, RSyntaxCall call, ElementNode operand) {
+            super(function, functionNode, expectedFunction, call, null);
+            this.operand = operand;
+        }
+
+        @Override
+        protected boolean evaluate(VirtualFrame frame, Object[] values, Object[] functionValues, Object[] callValues) {
+            return evaluateFunction(frame, functionValues, callValues) && operand.evaluate(frame, values, functionValues, callValues);
+        }
+
+        @Override
+        protected double execute(double[][] inputs, int index) {
+            return operand.execute(inputs, index);
+        }
+
+        @Override
+        protected Object executeGeneric(VirtualFrame frame, Object[] values, Object[] functionValues, Object[] callValues) {
+            Object value = callValues[function];
+            return value != null ? value : operand.executeGeneric(frame, values, functionValues, callValues);
+        }
+    }
+
+    private static final class OperationElementNode extends CallElementNode {
+        private final BinaryArithmeticFactory factory;
+
+        @Child private BinaryArithmetic operation;
+        @Child private ElementNode left;
+        @Child private ElementNode right;
+        @Child private ClassHierarchyNode leftClass;
+        @Child private ClassHierarchyNode rightClass;
+        @Child private BinaryArithmeticNode binary;
+        @Child private RExplicitCallNode dispatchCall;
+
+        OperationElementNode(BinaryArithmeticFactory factory, int function, RNode functionNode, RBuiltinDescriptor expectedFunction, RSyntaxCall call, RNode regularCall, ElementNode left,
+                        ElementNode right) {
+            super(function, functionNode, expectedFunction, call, regularCall);
+            this.factory = factory;
+            this.operation = factory.createOperation();
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        protected boolean evaluate(VirtualFrame frame, Object[] values, Object[] functionValues, Object[] callValues) {
+            if (!evaluateFunction(frame, functionValues, callValues)) {
+                return false;
+            }
+            boolean leftBuiltins = left.evaluate(frame, values, functionValues, callValues);
+            boolean rightBuiltins = right.evaluate(frame, values, functionValues, callValues);
+            return leftBuiltins && rightBuiltins;
+        }
+
+        @Override
+        protected double execute(double[][] inputs, int index) {
+            double leftValue = left.execute(inputs, index);
+            double rightValue = right.execute(inputs, index);
+            if (Double.isNaN(leftValue) || Double.isNaN(rightValue)) {
+                // same NA handling as in BinaryMapArithmeticFunctionNode
+                if (RRuntime.isNA(leftValue)) {
+                    return RRuntime.DOUBLE_NA;
+                } else if (RRuntime.isNA(rightValue)) {
+                    return Double.isNaN(leftValue) ? leftValue : RRuntime.DOUBLE_NA;
+                }
+            }
+            return operation.op(leftValue, rightValue);
+        }
+
+        @Override
+        protected Object executeGeneric(VirtualFrame frame, Object[] values, Object[] functionValues, Object[] callValues) {
+            Object value = callValues[function];
+            if (value != null) {
+                return value;
+            }
+            Object leftValue = left.executeGeneric(frame, values, functionValues, callValues);
+            Object rightValue = right.executeGeneric(frame, values, functionValues, callValues);
+            if (leftClass == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                leftClass = insert(ClassHierarchyNode.create());
+                rightClass = insert(ClassHierarchyNode.create());
+            }
+            if (leftClass.execute(leftValue) != null || rightClass.execute(rightValue) != null) {
+                if (dispatchCall == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    dispatchCall = insert(RExplicitCallNode.create());
+                }
+                return dispatchCall.call(frame, (RFunction) functionValues[function], new RArgsValuesAndNames(new Object[]{leftValue, rightValue}, ArgumentsSignature.empty(2)));
+            }
+            if (binary == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                binary = insert(BinaryArithmeticNode.create(factory, null));
+            }
+            return binary.call(frame, leftValue, rightValue);
+        }
+    }
+}
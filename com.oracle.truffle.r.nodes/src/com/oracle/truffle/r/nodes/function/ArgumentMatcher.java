@@ -192,7 +192,8 @@ public class ArgumentMatcher {
             if (suppliedIndex == MatchPermutation.VARARGS) {
                 int varArgsLen = match.varargsPermutation.length;
                 Object[] newVarArgs = new Object[varArgsLen];
-                if (permuteVarArgs(match, evaluatedArgs, varArgsLen, newVarArgs)) {
+                if (match.varargsStart != MatchPermutation.UNMATCHED ? copyVarArgs(match.varargsStart, evaluatedArgs, varArgsLen, newVarArgs)
+                                : permuteVarArgs(match, evaluatedArgs, varArgsLen, newVarArgs)) {
                     evaledArgs[formalIndex] = new RArgsValuesAndNames(newVarArgs, match.varargsSignature);
                 } else {
                     evaledArgs[formalIndex] = RArgsValuesAndNames.EMPTY;
@@ -209,6 +210,20 @@ public class ArgumentMatcher {
         }
     }
 
+    /**
+     * Variant of {@link #permuteVarArgs} for long runs of consecutive arguments, e.g., from
+     * {@code do.call(rbind, list)}, which are copied without unrolling the loop.
+     */
+    private static boolean copyVarArgs(int start, Object[] evaluatedArgs, int varArgsLen, Object[] newVarArgs) {
+        System.arraycopy(evaluatedArgs, start, newVarArgs, 0, varArgsLen);
+        for (int i = 0; i < varArgsLen; i++) {
+            if (newVarArgs[i] != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @ExplodeLoop
     private static boolean permuteVarArgs(MatchPermutation match, Object[] evaluatedArgs, int varArgsLen, Object[] newVarArgs) {
         CompilerAsserts.compilationConstant(varArgsLen);
@@ -522,10 +537,21 @@ public class ArgumentMatcher {
         public static final int UNMATCHED = -1;
         public static final int VARARGS = -2;
 
+        /**
+         * Varargs up to this length are always permuted by an unrolled loop.
+         */
+        private static final int MAX_UNROLLED_VARARGS = 16;
+
         @CompilationFinal(dimensions = 1) private final int[] resultPermutation;
         @CompilationFinal(dimensions = 1) private final int[] varargsPermutation;
         private final ArgumentsSignature varargsSignature;
 
+        /**
+         * If the varargs are a long run of consecutive supplied arguments, this is the index of the
+         * first one, otherwise {@link #UNMATCHED}.
+         */
+        private final int varargsStart;
+
         /**
          * For each formal argument we keep the its original call-site name. For example, when
          * formal named 'x' in 'foo <- function(x) {}' was invoked as 'foo(42)' we remember that 'x'
@@ -539,6 +565,19 @@ public class ArgumentMatcher {
             this.resultSignature = resultSignature;
             this.varargsPermutation = varargsPermutation;
             this.varargsSignature = varargsSignature;
+            this.varargsStart = getConsecutiveStart(varargsPermutation);
+        }
+
+        private static int getConsecutiveStart(int[] permutation) {
+            if (permutation == null || permutation.length <= MAX_UNROLLED_VARARGS) {
+                return UNMATCHED;
+            }
+            for (int i = 1; i < permutation.length; i++) {
+                if (permutation[i] != permutation[0] + i) {
+                    return UNMATCHED;
+                }
+            }
+            return permutation[0];
         }
     }
 
@@ -103,4 +103,23 @@ public abstract class BinaryMapFunctionNode extends RBaseNode {
     public boolean isComplete() {
         return true;
     }
+
+    /**
+     * Returns <code>true</code> if {@link #applyDoublePure(double, double)} and
+     * {@link #applyLogicalPure(double, double)} can be used for this function. Unlike the other
+     * apply methods, they use neither NA checks nor profiles and only call operations that are
+     * {@link com.oracle.truffle.r.runtime.ops.Operation#isPure() pure}, so that they can be
+     * invoked concurrently on chunks of a vector.
+     */
+    public boolean isParallelizable() {
+        return false;
+    }
+
+    public double applyDoublePure(@SuppressWarnings("unused") double left, @SuppressWarnings("unused") double right) {
+        throw RInternalError.shouldNotReachHere();
+    }
+
+    public byte applyLogicalPure(@SuppressWarnings("unused") double left, @SuppressWarnings("unused") double right) {
+        throw RInternalError.shouldNotReachHere();
+    }
 }
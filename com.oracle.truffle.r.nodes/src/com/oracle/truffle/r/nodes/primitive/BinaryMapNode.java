@@ -23,6 +23,7 @@
 package com.oracle.truffle.r.nodes.primitive;
 
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.profiles.ConditionProfile;
@@ -32,11 +33,15 @@ import com.oracle.truffle.r.nodes.attributes.CopyAttributesNodeGen;
 import com.oracle.truffle.r.nodes.attributes.HasFixedAttributeNode;
 import com.oracle.truffle.r.nodes.attributes.SpecialAttributesFunctions.GetDimAttributeNode;
 import com.oracle.truffle.r.nodes.profile.VectorLengthProfile;
+import com.oracle.truffle.r.runtime.ParallelLoop;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.RType;
 import com.oracle.truffle.r.runtime.data.RComplex;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RDoubleSequence;
+import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.RRaw;
 import com.oracle.truffle.r.runtime.data.RScalarVector;
 import com.oracle.truffle.r.runtime.data.RShareable;
@@ -166,12 +171,14 @@ final class BinaryMapVectorNode extends BinaryMapNode {
     private final ConditionProfile shareRight;
     private final ConditionProfile leftIsNAProfile;
     private final ConditionProfile rightIsNAProfile;
+    private final ConditionProfile parallelProfile;
 
     // compile-time optimization flags
     private final boolean mayContainMetadata;
     private final boolean mayFoldConstantTime;
     private final boolean mayShareLeft;
     private final boolean mayShareRight;
+    private final boolean mayRunInParallel;
     private final boolean isGeneric;
 
     BinaryMapVectorNode(BinaryMapFunctionNode function, RAbstractVector left, RAbstractVector right, RType argumentType, RType resultType, boolean copyAttributes, boolean isGeneric) {
@@ -197,6 +204,9 @@ final class BinaryMapVectorNode extends BinaryMapNode {
 
         this.copyAttributes = mayContainMetadata ? CopyAttributesNodeGen.create(copyAttributes) : null;
         this.maxLengthProfile = ConditionProfile.createBinaryProfile();
+        this.mayRunInParallel = ParallelLoop.isEnabled() && function.isParallelizable() && argumentType == RType.Double && (resultType == RType.Double || resultType == RType.Logical) &&
+                        isArrayBacked(leftClass) && isArrayBacked(rightClass);
+        this.parallelProfile = mayRunInParallel ? ConditionProfile.createBinaryProfile() : null;
         this.isGeneric = isGeneric;
     }
 
@@ -241,7 +251,10 @@ final class BinaryMapVectorNode extends BinaryMapNode {
 
                 assert left.getLength() == leftLength;
                 assert right.getLength() == rightLength;
-                if (mayShareLeft && left.getRType() == resultType && shareLeft.profile(leftLength == maxLength && ((RShareable) left).isTemporary())) {
+                boolean parallel = mayRunInParallel && parallelProfile.profile(ParallelLoop.isParallel(maxLength));
+                if (parallel) {
+                    target = applyParallel(left, leftLength, right, rightLength, maxLength);
+                } else if (mayShareLeft && left.getRType() == resultType && shareLeft.profile(leftLength == maxLength && ((RShareable) left).isTemporary())) {
                     target = left;
                     vectorNode.execute(function, leftLength, rightLength, leftAccess, leftIter, leftAccess, leftIter, rightAccess, rightIter);
                 } else if (mayShareRight && right.getRType() == resultType && shareRight.profile(rightLength == maxLength && ((RShareable) right).isTemporary())) {
@@ -258,7 +271,10 @@ final class BinaryMapVectorNode extends BinaryMapNode {
                     }
                 }
                 RBaseNode.reportWork(this, maxLength);
-                target.setComplete(function.isComplete());
+                if (!parallel) {
+                    // the parallel path does not use the NA checks, its result knows its completeness
+                    target.setComplete(function.isComplete());
+                }
             }
             if (mayContainMetadata) {
                 target = copyAttributes.execute(target, left, leftLength, right, rightLength);
@@ -267,6 +283,51 @@ final class BinaryMapVectorNode extends BinaryMapNode {
         }
     }
 
+    /**
+     * Splits the computation across threads, see {@link ParallelLoop}. Each chunk reads the
+     * operands through its own iterators of their {@link VectorAccess} (only array backed operands
+     * are allowed, see {@link #isArrayBacked(Class)}) and calls the pure apply methods of the
+     * function (see {@link BinaryMapFunctionNode#isParallelizable()}), the length warning is
+     * raised after they are done.
+     */
+    @TruffleBoundary
+    private RAbstractVector applyParallel(RAbstractVector left, int leftLength, RAbstractVector right, int rightLength, int maxLength) {
+        VectorAccess leftAccess = left.slowPathAccess();
+        VectorAccess rightAccess = right.slowPathAccess();
+        RAbstractVector result;
+        if (resultType == RType.Double) {
+            double[] data = new double[maxLength];
+            ParallelLoop.execute(maxLength, (from, to) -> {
+                try (RandomIterator leftIter = leftAccess.randomAccess(left); RandomIterator rightIter = rightAccess.randomAccess(right)) {
+                    for (int i = from; i < to; i++) {
+                        data[i] = function.applyDoublePure(leftAccess.getDouble(leftIter, leftLength == maxLength ? i : i % leftLength),
+                                        rightAccess.getDouble(rightIter, rightLength == maxLength ? i : i % rightLength));
+                    }
+                }
+            });
+            // pure arithmetic only produces NA from NA operands
+            result = RDataFactory.createDoubleVector(data, left.isComplete() && right.isComplete());
+        } else {
+            assert resultType == RType.Logical;
+            byte[] data = new byte[maxLength];
+            ParallelLoop.execute(maxLength, (from, to) -> {
+                try (RandomIterator leftIter = leftAccess.randomAccess(left); RandomIterator rightIter = rightAccess.randomAccess(right)) {
+                    for (int i = from; i < to; i++) {
+                        data[i] = function.applyLogicalPure(leftAccess.getDouble(leftIter, leftLength == maxLength ? i : i % leftLength),
+                                        rightAccess.getDouble(rightIter, rightLength == maxLength ? i : i % rightLength));
+                    }
+                }
+            });
+            // comparisons with NaN give NA
+            result = RDataFactory.createLogicalVector(data, RDataFactory.INCOMPLETE_VECTOR);
+        }
+        if (maxLength % leftLength != 0 || maxLength % rightLength != 0) {
+            // the sequential loops report this from within the loop
+            RError.warning(this, RError.Message.LENGTH_NOT_MULTI);
+        }
+        return result;
+    }
+
     private boolean differentDimensions(RAbstractVector left, RAbstractVector right) {
         int[] leftDimensions = getLeftDimNode.getDimensions(left);
         int[] rightDimensions = getRightDimNode.getDimensions(right);
@@ -588,4 +649,11 @@ public abstract class BinaryMapNode extends RBaseNode {
 
     public abstract Object apply(RAbstractVector originalLeft, RAbstractVector originalRight);
 
+    /**
+     * Only vectors that are backed by an array (or computed from their start and stride) can be read
+     * from the fork-join threads, e.g., foreign wrappers would send interop messages.
+     */
+    static boolean isArrayBacked(Class<?> vectorClass) {
+        return vectorClass == RDoubleVector.class || vectorClass == RDoubleSequence.class;
+    }
 }
@@ -48,6 +48,20 @@ public abstract class UnaryMapFunctionNode extends RBaseNode {
         return false;
     }
 
+    /**
+     * Returns <code>true</code> if {@link #applyDoublePure(double)} can be used for this function.
+     * Unlike {@link #applyDouble(double)}, it uses neither NA checks nor profiles and only calls
+     * operations that are {@link com.oracle.truffle.r.runtime.ops.Operation#isPure() pure}, so
+     * that it can be invoked concurrently on chunks of a vector.
+     */
+    public boolean isParallelizable() {
+        return false;
+    }
+
+    public double applyDoublePure(@SuppressWarnings("unused") double operand) {
+        throw RInternalError.shouldNotReachHere();
+    }
+
     public byte applyLogical(byte operand) {
         throw RInternalError.shouldNotReachHere();
     }
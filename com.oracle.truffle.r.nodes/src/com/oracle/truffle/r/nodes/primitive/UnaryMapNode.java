@@ -35,9 +35,11 @@ import com.oracle.truffle.r.nodes.attributes.SpecialAttributesFunctions.GetDimNa
 import com.oracle.truffle.r.nodes.attributes.SpecialAttributesFunctions.GetNamesAttributeNode;
 import com.oracle.truffle.r.nodes.attributes.SpecialAttributesFunctions.SetDimAttributeNode;
 import com.oracle.truffle.r.nodes.profile.VectorLengthProfile;
+import com.oracle.truffle.r.runtime.ParallelLoop;
 import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RType;
 import com.oracle.truffle.r.runtime.data.RComplex;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RScalarVector;
 import com.oracle.truffle.r.runtime.data.RShareable;
 import com.oracle.truffle.r.runtime.data.RVector;
@@ -105,11 +107,13 @@ final class UnaryMapVectorNode extends UnaryMapNode {
     private final VectorLengthProfile operandLengthProfile = VectorLengthProfile.create();
     private final BranchProfile hasAttributesProfile;
     private final ConditionProfile shareOperand;
+    private final ConditionProfile parallelProfile;
 
     // compile-time optimization flags
     private final boolean mayContainMetadata;
     private final boolean mayFoldConstantTime;
     private final boolean mayShareOperand;
+    private final boolean mayRunInParallel;
     private final boolean isGeneric;
 
     UnaryMapVectorNode(UnaryMapFunctionNode scalarNode, RAbstractVector operand, RType argumentType, RType resultType, boolean isGeneric) {
@@ -120,12 +124,14 @@ final class UnaryMapVectorNode extends UnaryMapNode {
         this.mayContainMetadata = operandVector;
         this.mayFoldConstantTime = argumentType == operand.getRType() && scalarNode.mayFoldConstantTime(operandClass);
         this.mayShareOperand = operandVector;
+        this.mayRunInParallel = ParallelLoop.isEnabled() && scalarNode.isParallelizable() && argumentType == RType.Double && resultType == RType.Double &&
+                        BinaryMapNode.isArrayBacked(operandClass);
         this.isGeneric = isGeneric;
 
         // lazily create profiles only if needed to avoid unnecessary allocations
         this.shareOperand = mayShareOperand ? ConditionProfile.createBinaryProfile() : null;
         this.hasAttributesProfile = mayContainMetadata ? BranchProfile.create() : null;
-
+        this.parallelProfile = mayRunInParallel ? ConditionProfile.createBinaryProfile() : null;
     }
 
     @Override
@@ -144,6 +150,11 @@ final class UnaryMapVectorNode extends UnaryMapNode {
         if (mayFoldConstantTime) {
             target = function.tryFoldConstantTime(operand, operandLength);
         }
+        if (target == null && mayRunInParallel && parallelProfile.profile(ParallelLoop.isParallel(operandLength))) {
+            // the NA checks of the function are not used, the result knows its completeness
+            target = applyParallel(operand, operandLength);
+            RBaseNode.reportWork(this, operandLength);
+        }
         if (target == null) {
             VectorAccess operandAccess = isGeneric ? operand.slowPathAccess() : fastOperandAccess;
             try (SequentialIterator operandIter = operandAccess.access(operand)) {
@@ -172,6 +183,26 @@ final class UnaryMapVectorNode extends UnaryMapNode {
         return target;
     }
 
+    /**
+     * Splits the computation across threads, see {@link ParallelLoop}. Each chunk reads the
+     * (array backed) operand through its own iterator of its {@link VectorAccess} and calls the
+     * pure apply method of the function (see {@link UnaryMapFunctionNode#isParallelizable()}).
+     */
+    @TruffleBoundary
+    private RAbstractVector applyParallel(RAbstractVector operand, int operandLength) {
+        VectorAccess operandAccess = operand.slowPathAccess();
+        double[] result = new double[operandLength];
+        ParallelLoop.execute(operandLength, (from, to) -> {
+            try (RandomIterator operandIter = operandAccess.randomAccess(operand)) {
+                for (int i = from; i < to; i++) {
+                    result[i] = function.applyDoublePure(operandAccess.getDouble(operandIter, i));
+                }
+            }
+        });
+        // pure operations only produce NA from NA operands
+        return RDataFactory.createDoubleVector(result, operand.isComplete());
+    }
+
     private RAbstractVector handleMetadata(RAbstractVector target, RAbstractVector operand) {
         RAbstractVector result = target;
         if (containsMetadata(operand) && operand != target) {
@@ -72,6 +72,16 @@ public class ScalarUnaryArithmeticNode extends UnaryMapNAFunctionNode {
         return false;
     }
 
+    @Override
+    public boolean isParallelizable() {
+        return arithmetic.isPure();
+    }
+
+    @Override
+    public double applyDoublePure(double operand) {
+        return RRuntime.isNA(operand) ? RRuntime.DOUBLE_NA : arithmetic.op(operand);
+    }
+
     @Override
     public final double applyDouble(double operand) {
         if (operandNACheck.check(operand)) {
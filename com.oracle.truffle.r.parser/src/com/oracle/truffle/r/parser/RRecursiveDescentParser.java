@@ -0,0 +1,1058 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.parser;
+
+import static com.oracle.truffle.r.parser.RTokenizer.AND;
+import static com.oracle.truffle.r.parser.RTokenizer.ARROW;
+import static com.oracle.truffle.r.parser.RTokenizer.ASSIGN;
+import static com.oracle.truffle.r.parser.RTokenizer.AT;
+import static com.oracle.truffle.r.parser.RTokenizer.BREAK;
+import static com.oracle.truffle.r.parser.RTokenizer.CARET;
+import static com.oracle.truffle.r.parser.RTokenizer.COLON;
+import static com.oracle.truffle.r.parser.RTokenizer.COMMA;
+import static com.oracle.truffle.r.parser.RTokenizer.COMMENT;
+import static com.oracle.truffle.r.parser.RTokenizer.COMPLEX;
+import static com.oracle.truffle.r.parser.RTokenizer.DD;
+import static com.oracle.truffle.r.parser.RTokenizer.DIV;
+import static com.oracle.truffle.r.parser.RTokenizer.DOUBLE;
+import static com.oracle.truffle.r.parser.RTokenizer.ELEMENTWISEAND;
+import static com.oracle.truffle.r.parser.RTokenizer.ELEMENTWISEOR;
+import static com.oracle.truffle.r.parser.RTokenizer.ELSE;
+import static com.oracle.truffle.r.parser.RTokenizer.EOF;
+import static com.oracle.truffle.r.parser.RTokenizer.EQ;
+import static com.oracle.truffle.r.parser.RTokenizer.FALSE;
+import static com.oracle.truffle.r.parser.RTokenizer.FIELD;
+import static com.oracle.truffle.r.parser.RTokenizer.FOR;
+import static com.oracle.truffle.r.parser.RTokenizer.FUNCTION;
+import static com.oracle.truffle.r.parser.RTokenizer.GE;
+import static com.oracle.truffle.r.parser.RTokenizer.GT;
+import static com.oracle.truffle.r.parser.RTokenizer.ID;
+import static com.oracle.truffle.r.parser.RTokenizer.IF;
+import static com.oracle.truffle.r.parser.RTokenizer.IN;
+import static com.oracle.truffle.r.parser.RTokenizer.INF;
+import static com.oracle.truffle.r.parser.RTokenizer.INTEGER;
+import static com.oracle.truffle.r.parser.RTokenizer.LBB;
+import static com.oracle.truffle.r.parser.RTokenizer.LBRACE;
+import static com.oracle.truffle.r.parser.RTokenizer.LBRAKET;
+import static com.oracle.truffle.r.parser.RTokenizer.LE;
+import static com.oracle.truffle.r.parser.RTokenizer.LPAR;
+import static com.oracle.truffle.r.parser.RTokenizer.LT;
+import static com.oracle.truffle.r.parser.RTokenizer.MINUS;
+import static com.oracle.truffle.r.parser.RTokenizer.MOD;
+import static com.oracle.truffle.r.parser.RTokenizer.MULT;
+import static com.oracle.truffle.r.parser.RTokenizer.NA;
+import static com.oracle.truffle.r.parser.RTokenizer.NACHAR;
+import static com.oracle.truffle.r.parser.RTokenizer.NACOMPL;
+import static com.oracle.truffle.r.parser.RTokenizer.NAINT;
+import static com.oracle.truffle.r.parser.RTokenizer.NAN;
+import static com.oracle.truffle.r.parser.RTokenizer.NAREAL;
+import static com.oracle.truffle.r.parser.RTokenizer.NE;
+import static com.oracle.truffle.r.parser.RTokenizer.NEWLINE;
+import static com.oracle.truffle.r.parser.RTokenizer.NEXT;
+import static com.oracle.truffle.r.parser.RTokenizer.NOT;
+import static com.oracle.truffle.r.parser.RTokenizer.NS_GET;
+import static com.oracle.truffle.r.parser.RTokenizer.NS_GET_INT;
+import static com.oracle.truffle.r.parser.RTokenizer.NULL;
+import static com.oracle.truffle.r.parser.RTokenizer.OP;
+import static com.oracle.truffle.r.parser.RTokenizer.OR;
+import static com.oracle.truffle.r.parser.RTokenizer.PLUS;
+import static com.oracle.truffle.r.parser.RTokenizer.QM;
+import static com.oracle.truffle.r.parser.RTokenizer.RBRACE;
+import static com.oracle.truffle.r.parser.RTokenizer.RBRAKET;
+import static com.oracle.truffle.r.parser.RTokenizer.REPEAT;
+import static com.oracle.truffle.r.parser.RTokenizer.RIGHT_ARROW;
+import static com.oracle.truffle.r.parser.RTokenizer.RPAR;
+import static com.oracle.truffle.r.parser.RTokenizer.SEMICOLON;
+import static com.oracle.truffle.r.parser.RTokenizer.STRING;
+import static com.oracle.truffle.r.parser.RTokenizer.SUPER_ARROW;
+import static com.oracle.truffle.r.parser.RTokenizer.SUPER_RIGHT_ARROW;
+import static com.oracle.truffle.r.parser.RTokenizer.TILDE;
+import static com.oracle.truffle.r.parser.RTokenizer.TRUE;
+import static com.oracle.truffle.r.parser.RTokenizer.VARIADIC;
+import static com.oracle.truffle.r.parser.RTokenizer.WHILE;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.r.parser.RTokenizer.SyntaxError;
+import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.RSource;
+import com.oracle.truffle.r.runtime.context.TruffleRLanguage;
+import com.oracle.truffle.r.runtime.data.RComplex;
+import com.oracle.truffle.r.runtime.data.RNull;
+import com.oracle.truffle.r.runtime.nodes.RCodeBuilder;
+import com.oracle.truffle.r.runtime.nodes.RCodeBuilder.Argument;
+
+/**
+ * Hand-written recursive-descent parser for R source code. Every rule mirrors the rule of the same
+ * name in {@code R.g}, issuing the same {@link RCodeBuilder} calls with the same source sections,
+ * so that both parsers produce identical ASTs. The ANTLR syntactic predicates become simple
+ * lookahead checks on the token array produced by {@link RTokenizer}; no rule ever needs to
+ * backtrack.
+ */
+final class RRecursiveDescentParser<T> {
+
+    private final RTokenizer tokens;
+    private final Source initialSource;
+    private final RCodeBuilder<T> builder;
+    private final TruffleRLanguage language;
+    private Source source;
+    private int fileStartOffset = 0;
+
+    /**
+     * Index of the current (not yet consumed) token.
+     */
+    private int pos;
+
+    RRecursiveDescentParser(Source source, RCodeBuilder<T> builder, TruffleRLanguage language) {
+        assert source != null && builder != null;
+        this.tokens = new RTokenizer(source.getCharacters());
+        this.initialSource = source;
+        this.builder = builder;
+        this.language = language;
+        this.source = source;
+    }
+
+    RRecursiveDescentParser(Source source, Source fullSource, int startLine, RCodeBuilder<T> builder, TruffleRLanguage language) {
+        assert source != null && builder != null;
+        this.tokens = new RTokenizer(source.getCharacters());
+        this.initialSource = source;
+        this.builder = builder;
+        this.language = language;
+        this.source = fullSource;
+        this.fileStartOffset = -fullSource.getLineStartOffset(startLine);
+    }
+
+    // token stream helpers
+
+    private int la() {
+        return tokens.type(pos);
+    }
+
+    private int la(int offset) {
+        int index = Math.min(pos + offset, tokens.eofIndex());
+        return tokens.type(index);
+    }
+
+    /**
+     * Returns the type of the first token after any NEWLINE and COMMENT tokens, without consuming
+     * anything.
+     */
+    private int laSkipNewlines() {
+        int index = pos;
+        while (tokens.type(index) == NEWLINE || tokens.type(index) == COMMENT) {
+            index++;
+        }
+        return tokens.type(index);
+    }
+
+    private int consume() {
+        int index = pos;
+        if (index < tokens.eofIndex()) {
+            pos++;
+        }
+        return index;
+    }
+
+    private int match(int type) {
+        if (la() != type) {
+            throw error();
+        }
+        return consume();
+    }
+
+    /**
+     * Helper function that returns the last parsed token, usually used for building source
+     * sections.
+     */
+    private int last() {
+        return pos - 1;
+    }
+
+    private SyntaxError error() {
+        return new SyntaxError(tokens.line(pos), tokens.column(pos), tokens.text(pos), la() == EOF);
+    }
+
+    /**
+     * n_ : (NEWLINE | COMMENT)*.
+     */
+    private void skipNewlines() {
+        while (true) {
+            int type = la();
+            if (type == NEWLINE) {
+                consume();
+            } else if (type == COMMENT) {
+                checkFileDelim(consume());
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Helper function to create a function lookup for the symbol in a given token.
+     */
+    private T operator(int op) {
+        return builder.lookup(src(op), argName(tokens.text(op)), true);
+    }
+
+    /**
+     * Helper to check for empty lookups.
+     */
+    private static String argName(String name) {
+        if (name.length() == 0) {
+            throw RError.error(RError.NO_CALLER, RError.Message.ZERO_LENGTH_VARIABLE);
+        }
+        return name;
+    }
+
+    /**
+     * Create a {@link SourceSection} from a single token.
+     */
+    private SourceSection src(int token) {
+        int startIndex = tokens.start(token);
+        int length = tokens.stop(token) - startIndex + 1;
+        try {
+            return source.createSection(startIndex - fileStartOffset, length);
+        } catch (IllegalArgumentException e) {
+            // fall back and use the initial source (the file being parsed)
+            resetSource();
+            return source.createSection(startIndex, length);
+        }
+    }
+
+    /**
+     * Create a {@link SourceSection} from a start and end token.
+     */
+    private SourceSection src(int start, int stop) {
+        int startIndex = tokens.start(start);
+        int stopIndex = tokens.stop(stop);
+        int length = stopIndex - startIndex + (tokens.type(stop) == EOF ? 0 : 1);
+        try {
+            return source.createSection(startIndex - fileStartOffset, length);
+        } catch (IllegalArgumentException e) {
+            // fall back and use the initial source (the file being parsed)
+            resetSource();
+            return source.createSection(startIndex, length);
+        }
+    }
+
+    /**
+     * Checks if the token is a comment token indicating that the following part of the source file
+     * was pasted from another file. The format of this file delimiter is '#line 1 "filename"'.
+     */
+    private void checkFileDelim(int commentToken) {
+        String commentLine = tokens.text(commentToken);
+        if (commentLine.startsWith("#line 1")) {
+            int q0 = commentLine.indexOf("\"");
+            int q1 = commentLine.indexOf("\"", q0 + 1);
+            if (q0 != -1 && q1 != -1) {
+                String path = commentLine.substring(q0 + 1, q1);
+                try {
+                    String content = new String(Files.readAllBytes(Paths.get(path)), StandardCharsets.UTF_8);
+                    String lineEnding = detectLineEnding(initialSource.getCharacters());
+                    content = convertToLineEnding(content, lineEnding);
+                    source = RSource.fromFileName(content, path, false);
+                    fileStartOffset = tokens.stop(commentToken) + 1;
+                } catch (IOException | URISyntaxException e) {
+                    resetSource();
+                }
+            } else {
+                // fall back and use the initial source (the file being parsed)
+                resetSource();
+            }
+        }
+    }
+
+    private void resetSource() {
+        source = initialSource;
+        fileStartOffset = 0;
+    }
+
+    private static String detectLineEnding(CharSequence code) {
+        int codeLen = code.length();
+        for (int i = 0; i < codeLen; i++) {
+            switch (code.charAt(i)) {
+                case '\r':
+                    if (i + 1 < codeLen && code.charAt(i + 1) == '\n') {
+                        return "\r\n";
+                    }
+                    break;
+                case '\n':
+                    return "\n";
+            }
+        }
+        return "\n";
+    }
+
+    private static String convertToLineEnding(String content, String lineEnding) {
+        if ("\n".equals(lineEnding)) {
+            return content.replaceAll("\\r\\n", "\n");
+        } else if ("\r\n".equals(lineEnding)) {
+            return content.replaceAll("\\n", "\r\n");
+        }
+        return content;
+    }
+
+    /**
+     * Returns true if the token type can start an expression (the FIRST set of {@code expr}).
+     */
+    private static boolean isExpressionStart(int type) {
+        switch (type) {
+            case ID:
+            case VARIADIC:
+            case DD:
+            case STRING:
+            case INTEGER:
+            case DOUBLE:
+            case COMPLEX:
+            case NULL:
+            case NA:
+            case NAINT:
+            case NAREAL:
+            case NACHAR:
+            case NACOMPL:
+            case TRUE:
+            case FALSE:
+            case INF:
+            case NAN:
+            case LPAR:
+            case LBRACE:
+            case IF:
+            case WHILE:
+            case FOR:
+            case REPEAT:
+            case FUNCTION:
+            case NEXT:
+            case BREAK:
+            case TILDE:
+            case NOT:
+            case PLUS:
+            case MINUS:
+            case QM:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // rules
+
+    List<T> script() {
+        List<T> v = new ArrayList<>();
+        skipNewlines();
+        while (isExpressionStart(la())) {
+            v.add(statement());
+        }
+        if (la() != EOF) {
+            throw error();
+        }
+        return v;
+    }
+
+    RootCallTarget rootFunction(String name) {
+        List<Argument<T>> params = new ArrayList<>();
+        skipNewlines();
+        int op = match(FUNCTION);
+        skipNewlines();
+        parameters(params);
+        skipNewlines();
+        T body = exprOrAssign();
+        RootCallTarget v = builder.rootFunction(language, src(op, last()), params, body, name);
+        if (la() != EOF) {
+            throw RInternalError.shouldNotReachHere("not at EOF after parsing deserialized function");
+        }
+        return v;
+    }
+
+    /**
+     * statement : expr_or_assign n_one, where n_one : (NEWLINE | COMMENT)+ | EOF | SEMICOLON n_.
+     */
+    private T statement() {
+        T v = exprOrAssign();
+        switch (la()) {
+            case NEWLINE:
+            case COMMENT:
+                skipNewlines();
+                break;
+            case EOF:
+                break;
+            case SEMICOLON:
+                consume();
+                skipNewlines();
+                break;
+            default:
+                throw error();
+        }
+        return v;
+    }
+
+    /**
+     * n_multi : (NEWLINE | COMMENT | SEMICOLON)+, returns false if there was no such token.
+     */
+    private boolean skipMulti() {
+        boolean any = false;
+        while (true) {
+            int type = la();
+            if (type == NEWLINE || type == SEMICOLON) {
+                consume();
+            } else if (type == COMMENT) {
+                checkFileDelim(consume());
+            } else {
+                return any;
+            }
+            any = true;
+        }
+    }
+
+    private T exprWoAssign() {
+        switch (la()) {
+            case WHILE:
+                return whileExpr();
+            case IF:
+                return ifExpr();
+            case FOR:
+                return forExpr();
+            case REPEAT:
+                return repeatExpr();
+            case FUNCTION:
+                return function(null);
+            case NEXT:
+            case BREAK:
+                int op = consume();
+                // break/next can be accompanied by arguments, but those are simply ignored
+                if (la() == LPAR) {
+                    consume();
+                    args(null);
+                    match(RPAR);
+                }
+                return builder.call(src(op), operator(op));
+            default:
+                throw error();
+        }
+    }
+
+    private T sequence() {
+        ArrayList<Argument<T>> stmts = new ArrayList<>();
+        int op = match(LBRACE);
+        skipMulti();
+        while (la() != RBRACE) {
+            stmts.add(RCodeBuilder.argument(exprOrAssign()));
+            if (!skipMulti() && la() != RBRACE) {
+                throw error();
+            }
+        }
+        consume();
+        return builder.call(src(op, last()), operator(op), stmts);
+    }
+
+    private T expr() {
+        int start = pos;
+        T l = tildeExpr();
+        switch (la()) {
+            case ARROW:
+            case SUPER_ARROW: {
+                int op = consume();
+                skipNewlines();
+                T rhs = la() == FUNCTION ? function(l) : expr();
+                return builder.call(src(start, last()), operator(op), l, rhs);
+            }
+            case RIGHT_ARROW: {
+                int op = consume();
+                skipNewlines();
+                T r = expr();
+                return builder.call(src(start, last()), builder.lookup(src(op), "<-", true), r, l);
+            }
+            case SUPER_RIGHT_ARROW: {
+                int op = consume();
+                skipNewlines();
+                T r = expr();
+                return builder.call(src(start, last()), builder.lookup(src(op), "<<-", true), r, l);
+            }
+            default:
+                return l;
+        }
+    }
+
+    private T exprOrAssign() {
+        int start = pos;
+        T l = tildeExpr();
+        switch (la()) {
+            case ARROW:
+            case SUPER_ARROW:
+            case ASSIGN: {
+                int op = consume();
+                skipNewlines();
+                T rhs = la() == FUNCTION ? function(l) : exprOrAssign();
+                return builder.call(src(start, last()), operator(op), l, rhs);
+            }
+            case RIGHT_ARROW: {
+                int op = consume();
+                skipNewlines();
+                T r = exprOrAssign();
+                return builder.call(src(start, last()), builder.lookup(src(op), "<-", true), r, l);
+            }
+            case SUPER_RIGHT_ARROW: {
+                int op = consume();
+                skipNewlines();
+                T r = exprOrAssign();
+                return builder.call(src(start, last()), builder.lookup(src(op), "<<-", true), r, l);
+            }
+            default:
+                return l;
+        }
+    }
+
+    private T ifExpr() {
+        int op = match(IF);
+        skipNewlines();
+        match(LPAR);
+        skipNewlines();
+        T cond = exprOrAssign();
+        skipNewlines();
+        match(RPAR);
+        skipNewlines();
+        T t = exprOrAssign();
+        if (laSkipNewlines() == ELSE) {
+            skipNewlines();
+            consume();
+            skipNewlines();
+            T f = exprOrAssign();
+            return builder.call(src(op, last()), operator(op), cond, t, f);
+        }
+        return builder.call(src(op, last()), operator(op), cond, t);
+    }
+
+    private T whileExpr() {
+        int op = match(WHILE);
+        skipNewlines();
+        match(LPAR);
+        skipNewlines();
+        T c = exprOrAssign();
+        skipNewlines();
+        match(RPAR);
+        skipNewlines();
+        T body = exprOrAssign();
+        return builder.call(src(op, last()), operator(op), c, body);
+    }
+
+    private T forExpr() {
+        int op = match(FOR);
+        skipNewlines();
+        match(LPAR);
+        skipNewlines();
+        int i = match(ID);
+        skipNewlines();
+        match(IN);
+        skipNewlines();
+        T in = exprOrAssign();
+        skipNewlines();
+        match(RPAR);
+        skipNewlines();
+        T body = exprOrAssign();
+        return builder.call(src(op, last()), operator(op), builder.lookup(src(i), tokens.text(i), false), in, body);
+    }
+
+    private T repeatExpr() {
+        int op = match(REPEAT);
+        skipNewlines();
+        T body = exprOrAssign();
+        return builder.call(src(op, last()), operator(op), body);
+    }
+
+    private T function(T assignedTo) {
+        List<Argument<T>> params = new ArrayList<>();
+        int op = match(FUNCTION);
+        skipNewlines();
+        parameters(params);
+        skipNewlines();
+        T body = exprOrAssign();
+        return builder.function(language, src(op, last()), params, body, assignedTo);
+    }
+
+    /**
+     * LPAR n_ (par_decl (n_ COMMA n_ par_decl)* n_)? RPAR.
+     */
+    private void parameters(List<Argument<T>> params) {
+        match(LPAR);
+        skipNewlines();
+        if (la() != RPAR) {
+            parDecl(params);
+            while (laSkipNewlines() == COMMA) {
+                skipNewlines();
+                consume();
+                skipNewlines();
+                parDecl(params);
+            }
+            skipNewlines();
+        }
+        match(RPAR);
+    }
+
+    private void parDecl(List<Argument<T>> l) {
+        switch (la()) {
+            case ID: {
+                int i = consume();
+                if (laSkipNewlines() == ASSIGN) {
+                    skipNewlines();
+                    consume();
+                    skipNewlines();
+                    T e = expr();
+                    l.add(RCodeBuilder.argument(src(i, last()), tokens.text(i), e));
+                } else {
+                    l.add(RCodeBuilder.argument(src(i), tokens.text(i), null));
+                }
+                return;
+            }
+            case VARIADIC: {
+                int v = consume();
+                if (laSkipNewlines() == ASSIGN) {
+                    throw RInternalError.shouldNotReachHere("... = value parameter");
+                }
+                l.add(RCodeBuilder.argument(src(v), tokens.text(v), null));
+                return;
+            }
+            case DD:
+                consume();
+                if (laSkipNewlines() == ASSIGN) {
+                    throw RInternalError.shouldNotReachHere("..X = value parameter");
+                }
+                throw RInternalError.shouldNotReachHere("..X parameter");
+            default:
+                throw error();
+        }
+    }
+
+    private T tildeExpr() {
+        T v = utildeExpr();
+        while (la() == TILDE) {
+            int op = consume();
+            skipNewlines();
+            T r = utildeExpr();
+            v = builder.call(src(op, last()), operator(op), v, r);
+        }
+        return v;
+    }
+
+    private T utildeExpr() {
+        if (la() == TILDE) {
+            int op = consume();
+            skipNewlines();
+            T l = orExpr();
+            return builder.call(src(op, last()), operator(op), l);
+        }
+        return orExpr();
+    }
+
+    private T orExpr() {
+        int start = pos;
+        T v = andExpr();
+        while (la() == OR || la() == ELEMENTWISEOR) {
+            int op = consume();
+            skipNewlines();
+            T r = andExpr();
+            v = builder.call(src(start, last()), operator(op), v, r);
+        }
+        return v;
+    }
+
+    private T andExpr() {
+        int start = pos;
+        T v = notExpr();
+        while (la() == AND || la() == ELEMENTWISEAND) {
+            int op = consume();
+            skipNewlines();
+            T r = notExpr();
+            v = builder.call(src(start, last()), operator(op), v, r);
+        }
+        return v;
+    }
+
+    private T notExpr() {
+        if (la() == NOT) {
+            int op = consume();
+            skipNewlines();
+            T l = notExpr();
+            return builder.call(src(op, last()), operator(op), l);
+        }
+        return compExpr();
+    }
+
+    private T compExpr() {
+        int start = pos;
+        T v = addExpr();
+        while (true) {
+            switch (la()) {
+                case GT:
+                case GE:
+                case LT:
+                case LE:
+                case EQ:
+                case NE:
+                    int op = consume();
+                    skipNewlines();
+                    T r = addExpr();
+                    v = builder.call(src(start, last()), operator(op), v, r);
+                    break;
+                default:
+                    return v;
+            }
+        }
+    }
+
+    private T addExpr() {
+        int start = pos;
+        T v = multExpr();
+        while (la() == PLUS || la() == MINUS) {
+            int op = consume();
+            skipNewlines();
+            T r = multExpr();
+            v = builder.call(src(start, last()), operator(op), v, r);
+        }
+        return v;
+    }
+
+    private T multExpr() {
+        int start = pos;
+        T v = operatorExpr();
+        while (la() == MULT || la() == DIV || la() == MOD) {
+            int op = consume();
+            skipNewlines();
+            T r = operatorExpr();
+            v = builder.call(src(start, last()), operator(op), v, r);
+        }
+        return v;
+    }
+
+    private T operatorExpr() {
+        int start = pos;
+        T v = colonExpr();
+        while (la() == OP) {
+            int op = consume();
+            skipNewlines();
+            T r = colonExpr();
+            v = builder.call(src(start, last()), operator(op), v, r);
+        }
+        return v;
+    }
+
+    private T colonExpr() {
+        int start = pos;
+        T v = unaryExpression();
+        while (la() == COLON) {
+            int op = consume();
+            skipNewlines();
+            T r = unaryExpression();
+            v = builder.call(src(start, last()), operator(op), v, r);
+        }
+        return v;
+    }
+
+    private T unaryExpression() {
+        switch (la()) {
+            case PLUS:
+            case MINUS:
+            case NOT:
+            case QM:
+                int op = consume();
+                skipNewlines();
+                T l = unaryExpression();
+                return builder.call(src(op, last()), operator(op), l);
+            default:
+                return powerExpr();
+        }
+    }
+
+    private T powerExpr() {
+        int start = pos;
+        T v = basicExpr();
+        if (la() == CARET) {
+            int op = consume();
+            skipNewlines();
+            T r = unaryExpression();
+            v = builder.call(src(start, last()), operator(op), v, r);
+        }
+        return v;
+    }
+
+    private T basicExpr() {
+        int start = pos;
+        T v;
+        int type = la();
+        if ((type == ID || type == DD || type == VARIADIC || type == STRING) && la(1) == LPAR) {
+            // special case for simple function call to generate "function" mode lookups
+            int lhsToken = consume();
+            consume();
+            List<Argument<T>> a = args(null);
+            int y = match(RPAR);
+            v = builder.call(src(start, y), operator(lhsToken), a);
+        } else {
+            v = simpleExpr();
+        }
+        while (true) {
+            switch (la()) {
+                case FIELD:
+                case AT: {
+                    int op = consume();
+                    skipNewlines();
+                    int nameType = la();
+                    if (nameType == ID || nameType == VARIADIC) {
+                        int name = consume();
+                        v = builder.call(src(start, last()), operator(op), v, builder.constant(src(name), tokens.text(name)));
+                    } else if (nameType == STRING) {
+                        T sname = conststring();
+                        v = builder.call(src(start, last()), operator(op), v, sname);
+                    } else {
+                        throw error();
+                    }
+                    break;
+                }
+                case LBRAKET: {
+                    int op = consume();
+                    List<Argument<T>> subset = args(v);
+                    int y = match(RBRAKET);
+                    if (subset.size() == 1) {
+                        subset.add(RCodeBuilder.argumentEmpty());
+                    }
+                    v = builder.call(src(start, y), operator(op), subset);
+                    break;
+                }
+                case LBB: {
+                    // must use RBRAKET twice instead of RBB because this is possible: a[b[1]]
+                    int op = consume();
+                    List<Argument<T>> subscript = args(v);
+                    match(RBRAKET);
+                    int y = match(RBRAKET);
+                    if (subscript.size() == 1) {
+                        subscript.add(RCodeBuilder.argumentEmpty());
+                    }
+                    v = builder.call(src(start, y), operator(op), subscript);
+                    break;
+                }
+                case LPAR: {
+                    consume();
+                    List<Argument<T>> a = args(null);
+                    int y = match(RPAR);
+                    v = builder.call(src(start, y), v, a);
+                    break;
+                }
+                default:
+                    return v;
+            }
+        }
+    }
+
+    private T simpleExpr() {
+        int start = pos;
+        switch (la()) {
+            case ID:
+            case VARIADIC:
+                if (la(1) == NS_GET || la(1) == NS_GET_INT) {
+                    return namespaceAccess();
+                }
+                int i = consume();
+                return builder.lookup(src(i), tokens.text(i), false);
+            case TRUE:
+                consume();
+                return builder.constant(src(start, last()), RRuntime.LOGICAL_TRUE);
+            case FALSE:
+                consume();
+                return builder.constant(src(start, last()), RRuntime.LOGICAL_FALSE);
+            case NA:
+                consume();
+                return builder.constant(src(start, last()), RRuntime.LOGICAL_NA);
+            case DD:
+                int d = consume();
+                return builder.lookup(src(d), tokens.text(d), false);
+            case NULL:
+                return builder.constant(src(consume()), RNull.instance);
+            case INF:
+                return builder.constant(src(consume()), Double.POSITIVE_INFINITY);
+            case NAN:
+                return builder.constant(src(consume()), Double.NaN);
+            case NAINT:
+                return builder.constant(src(consume()), RRuntime.INT_NA);
+            case NAREAL:
+                return builder.constant(src(consume()), RRuntime.DOUBLE_NA);
+            case NACHAR:
+                return builder.constant(src(consume()), RRuntime.STRING_NA);
+            case NACOMPL:
+                return builder.constant(src(consume()), RComplex.createNA());
+            case INTEGER:
+            case DOUBLE:
+            case COMPLEX:
+                return number();
+            case STRING:
+                return conststring();
+            case LPAR: {
+                int op = consume();
+                skipNewlines();
+                T ea = exprOrAssign();
+                skipNewlines();
+                int y = match(RPAR);
+                return builder.call(src(op, y), operator(op), ea);
+            }
+            case LBRACE:
+                return sequence();
+            default:
+                return exprWoAssign();
+        }
+    }
+
+    /**
+     * pkg=id op=(NS_GET|NS_GET_INT) n_ (id | STRING).
+     */
+    private T namespaceAccess() {
+        List<Argument<T>> args = new ArrayList<>();
+        int pkg = consume();
+        int op = consume();
+        skipNewlines();
+        SourceSection pkgSource = src(pkg);
+        args.add(RCodeBuilder.argument(pkgSource, (String) null, builder.lookup(pkgSource, tokens.text(pkg), false)));
+        int compToken;
+        switch (la()) {
+            case ID:
+            case VARIADIC: {
+                compToken = consume();
+                SourceSection compSource = src(compToken);
+                args.add(RCodeBuilder.argument(compSource, (String) null, builder.lookup(compSource, tokens.text(compToken), false)));
+                break;
+            }
+            case STRING: {
+                compToken = consume();
+                SourceSection compSource = src(compToken);
+                args.add(RCodeBuilder.argument(compSource, (String) null, builder.constant(compSource, tokens.text(compToken))));
+                break;
+            }
+            default:
+                throw error();
+        }
+        return builder.call(src(pkg, compToken), operator(op), args);
+    }
+
+    private T number() {
+        int token = consume();
+        String text = tokens.text(token);
+        switch (tokens.type(token)) {
+            case INTEGER:
+                double value = RRuntime.string2doubleNoCheck(text);
+                if (value == (int) value) {
+                    if (text.indexOf('.') != -1) {
+                        RError.warning(RError.NO_CALLER, RError.Message.INTEGER_VALUE_UNNECESARY_DECIMAL, text + "L");
+                    }
+                    return builder.constant(src(token), (int) value);
+                } else {
+                    if (text.indexOf('.') != -1) {
+                        RError.warning(RError.NO_CALLER, RError.Message.INTEGER_VALUE_DECIMAL, text + "L");
+                    } else if (text.startsWith("0x")) {
+                        RError.warning(RError.NO_CALLER, RError.Message.NON_INTEGER_VALUE, text);
+                    } else {
+                        RError.warning(RError.NO_CALLER, RError.Message.NON_INTEGER_VALUE, text + "L");
+                    }
+                    return builder.constant(src(token), value);
+                }
+            case DOUBLE:
+                return builder.constant(src(token), RRuntime.string2doubleNoCheck(text));
+            default:
+                assert tokens.type(token) == COMPLEX;
+                return builder.constant(src(token), RComplex.valueOf(0, RRuntime.string2doubleNoCheck(text)));
+        }
+    }
+
+    private T conststring() {
+        int s = match(STRING);
+        return builder.constant(src(s), tokens.text(s));
+    }
+
+    /**
+     * args : n_ (arg_expr n_ (COMMA (| n_ arg_expr) n_)*)? | n_ (COMMA (| n_ arg_expr) n_)+, where
+     * a leading or missing argument produces an empty argument.
+     */
+    private List<Argument<T>> args(T firstArg) {
+        List<Argument<T>> v = new ArrayList<>();
+        if (firstArg != null) {
+            v.add(RCodeBuilder.argument(firstArg));
+        }
+        skipNewlines();
+        if (la() == COMMA) {
+            v.add(RCodeBuilder.argumentEmpty());
+        } else if (isExpressionStart(la())) {
+            argExpr(v);
+            skipNewlines();
+        } else {
+            return v;
+        }
+        while (la() == COMMA) {
+            consume();
+            if (isExpressionStart(laSkipNewlines())) {
+                skipNewlines();
+                argExpr(v);
+            } else {
+                v.add(RCodeBuilder.argumentEmpty());
+            }
+            skipNewlines();
+        }
+        return v;
+    }
+
+    private void argExpr(List<Argument<T>> l) {
+        int start = pos;
+        int type = la();
+        if ((type == ID || type == VARIADIC || type == NULL || type == STRING) && isNamedArgument()) {
+            int name = consume();
+            skipNewlines();
+            int a = consume();
+            if (isExpressionStart(laSkipNewlines())) {
+                skipNewlines();
+                T e = expr();
+                l.add(RCodeBuilder.argument(src(name, last()), argName(tokens.text(name)), e));
+            } else {
+                l.add(RCodeBuilder.argument(src(name, a), argName(tokens.text(name)), null));
+            }
+        } else {
+            T e = expr();
+            l.add(RCodeBuilder.argument(src(start, last()), (String) null, e));
+        }
+    }
+
+    /**
+     * Checks whether the token after the current one (skipping newlines) is an {@code ASSIGN}.
+     */
+    private boolean isNamedArgument() {
+        int index = pos + 1;
+        while (tokens.type(index) == NEWLINE || tokens.type(index) == COMMENT) {
+            index++;
+        }
+        return tokens.type(index) == ASSIGN;
+    }
+}
@@ -0,0 +1,876 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.parser;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.r.runtime.RError;
+
+/**
+ * Hand-written lexer that accepts the same token language as the lexer generated from {@code R.g}.
+ * The whole input is tokenized up front into parallel arrays, which keeps the per-token overhead
+ * down to a few array stores. Tokens that the ANTLR lexer puts on the hidden channel (whitespace,
+ * and line breaks and comments inside "(", "[" and "[[") are not recorded at all.
+ */
+final class RTokenizer {
+
+    static final int EOF = 0;
+    static final int NEWLINE = 1;
+    static final int COMMENT = 2;
+    static final int ARROW = 3;
+    static final int SUPER_ARROW = 4;
+    static final int RIGHT_ARROW = 5;
+    static final int SUPER_RIGHT_ARROW = 6;
+    static final int VARIADIC = 7;
+    static final int EQ = 8;
+    static final int NE = 9;
+    static final int GE = 10;
+    static final int LE = 11;
+    static final int GT = 12;
+    static final int LT = 13;
+    static final int ASSIGN = 14;
+    static final int NS_GET_INT = 15;
+    static final int NS_GET = 16;
+    static final int COLON = 17;
+    static final int SEMICOLON = 18;
+    static final int COMMA = 19;
+    static final int AND = 20;
+    static final int ELEMENTWISEAND = 21;
+    static final int OR = 22;
+    static final int ELEMENTWISEOR = 23;
+    static final int LBRACE = 24;
+    static final int RBRACE = 25;
+    static final int LPAR = 26;
+    static final int RPAR = 27;
+    static final int LBB = 28;
+    static final int LBRAKET = 29;
+    static final int RBRAKET = 30;
+    static final int CARET = 31;
+    static final int TILDE = 32;
+    static final int NOT = 33;
+    static final int QM = 34;
+    static final int PLUS = 35;
+    static final int MULT = 36;
+    static final int MOD = 37;
+    static final int DIV = 38;
+    static final int MINUS = 39;
+    static final int FIELD = 40;
+    static final int AT = 41;
+    static final int FUNCTION = 42;
+    static final int NULL = 43;
+    static final int NA = 44;
+    static final int NAINT = 45;
+    static final int NAREAL = 46;
+    static final int NACHAR = 47;
+    static final int NACOMPL = 48;
+    static final int TRUE = 49;
+    static final int FALSE = 50;
+    static final int INF = 51;
+    static final int NAN = 52;
+    static final int WHILE = 53;
+    static final int FOR = 54;
+    static final int REPEAT = 55;
+    static final int IN = 56;
+    static final int IF = 57;
+    static final int ELSE = 58;
+    static final int NEXT = 59;
+    static final int BREAK = 60;
+    static final int INTEGER = 61;
+    static final int COMPLEX = 62;
+    static final int DOUBLE = 63;
+    static final int DD = 64;
+    static final int ID = 65;
+    static final int OP = 66;
+    static final int STRING = 67;
+
+    /**
+     * Raised for malformed input, both by the lexer and by {@link RRecursiveDescentParser}. The
+     * position is that of the offending token (1-based line, 0-based column), as with ANTLR's
+     * recognition exceptions.
+     */
+    static final class SyntaxError extends RuntimeException {
+        private static final long serialVersionUID = 2830532426493254392L;
+
+        final int line;
+        final int charPositionInLine;
+        final String token;
+        final boolean atEOF;
+
+        SyntaxError(int line, int charPositionInLine, String token, boolean atEOF) {
+            super("syntax error at " + line + ":" + charPositionInLine, null, false, false);
+            this.line = line;
+            this.charPositionInLine = charPositionInLine;
+            this.token = token;
+            this.atEOF = atEOF;
+        }
+    }
+
+    private final String chars;
+    private final int length;
+    private int pos;
+    private int line = 1;
+    private int lineStart;
+
+    /*
+     * The nesting level is maintained for "{", "(", "[" and "[[", so that line breaks can be
+     * ignored while the nesting is larger than zero.
+     */
+    private int incompleteNesting;
+    private int[] nestingStack = new int[8];
+    private int nestingDepth;
+
+    private int count;
+    private int[] types;
+    private int[] starts;
+    private int[] stops;
+    private int[] lines;
+    private int[] columns;
+    private String[] texts;
+
+    RTokenizer(CharSequence input) {
+        this.chars = input.toString();
+        this.length = chars.length();
+        int capacity = Math.max(16, length / 3);
+        types = new int[capacity];
+        starts = new int[capacity];
+        stops = new int[capacity];
+        lines = new int[capacity];
+        columns = new int[capacity];
+        texts = new String[capacity];
+        tokenize();
+    }
+
+    int type(int index) {
+        return types[index];
+    }
+
+    /**
+     * Index of the first character of the token.
+     */
+    int start(int index) {
+        return starts[index];
+    }
+
+    /**
+     * Index of the last character of the token (inclusive, like ANTLR's stop index).
+     */
+    int stop(int index) {
+        return stops[index];
+    }
+
+    int line(int index) {
+        return lines[index];
+    }
+
+    int column(int index) {
+        return columns[index];
+    }
+
+    String text(int index) {
+        return texts[index];
+    }
+
+    /**
+     * Index of the EOF token, which is always the last one.
+     */
+    int eofIndex() {
+        return count - 1;
+    }
+
+    private void add(int type, int start, int stop, int tokenLine, int tokenColumn, String text) {
+        if (count == types.length) {
+            int newCapacity = count * 2;
+            types = Arrays.copyOf(types, newCapacity);
+            starts = Arrays.copyOf(starts, newCapacity);
+            stops = Arrays.copyOf(stops, newCapacity);
+            lines = Arrays.copyOf(lines, newCapacity);
+            columns = Arrays.copyOf(columns, newCapacity);
+            texts = Arrays.copyOf(texts, newCapacity);
+        }
+        types[count] = type;
+        starts[count] = start;
+        stops[count] = stop;
+        lines[count] = tokenLine;
+        columns[count] = tokenColumn;
+        texts[count] = text;
+        count++;
+    }
+
+    private int peek(int offset) {
+        int index = pos + offset;
+        return index < length ? chars.charAt(index) : -1;
+    }
+
+    private SyntaxError error() {
+        if (pos >= length) {
+            return new SyntaxError(line, pos - lineStart, "<EOF>", true);
+        }
+        return new SyntaxError(line, pos - lineStart, String.valueOf(chars.charAt(pos)), false);
+    }
+
+    /**
+     * Advances over a single character, keeping track of line numbers the same way as ANTLR's
+     * string stream, i.e., only '\n' starts a new line.
+     */
+    private void consume() {
+        if (chars.charAt(pos) == '\n') {
+            line++;
+            lineStart = pos + 1;
+        }
+        pos++;
+    }
+
+    private void consume(int n) {
+        for (int i = 0; i < n; i++) {
+            consume();
+        }
+    }
+
+    private void tokenize() {
+        while (pos < length) {
+            int start = pos;
+            int tokenLine = line;
+            int tokenColumn = pos - lineStart;
+            char c = chars.charAt(pos);
+            switch (c) {
+                case '\t':
+                case ' ':
+                case '\u00A0':
+                    pos++;
+                    continue;
+                case '\n':
+                case '\r':
+                case '\f':
+                    lineBreak();
+                    if (incompleteNesting <= 0) {
+                        add(NEWLINE, start, pos - 1, tokenLine, tokenColumn, "\n");
+                    }
+                    continue;
+                case '#':
+                    while (pos < length && !isLineBreak(chars.charAt(pos))) {
+                        pos++;
+                    }
+                    if (pos < length) {
+                        lineBreak();
+                    }
+                    if (incompleteNesting <= 0) {
+                        add(COMMENT, start, pos - 1, tokenLine, tokenColumn, chars.substring(start, pos));
+                    }
+                    continue;
+                case '`':
+                    consume();
+                    String name = quoted('`');
+                    if (name.isEmpty()) {
+                        throw RError.error(RError.NO_CALLER, RError.Message.ZERO_LENGTH_VARIABLE);
+                    }
+                    add(ID, start, pos - 1, tokenLine, tokenColumn, name);
+                    continue;
+                case '"':
+                case '\'':
+                    consume();
+                    String string = quoted(c);
+                    add(STRING, start, pos - 1, tokenLine, tokenColumn, string);
+                    continue;
+                case '%':
+                    if (peek(1) == '%') {
+                        pos += 2;
+                        add(MOD, start, pos - 1, tokenLine, tokenColumn, "%%");
+                    } else {
+                        userOperator(start, tokenLine, tokenColumn);
+                    }
+                    continue;
+                case '.':
+                    dot(start, tokenLine, tokenColumn);
+                    continue;
+                default:
+                    if (c >= '0' && c <= '9') {
+                        number(start, tokenLine, tokenColumn);
+                    } else if (isIdStart(c)) {
+                        identifier(start, tokenLine, tokenColumn);
+                    } else {
+                        operator(c, start, tokenLine, tokenColumn);
+                    }
+                    continue;
+            }
+        }
+        add(EOF, length, length - 1, line, pos - lineStart, "<EOF>");
+    }
+
+    private static boolean isLineBreak(char c) {
+        return c == '\n' || c == '\r' || c == '\f';
+    }
+
+    /**
+     * Consumes one LINE_BREAK: "\n", "\r", "\f", optionally paired with a following or preceding
+     * "\n" ("\r\n", "\n\r", ...).
+     */
+    private void lineBreak() {
+        char c = chars.charAt(pos);
+        consume();
+        if (pos < length) {
+            char next = chars.charAt(pos);
+            if (c == '\n' ? (next == '\r' || next == '\f') : next == '\n') {
+                consume();
+            }
+        }
+    }
+
+    private void operator(char c, int start, int tokenLine, int tokenColumn) {
+        int type;
+        String text;
+        int len = 1;
+        int c1 = peek(1);
+        switch (c) {
+            case '<':
+                if (c1 == '<' && peek(2) == '-') {
+                    type = SUPER_ARROW;
+                    text = "<<-";
+                    len = 3;
+                } else if (c1 == '-') {
+                    type = ARROW;
+                    text = "<-";
+                    len = 2;
+                } else if (c1 == '=') {
+                    type = LE;
+                    text = "<=";
+                    len = 2;
+                } else {
+                    type = LT;
+                    text = "<";
+                }
+                break;
+            case '-':
+                if (c1 == '>' && peek(2) == '>') {
+                    type = SUPER_RIGHT_ARROW;
+                    text = "->>";
+                    len = 3;
+                } else if (c1 == '>') {
+                    type = RIGHT_ARROW;
+                    text = "->";
+                    len = 2;
+                } else {
+                    type = MINUS;
+                    text = "-";
+                }
+                break;
+            case ':':
+                if (c1 == ':' && peek(2) == ':') {
+                    type = NS_GET_INT;
+                    text = ":::";
+                    len = 3;
+                } else if (c1 == ':') {
+                    type = NS_GET;
+                    text = "::";
+                    len = 2;
+                } else if (c1 == '=') {
+                    type = ARROW;
+                    text = ":=";
+                    len = 2;
+                } else {
+                    type = COLON;
+                    text = ":";
+                }
+                break;
+            case '=':
+                if (c1 == '=') {
+                    type = EQ;
+                    text = "==";
+                    len = 2;
+                } else {
+                    type = ASSIGN;
+                    text = "=";
+                }
+                break;
+            case '!':
+                if (c1 == '=') {
+                    type = NE;
+                    text = "!=";
+                    len = 2;
+                } else {
+                    type = NOT;
+                    text = "!";
+                }
+                break;
+            case '>':
+                if (c1 == '=') {
+                    type = GE;
+                    text = ">=";
+                    len = 2;
+                } else {
+                    type = GT;
+                    text = ">";
+                }
+                break;
+            case '&':
+                if (c1 == '&') {
+                    type = AND;
+                    text = "&&";
+                    len = 2;
+                } else {
+                    type = ELEMENTWISEAND;
+                    text = "&";
+                }
+                break;
+            case '|':
+                if (c1 == '|') {
+                    type = OR;
+                    text = "||";
+                    len = 2;
+                } else {
+                    type = ELEMENTWISEOR;
+                    text = "|";
+                }
+                break;
+            case '*':
+                if (c1 == '*') {
+                    type = CARET;
+                    text = "**";
+                    len = 2;
+                } else {
+                    type = MULT;
+                    text = "*";
+                }
+                break;
+            case '{':
+                type = LBRACE;
+                text = "{";
+                if (nestingDepth == nestingStack.length) {
+                    nestingStack = Arrays.copyOf(nestingStack, nestingDepth * 2);
+                }
+                nestingStack[nestingDepth++] = incompleteNesting;
+                incompleteNesting = 0;
+                break;
+            case '}':
+                type = RBRACE;
+                text = "}";
+                if (nestingDepth > 0) {
+                    incompleteNesting = nestingStack[--nestingDepth];
+                }
+                break;
+            case '(':
+                type = LPAR;
+                text = "(";
+                incompleteNesting++;
+                break;
+            case ')':
+                type = RPAR;
+                text = ")";
+                incompleteNesting--;
+                break;
+            case '[':
+                if (c1 == '[') {
+                    type = LBB;
+                    text = "[[";
+                    len = 2;
+                    incompleteNesting += 2;
+                } else {
+                    type = LBRAKET;
+                    text = "[";
+                    incompleteNesting++;
+                }
+                break;
+            case ']':
+                type = RBRAKET;
+                text = "]";
+                incompleteNesting--;
+                break;
+            case '^':
+                type = CARET;
+                text = "^";
+                break;
+            case ';':
+                type = SEMICOLON;
+                text = ";";
+                break;
+            case ',':
+                type = COMMA;
+                text = ",";
+                break;
+            case '~':
+                type = TILDE;
+                text = "~";
+                break;
+            case '?':
+                type = QM;
+                text = "?";
+                break;
+            case '+':
+                type = PLUS;
+                text = "+";
+                break;
+            case '/':
+                type = DIV;
+                text = "/";
+                break;
+            case '$':
+                type = FIELD;
+                text = "$";
+                break;
+            case '@':
+                type = AT;
+                text = "@";
+                break;
+            default:
+                throw error();
+        }
+        pos += len;
+        add(type, start, pos - 1, tokenLine, tokenColumn, text);
+    }
+
+    /**
+     * OP : '%' (~('%' | '\n' | '\r' | '\f'))+ '%'.
+     */
+    private void userOperator(int start, int tokenLine, int tokenColumn) {
+        pos++;
+        int nameStart = pos;
+        while (pos < length) {
+            char c = chars.charAt(pos);
+            if (c == '%') {
+                break;
+            } else if (isLineBreak(c)) {
+                throw error();
+            }
+            pos++;
+        }
+        if (pos >= length || pos == nameStart) {
+            throw error();
+        }
+        pos++;
+        add(OP, start, pos - 1, tokenLine, tokenColumn, chars.substring(start, pos));
+    }
+
+    private static boolean isIdStart(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || (c >= '\u03B1' && c <= '\u03C9') || (c >= '\u0391' && c <= '\u03A9');
+    }
+
+    private static boolean isIdPart(int c) {
+        return isIdStart(c) || (c >= '0' && c <= '9') || c == '.';
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isHexDigit(int c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    private void identifier(int start, int tokenLine, int tokenColumn) {
+        while (pos < length && isIdPart(chars.charAt(pos))) {
+            pos++;
+        }
+        String text = chars.substring(start, pos);
+        add(keyword(text), start, pos - 1, tokenLine, tokenColumn, text);
+    }
+
+    private static int keyword(String text) {
+        switch (text) {
+            case "function":
+                return FUNCTION;
+            case "NULL":
+                return NULL;
+            case "NA":
+                return NA;
+            case "NA_integer_":
+                return NAINT;
+            case "NA_real_":
+                return NAREAL;
+            case "NA_character_":
+                return NACHAR;
+            case "NA_complex_":
+                return NACOMPL;
+            case "TRUE":
+                return TRUE;
+            case "FALSE":
+                return FALSE;
+            case "Inf":
+                return INF;
+            case "NaN":
+                return NAN;
+            case "while":
+                return WHILE;
+            case "for":
+                return FOR;
+            case "repeat":
+                return REPEAT;
+            case "in":
+                return IN;
+            case "if":
+                return IF;
+            case "else":
+                return ELSE;
+            case "next":
+                return NEXT;
+            case "break":
+                return BREAK;
+            default:
+                return ID;
+        }
+    }
+
+    /**
+     * Tokens starting with '.': numbers (".5"), "..N" (DD), "..." (VARIADIC) and identifiers
+     * (".", "..", ".x", "..1x", "....").
+     */
+    private void dot(int start, int tokenLine, int tokenColumn) {
+        int dots = 0;
+        while (peek(dots) == '.') {
+            dots++;
+        }
+        int next = peek(dots);
+        if (dots == 1 && isDigit(next)) {
+            number(start, tokenLine, tokenColumn);
+            return;
+        }
+        if (isIdStart(next)) {
+            identifier(start, tokenLine, tokenColumn);
+            return;
+        }
+        if (dots >= 2 && isDigit(next)) {
+            int end = pos + dots;
+            while (end < length && isDigit(chars.charAt(end))) {
+                end++;
+            }
+            if (end < length && isIdStart(chars.charAt(end))) {
+                identifier(start, tokenLine, tokenColumn);
+                return;
+            } else if (dots == 2) {
+                pos = end;
+                add(DD, start, pos - 1, tokenLine, tokenColumn, chars.substring(start, pos));
+                return;
+            }
+        }
+        if (dots == 3) {
+            pos += 3;
+            add(VARIADIC, start, pos - 1, tokenLine, tokenColumn, "...");
+        } else {
+            pos += dots;
+            add(ID, start, pos - 1, tokenLine, tokenColumn, chars.substring(start, pos));
+        }
+    }
+
+    /**
+     * INTEGER, COMPLEX and DOUBLE literals. The "L" and "i" suffixes are not part of the token
+     * text.
+     */
+    private void number(int start, int tokenLine, int tokenColumn) {
+        boolean integerAllowed = true;
+        if (chars.charAt(pos) == '0' && peek(1) == 'x' && isHexDigit(peek(2))) {
+            pos += 2;
+            while (pos < length && isHexDigit(chars.charAt(pos))) {
+                pos++;
+            }
+            // ('.'? HEX_DIGIT* HEX_EXPONENT)?
+            int end = pos;
+            if (end < length && chars.charAt(end) == '.') {
+                end++;
+            }
+            while (end < length && isHexDigit(chars.charAt(end))) {
+                end++;
+            }
+            if (end < length && (chars.charAt(end) == 'p' || chars.charAt(end) == 'P')) {
+                int exponentEnd = exponent(end);
+                if (exponentEnd != -1) {
+                    pos = exponentEnd;
+                    integerAllowed = false;
+                }
+            }
+        } else {
+            boolean leadingDigits = isDigit(chars.charAt(pos));
+            boolean dot = false;
+            while (pos < length && isDigit(chars.charAt(pos))) {
+                pos++;
+            }
+            if (pos < length && chars.charAt(pos) == '.') {
+                dot = true;
+                pos++;
+                while (pos < length && isDigit(chars.charAt(pos))) {
+                    pos++;
+                }
+            }
+            if (pos < length && (chars.charAt(pos) == 'e' || chars.charAt(pos) == 'E')) {
+                int exponentEnd = exponent(pos);
+                if (exponentEnd != -1) {
+                    pos = exponentEnd;
+                    // "1.5e3L" is not an INTEGER literal, while "1.5L", "1e3L" and ".5e3L" are
+                    integerAllowed = !(leadingDigits && dot);
+                }
+            }
+        }
+        String text = chars.substring(start, pos);
+        int type = DOUBLE;
+        if (pos < length) {
+            char suffix = chars.charAt(pos);
+            if (suffix == 'L' && integerAllowed) {
+                type = INTEGER;
+                pos++;
+            } else if (suffix == 'i') {
+                type = COMPLEX;
+                pos++;
+            }
+        }
+        add(type, start, pos - 1, tokenLine, tokenColumn, text);
+    }
+
+    /**
+     * Matches ('e'|'E'|'p'|'P') ('+'|'-')? ('0'..'9')+ starting at {@code index} and returns the
+     * end index, or -1 if there is no complete exponent.
+     */
+    private int exponent(int index) {
+        int i = index + 1;
+        if (i < length && (chars.charAt(i) == '+' || chars.charAt(i) == '-')) {
+            i++;
+        }
+        if (i >= length || !isDigit(chars.charAt(i))) {
+            return -1;
+        }
+        while (i < length && isDigit(chars.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Reads the contents of a string or backtick name up to the (consumed) closing quote,
+     * processing escape sequences.
+     */
+    private String quoted(char quote) {
+        int contentStart = pos;
+        // fast path: no escapes
+        while (pos < length) {
+            char c = chars.charAt(pos);
+            if (c == quote) {
+                String result = chars.substring(contentStart, pos);
+                consumeLines(contentStart, pos);
+                pos++;
+                return result;
+            } else if (c == '\\') {
+                break;
+            }
+            pos++;
+        }
+        consumeLines(contentStart, pos);
+        StringBuilder buf = new StringBuilder(pos - contentStart + 16);
+        buf.append(chars, contentStart, pos);
+        while (true) {
+            if (pos >= length) {
+                throw error();
+            }
+            char c = chars.charAt(pos);
+            if (c == quote) {
+                pos++;
+                return buf.toString();
+            } else if (c == '\\') {
+                consume();
+                escape(buf);
+            } else {
+                consume();
+                buf.append(c);
+            }
+        }
+    }
+
+    private void consumeLines(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (chars.charAt(i) == '\n') {
+                line++;
+                lineStart = i + 1;
+            }
+        }
+    }
+
+    private void escape(StringBuilder buf) {
+        if (pos >= length) {
+            throw error();
+        }
+        char c = chars.charAt(pos);
+        switch (c) {
+            case 't':
+                buf.append('\t');
+                break;
+            case 'n':
+                buf.append('\n');
+                break;
+            case 'a':
+                buf.appendCodePoint(7);
+                break;
+            case 'v':
+                buf.appendCodePoint(11);
+                break;
+            case 'r':
+                buf.append('\r');
+                break;
+            case 'b':
+                buf.append('\b');
+                break;
+            case 'f':
+                buf.append('\f');
+                break;
+            case '"':
+            case '`':
+            case '\'':
+            case ' ':
+            case '\\':
+            case '\n':
+                buf.append(c);
+                break;
+            case 'x':
+                if (!isHexDigit(peek(1)) || !isHexDigit(peek(2))) {
+                    consume();
+                    throw error();
+                }
+                buf.appendCodePoint(Integer.parseInt(chars.substring(pos + 1, pos + 3), 16));
+                consume(3);
+                return;
+            case 'u':
+            case 'U':
+                int maxDigits = c == 'u' ? 4 : 8;
+                consume();
+                int digits = 0;
+                int value = 0;
+                while (digits < maxDigits && pos < length && isHexDigit(chars.charAt(pos))) {
+                    value = value * 16 + Character.digit(chars.charAt(pos), 16);
+                    digits++;
+                    pos++;
+                }
+                if (digits == 0) {
+                    throw error();
+                }
+                buf.append(new String(new int[]{value}, 0, 1));
+                return;
+            default:
+                if (c >= '0' && c <= '7') {
+                    int octal = 0;
+                    for (int i = 0; i < 3 && pos < length && chars.charAt(pos) >= '0' && chars.charAt(pos) <= '7'; i++) {
+                        octal = octal * 8 + (chars.charAt(pos) - '0');
+                        pos++;
+                    }
+                    // octal escape sequences are clamped the 0-255 range
+                    buf.appendCodePoint(octal & 0xff);
+                    return;
+                }
+                throw error();
+        }
+        consume();
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.parser;
+
+import java.util.List;
+
+import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.r.parser.RTokenizer.SyntaxError;
+import com.oracle.truffle.r.runtime.RParserFactory;
+import com.oracle.truffle.r.runtime.context.Engine.IncompleteSourceException;
+import com.oracle.truffle.r.runtime.context.Engine.ParseException;
+import com.oracle.truffle.r.runtime.context.TruffleRLanguage;
+import com.oracle.truffle.r.runtime.nodes.RCodeBuilder;
+
+/**
+ * Provides the hand-written {@link RRecursiveDescentParser} instead of the ANTLR generated one.
+ * Select it with {@code -Dfastr.parser.factory.class=com.oracle.truffle.r.parser.RecursiveDescentRParserFactory}.
+ */
+public class RecursiveDescentRParserFactory extends RParserFactory {
+
+    private static class RecursiveDescentParser<T> implements Parser<T> {
+
+        @Override
+        public List<T> script(Source source, RCodeBuilder<T> builder, TruffleRLanguage language) throws ParseException {
+            try {
+                return new RRecursiveDescentParser<>(source, builder, language).script();
+            } catch (SyntaxError e) {
+                throw handleSyntaxError(source, e);
+            }
+        }
+
+        @Override
+        public List<T> statements(Source source, Source fullSource, int startLine, RCodeBuilder<T> builder, TruffleRLanguage language) throws ParseException {
+            try {
+                return new RRecursiveDescentParser<>(source, fullSource, startLine, builder, language).script();
+            } catch (SyntaxError e) {
+                throw handleSyntaxError(source, e);
+            }
+        }
+
+        @Override
+        public RootCallTarget rootFunction(Source source, String name, RCodeBuilder<T> builder, TruffleRLanguage language) throws ParseException {
+            try {
+                return new RRecursiveDescentParser<>(source, builder, language).rootFunction(name);
+            } catch (SyntaxError e) {
+                throw handleSyntaxError(source, e);
+            }
+        }
+
+        @Override
+        public boolean isRecognitionException(Throwable t) {
+            return t instanceof SyntaxError;
+        }
+
+        @Override
+        public int line(Throwable t) {
+            assert isRecognitionException(t);
+            return ((SyntaxError) t).line;
+        }
+
+        @Override
+        public int charPositionInLine(Throwable t) {
+            assert isRecognitionException(t);
+            return ((SyntaxError) t).charPositionInLine;
+        }
+
+        private static ParseException handleSyntaxError(Source source, SyntaxError e) throws IncompleteSourceException, ParseException {
+            CharSequence line = e.line <= source.getLineCount() ? source.getCharacters(e.line) : "";
+            String substring = line.subSequence(0, Math.min(line.length(), e.charPositionInLine + 1)).toString();
+            int lineNr = e.line > source.getLineCount() ? source.getLineCount() : e.line;
+            if (e.atEOF) {
+                // the parser got stuck at the eof, request another line
+                throw new IncompleteSourceException(e, source, e.token, substring, lineNr);
+            } else {
+                throw new ParseException(e, source, e.token, substring, lineNr);
+            }
+        }
+    }
+
+    @Override
+    protected <T> Parser<T> createParser() {
+        return new RecursiveDescentParser<>();
+    }
+}
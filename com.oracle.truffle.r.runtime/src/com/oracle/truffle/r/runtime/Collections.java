@@ -32,162 +32,334 @@ public final class Collections {
         // private
     }
 
-    // simple implementations of non-recursive hash-maps to enable compilation
-    // TODO: consider replacing with a more efficient library implementation
+    // simple implementations of non-recursive hash-sets and hash-maps to enable compilation
+
+    /**
+     * Open addressing hash sets with the notion of element equality used by {@code duplicated} and
+     * {@code unique}: NA and NaN differ from each other but are equal to themselves, {@code 0} and
+     * {@code -0} are equal and strings are compared by identity before equality. The {@code add}
+     * methods return {@code true} if an equal element was already present.
+     *
+     * The sets created with the no-argument constructors start with a small table that grows as
+     * elements are added, an expected number of distinct elements should only be given if it is
+     * known up front.
+     */
+    private abstract static class NonRecursiveHashSet {
+
+        protected int size;
+        protected int mask;
+
+        protected NonRecursiveHashSet(int approxCapacity) {
+            mask = capacityFor(approxCapacity) - 1;
+        }
 
-    public static class NonRecursiveHashSet<KEY> {
+        /**
+         * Returns a power of two large enough to hold the given number of entries below the load
+         * factor of 3/4.
+         */
+        protected static int capacityFor(int entryCount) {
+            int minCapacity = (int) Math.min((entryCount * 4L) / 3 + 1, 1 << 30);
+            return Math.max(Integer.highestOneBit(minCapacity - 1) << 1, 16);
+        }
 
-        private Object[] keys;
+        protected final int index(long hash) {
+            long h = hash * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
 
-        public NonRecursiveHashSet(int approxCapacity) {
-            keys = new Object[Math.max(approxCapacity, 1)];
+        /**
+         * Registers a newly added key and returns {@code true} if the table needs to grow.
+         */
+        protected final boolean added() {
+            size++;
+            return size * 4L > (mask + 1L) * 3;
         }
+    }
 
-        public boolean add(KEY key) {
-            int ind = Math.abs(key.hashCode()) % keys.length;
-            int firstInd = ind;
-            while (true) {
-                if (keys[ind] == null) {
-                    keys[ind] = key;
-                    return false;
-                } else if (key.equals(keys[ind])) {
-                    return true;
-                } else {
-                    ind = (ind + 1) % keys.length;
-                    if (ind == firstInd) {
-                        // resize
-                        Object[] newKeys = new Object[keys.length + keys.length / 2];
-                        for (int i = 0; i < keys.length; i++) {
-                            if (keys[i] != null) {
-                                int tmpInd = Math.abs(keys[i].hashCode()) % newKeys.length;
-                                while (true) {
-                                    if (newKeys[tmpInd] == null) {
-                                        newKeys[tmpInd] = keys[i];
-                                        break;
-                                    } else {
-                                        assert !keys[i].equals(newKeys[tmpInd]);
-                                        tmpInd = (tmpInd + 1) % newKeys.length;
-                                    }
-                                }
-                            }
-                        }
+    public static final class NonRecursiveHashSetInt extends NonRecursiveHashSet {
+
+        private int[] keys;
+        private boolean containsZero;
+
+        public NonRecursiveHashSetInt() {
+            this(0);
+        }
 
-                        keys = newKeys;
+        public NonRecursiveHashSetInt(int approxCapacity) {
+            super(approxCapacity);
+            keys = new int[mask + 1];
+        }
 
-                        // start hashing from the beginning
-                        ind = Math.abs(key.hashCode()) % keys.length;
+        public boolean add(int key) {
+            if (key == 0) {
+                boolean ret = containsZero;
+                containsZero = true;
+                return ret;
+            }
+            int ind = index(key);
+            while (keys[ind] != 0) {
+                if (keys[ind] == key) {
+                    return true;
+                }
+                ind = (ind + 1) & mask;
+            }
+            keys[ind] = key;
+            if (added()) {
+                int[] oldKeys = keys;
+                mask = (mask << 1) | 1;
+                keys = new int[mask + 1];
+                for (int oldKey : oldKeys) {
+                    if (oldKey != 0) {
+                        int tmpInd = index(oldKey);
+                        while (keys[tmpInd] != 0) {
+                            tmpInd = (tmpInd + 1) & mask;
+                        }
+                        keys[tmpInd] = oldKey;
                     }
                 }
             }
+            return false;
+        }
+
+        public boolean contains(int key) {
+            if (key == 0) {
+                return containsZero;
+            }
+            int ind = index(key);
+            while (keys[ind] != 0) {
+                if (keys[ind] == key) {
+                    return true;
+                }
+                ind = (ind + 1) & mask;
+            }
+            return false;
         }
     }
 
-    public static class NonRecursiveHashSetDouble {
+    public static final class NonRecursiveHashSetDouble extends NonRecursiveHashSet {
+
+        // raw bits of the keys, zero (i.e., positive zero) denotes an empty slot
+        private long[] keys;
+        private boolean containsZero;
+        private boolean containsNA;
+        private boolean containsNaN;
 
-        private double[] keys;
+        public NonRecursiveHashSetDouble() {
+            this(0);
+        }
 
         public NonRecursiveHashSetDouble(int approxCapacity) {
-            keys = new double[Math.max(approxCapacity, 1)];
-            Arrays.fill(keys, RRuntime.DOUBLE_NA);
+            super(approxCapacity);
+            keys = new long[mask + 1];
         }
 
         public boolean add(double key) {
-            int ind = getInd(key, keys.length);
-            int firstInd = ind;
-            while (true) {
-                if (RRuntime.isNAorNaN(keys[ind])) {
-                    keys[ind] = key;
-                    return false;
-                } else if (key == keys[ind]) {
-                    return true;
+            boolean ret;
+            if (key == 0) {
+                ret = containsZero;
+                containsZero = true;
+            } else if (Double.isNaN(key)) {
+                if (RRuntime.isNA(key)) {
+                    ret = containsNA;
+                    containsNA = true;
                 } else {
-                    ind = (ind + 1) % keys.length;
-                    if (ind == firstInd) {
-                        // resize
-                        double[] newKeys = new double[keys.length + keys.length / 2];
-                        Arrays.fill(newKeys, RRuntime.DOUBLE_NA);
-                        for (int i = 0; i < keys.length; i++) {
-                            if (!RRuntime.isNAorNaN(keys[i])) {
-                                int tmpInd = getInd(keys[i], newKeys.length);
-                                while (true) {
-                                    if (RRuntime.isNAorNaN(newKeys[tmpInd])) {
-                                        newKeys[tmpInd] = keys[i];
-                                        break;
-                                    } else {
-                                        assert keys[i] != newKeys[tmpInd];
-                                        tmpInd = (tmpInd + 1) % newKeys.length;
-                                    }
-                                }
+                    ret = containsNaN;
+                    containsNaN = true;
+                }
+            } else {
+                long bits = Double.doubleToRawLongBits(key);
+                int ind = index(bits);
+                while (keys[ind] != 0) {
+                    if (keys[ind] == bits) {
+                        return true;
+                    }
+                    ind = (ind + 1) & mask;
+                }
+                keys[ind] = bits;
+                if (added()) {
+                    long[] oldKeys = keys;
+                    mask = (mask << 1) | 1;
+                    keys = new long[mask + 1];
+                    for (long oldKey : oldKeys) {
+                        if (oldKey != 0) {
+                            int tmpInd = index(oldKey);
+                            while (keys[tmpInd] != 0) {
+                                tmpInd = (tmpInd + 1) & mask;
                             }
+                            keys[tmpInd] = oldKey;
                         }
-
-                        keys = newKeys;
-
-                        // start hashing from the beginning
-                        ind = getInd(key, keys.length);
                     }
                 }
+                ret = false;
             }
+            return ret;
         }
 
-        private static int getInd(double key, int keyLength) {
-            int h = Double.hashCode(key);
-            if (h == Integer.MIN_VALUE) {
-                // HOTFIX:
-                // Double.hashCode(-0.0) is Integer.MIN_VALUE
-                // Maths.abs(Integer.MIN_VALUE) is Integer.MIN_VALUE
-                return 0;
+        public boolean contains(double key) {
+            if (key == 0) {
+                return containsZero;
+            } else if (Double.isNaN(key)) {
+                return RRuntime.isNA(key) ? containsNA : containsNaN;
+            }
+            long bits = Double.doubleToRawLongBits(key);
+            int ind = index(bits);
+            while (keys[ind] != 0) {
+                if (keys[ind] == bits) {
+                    return true;
+                }
+                ind = (ind + 1) & mask;
             }
-            return Math.abs(h) % keyLength;
+            return false;
         }
     }
 
-    public static class NonRecursiveHashSetInt {
+    public static final class NonRecursiveHashSetCharacter extends NonRecursiveHashSet {
 
-        private int[] keys;
+        private String[] keys;
+        private boolean containsNA;
 
-        public NonRecursiveHashSetInt(int approxCapacity) {
-            keys = new int[Math.max(approxCapacity, 1)];
-            Arrays.fill(keys, RRuntime.INT_NA);
+        public NonRecursiveHashSetCharacter() {
+            this(0);
         }
 
-        public boolean add(int key) {
-            int ind = Math.abs(Integer.hashCode(key)) % keys.length;
-            int firstInd = ind;
-            while (true) {
-                if (RRuntime.isNA(keys[ind])) {
-                    keys[ind] = key;
-                    return false;
-                } else if (key == keys[ind]) {
+        public NonRecursiveHashSetCharacter(int approxCapacity) {
+            super(approxCapacity);
+            keys = new String[mask + 1];
+        }
+
+        public boolean add(String key) {
+            if (RRuntime.isNA(key)) {
+                boolean ret = containsNA;
+                containsNA = true;
+                return ret;
+            }
+            int hash = key.hashCode();
+            int ind = index(hash);
+            while (keys[ind] != null) {
+                String other = keys[ind];
+                if (other == key || (other.hashCode() == hash && other.equals(key))) {
                     return true;
-                } else {
-                    ind = (ind + 1) % keys.length;
-                    if (ind == firstInd) {
-                        // resize
-                        int[] newKeys = new int[keys.length + keys.length / 2];
-                        Arrays.fill(newKeys, RRuntime.INT_NA);
-                        for (int i = 0; i < keys.length; i++) {
-                            if (!RRuntime.isNA(keys[i])) {
-                                int tmpInd = Math.abs(Integer.hashCode(keys[i])) % newKeys.length;
-                                while (true) {
-                                    if (RRuntime.isNA(newKeys[tmpInd])) {
-                                        newKeys[tmpInd] = keys[i];
-                                        break;
-                                    } else {
-                                        assert keys[i] != newKeys[tmpInd];
-                                        tmpInd = (tmpInd + 1) % newKeys.length;
-                                    }
-                                }
-                            }
+                }
+                ind = (ind + 1) & mask;
+            }
+            keys[ind] = key;
+            if (added()) {
+                String[] oldKeys = keys;
+                mask = (mask << 1) | 1;
+                keys = new String[mask + 1];
+                for (String oldKey : oldKeys) {
+                    if (oldKey != null) {
+                        int tmpInd = index(oldKey.hashCode());
+                        while (keys[tmpInd] != null) {
+                            tmpInd = (tmpInd + 1) & mask;
                         }
+                        keys[tmpInd] = oldKey;
+                    }
+                }
+            }
+            return false;
+        }
+
+        public boolean contains(String key) {
+            if (RRuntime.isNA(key)) {
+                return containsNA;
+            }
+            int hash = key.hashCode();
+            int ind = index(hash);
+            while (keys[ind] != null) {
+                String other = keys[ind];
+                if (other == key || (other.hashCode() == hash && other.equals(key))) {
+                    return true;
+                }
+                ind = (ind + 1) & mask;
+            }
+            return false;
+        }
+    }
 
-                        keys = newKeys;
+    public static final class NonRecursiveHashSetComplex extends NonRecursiveHashSet {
 
-                        // start hashing from the beginning
-                        ind = Math.abs(Integer.hashCode(key)) % keys.length;
+        // normalized raw bits of the real and imaginary parts
+        private long[] realKeys;
+        private long[] imaginaryKeys;
+        private boolean[] used;
+        private boolean containsNA;
+
+        public NonRecursiveHashSetComplex() {
+            this(0);
+        }
+
+        public NonRecursiveHashSetComplex(int approxCapacity) {
+            super(approxCapacity);
+            realKeys = new long[mask + 1];
+            imaginaryKeys = new long[mask + 1];
+            used = new boolean[mask + 1];
+        }
+
+        private static long normalize(double value) {
+            if (value == 0) {
+                return 0;
+            } else if (Double.isNaN(value)) {
+                return Double.doubleToRawLongBits(Double.NaN);
+            }
+            return Double.doubleToRawLongBits(value);
+        }
+
+        public boolean add(double real, double imaginary) {
+            if (RRuntime.isNA(real) || RRuntime.isNA(imaginary)) {
+                boolean ret = containsNA;
+                containsNA = true;
+                return ret;
+            }
+            long re = normalize(real);
+            long im = normalize(imaginary);
+            int ind = index(re * 31 + im);
+            while (used[ind]) {
+                if (realKeys[ind] == re && imaginaryKeys[ind] == im) {
+                    return true;
+                }
+                ind = (ind + 1) & mask;
+            }
+            used[ind] = true;
+            realKeys[ind] = re;
+            imaginaryKeys[ind] = im;
+            if (added()) {
+                long[] oldRealKeys = realKeys;
+                long[] oldImaginaryKeys = imaginaryKeys;
+                boolean[] oldUsed = used;
+                mask = (mask << 1) | 1;
+                realKeys = new long[mask + 1];
+                imaginaryKeys = new long[mask + 1];
+                used = new boolean[mask + 1];
+                for (int i = 0; i < oldUsed.length; i++) {
+                    if (oldUsed[i]) {
+                        int tmpInd = index(oldRealKeys[i] * 31 + oldImaginaryKeys[i]);
+                        while (used[tmpInd]) {
+                            tmpInd = (tmpInd + 1) & mask;
+                        }
+                        used[tmpInd] = true;
+                        realKeys[tmpInd] = oldRealKeys[i];
+                        imaginaryKeys[tmpInd] = oldImaginaryKeys[i];
                     }
                 }
             }
+            return false;
+        }
+
+        public boolean contains(double real, double imaginary) {
+            if (RRuntime.isNA(real) || RRuntime.isNA(imaginary)) {
+                return containsNA;
+            }
+            long re = normalize(real);
+            long im = normalize(imaginary);
+            int ind = index(re * 31 + im);
+            while (used[ind]) {
+                if (realKeys[ind] == re && imaginaryKeys[ind] == im) {
+                    return true;
+                }
+                ind = (ind + 1) & mask;
+            }
+            return false;
         }
     }
 
@@ -335,6 +507,11 @@ public final class Collections {
             Arrays.fill(keys, RRuntime.DOUBLE_NA);
         }
 
+        private static int hash(double key) {
+            // 0 and -0 are equal, but their hash codes differ
+            return key == 0 ? 0 : Double.hashCode(key);
+        }
+
         public boolean put(double key, int value) {
             assert value >= 0;
             if (RRuntime.isNA(key)) {
@@ -346,7 +523,7 @@ public final class Collections {
                 nanValue = value + 1;
                 return ret;
             } else {
-                int ind = index(Double.hashCode(key));
+                int ind = index(hash(key));
                 while (true) {
                     if (values[ind] == 0) {
                         keys[ind] = key;
@@ -371,7 +548,7 @@ public final class Collections {
             } else if (Double.isNaN(key)) {
                 return nanValue - 1;
             } else {
-                int ind = index(Double.hashCode(key));
+                int ind = index(hash(key));
                 int firstInd = ind;
                 while (true) {
                     if (key == keys[ind]) {
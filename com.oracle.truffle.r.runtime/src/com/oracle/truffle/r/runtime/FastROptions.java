@@ -71,8 +71,14 @@ public enum FastROptions {
     EagerEvalExpressions("Enables optimistic eager evaluation of trivial expressions", false),
     PromiseCacheSize("Enables inline caches for promises evaluation", "3", true),
 
+    // Vectorized operations
+    ParallelLoopThreshold("Minimal vector length for which element-wise double operations are split across threads, 0 disables them", "1000000", true),
+
     // Miscellaneous
 
+    BaseSnapshot("File that caches the base environment created by the base package loader between launches, empty disables it", "", true),
+    ParseCacheSize("Number of parsed sources that are kept for reuse by all contexts, 0 disables the cache", "32", true),
+    LanguageClosureCacheSize("Number of closures for evaluated language objects that are kept per context, 0 disables the cache", "1024", true),
     IgnoreGraphicsCalls("Silently ignore unimplemented functions from graphics package", false),
     StartupTiming("Records and prints various timestamps during initialization", false);
 
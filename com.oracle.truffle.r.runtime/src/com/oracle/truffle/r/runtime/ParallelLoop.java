@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Splits loops over large vectors into chunks that are executed on the common fork-join pool. The
+ * loop bodies must not touch any state other than the arrays they are given (in particular, they
+ * must not raise R warnings or errors), because they run outside of the R evaluation thread.
+ */
+public final class ParallelLoop {
+
+    /**
+     * Vectors shorter than this are always processed sequentially, 0 disables parallel loops.
+     */
+    private static final int THRESHOLD = FastROptions.ParallelLoopThreshold.getNonNegativeIntValue();
+
+    /**
+     * The minimal number of elements processed by one task.
+     */
+    private static final int MIN_CHUNK_SIZE = 64 * 1024;
+
+    @FunctionalInterface
+    public interface ChunkBody {
+        /**
+         * Processes the elements from {@code from} (inclusive) to {@code to} (exclusive).
+         */
+        void execute(int from, int to);
+    }
+
+    private ParallelLoop() {
+        // no instances
+    }
+
+    public static boolean isEnabled() {
+        return THRESHOLD != 0;
+    }
+
+    public static boolean isParallel(int length) {
+        return THRESHOLD != 0 && length >= THRESHOLD;
+    }
+
+    /**
+     * Executes the body for all chunks of the {@code [0, length)} range and returns once all chunks
+     * are done.
+     */
+    public static void execute(int length, ChunkBody body) {
+        execute(length, MIN_CHUNK_SIZE, body);
+    }
+
+    /**
+     * Like {@link #execute(int, ChunkBody)}, but for loops whose iterations are expensive, e.g.,
+     * one iteration per matrix column, and that are therefore split into chunks of at least
+     * {@code minChunkSize} iterations.
+     */
+    @TruffleBoundary
+    public static void execute(int length, int minChunkSize, ChunkBody body) {
+        assert minChunkSize > 0;
+        // the calling thread takes part in the computation
+        int parallelism = ForkJoinPool.getCommonPoolParallelism() + 1;
+        int chunkCount = Math.max(1, Math.min(parallelism * 4, length / minChunkSize));
+        if (chunkCount == 1) {
+            body.execute(0, length);
+            return;
+        }
+        int chunkSize = (length + chunkCount - 1) / chunkCount;
+        IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+            int from = chunk * chunkSize;
+            body.execute(from, Math.min(length, from + chunkSize));
+        });
+    }
+}
@@ -65,7 +65,12 @@ public class RChannel {
     private static final int QUEUE_CAPACITY = 1;
 
     private static int[] keys = new int[INITIAL_CHANNEL_NUM];
-    private static RChannel[] channels = new RChannel[INITIAL_CHANNEL_NUM];
+
+    /*
+     * Never modified in place: creating or closing a channel publishes a new array, so that
+     * send/receive/poll can look up channels without acquiring the semaphore.
+     */
+    private static volatile RChannel[] channels = new RChannel[INITIAL_CHANNEL_NUM];
 
     private static final int CLOSED_CHANNEL_KEY = -1;
 
@@ -97,7 +102,9 @@ public class RChannel {
                 }
                 if (freeSlot != -1) {
                     keys[freeSlot] = key;
-                    channels[freeSlot] = new RChannel();
+                    RChannel[] channelsTmp = channels.clone();
+                    channelsTmp[freeSlot] = new RChannel();
+                    channels = channelsTmp;
                     return freeSlot;
                 } else {
                     int[] keysTmp = new int[keys.length * CHANNEL_NUM_GROW_FACTOR];
@@ -140,12 +147,15 @@ public class RChannel {
             if (actualId == 0 || actualId >= channels.length || channels[actualId] == null) {
                 // closing an already closed channel does not necessarily have to be an error (and
                 // makes parallell package's worker script work unchanged)
-                if (keys[actualId] != CLOSED_CHANNEL_KEY) {
+                if (actualId == 0 || actualId >= keys.length || keys[actualId] != CLOSED_CHANNEL_KEY) {
                     throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "channel with specified id does not exist");
                 }
+                return;
             }
             keys[actualId] = CLOSED_CHANNEL_KEY;
-            channels[actualId] = null;
+            RChannel[] channelsTmp = channels.clone();
+            channelsTmp[actualId] = null;
+            channels = channelsTmp;
         } catch (InterruptedException x) {
             throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "error closing channel");
         } finally {
@@ -155,18 +165,11 @@ public class RChannel {
 
     private static RChannel getChannelFromId(int id) {
         int actualId = Math.abs(id);
-        try {
-            create.acquire();
-            if (actualId == 0 || actualId >= channels.length || channels[actualId] == null) {
-                throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "channel with specified id does not exist");
-            }
-            RChannel channel = channels[actualId];
-            return channel;
-        } catch (InterruptedException x) {
-            throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "error transmitting through channel");
-        } finally {
-            create.release();
+        RChannel[] currentChannels = channels;
+        if (actualId == 0 || actualId >= currentChannels.length || currentChannels[actualId] == null) {
+            throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "channel with specified id does not exist");
         }
+        return currentChannels[actualId];
     }
 
     public static void send(int id, Object data) {
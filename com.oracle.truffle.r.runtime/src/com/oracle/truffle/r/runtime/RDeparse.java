@@ -38,6 +38,7 @@ import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.api.source.SourceSection;
 import com.oracle.truffle.r.runtime.RError.Message;
 import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.data.Closure;
 import com.oracle.truffle.r.runtime.data.RAttributable;
 import com.oracle.truffle.r.runtime.data.RAttributesLayout;
 import com.oracle.truffle.r.runtime.data.RAttributesLayout.RAttribute;
@@ -61,6 +62,7 @@ import com.oracle.truffle.r.runtime.data.RSymbol;
 import com.oracle.truffle.r.runtime.data.RTypedValue;
 import com.oracle.truffle.r.runtime.data.model.RAbstractAtomicVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractComplexVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractListVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractRawVector;
@@ -268,7 +270,7 @@ public class RDeparse {
 
         private final Visitor visitor = new Visitor();
 
-        private final StringBuilder sb = new StringBuilder();
+        private final StringBuilder sb;
 
         private final ArrayList<SourceSectionElement> sources;
 
@@ -284,6 +286,12 @@ public class RDeparse {
         private int lastLineStart = 0;
         private int curLine = 1;
 
+        /*
+         * False if the text contains a constant whose representation may change, like a promise
+         * or a foreign object.
+         */
+        private boolean cacheable = true;
+
         DeparseVisitor(boolean storeSource, int cutoff, boolean backtick, int opts, int nlines) {
             this(storeSource, cutoff, backtick, opts, nlines, -1);
         }
@@ -295,6 +303,8 @@ public class RDeparse {
             this.nlines = nlines;
             this.sources = storeSource ? new ArrayList<>() : null;
             this.debugCutoff = debugCutoff;
+            // the source sections refer to the text, so that buffer is not reused
+            this.sb = storeSource ? new StringBuilder() : acquireBuffer();
         }
 
         public String getContents() {
@@ -308,7 +318,11 @@ public class RDeparse {
                 length--;
             }
             sb.setLength(length);
-            return sb.toString();
+            String contents = sb.toString();
+            if (sources == null) {
+                releaseBuffer(sb);
+            }
+            return contents;
         }
 
         private boolean showAttributes() {
@@ -836,8 +850,10 @@ public class RDeparse {
             } else if (value instanceof REmpty) {
                 append("");
             } else if (value instanceof EagerPromise) {
+                cacheable = false;
                 return appendConstant(((EagerPromise) value).getEagerValue());
             } else if (value instanceof RPromise) {
+                cacheable = false;
                 RPromise promise = (RPromise) value;
                 if (promise.isEvaluated()) {
                     return appendConstant(promise.getValue());
@@ -845,6 +861,7 @@ public class RDeparse {
                     append("<unevaluated>");
                 }
             } else if (value instanceof TruffleObject) {
+                cacheable = false;
                 Object rObject = new TruffleObjectConverter().convert((TruffleObject) value);
                 if (rObject == value) {
                     append("<foreign object>");
@@ -977,17 +994,74 @@ public class RDeparse {
                 } else {
                     // TODO COMPAT?
                     append("c(");
-                    for (int i = 0; i < len; i++) {
-                        if (i > 0) {
-                            append(", ");
+                    if (vec instanceof RAbstractDoubleVector) {
+                        appendDoubleElements((RAbstractDoubleVector) vec);
+                    } else if (vec instanceof RAbstractIntVector) {
+                        appendIntElements((RAbstractIntVector) vec);
+                    } else {
+                        for (int i = 0; i < len; i++) {
+                            if (i > 0) {
+                                append(", ");
+                            }
+                            vecElement2buff(vec.getDataAtAsObject(i), false);
                         }
-                        vecElement2buff(vec.getDataAtAsObject(i), false);
                     }
                     append(')');
                 }
             }
         }
 
+        /**
+         * Appends the elements of a numeric vector, e.g., from {@code dput}, directly to the buffer
+         * when possible, instead of creating a boxed value and a string for each of them.
+         */
+        private void appendDoubleElements(RAbstractDoubleVector vec) {
+            for (int i = 0; i < vec.getLength(); i++) {
+                if (i > 0) {
+                    append(", ");
+                }
+                double d = vec.getDataAt(i);
+                int start = sb.length();
+                if (RRuntime.isNA(d)) {
+                    append("NA");
+                } else if (RRuntime.appendWholeNumber(sb, d, 15, 0, '.')) {
+                    checkAppended(start);
+                } else {
+                    append(RContext.getRRuntimeASTAccess().encodeDouble(d));
+                }
+            }
+        }
+
+        private void appendIntElements(RAbstractIntVector vec) {
+            boolean keepInteger = (opts & KEEPINTEGER) != 0;
+            for (int i = 0; i < vec.getLength(); i++) {
+                if (i > 0) {
+                    append(", ");
+                }
+                int value = vec.getDataAt(i);
+                if (RRuntime.isNA(value)) {
+                    append("NA");
+                } else {
+                    int start = sb.length();
+                    sb.append(value);
+                    if (keepInteger) {
+                        sb.append('L');
+                    }
+                    checkAppended(start);
+                }
+            }
+        }
+
+        /**
+         * The equivalent of {@link #checkLength(int)} for text that was already appended.
+         */
+        private void checkAppended(int start) {
+            if (debugCutoff >= 0 && sb.length() > debugCutoff) {
+                sb.setLength(start);
+                throw new MaxLengthReachedException();
+            }
+        }
+
         private static RIntSequence asIntSequence(RAbstractVector vec) {
             if (!(vec instanceof RAbstractIntVector)) {
                 return null;
@@ -1142,17 +1216,98 @@ public class RDeparse {
 
     @TruffleBoundary
     public static String deparse(Object value) {
-        return new DeparseVisitor(false, RDeparse.MAX_CUTOFF, true, KEEPINTEGER, -1).appendValue(value).getContents();
+        return deparse(value, RDeparse.MAX_CUTOFF, true, KEEPINTEGER, -1, -1);
     }
 
     @TruffleBoundary
     public static String deparse(Object expr, int cutoff, boolean backtick, int opts, int nlines) {
-        return new DeparseVisitor(false, cutoff, backtick, opts, nlines).appendValue(expr).getContents();
+        return deparse(expr, cutoff, backtick, opts, nlines, -1);
     }
 
     @TruffleBoundary
     public static String deparse(Object expr, int cutoff, boolean backtick, int opts, int nlines, int debugCutoff) {
-        return new DeparseVisitor(false, cutoff, backtick, opts, nlines, debugCutoff).appendValue(expr).getContents();
+        Closure closure = null;
+        RFunction function = null;
+        CachedDeparse cached;
+        if (expr instanceof RPairList && ((RPairList) expr).isLanguage() && ((RPairList) expr).hasClosure()) {
+            closure = ((RPairList) expr).getClosure();
+            cached = closure.getCachedDeparse();
+        } else if (expr instanceof RFunction && !((RFunction) expr).isBuiltin()) {
+            function = (RFunction) expr;
+            cached = function.getCachedDeparse();
+        } else {
+            return new DeparseVisitor(false, cutoff, backtick, opts, nlines, debugCutoff).appendValue(expr).getContents();
+        }
+        if (cached != null && cached.matches(cutoff, backtick, opts, nlines, debugCutoff)) {
+            return cached.contents;
+        }
+        DeparseVisitor visitor = new DeparseVisitor(false, cutoff, backtick, opts, nlines, debugCutoff).appendValue(expr);
+        String contents = visitor.getContents();
+        if (visitor.cacheable) {
+            cached = new CachedDeparse(cutoff, backtick, opts, nlines, debugCutoff, contents);
+            if (closure != null) {
+                closure.setCachedDeparse(cached);
+            } else {
+                function.setCachedDeparse(cached);
+            }
+        }
+        return contents;
+    }
+
+    /**
+     * The text of a language object or function deparsed with particular options. The last result
+     * is kept in the language object's {@link Closure} and in the {@link RFunction}, since they
+     * are deparsed repeatedly, e.g., by {@code match.call} based logging. Both are immutable: a
+     * modified language object drops its closure and a function with a new target drops the
+     * cached text.
+     */
+    public static final class CachedDeparse {
+        private final int cutoff;
+        private final boolean backtick;
+        private final int opts;
+        private final int nlines;
+        private final int debugCutoff;
+        private final String contents;
+
+        CachedDeparse(int cutoff, boolean backtick, int opts, int nlines, int debugCutoff, String contents) {
+            this.cutoff = cutoff;
+            this.backtick = backtick;
+            this.opts = opts;
+            this.nlines = nlines;
+            this.debugCutoff = debugCutoff;
+            this.contents = contents;
+        }
+
+        boolean matches(int otherCutoff, boolean otherBacktick, int otherOpts, int otherNlines, int otherDebugCutoff) {
+            return cutoff == otherCutoff && backtick == otherBacktick && opts == otherOpts && nlines == otherNlines && debugCutoff == otherDebugCutoff;
+        }
+    }
+
+    /**
+     * Buffers larger than this are not kept for the next deparse.
+     */
+    private static final int MAX_RETAINED_BUFFER = 1 << 20;
+
+    private static final ThreadLocal<StringBuilder> buffers = new ThreadLocal<>();
+
+    /**
+     * Takes the buffer of the current thread, or creates a new one if it is in use by an enclosing
+     * deparse or has not been created yet.
+     */
+    private static StringBuilder acquireBuffer() {
+        StringBuilder buffer = buffers.get();
+        if (buffer == null) {
+            return new StringBuilder();
+        }
+        buffers.set(null);
+        buffer.setLength(0);
+        return buffer;
+    }
+
+    private static void releaseBuffer(StringBuilder buffer) {
+        if (buffer.capacity() <= MAX_RETAINED_BUFFER) {
+            buffers.set(buffer);
+        }
     }
 
     /**
@@ -511,7 +511,7 @@ public final class RError extends RuntimeException implements TruffleException {
         NA_PRODUCED("NAs produced"),
         DETERMINANT_COMPLEX("determinant not currently defined for complex matrices"),
         NON_NUMERIC_ARGUMENT("non-numeric argument"),
-        FFT_FACTORIZATION("fft factorization error"),
+        MULTIVARIATE_SERIES_REQUIRED("vector-valued (multivariate) series required"),
         COMPLEX_NOT_PERMITTED("complex matrices not permitted at present"),
         FIRST_QR("first argument must be a QR decomposition"),
         ONLY_SQUARE_INVERTED("only square matrices can be inverted"),
@@ -627,6 +627,59 @@ public class RRuntime {
         return String.valueOf(operand);
     }
 
+    /**
+     * Appends the R representation of {@code x} if it is a whole number below 10^15 in magnitude
+     * with at most {@code digits} significant digits. The result is the same as that of
+     * {@code formatReal} and {@code encodeReal} for a single value: fixed notation, unless the
+     * scientific notation is shorter by more than {@code sciPen} characters. Such numbers need no
+     * rounding, so their representation can be computed without the format metrics.
+     *
+     * @return {@code false} if {@code x} is not such a number, in which case nothing is appended
+     */
+    @TruffleBoundary
+    public static boolean appendWholeNumber(StringBuilder sb, double x, int digits, int sciPen, char cdec) {
+        if (!(x > -1e15 && x < 1e15) || x != Math.rint(x)) {
+            return false;
+        }
+        boolean negative = x < 0;
+        long value = (long) Math.abs(x);
+        if (value == 0) {
+            sb.append('0');
+            return true;
+        }
+        int length = 1;
+        for (long v = value / 10; v != 0; v /= 10) {
+            length++;
+        }
+        long mantissa = value;
+        int nsig = length;
+        while (mantissa % 10 == 0) {
+            mantissa /= 10;
+            nsig--;
+        }
+        if (nsig > digits) {
+            return false;
+        }
+        int neg = negative ? 1 : 0;
+        int widthF = neg + length;
+        int widthE = neg + (nsig > 1 ? nsig + 1 : 1) + 4;
+        if (negative) {
+            sb.append('-');
+        }
+        if (widthF <= widthE + sciPen) {
+            sb.append(value);
+        } else {
+            int start = sb.length();
+            sb.append(mantissa);
+            if (nsig > 1) {
+                sb.insert(start + 1, cdec);
+            }
+            int exponent = length - 1;
+            sb.append(exponent < 10 ? "e+0" : "e+").append(exponent);
+        }
+        return true;
+    }
+
     public static boolean isCachedNumberString(int value) {
         return value >= MIN_CACHED_NUMBER && value <= MAX_CACHED_NUMBER;
     }
@@ -69,6 +69,7 @@ import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.r.launcher.RCmdOptions;
 import com.oracle.truffle.r.launcher.RCmdOptions.Client;
 import com.oracle.truffle.r.launcher.RStartParams;
+import com.oracle.truffle.r.runtime.FastROptions;
 import com.oracle.truffle.r.runtime.LazyDBCache;
 import com.oracle.truffle.r.runtime.PrimitiveMethodsInfo;
 import com.oracle.truffle.r.runtime.REnvVars;
@@ -600,6 +601,11 @@ public final class RContext {
             }
             state = EnumSet.of(State.DISPOSED);
 
+            if (FastROptions.debugMatches("LanguageClosureCache")) {
+                System.out.println(languageClosureCache.getStatistics());
+            }
+            languageClosureCache.clear();
+
             assert !initial || EvalThread.threadCnt.get() == 0 : "Did not close all children contexts";
 
             this.allocationReporter.removePropertyChangeListener(ALLOCATION_ACTIVATION_LISTENER);
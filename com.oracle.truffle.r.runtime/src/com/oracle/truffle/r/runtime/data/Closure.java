@@ -31,6 +31,7 @@ import com.oracle.truffle.api.frame.FrameDescriptor;
 import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.r.runtime.ArgumentsSignature;
 import com.oracle.truffle.r.runtime.RCaller;
+import com.oracle.truffle.r.runtime.RDeparse;
 import com.oracle.truffle.r.runtime.Utils;
 import com.oracle.truffle.r.runtime.VirtualEvalFrame;
 import com.oracle.truffle.r.runtime.context.RContext;
@@ -64,6 +65,8 @@ public final class Closure {
 
     private RStringVector namesVector; // may be null if never queried
 
+    private RDeparse.CachedDeparse deparsed; // the last deparse result, the expression is immutable
+
     private Closure(String closureName, RBaseNode expr, String syntaxLHSName) {
         this.closureName = closureName;
         this.expr = expr;
@@ -164,6 +167,14 @@ public final class Closure {
         return expr.asRSyntaxNode();
     }
 
+    public RDeparse.CachedDeparse getCachedDeparse() {
+        return deparsed;
+    }
+
+    public void setCachedDeparse(RDeparse.CachedDeparse deparsed) {
+        this.deparsed = deparsed;
+    }
+
     public String asSymbol() {
         return symbol;
     }
@@ -23,14 +23,65 @@
 package com.oracle.truffle.r.runtime.data;
 
 import java.lang.ref.WeakReference;
-import java.util.WeakHashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.FastROptions;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.env.REnvironment;
 import com.oracle.truffle.r.runtime.nodes.RNode;
 
-public class LanguageClosureCache {
+/**
+ * Per-context cache of the {@link Closure}s that are used to evaluate language objects. Reusing a
+ * closure also reuses the call targets it creates, so repeatedly evaluating the same call does not
+ * build, instrument and compile a new AST every time.
+ *
+ * Closures are either cached by the identity of an existing {@link RNode}, or, for language
+ * objects that were built at runtime (e.g., by {@code call}, {@code as.call} or
+ * {@code bquote}), by the structure of the call tree: two calls with the same function, the same
+ * argument names and the same symbols and scalar constants share the closure. The cache is a
+ * bounded LRU map, its size is given by {@link FastROptions#LanguageClosureCacheSize} when the
+ * context is created.
+ *
+ * Like the language objects themselves, the cache refers to the closures only weakly, and the keys
+ * refer to nodes, functions and environments only weakly, so that the cache does not keep them
+ * alive. It is cleared when the context is disposed.
+ */
+public final class LanguageClosureCache {
+
+    /**
+     * Call trees with more elements than this are not cached structurally, building their key
+     * would cost more than it saves.
+     */
+    private static final int MAX_KEY_LENGTH = 256;
+
+    private final int capacity;
+
+    private final LinkedHashMap<Object, WeakReference<Closure>> cache;
 
-    private final WeakHashMap<RNode, WeakReference<Closure>> cache = new WeakHashMap<>();
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long uncacheable;
+
+    public LanguageClosureCache() {
+        this.capacity = FastROptions.LanguageClosureCacheSize.getNonNegativeIntValue();
+        this.cache = new LinkedHashMap<Object, WeakReference<Closure>>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, WeakReference<Closure>> eldest) {
+                if (size() > capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
 
     /**
      * @param expr
@@ -38,18 +89,205 @@ public class LanguageClosureCache {
      *         <code>null</code> is returned.
      */
     @TruffleBoundary
-    public Closure getOrCreateLanguageClosure(RNode expr) {
+    public synchronized Closure getOrCreateLanguageClosure(RNode expr) {
         if (expr == null) {
             return null;
         }
-
-        WeakReference<Closure> weakRef = cache.get(expr);
-        Closure result = weakRef != null ? weakRef.get() : null;
+        if (capacity == 0) {
+            return Closure.createLanguageClosure(expr);
+        }
+        Identity key = new Identity(expr);
+        Closure result = get(key);
         if (result == null) {
             result = Closure.createLanguageClosure(expr);
-            cache.put(expr, new WeakReference<>(result));
+            cache.put(key, new WeakReference<>(result));
         }
         return result;
     }
 
+    /**
+     * Returns a {@link Closure} for the given language object, which is shared with all
+     * structurally equal language objects evaluated in this context. The AST is only built if
+     * there is no such closure yet.
+     */
+    @TruffleBoundary
+    public Closure getOrCreateLanguageClosure(RPairList language) {
+        assert language.isLanguage();
+        LanguageKey key = capacity == 0 ? null : LanguageKey.create(language);
+        if (key == null) {
+            synchronized (this) {
+                uncacheable++;
+            }
+            return Closure.createLanguageClosure(language.createNode().asRNode());
+        }
+        synchronized (this) {
+            Closure result = get(key);
+            if (result != null) {
+                return result;
+            }
+        }
+        // building the AST may evaluate promises, which must not happen while holding the lock
+        Closure result = Closure.createLanguageClosure(language.createNode().asRNode());
+        synchronized (this) {
+            WeakReference<Closure> existing = cache.get(key);
+            Closure existingClosure = existing == null ? null : existing.get();
+            if (existingClosure != null) {
+                return existingClosure;
+            }
+            cache.put(key, new WeakReference<>(result));
+            return result;
+        }
+    }
+
+    /**
+     * Looks up a live closure and counts the hit or miss, must be called while holding the lock.
+     */
+    private Closure get(Object key) {
+        WeakReference<Closure> ref = cache.get(key);
+        Closure result = ref == null ? null : ref.get();
+        if (result == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return result;
+    }
+
+    public synchronized void clear() {
+        cache.clear();
+    }
+
+    public synchronized String getStatistics() {
+        return String.format("language closure cache: %d entries, %d hits, %d misses, %d evictions, %d uncacheable", cache.size(), hits, misses, evictions, uncacheable);
+    }
+
+    /**
+     * The structure of a language object as a flat sequence of tokens, which can be compared and
+     * hashed without building an AST.
+     */
+    private static final class LanguageKey {
+
+        private static final Object BEGIN = new Object();
+        private static final Object END = new Object();
+        private static final Object SYMBOL = new Object();
+        private static final Object DOUBLE = new Object();
+        private static final Object STRING_NA = new Object();
+
+        private final Object[] tokens;
+        private final int hash;
+
+        private LanguageKey(Object[] tokens) {
+            this.tokens = tokens;
+            this.hash = Arrays.hashCode(tokens);
+        }
+
+        /**
+         * Returns the key for the given language object, or {@code null} if it contains values
+         * that can only be compared by identity and are not functions or environments (e.g.,
+         * vectors that were inlined into the call), or if it is too large.
+         */
+        static LanguageKey create(RPairList language) {
+            ArrayList<Object> tokens = new ArrayList<>();
+            return addLanguage(tokens, language) ? new LanguageKey(tokens.toArray()) : null;
+        }
+
+        private static boolean addLanguage(ArrayList<Object> tokens, RPairList language) {
+            if (language.hasClosure()) {
+                // the closure already identifies the AST, e.g., for quoted code
+                tokens.add(new Identity(language.getClosure()));
+                return true;
+            }
+            tokens.add(BEGIN);
+            Object current = language;
+            while (current instanceof RPairList) {
+                RPairList cell = (RPairList) current;
+                if (cell.hasClosure() || tokens.size() > MAX_KEY_LENGTH) {
+                    return false;
+                }
+                if (!addTag(tokens, cell.rawTag()) || !addValue(tokens, cell.rawCar())) {
+                    return false;
+                }
+                current = cell.rawCdr();
+            }
+            tokens.add(END);
+            return current == RNull.instance;
+        }
+
+        private static boolean addTag(ArrayList<Object> tokens, Object tag) {
+            if (tag == RNull.instance) {
+                tokens.add(tag);
+                return true;
+            } else if (tag instanceof RSymbol) {
+                tokens.add(((RSymbol) tag).getName());
+                return true;
+            } else if (tag instanceof String) {
+                tokens.add(tag);
+                return true;
+            }
+            return false;
+        }
+
+        private static boolean addValue(ArrayList<Object> tokens, Object value) {
+            if (value instanceof RSymbol) {
+                tokens.add(SYMBOL);
+                tokens.add(((RSymbol) value).getName());
+            } else if (value instanceof RPairList && ((RPairList) value).isLanguage()) {
+                return addLanguage(tokens, (RPairList) value);
+            } else if (value instanceof Double) {
+                // raw bits keep NA and NaN apart
+                tokens.add(DOUBLE);
+                tokens.add(Double.doubleToRawLongBits((Double) value));
+            } else if (value instanceof String) {
+                tokens.add(RRuntime.isNA((String) value) ? STRING_NA : value);
+            } else if (value instanceof Integer || value instanceof Byte) {
+                tokens.add(value);
+            } else if (value == RNull.instance || value == RMissing.instance || value instanceof RFunction || value instanceof REnvironment) {
+                tokens.add(new Identity(value));
+            } else {
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof LanguageKey && ((LanguageKey) obj).hash == hash && Arrays.equals(((LanguageKey) obj).tokens, tokens);
+        }
+    }
+
+    /**
+     * Compares the wrapped value by identity, regardless of its {@code equals} method, and does not
+     * keep it alive. Once the value has been collected, the key is only equal to itself.
+     */
+    private static final class Identity extends WeakReference<Object> {
+
+        private final int hash;
+
+        Identity(Object value) {
+            super(value);
+            this.hash = System.identityHashCode(value);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Identity) || ((Identity) obj).hash != hash) {
+                return false;
+            }
+            Object value = get();
+            return value != null && value == ((Identity) obj).get();
+        }
+    }
 }
@@ -24,6 +24,7 @@ package com.oracle.truffle.r.runtime.data;
 
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
+import java.nio.Buffer;
 import java.nio.charset.StandardCharsets;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
@@ -125,6 +126,13 @@ public final class NativeDataAccess {
          */
         private Object nativeWrapper;
 
+        /**
+         * Owner of native memory that was not allocated by FastR, e.g. the buffer of a memory
+         * mapped file. Such memory is kept alive as long as this mirror, but it is released by its
+         * owner and must never be freed by the finalizer.
+         */
+        private Object externalDataOwner;
+
         NativeMirror() {
             this.id = counter.addAndGet(2);
         }
@@ -172,7 +180,10 @@ public final class NativeDataAccess {
             super.finalize();
             nativeMirrors.remove(id);
             // System.out.println(String.format("gc'ing %16x", id));
-            if (dataAddress == EMPTY_DATA_ADDRESS) {
+            if (externalDataOwner != null) {
+                externalDataOwner = null;
+                assert (dataAddress = 0xbadbad) != 0;
+            } else if (dataAddress == EMPTY_DATA_ADDRESS) {
                 assert (dataAddress = 0xbadbad) != 0;
             } else if (dataAddress != 0) {
                 // System.out.println(String.format("freeing data at %16x", dataAddress));
@@ -758,6 +769,30 @@ public final class NativeDataAccess {
 
     }
 
+    /**
+     * Marks the native data of a vector created by one of the {@code fromNative} factory methods as
+     * owned by the given Java object, e.g. a {@link java.nio.MappedByteBuffer}. The owner is kept reachable
+     * as long as the vector and the native data are not freed when the vector is collected.
+     */
+    public static void setExternalDataOwner(RObject obj, Object owner) {
+        NativeMirror mirror = (NativeMirror) obj.getNativeMirror();
+        assert mirror != null && mirror.dataAddress != 0;
+        mirror.externalDataOwner = owner;
+    }
+
+    /**
+     * Returns the address of the first byte of the given direct buffer.
+     */
+    @TruffleBoundary
+    public static long getDirectBufferAddress(Buffer buffer) {
+        assert buffer.isDirect();
+        try {
+            return UnsafeAdapter.UNSAFE.getLong(buffer, UnsafeAdapter.UNSAFE.objectFieldOffset(Buffer.class.getDeclaredField("address")));
+        } catch (NoSuchFieldException e) {
+            throw RInternalError.shouldNotReachHere(e);
+        }
+    }
+
     public static void setNativeWrapper(RObject obj, Object wrapper) {
         NativeMirror mirror = (NativeMirror) obj.getNativeMirror();
         if (mirror == null) {
@@ -49,6 +49,8 @@ import com.oracle.truffle.r.runtime.builtins.RBuiltinDescriptor;
 import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RPromise.EagerFeedback;
 import com.oracle.truffle.r.runtime.data.RPromise.PromiseState;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
 import com.oracle.truffle.r.runtime.env.REnvironment;
 import com.oracle.truffle.r.runtime.ffi.DLL.SymbolHandle;
 import com.oracle.truffle.r.runtime.gnur.SEXPTYPE;
@@ -1013,6 +1015,44 @@ public final class RDataFactory {
         return traceDataCreated(new RDoubleSequence(start, stride, length));
     }
 
+    /**
+     * Vectors filled with a single value are represented as compact constant (zero-stride)
+     * sequences from this length on. Shorter ones are allocated right away, because a sequence is
+     * copied into a new vector when it is first written to.
+     */
+    public static final int MIN_COMPACT_CONSTANT_LENGTH = 1 << 16;
+
+    /**
+     * Creates a vector of {@code length} times {@code value}, which is a compact constant sequence
+     * if it is long enough and {@code value} is not {@code NA}. Like any other sequence, it is
+     * materialized on write, when attributes are set and when it is passed to native code.
+     */
+    public static RAbstractIntVector createIntConstant(int value, int length) {
+        if (length >= MIN_COMPACT_CONSTANT_LENGTH && !RRuntime.isNA(value)) {
+            return createIntSequence(value, 0, length);
+        }
+        int[] data = new int[length];
+        if (value != 0) {
+            Arrays.fill(data, value);
+        }
+        return createIntVector(data, !RRuntime.isNA(value));
+    }
+
+    /**
+     * Double version of {@link #createIntConstant(int, int)}, {@code NaN} values are allocated as
+     * well.
+     */
+    public static RAbstractDoubleVector createDoubleConstant(double value, int length) {
+        if (length >= MIN_COMPACT_CONSTANT_LENGTH && !Double.isNaN(value)) {
+            return createDoubleSequence(value, 0, length);
+        }
+        double[] data = new double[length];
+        if (Double.doubleToRawLongBits(value) != 0) {
+            Arrays.fill(data, value);
+        }
+        return createDoubleVector(data, !RRuntime.isNA(value));
+    }
+
     public static RIntVector createEmptyIntVector() {
         return createIntVector(new int[0], true);
     }
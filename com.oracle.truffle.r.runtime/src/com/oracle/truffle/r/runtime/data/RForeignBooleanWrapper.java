@@ -29,6 +29,7 @@ import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.interop.UnknownIdentifierException;
 import com.oracle.truffle.api.interop.UnsupportedMessageException;
 import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.profiles.ValueProfile;
 import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.data.model.RAbstractContainer;
@@ -40,12 +41,18 @@ import com.oracle.truffle.r.runtime.data.nodes.VectorAccess;
 public final class RForeignBooleanWrapper extends RForeignWrapper implements RAbstractLogicalVector {
 
     public RForeignBooleanWrapper(TruffleObject delegate) {
-        super(delegate);
+        super(delegate, boolean[].class);
     }
 
     @Override
+    @TruffleBoundary
     public RLogicalVector materialize() {
-        throw RInternalError.shouldNotReachHere();
+        int length = getLength();
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = getDataAt(i);
+        }
+        return RDataFactory.createLogicalVector(data, RDataFactory.INCOMPLETE_VECTOR);
     }
 
     @Override
@@ -57,6 +64,9 @@ public final class RForeignBooleanWrapper extends RForeignWrapper implements RAb
     @Override
     @TruffleBoundary
     public byte getDataAt(int index) {
+        if (hostArray != null) {
+            return RRuntime.asLogical(((boolean[]) hostArray)[index]);
+        }
         try {
             return RRuntime.asLogical((boolean) ForeignAccess.sendRead(READ, delegate, index));
         } catch (UnsupportedMessageException | UnknownIdentifierException e) {
@@ -70,11 +80,16 @@ public final class RForeignBooleanWrapper extends RForeignWrapper implements RAb
             super(value);
         }
 
+        private final ValueProfile storeProfile = ValueProfile.createClassProfile();
         @Child private Node getSize = Message.GET_SIZE.createNode();
         @Child private Node read = Message.READ.createNode();
 
         @Override
         protected int getLength(RAbstractContainer vector) {
+            Object store = storeProfile.profile(vector.getInternalStore());
+            if (store instanceof boolean[]) {
+                return ((boolean[]) store).length;
+            }
             try {
                 return (int) ForeignAccess.sendGetSize(getSize, ((RForeignWrapper) vector).delegate);
             } catch (UnsupportedMessageException e) {
@@ -84,8 +99,12 @@ public final class RForeignBooleanWrapper extends RForeignWrapper implements RAb
 
         @Override
         protected byte getLogical(Object internalStore, int index) {
+            Object store = storeProfile.profile(internalStore);
+            if (store instanceof boolean[]) {
+                return RRuntime.asLogical(((boolean[]) store)[index]);
+            }
             try {
-                return RRuntime.asLogical((boolean) ForeignAccess.sendRead(read, (TruffleObject) internalStore, index));
+                return RRuntime.asLogical((boolean) ForeignAccess.sendRead(read, (TruffleObject) store, index));
             } catch (UnsupportedMessageException | UnknownIdentifierException e) {
                 throw RInternalError.shouldNotReachHere(e);
             }
@@ -101,21 +120,12 @@ public final class RForeignBooleanWrapper extends RForeignWrapper implements RAb
         @Override
         @TruffleBoundary
         protected int getLength(RAbstractContainer vector) {
-            try {
-                return (int) ForeignAccess.sendGetSize(GET_SIZE, ((RForeignBooleanWrapper) vector).delegate);
-            } catch (UnsupportedMessageException e) {
-                throw RInternalError.shouldNotReachHere(e);
-            }
+            return vector.getLength();
         }
 
         @Override
         protected byte getLogical(Object store, int index) {
-            RForeignBooleanWrapper vector = (RForeignBooleanWrapper) store;
-            try {
-                return RRuntime.asLogical((boolean) ForeignAccess.sendRead(READ, vector.delegate, index));
-            } catch (UnsupportedMessageException | UnknownIdentifierException e) {
-                throw RInternalError.shouldNotReachHere(e);
-            }
+            return ((RForeignBooleanWrapper) store).getDataAt(index);
         }
     };
 
@@ -40,12 +40,21 @@ import com.oracle.truffle.r.runtime.data.nodes.VectorAccess;
 public final class RForeignDoubleWrapper extends RForeignWrapper implements RAbstractDoubleVector {
 
     public RForeignDoubleWrapper(TruffleObject delegate) {
-        super(delegate);
+        super(delegate, double[].class);
     }
 
     @Override
+    @TruffleBoundary
     public RDoubleVector materialize() {
-        throw RInternalError.shouldNotReachHere();
+        if (hostArray != null) {
+            return RDataFactory.createDoubleVector(((double[]) hostArray).clone(), RDataFactory.INCOMPLETE_VECTOR);
+        }
+        int length = getLength();
+        double[] data = new double[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = getDataAt(i);
+        }
+        return RDataFactory.createDoubleVector(data, RDataFactory.INCOMPLETE_VECTOR);
     }
 
     @Override
@@ -57,6 +66,9 @@ public final class RForeignDoubleWrapper extends RForeignWrapper implements RAbs
     @Override
     @TruffleBoundary
     public double getDataAt(int index) {
+        if (hostArray != null) {
+            return ((double[]) hostArray)[index];
+        }
         try {
             return ((Number) ForeignAccess.sendRead(READ, delegate, index)).doubleValue();
         } catch (UnsupportedMessageException | UnknownIdentifierException e) {
@@ -71,11 +83,16 @@ public final class RForeignDoubleWrapper extends RForeignWrapper implements RAbs
         }
 
         private final ValueProfile resultProfile = ValueProfile.createClassProfile();
+        private final ValueProfile storeProfile = ValueProfile.createClassProfile();
         @Child private Node getSize = Message.GET_SIZE.createNode();
         @Child private Node read = Message.READ.createNode();
 
         @Override
         protected int getLength(RAbstractContainer vector) {
+            Object store = storeProfile.profile(vector.getInternalStore());
+            if (store instanceof double[]) {
+                return ((double[]) store).length;
+            }
             try {
                 return (int) ForeignAccess.sendGetSize(getSize, ((RForeignWrapper) vector).delegate);
             } catch (UnsupportedMessageException e) {
@@ -85,8 +102,12 @@ public final class RForeignDoubleWrapper extends RForeignWrapper implements RAbs
 
         @Override
         protected double getDouble(Object internalStore, int index) {
+            Object store = storeProfile.profile(internalStore);
+            if (store instanceof double[]) {
+                return ((double[]) store)[index];
+            }
             try {
-                return ((Number) resultProfile.profile(ForeignAccess.sendRead(read, (TruffleObject) internalStore, index))).doubleValue();
+                return ((Number) resultProfile.profile(ForeignAccess.sendRead(read, (TruffleObject) store, index))).doubleValue();
             } catch (UnsupportedMessageException | UnknownIdentifierException e) {
                 throw RInternalError.shouldNotReachHere(e);
             }
@@ -102,21 +123,12 @@ public final class RForeignDoubleWrapper extends RForeignWrapper implements RAbs
         @Override
         @TruffleBoundary
         protected int getLength(RAbstractContainer vector) {
-            try {
-                return (int) ForeignAccess.sendGetSize(GET_SIZE, ((RForeignDoubleWrapper) vector).delegate);
-            } catch (UnsupportedMessageException e) {
-                throw RInternalError.shouldNotReachHere(e);
-            }
+            return vector.getLength();
         }
 
         @Override
         protected double getDouble(Object store, int index) {
-            RForeignDoubleWrapper vector = (RForeignDoubleWrapper) store;
-            try {
-                return ((Number) ForeignAccess.sendRead(READ, vector.delegate, index)).doubleValue();
-            } catch (UnsupportedMessageException | UnknownIdentifierException e) {
-                throw RInternalError.shouldNotReachHere(e);
-            }
+            return ((RForeignDoubleWrapper) store).getDataAt(index);
         }
     };
 
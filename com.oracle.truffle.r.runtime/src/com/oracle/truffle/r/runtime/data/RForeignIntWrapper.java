@@ -40,12 +40,21 @@ import com.oracle.truffle.r.runtime.data.nodes.VectorAccess;
 public final class RForeignIntWrapper extends RForeignWrapper implements RAbstractIntVector {
 
     public RForeignIntWrapper(TruffleObject delegate) {
-        super(delegate);
+        super(delegate, int[].class);
     }
 
     @Override
+    @TruffleBoundary
     public RIntVector materialize() {
-        throw RInternalError.shouldNotReachHere();
+        if (hostArray != null) {
+            return RDataFactory.createIntVector(((int[]) hostArray).clone(), RDataFactory.INCOMPLETE_VECTOR);
+        }
+        int length = getLength();
+        int[] data = new int[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = getDataAt(i);
+        }
+        return RDataFactory.createIntVector(data, RDataFactory.INCOMPLETE_VECTOR);
     }
 
     @Override
@@ -57,6 +66,9 @@ public final class RForeignIntWrapper extends RForeignWrapper implements RAbstra
     @Override
     @TruffleBoundary
     public int getDataAt(int index) {
+        if (hostArray != null) {
+            return ((int[]) hostArray)[index];
+        }
         try {
             return ((Number) ForeignAccess.sendRead(READ, delegate, index)).intValue();
         } catch (UnsupportedMessageException | UnknownIdentifierException e) {
@@ -71,11 +83,16 @@ public final class RForeignIntWrapper extends RForeignWrapper implements RAbstra
         }
 
         private final ValueProfile resultProfile = ValueProfile.createClassProfile();
+        private final ValueProfile storeProfile = ValueProfile.createClassProfile();
         @Child private Node getSize = Message.GET_SIZE.createNode();
         @Child private Node read = Message.READ.createNode();
 
         @Override
         protected int getLength(RAbstractContainer vector) {
+            Object store = storeProfile.profile(vector.getInternalStore());
+            if (store instanceof int[]) {
+                return ((int[]) store).length;
+            }
             try {
                 return (int) ForeignAccess.sendGetSize(getSize, ((RForeignWrapper) vector).delegate);
             } catch (UnsupportedMessageException e) {
@@ -85,8 +102,12 @@ public final class RForeignIntWrapper extends RForeignWrapper implements RAbstra
 
         @Override
         protected int getInt(Object internalStore, int index) {
+            Object store = storeProfile.profile(internalStore);
+            if (store instanceof int[]) {
+                return ((int[]) store)[index];
+            }
             try {
-                return ((Number) resultProfile.profile(ForeignAccess.sendRead(read, (TruffleObject) internalStore, index))).intValue();
+                return ((Number) resultProfile.profile(ForeignAccess.sendRead(read, (TruffleObject) store, index))).intValue();
             } catch (UnsupportedMessageException | UnknownIdentifierException e) {
                 throw RInternalError.shouldNotReachHere(e);
             }
@@ -102,21 +123,12 @@ public final class RForeignIntWrapper extends RForeignWrapper implements RAbstra
         @Override
         @TruffleBoundary
         protected int getLength(RAbstractContainer vector) {
-            try {
-                return (int) ForeignAccess.sendGetSize(GET_SIZE, ((RForeignIntWrapper) vector).delegate);
-            } catch (UnsupportedMessageException e) {
-                throw RInternalError.shouldNotReachHere(e);
-            }
+            return vector.getLength();
         }
 
         @Override
         protected int getInt(Object store, int index) {
-            RForeignIntWrapper vector = (RForeignIntWrapper) store;
-            try {
-                return ((Number) ForeignAccess.sendRead(READ, vector.delegate, index)).intValue();
-            } catch (UnsupportedMessageException | UnknownIdentifierException e) {
-                throw RInternalError.shouldNotReachHere(e);
-            }
+            return ((RForeignIntWrapper) store).getDataAt(index);
         }
     };
 
@@ -22,11 +22,14 @@
  */
 package com.oracle.truffle.r.runtime.data;
 
+import java.lang.reflect.Array;
+
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.interop.ForeignAccess;
 import com.oracle.truffle.api.interop.Message;
 import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.interop.UnsupportedMessageException;
+import com.oracle.truffle.api.interop.java.JavaInterop;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.r.runtime.RInternalError;
@@ -40,13 +43,39 @@ public abstract class RForeignWrapper implements RAbstractVector {
 
     protected final TruffleObject delegate;
 
+    /**
+     * The Java array behind the delegate if it is a host array of the primitive type given to the
+     * constructor, {@code null} otherwise. Such arrays are read directly instead of through
+     * interop messages.
+     */
+    protected final Object hostArray;
+
     protected RForeignWrapper(TruffleObject delegate) {
+        this(delegate, null);
+    }
+
+    protected RForeignWrapper(TruffleObject delegate, Class<?> hostArrayClass) {
         this.delegate = delegate;
+        this.hostArray = hostArrayClass == null ? null : getHostArray(delegate, hostArrayClass);
+    }
+
+    @TruffleBoundary
+    private static Object getHostArray(TruffleObject delegate, Class<?> hostArrayClass) {
+        if (JavaInterop.isJavaObject(delegate)) {
+            Object array = JavaInterop.asJavaObject(Object.class, delegate);
+            if (hostArrayClass.isInstance(array)) {
+                return array;
+            }
+        }
+        return null;
     }
 
     @Override
     @TruffleBoundary
     public int getLength() {
+        if (hostArray != null) {
+            return Array.getLength(hostArray);
+        }
         try {
             return (int) ForeignAccess.sendGetSize(GET_SIZE, delegate);
         } catch (UnsupportedMessageException e) {
@@ -184,7 +213,7 @@ public abstract class RForeignWrapper implements RAbstractVector {
 
     @Override
     public Object getInternalStore() {
-        return delegate;
+        return hostArray != null ? hostArray : delegate;
     }
 
     @Override
@@ -26,6 +26,7 @@ import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.r.runtime.RDeparse;
 import com.oracle.truffle.r.runtime.RType;
 import com.oracle.truffle.r.runtime.VirtualEvalFrame;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
@@ -55,6 +56,8 @@ public final class RFunction extends RSharingAttributeStorage implements RTypedV
 
     @CompilationFinal private MaterializedFrame enclosingFrame;
 
+    private RDeparse.CachedDeparse deparsed; // the last deparse result, reset with the target
+
     RFunction(String name, String packageName, RootCallTarget target, RBuiltinDescriptor builtin, MaterializedFrame enclosingFrame) {
         this.packageName = packageName;
         this.target = target;
@@ -120,6 +123,15 @@ public final class RFunction extends RSharingAttributeStorage implements RTypedV
 
     public void reassignTarget(RootCallTarget newTarget) {
         this.target = newTarget;
+        this.deparsed = null;
+    }
+
+    public RDeparse.CachedDeparse getCachedDeparse() {
+        return deparsed;
+    }
+
+    public void setCachedDeparse(RDeparse.CachedDeparse deparsed) {
+        this.deparsed = deparsed;
     }
 
     public void reassignEnclosingFrame(MaterializedFrame newEnclosingFrame) {
@@ -88,6 +88,10 @@ public final class RIntSequence extends RSequence implements RAbstractIntVector
     }
 
     public int getIndexFor(int element) {
+        if (getStride() == 0) {
+            // constant sequence, e.g. a zero filled vector
+            return element == getStart() && getLength() > 0 ? 0 : -1;
+        }
         if (element < getStart() || element > getEnd()) {
             return -1;
         }
@@ -44,7 +44,6 @@ import com.oracle.truffle.r.runtime.data.nodes.SlowPathVectorAccess.SlowPathFrom
 import com.oracle.truffle.r.runtime.data.nodes.VectorAccess;
 import com.oracle.truffle.r.runtime.gnur.SEXPTYPE;
 import com.oracle.truffle.r.runtime.nodes.RBaseNode;
-import com.oracle.truffle.r.runtime.nodes.RNode;
 import com.oracle.truffle.r.runtime.nodes.RSyntaxCall;
 import com.oracle.truffle.r.runtime.nodes.RSyntaxConstant;
 import com.oracle.truffle.r.runtime.nodes.RSyntaxElement;
@@ -334,6 +333,26 @@ public final class RPairList extends RSharingAttributeStorage implements RAbstra
         }
     }
 
+    /*
+     * Unlike car(), cdr() and getTag(), these do not prevent the closure from being stored later,
+     * they may only be used if there is no closure.
+     */
+
+    Object rawCar() {
+        assert closure == null;
+        return car;
+    }
+
+    Object rawCdr() {
+        assert closure == null;
+        return cdr;
+    }
+
+    Object rawTag() {
+        assert closure == null;
+        return tag;
+    }
+
     public void setTag(Object newTag) {
         ensurePairList();
         assert newTag != null;
@@ -755,8 +774,12 @@ public final class RPairList extends RSharingAttributeStorage implements RAbstra
 
     @TruffleBoundary
     private Closure createClosure(ClosureCache<RBaseNode> cache) {
-        RNode node = createNode().asRNode();
-        Closure result = cache == null ? Closure.createLanguageClosure(node) : cache.getOrCreateLanguageClosure(node);
+        Closure result;
+        if (cache == null) {
+            result = RContext.getInstance().languageClosureCache.getOrCreateLanguageClosure(this);
+        } else {
+            result = cache.getOrCreateLanguageClosure(createNode().asRNode());
+        }
         if (mayBeClosure) {
             closure = result;
         }
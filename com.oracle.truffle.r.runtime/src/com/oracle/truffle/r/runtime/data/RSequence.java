@@ -31,7 +31,9 @@ import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
  * An {@link RSequence} only records the "length", "start" and "stride" (the latter two fields in
  * the subclasses {@link RIntSequence} and {@link RDoubleSequence}. The "stride" value is positive
  * to indicate an ascending sequence and negative for a descending sequence. I.e., the "end" is
- * computed and not stored.
+ * computed and not stored. A "stride" of zero denotes a compact constant vector, which is used for
+ * the results of e.g. {@code cummax(n:1)} and of long {@code numeric(n)} or {@code rep(1, n)}, see
+ * {@link RDataFactory#MIN_COMPACT_CONSTANT_LENGTH}.
  */
 public abstract class RSequence implements RAbstractVector {
 
@@ -127,6 +127,9 @@ public final class RStringSequence extends RSequence implements RAbstractStringV
         String c = element.substring(prefix.length(), element.length() - suffix.length());
         try {
             int current = Integer.parseInt(c);
+            if (getStride() == 0) {
+                return current == getStart() && getLength() > 0 ? 0 : -1;
+            }
             if (current < getStart() || current > getEnd()) {
                 return -1;
             }
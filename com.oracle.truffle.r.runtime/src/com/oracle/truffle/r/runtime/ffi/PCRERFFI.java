@@ -184,6 +184,23 @@ public final class PCRERFFI {
         }
     }
 
+    /**
+     * Releases a pattern returned by {@link CompileNode}, the handle must not be used afterwards.
+     */
+    public static final class FreeNode extends NativeCallNode {
+        private FreeNode(DownCallNodeFactory factory) {
+            super(factory.createDownCallNode(NativeFunction.free));
+        }
+
+        public void execute(long code) {
+            call(code);
+        }
+
+        public static FreeNode create() {
+            return RFFIFactory.getPCRERFFI().createFreeNode();
+        }
+    }
+
     public MaketablesNode createMaketablesNode() {
         return new MaketablesNode(downCallNodeFactory);
     }
@@ -208,4 +225,8 @@ public final class PCRERFFI {
     public ExecNode createExecNode() {
         return new ExecNode(downCallNodeFactory);
     }
+
+    public FreeNode createFreeNode() {
+        return new FreeNode(downCallNodeFactory);
+    }
 }
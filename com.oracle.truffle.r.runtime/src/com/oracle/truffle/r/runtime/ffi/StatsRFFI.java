@@ -23,9 +23,7 @@
 package com.oracle.truffle.r.runtime.ffi;
 
 /**
- * Interface to native (C) methods provided by the {@code stats} package that are used to implement
- * {@code .Call(C_fft)}. The implementation is split into a Java part which calls the
- * {@code fft_factor} and {@code fft_work}. functions from the GNU R C code.
+ * Interface to native (C) methods provided by the {@code stats} package.
  */
 public final class StatsRFFI {
     private final DownCallNodeFactory downCallNodeFactory;
@@ -34,34 +32,6 @@ public final class StatsRFFI {
         this.downCallNodeFactory = downCallNodeFactory;
     }
 
-    public static final class FactorNode extends NativeCallNode {
-        private FactorNode(DownCallNodeFactory factory) {
-            super(factory.createDownCallNode(NativeFunction.fft_factor));
-        }
-
-        public void execute(int n, int[] pmaxf, int[] pmaxp) {
-            call(n, pmaxf, pmaxp);
-        }
-
-        public static FactorNode create() {
-            return RFFIFactory.getStatsRFFI().createFactorNode();
-        }
-    }
-
-    public static final class WorkNode extends NativeCallNode {
-        private WorkNode(DownCallNodeFactory factory) {
-            super(factory.createDownCallNode(NativeFunction.fft_work));
-        }
-
-        public int execute(double[] a, int nseg, int n, int nspn, int isn, double[] work, int[] iwork) {
-            return (int) call(a, nseg, n, nspn, isn, work, iwork);
-        }
-
-        public static WorkNode create() {
-            return RFFIFactory.getStatsRFFI().createWorkNode();
-        }
-    }
-
     public static final class LminflNode extends NativeCallNode {
         private LminflNode(DownCallNodeFactory factory) {
             super(factory.createDownCallNode(NativeFunction.lminfl));
@@ -76,14 +46,6 @@ public final class StatsRFFI {
         }
     }
 
-    public FactorNode createFactorNode() {
-        return new FactorNode(downCallNodeFactory);
-    }
-
-    public WorkNode createWorkNode() {
-        return new WorkNode(downCallNodeFactory);
-    }
-
     public LminflNode createLminflNode() {
         return new LminflNode(downCallNodeFactory);
     }
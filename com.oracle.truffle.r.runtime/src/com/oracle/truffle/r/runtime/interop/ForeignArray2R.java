@@ -22,6 +22,7 @@
  */
 package com.oracle.truffle.r.runtime.interop;
 
+import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
@@ -127,6 +128,12 @@ public abstract class ForeignArray2R extends RBaseNode {
                 throw RInternalError.shouldNotReachHere(e);
             }
         }
+        if (RRuntime.isForeignObject(obj) && JavaInterop.isJavaObject((TruffleObject) obj)) {
+            RAbstractVector vector = copyJavaArray(JavaInterop.asJavaObject(Object.class, (TruffleObject) obj));
+            if (vector != null) {
+                return vector;
+            }
+        }
         Object result = execute(obj, recursive, null, 0);
         if (result instanceof ForeignArrayData) {
             ForeignArrayData arrayData = (ForeignArrayData) result;
@@ -140,6 +147,62 @@ public abstract class ForeignArray2R extends RBaseNode {
 
     protected abstract Object execute(Object obj, boolean recursive, ForeignArrayData arrayData, int depth);
 
+    /**
+     * Copies one-dimensional host arrays of {@code int}, {@code double}, {@code boolean},
+     * {@code byte} and {@code String} in bulk, so that they don't have to be read element by
+     * element through interop messages.
+     *
+     * @return the vector or {@code null} if the array is of any other type or empty
+     */
+    @TruffleBoundary
+    private static RAbstractVector copyJavaArray(Object array) {
+        if (array == null || !array.getClass().isArray() || Array.getLength(array) == 0) {
+            // empty arrays are converted to an empty list by the generic path
+            return null;
+        } else if (array instanceof double[]) {
+            double[] data = ((double[]) array).clone();
+            boolean complete = true;
+            for (int i = 0; i < data.length && complete; i++) {
+                complete = !RRuntime.isNA(data[i]);
+            }
+            return RDataFactory.createDoubleVector(data, complete);
+        } else if (array instanceof int[]) {
+            int[] data = ((int[]) array).clone();
+            boolean complete = true;
+            for (int i = 0; i < data.length && complete; i++) {
+                complete = !RRuntime.isNA(data[i]);
+            }
+            return RDataFactory.createIntVector(data, complete);
+        } else if (array instanceof boolean[]) {
+            boolean[] values = (boolean[]) array;
+            byte[] data = new byte[values.length];
+            for (int i = 0; i < values.length; i++) {
+                data[i] = RRuntime.asLogical(values[i]);
+            }
+            return RDataFactory.createLogicalVector(data, RDataFactory.COMPLETE_VECTOR);
+        } else if (array instanceof byte[]) {
+            // like any other Byte, the elements are converted to integers
+            byte[] values = (byte[]) array;
+            int[] data = new int[values.length];
+            for (int i = 0; i < values.length; i++) {
+                data[i] = values[i];
+            }
+            return RDataFactory.createIntVector(data, RDataFactory.COMPLETE_VECTOR);
+        } else if (array instanceof String[]) {
+            String[] data = ((String[]) array).clone();
+            boolean complete = true;
+            for (int i = 0; i < data.length; i++) {
+                if (data[i] == null) {
+                    // null elements are converted by the generic path
+                    return null;
+                }
+                complete &= !RRuntime.isNA(data[i]);
+            }
+            return RDataFactory.createStringVector(data, complete);
+        }
+        return null;
+    }
+
     @Specialization(guards = {"isForeignArray(obj)"})
     @TruffleBoundary
     protected ForeignArrayData doArray(TruffleObject obj, boolean recursive, ForeignArrayData arrayData, int depth) {
@@ -427,6 +427,14 @@ public abstract class GammaFunctions {
 
     @TruffleBoundary
     public static double qgamma(double p, double alpha, double scale, boolean lowerTail, boolean logp) {
+        return qgamma(p, alpha, scale, lowerTail, logp, Double.NaN);
+    }
+
+    /**
+     * Like {@link #qgamma(double, double, double, boolean, boolean)}, with {@code lgammafn(alpha)}
+     * supplied by the caller, unless {@code lgammaAlpha} is {@code NaN}.
+     */
+    public static double qgamma(double p, double alpha, double scale, boolean lowerTail, boolean logp, double lgammaAlpha) {
         double pu;
         double a;
         double b;
@@ -494,7 +502,7 @@ public abstract class GammaFunctions {
 
         pu = rdtqiv(localP, lowerTail, localLogp); /* lower_tail prob (in any case) */
 
-        g = lgammafn(alpha); /* log Gamma(v/2) */
+        g = Double.isNaN(lgammaAlpha) ? lgammafn(alpha) : lgammaAlpha; /* log Gamma(v/2) */
 
         /*----- Phase I : Starting Approximation */
         PHASE1: do { // emulate C goto with do-while loop and breaks
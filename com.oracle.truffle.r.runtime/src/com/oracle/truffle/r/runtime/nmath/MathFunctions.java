@@ -22,13 +22,59 @@
  */
 package com.oracle.truffle.r.runtime.nmath;
 
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.ParallelLoop;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.nmath.RMathError.DeferredWarnings;
+
 /**
  * Defines common interface for math functions operating on scalar values, which is used to
  * implement common code for the vectorized versions.
  */
 public class MathFunctions {
+
+    /**
+     * Result flag of {@link Function4_2#evaluate(double[], double[], double[], double[], boolean,
+     * boolean, double[], int, int)}: some argument, and therefore the result, was {@code NA}.
+     */
+    public static final int BATCH_NA = 1;
+
+    /**
+     * Result flag of {@link Function4_2#evaluate(double[], double[], double[], double[], boolean,
+     * boolean, double[], int, int)}: the function returned {@code NaN} for arguments that were not
+     * {@code NaN}, which is reported as a warning.
+     */
+    public static final int BATCH_NAN_PRODUCED = 2;
+
     public interface Function4_2 {
         double evaluate(double a, double b, double c, double d, boolean x, boolean y);
+
+        /**
+         * Evaluates the function for the elements {@code from} (inclusive) to {@code to}
+         * (exclusive) of {@code result}, recycling the argument arrays, which must not be empty.
+         * {@code NA} and {@code NaN} arguments give {@code NA} and {@code NaN} without calling the
+         * function. Returns a combination of {@link #BATCH_NA} and {@link #BATCH_NAN_PRODUCED}.
+         *
+         * Implementations may override this to check the parameters and compute the values that
+         * only depend on them once if the parameter arrays have a single element. The results must
+         * be exactly those of the scalar version.
+         */
+        default int evaluate(double[] a, double[] b, double[] c, double[] d, boolean x, boolean y, double[] result, int from, int to) {
+            return evaluateEach(this, a, b, c, d, x, y, result, from, to);
+        }
+
+        /**
+         * Returns {@code true} if the function does not modify any state and can therefore be
+         * evaluated concurrently on chunks of the result, see
+         * {@link MathFunctions#evaluateParallel}. Warnings are allowed as long as they are reported
+         * through {@link RMathError}.
+         */
+        default boolean isParallelizable() {
+            return false;
+        }
     }
 
     public interface Function4_1 extends Function4_2 {
@@ -75,4 +121,95 @@ public class MathFunctions {
 
         double evaluate(double a, double b, boolean x, boolean y);
     }
+
+    /**
+     * The default implementation of the batch evaluation, which calls the scalar version for each
+     * element.
+     */
+    public static int evaluateEach(Function4_2 function, double[] a, double[] b, double[] c, double[] d, boolean x, boolean y, double[] result, int from, int to) {
+        int flags = 0;
+        int ia = from % a.length;
+        int ib = from % b.length;
+        int ic = from % c.length;
+        int id = from % d.length;
+        for (int i = from; i < to; i++) {
+            double aValue = a[ia];
+            double bValue = b[ib];
+            double cValue = c[ic];
+            double dValue = d[id];
+            double value;
+            if (Double.isNaN(aValue) || Double.isNaN(bValue) || Double.isNaN(cValue) || Double.isNaN(dValue)) {
+                value = naOrNaN(aValue, bValue, cValue, dValue);
+            } else {
+                value = function.evaluate(aValue, bValue, cValue, dValue, x, y);
+            }
+            flags |= resultFlags(value, aValue, bValue, cValue, dValue);
+            result[i] = value;
+            if (++ia == a.length) {
+                ia = 0;
+            }
+            if (++ib == b.length) {
+                ib = 0;
+            }
+            if (++ic == c.length) {
+                ic = 0;
+            }
+            if (++id == d.length) {
+                id = 0;
+            }
+        }
+        return flags;
+    }
+
+    /**
+     * The result for arguments of which at least one is {@code NaN}.
+     */
+    public static double naOrNaN(double a, double b, double c, double d) {
+        return RRuntime.isNA(a) || RRuntime.isNA(b) || RRuntime.isNA(c) || RRuntime.isNA(d) ? RRuntime.DOUBLE_NA : Double.NaN;
+    }
+
+    /**
+     * The batch evaluation flags for one result.
+     */
+    public static int resultFlags(double value, double a, double b, double c, double d) {
+        if (!Double.isNaN(value)) {
+            return 0;
+        } else if (Double.isNaN(a) || Double.isNaN(b) || Double.isNaN(c) || Double.isNaN(d)) {
+            return RRuntime.isNA(value) ? BATCH_NA : 0;
+        } else {
+            return BATCH_NAN_PRODUCED;
+        }
+    }
+
+    /**
+     * Like {@link Function4_2#evaluate(double[], double[], double[], double[], boolean, boolean,
+     * double[], int, int)} for the whole result, but split into chunks that are evaluated by the
+     * {@link ParallelLoop} pool. The warnings reported by the chunks are collected and reported
+     * afterwards, in the order of the elements.
+     */
+    @TruffleBoundary
+    public static int evaluateParallel(Function4_2 function, double[] a, double[] b, double[] c, double[] d, boolean x, boolean y, double[] result) {
+        assert function.isParallelizable();
+        AtomicInteger flags = new AtomicInteger();
+        TreeMap<Integer, DeferredWarnings> warnings = new TreeMap<>();
+        ParallelLoop.execute(result.length, (from, to) -> {
+            DeferredWarnings chunkWarnings = RMathError.deferWarnings();
+            int chunkFlags;
+            try {
+                chunkFlags = function.evaluate(a, b, c, d, x, y, result, from, to);
+            } finally {
+                RMathError.endDeferWarnings();
+            }
+            flags.getAndUpdate(f -> f | chunkFlags);
+            if (!chunkWarnings.isEmpty()) {
+                synchronized (warnings) {
+                    warnings.put(from, chunkWarnings);
+                }
+            }
+        });
+        for (DeferredWarnings chunkWarnings : warnings.values()) {
+            chunkWarnings.report();
+        }
+        return flags.get();
+    }
 }
@@ -4,12 +4,14 @@
  * http://www.gnu.org/licenses/gpl-2.0.html
  *
  * Copyright (c) 1998-2016, The R Core Team
- * Copyright (c) 2016, 2017, Oracle and/or its affiliates
+ * Copyright (c) 2016, 2018, Oracle and/or its affiliates
  *
  * All rights reserved.
  */
 package com.oracle.truffle.r.runtime.nmath;
 
+import java.util.ArrayList;
+
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RError.Message;
@@ -37,9 +39,8 @@ public final class RMathError {
             this.message = message;
         }
 
-        @TruffleBoundary
         public void warning(String arg) {
-            RError.warning(RError.SHOW_CALLER, message, arg);
+            RMathError.warning(message, arg);
         }
     }
 
@@ -68,6 +69,53 @@ public final class RMathError {
      */
     @TruffleBoundary
     public static void warning(RError.Message message, Object... args) {
-        RError.warning(RError.SHOW_CALLER, message, args);
+        DeferredWarnings warnings = deferred.get();
+        if (warnings != null) {
+            warnings.messages.add(message);
+            warnings.args.add(args);
+        } else {
+            RError.warning(RError.SHOW_CALLER, message, args);
+        }
+    }
+
+    private static final ThreadLocal<DeferredWarnings> deferred = new ThreadLocal<>();
+
+    /**
+     * Warnings collected on a thread that cannot report R warnings, see {@link #deferWarnings()}.
+     */
+    public static final class DeferredWarnings {
+        private final ArrayList<RError.Message> messages = new ArrayList<>();
+        private final ArrayList<Object[]> args = new ArrayList<>();
+
+        public boolean isEmpty() {
+            return messages.isEmpty();
+        }
+
+        /**
+         * Reports the collected warnings, must be called on the R evaluation thread.
+         */
+        @TruffleBoundary
+        public void report() {
+            for (int i = 0; i < messages.size(); i++) {
+                RError.warning(RError.SHOW_CALLER, messages.get(i), args.get(i));
+            }
+        }
+    }
+
+    /**
+     * Makes the warnings of the math library go to the returned collection instead of being
+     * reported, until {@link #endDeferWarnings()} is called on the same thread. This allows
+     * running the math functions on the fork-join pool.
+     */
+    @TruffleBoundary
+    public static DeferredWarnings deferWarnings() {
+        DeferredWarnings warnings = new DeferredWarnings();
+        deferred.set(warnings);
+        return warnings;
+    }
+
+    @TruffleBoundary
+    public static void endDeferWarnings() {
+        deferred.remove();
     }
 }
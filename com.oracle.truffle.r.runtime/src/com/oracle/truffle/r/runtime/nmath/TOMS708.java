@@ -5,7 +5,7 @@
  *
  * Copyright (c) 1995-2012, The R Core Team
  * Copyright (c) 2003, The R Foundation
- * Copyright (c) 2016, 2017, Oracle and/or its affiliates
+ * Copyright (c) 2016, 2018, Oracle and/or its affiliates
  *
  * All rights reserved.
  */
@@ -18,7 +18,6 @@ import static com.oracle.truffle.r.runtime.nmath.MathConstants.M_SQRT_PI;
 import static com.oracle.truffle.r.runtime.nmath.MathConstants.logspaceAdd;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
-import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RError.Message;
 import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
@@ -40,7 +39,7 @@ public final class TOMS708 {
 
     @TruffleBoundary
     private static void emitWarning(String format, Object... args) {
-        RError.warning(RError.SHOW_CALLER, Message.GENERIC, String.format(format, args));
+        RMathError.warning(Message.GENERIC, String.format(format, args));
     }
 
     private static double sin(double v) {
@@ -350,7 +349,7 @@ public final class TOMS708 {
                                     ierr = 8;
                                 }
                                 if (w1 < 0) {
-                                    RError.warning(RError.SHOW_CALLER, Message.GENERIC, Utils.stringFormat("bratio(a=%f, b=%f, x=%f): bgrat() -> w1 = %f", a, b, x, w1));
+                                    RMathError.warning(Message.GENERIC, Utils.stringFormat("bratio(a=%f, b=%f, x=%f): bgrat() -> w1 = %f", a, b, x, w1));
                                 }
                                 state = States.L_end_from_w1;
                                 continue;
@@ -30,4 +30,9 @@ public final class DGamma implements Function3_1 {
     public double evaluate(double x, double shape, double scale, boolean giveLog) {
         return GammaFunctions.dgamma(x, shape, scale, giveLog);
     }
+
+    @Override
+    public boolean isParallelizable() {
+        return true;
+    }
 }
@@ -5,7 +5,7 @@
  *
  * Copyright (c) 1995-2012, The R Core Team
  * Copyright (c) 2003, The R Foundation
- * Copyright (c) 2015, 2017, Oracle and/or its affiliates
+ * Copyright (c) 2015, 2018, Oracle and/or its affiliates
  *
  * All rights reserved.
  */
@@ -14,10 +14,13 @@ package com.oracle.truffle.r.runtime.nmath.distr;
 
 import com.oracle.truffle.r.runtime.nmath.DPQ;
 import com.oracle.truffle.r.runtime.nmath.MathConstants;
+import com.oracle.truffle.r.runtime.nmath.MathFunctions;
 import com.oracle.truffle.r.runtime.nmath.MathFunctions.Function3_1;
 import com.oracle.truffle.r.runtime.nmath.RMathError;
 
 public final class DNorm implements Function3_1 {
+    private static final double LIMIT = 2 * Math.sqrt(Double.MAX_VALUE);
+
     @Override
     public double evaluate(double xa, double mu, double sigma, boolean giveLog) {
         double x = xa;
@@ -38,7 +41,7 @@ public final class DNorm implements Function3_1 {
 
         x = (x - mu) / sigma;
         x = Math.abs(x);
-        if (x >= 2 * Math.sqrt(Double.MAX_VALUE)) {
+        if (x >= LIMIT) {
             return DPQ.rd0(giveLog);
         }
 
@@ -51,4 +54,45 @@ public final class DNorm implements Function3_1 {
         }
         return MathConstants.M_1_SQRT_2PI * Math.exp(-0.5 * x * x) / sigma;
     }
+
+    @Override
+    public boolean isParallelizable() {
+        return true;
+    }
+
+    /**
+     * With scalar {@code mu} and {@code sigma}, the parameters are checked and {@code log(sigma)}
+     * is computed only once.
+     */
+    @Override
+    public int evaluate(double[] x, double[] mu, double[] sigma, double[] unused, boolean giveLog, boolean unusedFlag, double[] result, int from, int to) {
+        if (mu.length != 1 || sigma.length != 1 || x.length < to || !Double.isFinite(mu[0]) || !Double.isFinite(sigma[0]) || sigma[0] <= 0) {
+            return Function3_1.super.evaluate(x, mu, sigma, unused, giveLog, unusedFlag, result, from, to);
+        }
+        double m = mu[0];
+        double s = sigma[0];
+        double logSigma = Math.log(s);
+        int flags = 0;
+        for (int i = from; i < to; i++) {
+            double xi = x[i];
+            double value;
+            if (Double.isNaN(xi)) {
+                value = MathFunctions.naOrNaN(xi, m, s, 0);
+            } else if (!Double.isFinite(xi)) {
+                value = evaluate(xi, m, s, giveLog);
+            } else {
+                double z = Math.abs((xi - m) / s);
+                if (z >= LIMIT || !Double.isFinite(z)) {
+                    value = DPQ.rd0(giveLog);
+                } else if (giveLog) {
+                    value = -(MathConstants.M_LN_SQRT_2PI + 0.5 * z * z + logSigma);
+                } else {
+                    value = MathConstants.M_1_SQRT_2PI * Math.exp(-0.5 * z * z) / s;
+                }
+            }
+            flags |= MathFunctions.resultFlags(value, xi, m, s, 0);
+            result[i] = value;
+        }
+        return flags;
+    }
 }
@@ -6,7 +6,7 @@
  * Copyright (C) 2005-6 Morten Welinder <terra@gnome.org>
  * Copyright (C) 2005-10 The R Foundation
  * Copyright (C) 2006-2015 The R Core Team
- * Copyright (c) 2016, 2017, Oracle and/or its affiliates
+ * Copyright (c) 2016, 2018, Oracle and/or its affiliates
  *
  * All rights reserved.
  */
@@ -15,6 +15,7 @@ package com.oracle.truffle.r.runtime.nmath.distr;
 import static com.oracle.truffle.r.runtime.nmath.GammaFunctions.pgammaRaw;
 
 import com.oracle.truffle.r.runtime.nmath.DPQ;
+import com.oracle.truffle.r.runtime.nmath.MathFunctions;
 import com.oracle.truffle.r.runtime.nmath.MathFunctions.Function3_2;
 import com.oracle.truffle.r.runtime.nmath.RMathError;
 
@@ -37,4 +38,34 @@ public final class PGamma implements Function3_2 {
         }
         return pgammaRaw(x, alph, lowerTail, logP);
     }
+
+    @Override
+    public boolean isParallelizable() {
+        return true;
+    }
+
+    /**
+     * With scalar {@code alph} and {@code scale}, the parameters are checked only once.
+     */
+    @Override
+    public int evaluate(double[] x, double[] alph, double[] scale, double[] unused, boolean lowerTail, boolean logP, double[] result, int from, int to) {
+        if (alph.length != 1 || scale.length != 1 || x.length < to || !(alph[0] > 0) || !(scale[0] > 0)) {
+            return Function3_2.super.evaluate(x, alph, scale, unused, lowerTail, logP, result, from, to);
+        }
+        double a = alph[0];
+        double s = scale[0];
+        int flags = 0;
+        for (int i = from; i < to; i++) {
+            double value;
+            if (Double.isNaN(x[i])) {
+                value = MathFunctions.naOrNaN(x[i], a, s, 0);
+            } else {
+                double xs = x[i] / s;
+                value = Double.isNaN(xs) ? xs : pgammaRaw(xs, a, lowerTail, logP);
+            }
+            flags |= MathFunctions.resultFlags(value, x[i], a, s, 0);
+            result[i] = value;
+        }
+        return flags;
+    }
 }
@@ -12,10 +12,12 @@
  */
 package com.oracle.truffle.r.runtime.nmath.distr;
 
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.nmath.DPQ;
 import com.oracle.truffle.r.runtime.nmath.MathConstants;
+import com.oracle.truffle.r.runtime.nmath.MathFunctions;
 import com.oracle.truffle.r.runtime.nmath.MathFunctions.Function3_2;
 
 // transcribed from pnorm.c
@@ -52,7 +54,9 @@ public final class Pnorm implements Function3_2 {
             return x + mu + sigma;
         }
         if (!Double.isFinite(x) && mu == x) {
-            nanProfile.enter();
+            if (nanProfile != null) {
+                nanProfile.enter();
+            }
             return Double.NaN; /* x-mu is NaN */
         }
         if (sigma <= 0) {
@@ -76,6 +80,46 @@ public final class Pnorm implements Function3_2 {
         return (lowerTail ? pnormBoth.cum : pnormBoth.ccum);
     }
 
+    @Override
+    public boolean isParallelizable() {
+        return true;
+    }
+
+    /**
+     * With scalar {@code mu} and {@code sigma}, the parameters are checked once and one
+     * {@link PnormBoth} is used for all elements. Other arguments are evaluated element by element
+     * without the profile, because chunks may run on threads outside of Truffle.
+     */
+    @Override
+    public int evaluate(double[] x, double[] mu, double[] sigma, double[] unused, boolean lowerTail, boolean logP, double[] result, int from, int to) {
+        if (mu.length != 1 || sigma.length != 1 || x.length < to || !Double.isFinite(mu[0]) || !Double.isFinite(sigma[0]) || sigma[0] <= 0) {
+            return MathFunctions.evaluateEach(createTemp(), x, mu, sigma, unused, lowerTail, logP, result, from, to);
+        }
+        double m = mu[0];
+        double s = sigma[0];
+        PnormBoth pnormBoth = new PnormBoth(0);
+        int flags = 0;
+        for (int i = from; i < to; i++) {
+            double xi = x[i];
+            double value;
+            if (Double.isNaN(xi)) {
+                value = MathFunctions.naOrNaN(xi, m, s, 0);
+            } else {
+                double p = (xi - m) / s;
+                if (!Double.isFinite(p)) {
+                    value = (xi < m) ? DPQ.rdt0(lowerTail, logP) : DPQ.rdt1(lowerTail, logP);
+                } else {
+                    pnormBoth.cum = p;
+                    pnormBoth.pnormBoth(p, !lowerTail, logP);
+                    value = lowerTail ? pnormBoth.cum : pnormBoth.ccum;
+                }
+            }
+            flags |= MathFunctions.resultFlags(value, xi, m, s, 0);
+            result[i] = value;
+        }
+        return flags;
+    }
+
     public static final class PnormBoth {
 
         public static void evaluate(double x, double[] cum, double[] ccum, boolean lowerTail, boolean logP) {
@@ -94,6 +138,15 @@ public final class Pnorm implements Function3_2 {
 
         private static final double SIXTEN = 16; /* Cutoff allowing exact "*" and "/" */
 
+        @CompilationFinal(dimensions = 1) private static final double[] A = {2.2352520354606839287, 161.02823106855587881, 1067.6894854603709582, 18154.981253343561249, 0.065682337918207449113};
+        @CompilationFinal(dimensions = 1) private static final double[] B = {47.20258190468824187, 976.09855173777669322, 10260.932208618978205, 45507.789335026729956};
+        @CompilationFinal(dimensions = 1) private static final double[] C = {0.39894151208813466764, 8.8831497943883759412, 93.506656132177855979, 597.27027639480026226, 2494.5375852903726711, 6848.1904505362823326, 11602.651437647350124,
+                        9842.7148383839780218, 1.0765576773720192317e-8};
+        @CompilationFinal(dimensions = 1) private static final double[] D = {22.266688044328115691, 235.38790178262499861, 1519.377599407554805, 6485.558298266760755, 18615.571640885098091, 34900.952721145977266, 38912.003286093271411,
+                        19685.429676859990727};
+        @CompilationFinal(dimensions = 1) private static final double[] P = {0.21589853405795699, 0.1274011611602473639, 0.022235277870649807, 0.001421619193227893466, 2.9112874951168792e-5, 0.02307344176494017303};
+        @CompilationFinal(dimensions = 1) private static final double[] Q = {1.28426009614491121, 0.468238212480865118, 0.0659881378689285515, 0.00378239633202758244, 7.29751555083966205e-5};
+
         private void doDel(double x, double originalX, double temp, boolean logP, boolean lower, boolean upper) {
             double xsq = ((long) (x * SIXTEN)) / SIXTEN;
             double del = (x - xsq) * (x + xsq);
@@ -123,14 +176,12 @@ public final class Pnorm implements Function3_2 {
              * i_tail in {0,1,2} means: "lower", "upper", or "both" : if(lower) return *cum := P[X
              * <= x] if(upper) return *ccum := P[X > x] = 1 - P[X <= x]
              */
-            double[] a = {2.2352520354606839287, 161.02823106855587881, 1067.6894854603709582, 18154.981253343561249, 0.065682337918207449113};
-            double[] b = {47.20258190468824187, 976.09855173777669322, 10260.932208618978205, 45507.789335026729956};
-            double[] c = {0.39894151208813466764, 8.8831497943883759412, 93.506656132177855979, 597.27027639480026226, 2494.5375852903726711, 6848.1904505362823326, 11602.651437647350124,
-                            9842.7148383839780218, 1.0765576773720192317e-8};
-            double[] d = {22.266688044328115691, 235.38790178262499861, 1519.377599407554805, 6485.558298266760755, 18615.571640885098091, 34900.952721145977266, 38912.003286093271411,
-                            19685.429676859990727};
-            double[] p = {0.21589853405795699, 0.1274011611602473639, 0.022235277870649807, 0.001421619193227893466, 2.9112874951168792e-5, 0.02307344176494017303};
-            double[] q = {1.28426009614491121, 0.468238212480865118, 0.0659881378689285515, 0.00378239633202758244, 7.29751555083966205e-5};
+            double[] a = A;
+            double[] b = B;
+            double[] c = C;
+            double[] d = D;
+            double[] p = P;
+            double[] q = Q;
 
             // #ifdef NO_DENORMS
             // double min = DBL_MIN;
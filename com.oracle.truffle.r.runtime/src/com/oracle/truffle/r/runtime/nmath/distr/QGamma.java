@@ -23,6 +23,7 @@
 package com.oracle.truffle.r.runtime.nmath.distr;
 
 import com.oracle.truffle.r.runtime.nmath.GammaFunctions;
+import com.oracle.truffle.r.runtime.nmath.MathFunctions;
 import com.oracle.truffle.r.runtime.nmath.MathFunctions.Function3_2;
 
 public final class QGamma implements Function3_2 {
@@ -30,4 +31,30 @@ public final class QGamma implements Function3_2 {
     public double evaluate(double p, double shape, double scale, boolean lowerTail, boolean logP) {
         return GammaFunctions.qgamma(p, shape, scale, lowerTail, logP);
     }
+
+    @Override
+    public boolean isParallelizable() {
+        return true;
+    }
+
+    /**
+     * With scalar {@code shape} and {@code scale}, {@code lgamma(shape)} is computed only once. The
+     * range of {@code shape} is limited to values for which {@code lgamma} does not warn.
+     */
+    @Override
+    public int evaluate(double[] p, double[] shape, double[] scale, double[] unused, boolean lowerTail, boolean logP, double[] result, int from, int to) {
+        if (shape.length != 1 || scale.length != 1 || p.length < to || !(shape[0] > 0 && shape[0] < 1e300) || !(scale[0] > 0)) {
+            return Function3_2.super.evaluate(p, shape, scale, unused, lowerTail, logP, result, from, to);
+        }
+        double alpha = shape[0];
+        double s = scale[0];
+        double lgammaAlpha = GammaFunctions.lgammafn(alpha);
+        int flags = 0;
+        for (int i = from; i < to; i++) {
+            double value = Double.isNaN(p[i]) ? MathFunctions.naOrNaN(p[i], alpha, s, 0) : GammaFunctions.qgamma(p[i], alpha, s, lowerTail, logP, lgammaAlpha);
+            flags |= MathFunctions.resultFlags(value, p[i], alpha, s, 0);
+            result[i] = value;
+        }
+        return flags;
+    }
 }
@@ -6,7 +6,7 @@
  * Copyright (C) 1998 Ross Ihaka
  * Copyright (c) 2000--2014, The R Core Team
  * Copyright (c) 2007, The R Foundation
- * Copyright (c) 2016, 2017, Oracle and/or its affiliates
+ * Copyright (c) 2016, 2018, Oracle and/or its affiliates
  *
  * All rights reserved.
  */
@@ -19,17 +19,35 @@ package com.oracle.truffle.r.runtime.nmath.distr;
 import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.r.runtime.nmath.DPQ;
 import com.oracle.truffle.r.runtime.nmath.DPQ.EarlyReturn;
+import com.oracle.truffle.r.runtime.nmath.MathFunctions;
 import com.oracle.truffle.r.runtime.nmath.MathFunctions.Function3_2;
 
 // transcribed from qnorm.c
 
 public final class Qnorm implements Function3_2 {
-    private final BranchProfile nanProfile = BranchProfile.create();
+    private final BranchProfile nanProfile;
+
+    public Qnorm() {
+        this(BranchProfile.create());
+    }
+
+    private Qnorm(BranchProfile nanProfile) {
+        this.nanProfile = nanProfile;
+    }
+
+    /**
+     * For use in a temporary (non-Truffle Node) context.
+     */
+    public static Qnorm createTemp() {
+        return new Qnorm(null);
+    }
 
     @Override
     public double evaluate(double p, double mu, double sigma, boolean lowerTail, boolean logP) {
         if (Double.isNaN(p) || Double.isNaN(mu) || Double.isNaN(sigma)) {
-            nanProfile.enter();
+            if (nanProfile != null) {
+                nanProfile.enter();
+            }
             return p + mu + sigma;
         }
 
@@ -40,7 +58,9 @@ public final class Qnorm implements Function3_2 {
         }
 
         if (sigma < 0) {
-            nanProfile.enter();
+            if (nanProfile != null) {
+                nanProfile.enter();
+            }
             return Double.NaN;
         }
         if (sigma == 0) {
@@ -50,6 +70,42 @@ public final class Qnorm implements Function3_2 {
         return qnormImpl(p, mu, sigma, lowerTail, logP);
     }
 
+    @Override
+    public boolean isParallelizable() {
+        return true;
+    }
+
+    /**
+     * With scalar {@code mu} and {@code sigma}, the parameters are checked only once, and the
+     * boundary checks of {@code p} are done without exceptions for probabilities inside the
+     * interval. The scalar version is used without the profile, because chunks may run on threads
+     * outside of Truffle.
+     */
+    @Override
+    public int evaluate(double[] p, double[] mu, double[] sigma, double[] unused, boolean lowerTail, boolean logP, double[] result, int from, int to) {
+        Qnorm unprofiled = createTemp();
+        if (mu.length != 1 || sigma.length != 1 || p.length < to || Double.isNaN(mu[0]) || !(sigma[0] > 0)) {
+            return MathFunctions.evaluateEach(unprofiled, p, mu, sigma, unused, lowerTail, logP, result, from, to);
+        }
+        double m = mu[0];
+        double s = sigma[0];
+        int flags = 0;
+        for (int i = from; i < to; i++) {
+            double prob = p[i];
+            double value;
+            if (Double.isNaN(prob)) {
+                value = MathFunctions.naOrNaN(prob, m, s, 0);
+            } else if (logP ? (prob < 0 && prob != Double.NEGATIVE_INFINITY) : (prob > 0 && prob < 1)) {
+                value = qnormImpl(prob, m, s, lowerTail, logP);
+            } else {
+                value = unprofiled.evaluate(prob, m, s, lowerTail, logP);
+            }
+            flags |= MathFunctions.resultFlags(value, prob, m, s, 0);
+            result[i] = value;
+        }
+        return flags;
+    }
+
     /**
      * Static version without arguments validation.
      */
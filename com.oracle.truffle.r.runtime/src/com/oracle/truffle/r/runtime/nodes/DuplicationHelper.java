@@ -4,7 +4,7 @@
  * http://www.gnu.org/licenses/gpl-2.0.html
  *
  * Copyright (c) 2014, Purdue University
- * Copyright (c) 2014, 2017, Oracle and/or its affiliates
+ * Copyright (c) 2014, 2018, Oracle and/or its affiliates
  *
  * All rights reserved.
  */
@@ -13,29 +13,40 @@ package com.oracle.truffle.r.runtime.nodes;
 import java.util.HashSet;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.Collections.NonRecursiveHashSetCharacter;
+import com.oracle.truffle.r.runtime.Collections.NonRecursiveHashSetComplex;
+import com.oracle.truffle.r.runtime.Collections.NonRecursiveHashSetDouble;
+import com.oracle.truffle.r.runtime.Collections.NonRecursiveHashSetInt;
 import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.data.RComplex;
+import com.oracle.truffle.r.runtime.data.model.RAbstractComplexVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractContainer;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractLogicalVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractRawVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
 
 /**
  * Code sharing vehicle for the slight differences in behavior between {@code duplicated} and
  * {@code anyDuplicated} (both internal and native versions) and whether {@code fromLast} is
- * {@code TRUE/FALSE}.
+ * {@code TRUE/FALSE}. Atomic vectors are analyzed with the primitive hash sets from
+ * {@link com.oracle.truffle.r.runtime.Collections}, so that no element gets boxed.
  */
-public class DuplicationHelper {
-    private final RAbstractContainer x;
-    private final HashSet<Object> vectorContents = new HashSet<>();
-    private final HashSet<Object> incompContents;
+public final class DuplicationHelper {
+
+    private final ElementSet vectorContents;
+    private final ElementSet incompContents;
     private final byte[] dupVec;
     private int index;
 
-    public DuplicationHelper(RAbstractContainer x, RAbstractContainer incomparables, boolean justIndex, boolean fromLast) {
-        this.x = x;
-        vectorContents.add(x.getDataAtAsObject(fromLast ? x.getLength() - 1 : 0));
-
+    private DuplicationHelper(RAbstractContainer x, RAbstractContainer incomparables, boolean justIndex) {
+        boolean sameType = incomparables == null || incomparables.getRType() == x.getRType();
+        vectorContents = createSet(x, sameType);
         if (incomparables != null) {
-            incompContents = new HashSet<>();
+            incompContents = createSet(incomparables, sameType);
             for (int i = 0; i < incomparables.getLength(); i++) {
-                incompContents.add(incomparables.getDataAtAsObject(i));
+                incompContents.add(incomparables, i);
             }
         } else {
             incompContents = null;
@@ -43,17 +54,15 @@ public class DuplicationHelper {
         dupVec = justIndex ? null : new byte[x.getLength()];
     }
 
-    public boolean doIt(int i) {
-        if (incompContents == null || !incompContents.contains(x.getDataAtAsObject(i))) {
-            if (vectorContents.contains(x.getDataAtAsObject(i))) {
+    private boolean doIt(RAbstractContainer x, int i) {
+        if (incompContents == null || !incompContents.contains(x, i)) {
+            if (vectorContents.add(x, i)) {
                 if (dupVec == null) {
                     index = i + 1;
                     return true;
                 } else {
                     dupVec[i] = RRuntime.LOGICAL_TRUE;
                 }
-            } else {
-                vectorContents.add(x.getDataAtAsObject(i));
             }
         } else {
             if (dupVec != null) {
@@ -73,20 +82,176 @@ public class DuplicationHelper {
 
     @TruffleBoundary
     public static DuplicationHelper analyze(RAbstractContainer x, RAbstractContainer incomparables, boolean justIndex, boolean fromLast) {
-        DuplicationHelper ds = new DuplicationHelper(x, incomparables, justIndex, fromLast);
+        DuplicationHelper ds = new DuplicationHelper(x, incomparables, justIndex);
         if (fromLast) {
-            for (int i = x.getLength() - 2; i >= 0; i--) {
-                if (ds.doIt(i)) {
+            for (int i = x.getLength() - 1; i >= 0; i--) {
+                if (ds.doIt(x, i)) {
                     break;
                 }
             }
         } else {
-            for (int i = 1; i < x.getLength(); i++) {
-                if (ds.doIt(i)) {
+            for (int i = 0; i < x.getLength(); i++) {
+                if (ds.doIt(x, i)) {
                     break;
                 }
             }
         }
         return ds;
     }
+
+    private static ElementSet createSet(RAbstractContainer vector, boolean typed) {
+        if (typed) {
+            if (vector instanceof RAbstractIntVector) {
+                return new IntElementSet();
+            } else if (vector instanceof RAbstractDoubleVector) {
+                return new DoubleElementSet();
+            } else if (vector instanceof RAbstractStringVector) {
+                return new StringElementSet();
+            } else if (vector instanceof RAbstractLogicalVector) {
+                return new LogicalElementSet();
+            } else if (vector instanceof RAbstractComplexVector) {
+                return new ComplexElementSet();
+            } else if (vector instanceof RAbstractRawVector) {
+                return new RawElementSet();
+            }
+        }
+        return new ObjectElementSet();
+    }
+
+    /**
+     * A set of vector elements, {@link #add} returns {@code true} if the element was already
+     * present.
+     */
+    private abstract static class ElementSet {
+        abstract boolean add(RAbstractContainer vector, int i);
+
+        abstract boolean contains(RAbstractContainer vector, int i);
+    }
+
+    private static final class IntElementSet extends ElementSet {
+        private final NonRecursiveHashSetInt set;
+
+        IntElementSet() {
+            set = new NonRecursiveHashSetInt();
+        }
+
+        @Override
+        boolean add(RAbstractContainer vector, int i) {
+            return set.add(((RAbstractIntVector) vector).getDataAt(i));
+        }
+
+        @Override
+        boolean contains(RAbstractContainer vector, int i) {
+            return set.contains(((RAbstractIntVector) vector).getDataAt(i));
+        }
+    }
+
+    private static final class LogicalElementSet extends ElementSet {
+        private final NonRecursiveHashSetInt set;
+
+        LogicalElementSet() {
+            set = new NonRecursiveHashSetInt();
+        }
+
+        @Override
+        boolean add(RAbstractContainer vector, int i) {
+            return set.add(((RAbstractLogicalVector) vector).getDataAt(i));
+        }
+
+        @Override
+        boolean contains(RAbstractContainer vector, int i) {
+            return set.contains(((RAbstractLogicalVector) vector).getDataAt(i));
+        }
+    }
+
+    private static final class RawElementSet extends ElementSet {
+        private final NonRecursiveHashSetInt set;
+
+        RawElementSet() {
+            set = new NonRecursiveHashSetInt();
+        }
+
+        @Override
+        boolean add(RAbstractContainer vector, int i) {
+            return set.add(((RAbstractRawVector) vector).getRawDataAt(i));
+        }
+
+        @Override
+        boolean contains(RAbstractContainer vector, int i) {
+            return set.contains(((RAbstractRawVector) vector).getRawDataAt(i));
+        }
+    }
+
+    private static final class DoubleElementSet extends ElementSet {
+        private final NonRecursiveHashSetDouble set;
+
+        DoubleElementSet() {
+            set = new NonRecursiveHashSetDouble();
+        }
+
+        @Override
+        boolean add(RAbstractContainer vector, int i) {
+            return set.add(((RAbstractDoubleVector) vector).getDataAt(i));
+        }
+
+        @Override
+        boolean contains(RAbstractContainer vector, int i) {
+            return set.contains(((RAbstractDoubleVector) vector).getDataAt(i));
+        }
+    }
+
+    private static final class StringElementSet extends ElementSet {
+        private final NonRecursiveHashSetCharacter set;
+
+        StringElementSet() {
+            set = new NonRecursiveHashSetCharacter();
+        }
+
+        @Override
+        boolean add(RAbstractContainer vector, int i) {
+            return set.add(((RAbstractStringVector) vector).getDataAt(i));
+        }
+
+        @Override
+        boolean contains(RAbstractContainer vector, int i) {
+            return set.contains(((RAbstractStringVector) vector).getDataAt(i));
+        }
+    }
+
+    private static final class ComplexElementSet extends ElementSet {
+        private final NonRecursiveHashSetComplex set;
+
+        ComplexElementSet() {
+            set = new NonRecursiveHashSetComplex();
+        }
+
+        @Override
+        boolean add(RAbstractContainer vector, int i) {
+            RComplex value = ((RAbstractComplexVector) vector).getDataAt(i);
+            return set.add(value.getRealPart(), value.getImaginaryPart());
+        }
+
+        @Override
+        boolean contains(RAbstractContainer vector, int i) {
+            RComplex value = ((RAbstractComplexVector) vector).getDataAt(i);
+            return set.contains(value.getRealPart(), value.getImaginaryPart());
+        }
+    }
+
+    /**
+     * Fallback for lists and other containers and for incomparables of a different type.
+     */
+    private static final class ObjectElementSet extends ElementSet {
+        private final HashSet<Object> set = new HashSet<>();
+
+        @Override
+        boolean add(RAbstractContainer vector, int i) {
+            return !set.add(vector.getDataAtAsObject(i));
+        }
+
+        @Override
+        boolean contains(RAbstractContainer vector, int i) {
+            return set.contains(vector.getDataAtAsObject(i));
+        }
+    }
 }
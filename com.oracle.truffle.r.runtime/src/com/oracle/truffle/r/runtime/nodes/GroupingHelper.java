@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.nodes;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.Collections.NonRecursiveHashMapCharacter;
+import com.oracle.truffle.r.runtime.Collections.NonRecursiveHashMapComplex;
+import com.oracle.truffle.r.runtime.Collections.NonRecursiveHashMapDouble;
+import com.oracle.truffle.r.runtime.Collections.NonRecursiveHashMapInt;
+import com.oracle.truffle.r.runtime.data.model.RAbstractComplexVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractLogicalVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+
+/**
+ * Maps group keys to dense integer codes using the primitive hash maps that also back
+ * {@code match}, so that grouped aggregations like {@code rowsum} can run typed loops over the
+ * codes without boxing the keys. Builtins that already receive dense codes, e.g., {@code tabulate}
+ * (bins) and {@code split} (factor codes), count them directly and do not need this mapping.
+ */
+public final class GroupingHelper {
+
+    private GroupingHelper() {
+        // no instances
+    }
+
+    /**
+     * Returns, for each element of {@code groups}, the 0-based index of the equal element in
+     * {@code levels} or {@code -1} if there is none. The {@code levels} are expected to be free of
+     * duplicates, e.g., the result of {@code unique(groups)}.
+     */
+    @TruffleBoundary
+    public static int[] computeCodes(RAbstractVector groups, RAbstractVector levels) {
+        int n = groups.getLength();
+        int levelCount = levels.getLength();
+        int[] codes = new int[n];
+        if (groups instanceof RAbstractIntVector && levels instanceof RAbstractIntVector) {
+            RAbstractIntVector g = (RAbstractIntVector) groups;
+            RAbstractIntVector l = (RAbstractIntVector) levels;
+            NonRecursiveHashMapInt table = new NonRecursiveHashMapInt(levelCount);
+            for (int i = 0; i < levelCount; i++) {
+                table.put(l.getDataAt(i), i);
+            }
+            for (int i = 0; i < n; i++) {
+                codes[i] = table.get(g.getDataAt(i));
+            }
+        } else if (groups instanceof RAbstractDoubleVector && levels instanceof RAbstractDoubleVector) {
+            RAbstractDoubleVector g = (RAbstractDoubleVector) groups;
+            RAbstractDoubleVector l = (RAbstractDoubleVector) levels;
+            NonRecursiveHashMapDouble table = new NonRecursiveHashMapDouble(levelCount);
+            for (int i = 0; i < levelCount; i++) {
+                table.put(l.getDataAt(i), i);
+            }
+            for (int i = 0; i < n; i++) {
+                codes[i] = table.get(g.getDataAt(i));
+            }
+        } else if (groups instanceof RAbstractStringVector && levels instanceof RAbstractStringVector) {
+            RAbstractStringVector g = (RAbstractStringVector) groups;
+            RAbstractStringVector l = (RAbstractStringVector) levels;
+            NonRecursiveHashMapCharacter table = new NonRecursiveHashMapCharacter(levelCount);
+            for (int i = 0; i < levelCount; i++) {
+                table.put(l.getDataAt(i), i);
+            }
+            for (int i = 0; i < n; i++) {
+                codes[i] = table.get(g.getDataAt(i));
+            }
+        } else if (groups instanceof RAbstractLogicalVector && levels instanceof RAbstractLogicalVector) {
+            RAbstractLogicalVector g = (RAbstractLogicalVector) groups;
+            RAbstractLogicalVector l = (RAbstractLogicalVector) levels;
+            int[] table = new int[256];
+            Arrays.fill(table, -1);
+            for (int i = 0; i < levelCount; i++) {
+                table[l.getDataAt(i) & 0xff] = i;
+            }
+            for (int i = 0; i < n; i++) {
+                codes[i] = table[g.getDataAt(i) & 0xff];
+            }
+        } else if (groups instanceof RAbstractComplexVector && levels instanceof RAbstractComplexVector) {
+            RAbstractComplexVector g = (RAbstractComplexVector) groups;
+            RAbstractComplexVector l = (RAbstractComplexVector) levels;
+            NonRecursiveHashMapComplex table = new NonRecursiveHashMapComplex(levelCount);
+            for (int i = 0; i < levelCount; i++) {
+                table.put(l.getDataAt(i), i);
+            }
+            for (int i = 0; i < n; i++) {
+                codes[i] = table.get(g.getDataAt(i));
+            }
+        } else {
+            HashMap<Object, Integer> table = new HashMap<>();
+            for (int i = 0; i < levelCount; i++) {
+                table.put(levels.getDataAtAsObject(i), i);
+            }
+            for (int i = 0; i < n; i++) {
+                Integer code = table.get(groups.getDataAtAsObject(i));
+                codes[i] = code == null ? -1 : code;
+            }
+        }
+        return codes;
+    }
+}
@@ -28,6 +28,7 @@ import java.util.Collections;
 import java.util.List;
 
 import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.api.source.SourceSection;
 import com.oracle.truffle.r.runtime.ArgumentsSignature;
 import com.oracle.truffle.r.runtime.context.RContext;
@@ -137,36 +138,66 @@ public interface RCodeBuilder<T> {
      * functionality can be used to quickly create new AST snippets for existing code.
      */
     default T process(RSyntaxElement original) {
+        return process(original, (Source) null);
+    }
+
+    /**
+     * Like {@link #process(RSyntaxElement)}, but the source sections of the new AST fragment that
+     * refer to a source with the same content as {@code source} are recreated in {@code source},
+     * so that the new fragment belongs to {@code source} even if the original was parsed from a
+     * different source, e.g., the same file loaded by another context.
+     */
+    default T process(RSyntaxElement original, Source source) {
         return new RSyntaxVisitor<T>() {
 
+            /**
+             * The last source found to have the same content as {@code source}, the sections of a
+             * fragment usually all refer to the same source.
+             */
+            private Source sameContent;
+
+            private SourceSection section(SourceSection section) {
+                if (source == null || section == null || section.getSource() == source || !section.isAvailable()) {
+                    return section;
+                }
+                Source sectionSource = section.getSource();
+                if (sectionSource != sameContent) {
+                    if (!source.getCharacters().toString().equals(sectionSource.getCharacters().toString())) {
+                        return section;
+                    }
+                    sameContent = sectionSource;
+                }
+                return source.createSection(section.getCharIndex(), section.getCharLength());
+            }
+
             @Override
             protected T visit(RSyntaxCall element) {
                 ArrayList<Argument<T>> args = createArguments(element.getSyntaxSignature(), element.getSyntaxArguments());
-                return call(element.getLazySourceSection(), accept(element.getSyntaxLHS()), args);
+                return call(section(element.getLazySourceSection()), accept(element.getSyntaxLHS()), args);
             }
 
             private ArrayList<Argument<T>> createArguments(ArgumentsSignature signature, RSyntaxElement[] arguments) {
                 ArrayList<Argument<T>> args = new ArrayList<>(arguments.length);
                 for (int i = 0; i < arguments.length; i++) {
-                    args.add(RCodeBuilder.argument(arguments[i] == null ? null : arguments[i].getLazySourceSection(), signature.getName(i), arguments[i] == null ? null : accept(arguments[i])));
+                    args.add(RCodeBuilder.argument(arguments[i] == null ? null : section(arguments[i].getLazySourceSection()), signature.getName(i), arguments[i] == null ? null : accept(arguments[i])));
                 }
                 return args;
             }
 
             @Override
             protected T visit(RSyntaxConstant element) {
-                return constant(element.getLazySourceSection(), element.getValue());
+                return constant(section(element.getLazySourceSection()), element.getValue());
             }
 
             @Override
             protected T visit(RSyntaxLookup element) {
-                return lookup(element.getLazySourceSection(), element.getIdentifier(), element.isFunctionLookup());
+                return lookup(section(element.getLazySourceSection()), element.getIdentifier(), element.isFunctionLookup());
             }
 
             @Override
             protected T visit(RSyntaxFunction element) {
                 ArrayList<Argument<T>> params = createArguments(element.getSyntaxSignature(), element.getSyntaxArgumentDefaults());
-                return function(RContext.getInstance().getLanguage(), element.getLazySourceSection(), params, accept(element.getSyntaxBody()), element.getSyntaxDebugName());
+                return function(RContext.getInstance().getLanguage(), section(element.getLazySourceSection()), params, accept(element.getSyntaxBody()), element.getSyntaxDebugName());
             }
         }.accept(original);
     }
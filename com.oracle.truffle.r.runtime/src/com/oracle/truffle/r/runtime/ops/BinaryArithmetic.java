@@ -136,6 +136,11 @@ public abstract class BinaryArithmetic extends Operation {
             return "+";
         }
 
+        @Override
+        public boolean isPure() {
+            return true;
+        }
+
         @Override
         public boolean introducesNA() {
             return introducesNA || introducesOverflow;
@@ -194,6 +199,11 @@ public abstract class BinaryArithmetic extends Operation {
             return "-";
         }
 
+        @Override
+        public boolean isPure() {
+            return true;
+        }
+
         @Override
         public boolean introducesNA() {
             return introducesNA || introducesOverflow;
@@ -252,6 +262,11 @@ public abstract class BinaryArithmetic extends Operation {
             return "*";
         }
 
+        @Override
+        public boolean isPure() {
+            return true;
+        }
+
         @Override
         public boolean introducesNA() {
             return introducesNA;
@@ -301,6 +316,11 @@ public abstract class BinaryArithmetic extends Operation {
             return "/";
         }
 
+        @Override
+        public boolean isPure() {
+            return true;
+        }
+
         @Override
         public int op(int left, int right) {
             throw RInternalError.shouldNotReachHere();
@@ -84,6 +84,11 @@ public abstract class BinaryCompare extends BooleanOperation {
             return "!=";
         }
 
+        @Override
+        public boolean isPure() {
+            return true;
+        }
+
         @Override
         public boolean op(int left, int right) {
             return left != right;
@@ -116,6 +121,11 @@ public abstract class BinaryCompare extends BooleanOperation {
             return "==";
         }
 
+        @Override
+        public boolean isPure() {
+            return true;
+        }
+
         @Override
         public boolean op(int left, int right) {
             return left == right;
@@ -148,6 +158,11 @@ public abstract class BinaryCompare extends BooleanOperation {
             return ">=";
         }
 
+        @Override
+        public boolean isPure() {
+            return true;
+        }
+
         @Override
         public boolean op(int left, int right) {
             return left >= right;
@@ -180,6 +195,11 @@ public abstract class BinaryCompare extends BooleanOperation {
             return ">";
         }
 
+        @Override
+        public boolean isPure() {
+            return true;
+        }
+
         @Override
         public boolean op(int left, int right) {
             return left > right;
@@ -212,6 +232,11 @@ public abstract class BinaryCompare extends BooleanOperation {
             return "<=";
         }
 
+        @Override
+        public boolean isPure() {
+            return true;
+        }
+
         @Override
         public boolean op(int left, int right) {
             return left <= right;
@@ -244,6 +269,11 @@ public abstract class BinaryCompare extends BooleanOperation {
             return "<";
         }
 
+        @Override
+        public boolean isPure() {
+            return true;
+        }
+
         @Override
         public boolean op(int left, int right) {
             return left < right;
@@ -45,6 +45,16 @@ public class Operation extends RBaseNode {
         return associative;
     }
 
+    /**
+     * Returns {@code true} if the operation on {@code double} values is a pure function of its
+     * arguments: it uses no profiles or other node state, raises no warnings or errors and does not
+     * access the context. Only such operations may be applied from threads other than the R
+     * evaluation thread, see {@link com.oracle.truffle.r.runtime.ParallelLoop}.
+     */
+    public boolean isPure() {
+        return false;
+    }
+
     public static RuntimeException handleException(Throwable e) {
         if (e instanceof RError) {
             throw (RError) e;
@@ -111,6 +111,11 @@ public abstract class UnaryArithmetic extends Operation {
             return -op;
         }
 
+        @Override
+        public boolean isPure() {
+            return true;
+        }
+
         @Override
         public int op(byte op) {
             return -(int) op;
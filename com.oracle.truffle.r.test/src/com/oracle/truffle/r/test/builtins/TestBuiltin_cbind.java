@@ -198,4 +198,11 @@ public class TestBuiltin_cbind extends TestBase {
         assertEval(Ignored.ImplementationError, "dput(cbind(substitute(graphics::par), list(as.symbol('a'))))");
         assertEval("typeof(cbind(substitute(graphics::par), list(as.symbol('a'))))");
     }
+
+    @Test
+    public void testManyMatrices() {
+        assertEval("{ do.call(cbind, lapply(1:10, function(i) matrix(i * 1:6, 2))) }");
+        assertEval("{ do.call(cbind, lapply(1:10, function(i) matrix(as.character(i * 1:6), 3))) }");
+        assertEval("{ do.call(cbind, list(matrix(1:4, 2), matrix(c(1.5, 2.5), 2), 7:8, matrix(c(1i, 2i), 2))) }");
+    }
 }
@@ -4,7 +4,7 @@
  * http://www.gnu.org/licenses/gpl-2.0.html
  *
  * Copyright (c) 2012-2014, Purdue University
- * Copyright (c) 2013, 2017, Oracle and/or its affiliates
+ * Copyright (c) 2013, 2018, Oracle and/or its affiliates
  *
  * All rights reserved.
  */
@@ -321,6 +321,23 @@ public class TestBuiltin_deparse extends TestBase {
         assertEval("deparse(list(`x y`=1))");
     }
 
+    @Test
+    public void testDeparseNumericVectors() {
+        assertEval("deparse(c(1, 2, 100000, 123456, -1e5, -123456, 1e14, 123456789012345, 1e15, 0.5, NA, NaN, Inf, -Inf, -0))");
+        assertEval("deparse(c(1L, NA, -100000L, 2147483647L, 5L))");
+        assertEval("deparse(c(1L, NA, 3L), control=NULL)");
+        assertEval("dput(c(3, 1e-20, 1e20, 2^52, 10^(1:16)))");
+        assertEval("{ x <- as.numeric(1:30) * 1000; deparse(x, width.cutoff=20) }");
+    }
+
+    @Test
+    public void testDeparseCached() {
+        assertEval("{ e <- quote(f(x, y = 2)); d1 <- deparse(e); d2 <- deparse(e); e[[3]] <- 3; list(d1, d2, deparse(e), deparse(e, width.cutoff=20)) }");
+        assertEval("{ e <- quote(f(x, y = 2)); deparse(e); e[[1]] <- as.name('g'); deparse(e) }");
+        assertEval("{ f <- function(a, b = 2) a + b; d1 <- deparse(f); d2 <- deparse(f); body(f) <- quote(a * b); list(d1, d2, deparse(f)) }");
+        assertEval("{ f <- function(x) match.call(); e <- f(1 + 2); replicate(3, deparse(e)) }");
+    }
+
     @Test
     public void testIsValidName() {
         assertFalse(RDeparse.isValidName(""));
@@ -52,4 +52,15 @@ public class TestBuiltin_docall extends TestBase {
         assertEval("do.call('c', list())");
         assertEval("{ f <- function() typeof(sys.call(0)[[1]]); do.call('f', list()); }");
     }
+
+    @Test
+    public void testDoCallLongArgumentLists() {
+        assertEval("{ l <- as.list(1:100); do.call('c', l) }");
+        assertEval("{ l <- as.list(1:100); names(l) <- paste0('n', 1:100); x <- do.call(c, l); c(length(x), names(x)[c(1, 100)]) }");
+        assertEval("{ l <- as.list(1:40); sum(do.call('sum', l), do.call(sum, c(l, na.rm = TRUE))) }");
+        assertEval("{ f <- function(a, ..., z = 0) c(a, length(list(...)), z); rbind(do.call(f, as.list(1:30)), do.call(f, c(as.list(1:30), z = 5)), do.call(f, c(z = 7, as.list(1:30)))) }");
+        assertEval("{ f <- function(...) names(list(...)); l <- as.list(1:20); r <- NULL; for (i in 1:3) { names(l) <- if (i == 2) NULL else paste0(letters[i], 1:20); r <- c(r, do.call(f, l)[c(1, 20)]) }; r }");
+        assertEval("{ m <- do.call(rbind, lapply(1:50, function(i) c(i, i^2))); c(dim(m), m[50, ]) }");
+        assertEval("{ s <- 0; for (i in 1:50) s <- s + do.call('max', as.list(seq_len(i))); s }");
+    }
 }
@@ -135,5 +135,17 @@ public class TestBuiltin_duplicated extends TestBase {
         assertEval("{ x<-function() 42; duplicated(x) }");
         assertEval(Output.IgnoreErrorContext, "{ duplicated(c(1,2,1), incomparables=function() 42) }");
 
+        // NA, NaN and signed zeros
+        assertEval("{ duplicated(c(NA, NaN, 0, -0, NA, NaN, 1)) }");
+        assertEval("{ duplicated(c(NA, NaN, 0, -0, NA, NaN, 1), fromLast = TRUE) }");
+        assertEval("{ duplicated(c(NA_integer_, 0L, NA_integer_, 0L)) }");
+        assertEval("{ duplicated(c(\"NA\", NA, \"NA\", NA)) }");
+        assertEval("{ duplicated(c(NA, 1+NA*1i, NaN+0i, complex(real=NaN, imaginary=0), -0+0i, 0+0i)) }");
+        assertEval("{ duplicated(c(NA, NaN, NA, NaN), incomparables = NA) }");
+        assertEval("{ anyDuplicated(c(NA, NaN, 1, 2)) }");
+        assertEval("{ anyDuplicated(c(-0, 1, 0)) }");
+        assertEval("{ x <- rep(1:1000, 2); anyDuplicated(x); sum(duplicated(x)) }");
+        assertEval("{ x <- as.character(rep(1:1000, 2)); anyDuplicated(x); sum(duplicated(x, fromLast = TRUE)) }");
+
     }
 }
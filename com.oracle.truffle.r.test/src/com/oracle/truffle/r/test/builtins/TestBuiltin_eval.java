@@ -74,4 +74,17 @@ public class TestBuiltin_eval extends TestBase {
         assertEval("eval(parse(text='x<-1'))");
         assertEval("eval(parse(text='1+1'))");
     }
+
+    @Test
+    public void testEvalConstructedCalls() {
+        // structurally equal calls share their closure, they must still see their own constants
+        assertEval("{ f <- function(x, y = 0) x - y; c(eval(call('f', 1)), eval(call('f', 2)), eval(call('f', 1L)), eval(call('f', NA_real_)), eval(call('f', NaN))) }");
+        assertEval("{ f <- function(x, y = 0) x - y; c(eval(call('f', 1, 2)), eval(call('f', y = 1, 2)), eval(call('f', x = 1, y = 2))) }");
+        assertEval("{ x <- 1; y <- 10; c(eval(as.call(list(as.name('+'), as.name('x'), 1))), eval(as.call(list(as.name('+'), as.name('y'), 1)))) }");
+        assertEval("{ c(eval(call('paste0', 'a', NA_character_)), eval(call('paste0', 'a', 'NA'))) }");
+        assertEval("{ s <- 0; for (i in 1:100) s <- s + eval(as.call(list(as.name('sum'), i, as.call(list(as.name('-'), i))))) + eval(call('sqrt', i^2)); s }");
+        assertEval("{ f <- function(x) x * 2; g <- function(x) x * 3; c(eval(as.call(list(f, 5))), eval(as.call(list(g, 5)))) }");
+        assertEval("{ e1 <- new.env(); e2 <- new.env(); assign('v', 1, e1); assign('v', 2, e2); c(eval(call('get', 'v', e1)), eval(call('get', 'v', e2))) }");
+        assertEval("{ l <- quote(f(1)); f <- function(x) x; r1 <- eval(l); l[[2]] <- 2; r2 <- eval(l); l[[1]] <- as.name('sqrt'); l[[2]] <- 16; c(r1, r2, eval(l)) }");
+    }
 }
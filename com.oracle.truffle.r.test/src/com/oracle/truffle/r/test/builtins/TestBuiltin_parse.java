@@ -67,6 +67,14 @@ public class TestBuiltin_parse extends TestBase {
         assertEval("parse(text='', srcfile=srcfile(system.file('testfile')))");
     }
 
+    @Test
+    public void testRepeatedParse() {
+        assertEval("for (i in 1:3) print(eval(parse(text='f <- function(x) { x[2] <- i; x * 2 }; f(c(1, 2, 3))')))");
+        assertEval("for (i in 1:3) { e <- parse(text='g <- function(a = 1) a + 1'); print(e[[1]]); eval(e); print(g(i)) }");
+        assertEval("x <- parse(text='1 + 2'); y <- parse(text='1 + 2'); identical(x[[1]], y[[1]])");
+        assertEval("for (i in 1:2) { e <- parse(text = 'h <- function(y) {\\n  y * 2 # twice\\n}', keep.source = TRUE); eval(e); print(h); print(h(i)) }");
+    }
+
     @Test
     public void testParseData() {
         assertEvalFastR("p <- parse(text = 'x = 1', keep.source = TRUE); attr(p, 'srcfile')$parseData",
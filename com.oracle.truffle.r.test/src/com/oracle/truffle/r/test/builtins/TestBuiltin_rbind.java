@@ -160,4 +160,28 @@ public class TestBuiltin_rbind extends TestBase {
         assertEval("dput(rbind(integer(0)))");
         assertEval("dput(rbind(integer(0), NULL, NULL))");
     }
+
+    @Test
+    public void testManyDataFrames() {
+        assertEval("{ x <- do.call(rbind, lapply(1:20, function(i) data.frame(a=i, b=as.character(i), c=i/2, d=i %% 2 == 0, stringsAsFactors=FALSE))); dput(x) }");
+        assertEval("{ x <- do.call(rbind, lapply(c('b', 'a', 'c', 'a'), function(l) data.frame(f=factor(c(l, 'z')), n=1:2))); dput(x); levels(x$f) }");
+        assertEval("{ x <- rbind(data.frame(f=factor(c('lo', 'hi'), levels=c('lo', 'hi'), ordered=TRUE)), data.frame(f=factor('mid', ordered=TRUE))); dput(x) }");
+        assertEval("{ x <- rbind(data.frame(f=factor(c('lo', 'hi'), ordered=TRUE)), data.frame(f=factor('mid'))); dput(x) }");
+        assertEval("{ dput(rbind(data.frame(a=1:2, b=c('x', 'y')), NULL, data.frame(a=integer(0), b=character(0)), data.frame(a=3L, b='z'))) }");
+        assertEval("{ dput(rbind(data.frame(a=1:2), data.frame(a=c(1.5, NA)), data.frame(a=NA))) }");
+        assertEval("{ x <- rbind(data.frame(f=factor(character(0), levels=c('x', 'y'))), data.frame(f=factor('z'))); dput(x); levels(x$f) }");
+        assertEval("{ dput(rbind(data.frame(a=integer(0)), data.frame(a=1.5), data.frame(a=2.5))) }");
+        assertEval("{ dput(rbind(data.frame(a=character(0), stringsAsFactors=FALSE), data.frame(a=factor(c('u', 'v'))))) }");
+        assertEval("{ dput(rbind(data.frame(a=1:2, b=3:4), data.frame(b=5L, a=6L))) }");
+        assertEval("{ dput(rbind(data.frame(a=1:2, row.names=c('r1', 'r2')), data.frame(a=3L))) }");
+        assertEval("{ dput(rbind(data.frame(a=1:2), data.frame(a=3L), list(a=4L))) }");
+    }
+
+    @Test
+    public void testManyMatrices() {
+        assertEval("{ do.call(rbind, lapply(1:10, function(i) matrix(i * 1:6, 2))) }");
+        assertEval("{ do.call(rbind, lapply(1:10, function(i) matrix(as.character(i * 1:6), 3))) }");
+        assertEval("{ do.call(rbind, list(matrix(1:4, 2), matrix(c(1.5, 2.5), 1), matrix(c(TRUE, NA), 1))) }");
+        assertEval("{ do.call(rbind, list(matrix(1:4, 2), 7:8, matrix(c(1i, 2i), 1))) }");
+    }
 }
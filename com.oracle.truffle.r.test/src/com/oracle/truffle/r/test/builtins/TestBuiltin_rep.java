@@ -4,7 +4,7 @@
  * http://www.gnu.org/licenses/gpl-2.0.html
  *
  * Copyright (c) 2012-2014, Purdue University
- * Copyright (c) 2013, 2017, Oracle and/or its affiliates
+ * Copyright (c) 2013, 2018, Oracle and/or its affiliates
  *
  * All rights reserved.
  */
@@ -241,5 +241,19 @@ public class TestBuiltin_rep extends TestBase {
         assertEval("{ rep(paste0('hello', 1:10), 1:10) }");
 
         assertEval("rep(' ', 20L, collapse = ' ')");
+
+        assertEval("{ x <- rep(3L, 5); x[2] <- 7L; x }");
+        assertEval("{ x <- rep(2.5, 4); x + 1 }");
+        assertEval("{ x <- rep(NA_integer_, 3); x }");
+        assertEval("{ x <- rep(NaN, 3); x }");
+        assertEval("{ match(c(1L, 3L, 3L), rep(3L, 4)) }");
+        assertEval("{ x <- rep(1, length.out=3); dim(x) <- c(1, 3); x }");
+        assertEval("{ x <- 1:5; x[rep(2L, 3)] <- 9L; x }");
+        assertEval("{ x <- 1:5; x[cummax(3:1)] <- 9L; x }");
+        assertEval("{ x <- 1:5; x[cummax(4:2)] <- c(7L, 8L, 9L); x }");
+        assertEval("{ x <- rep(3L, 100000); x[2] <- 7L; c(typeof(x), length(x), sum(x), x[1:3]) }");
+        assertEval("{ x <- rep(2.5, length.out=100000); c(sum(x * 2), match(2.5, x), x[100000]) }");
+        assertEval("{ x <- rep(NA_real_, 100000); c(anyNA(x), sum(is.na(x))) }");
+        assertEval("{ x <- rep(1, 100000); y <- x; y[5] <- 0; c(sum(x), sum(y)) }");
     }
 }
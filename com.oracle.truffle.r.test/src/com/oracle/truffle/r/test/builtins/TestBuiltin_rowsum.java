@@ -59,6 +59,18 @@ public class TestBuiltin_rowsum extends TestBase {
         assertEval("argv <- list(structure(c(1.33333333333333, -1.33333333333333, 1, 1.33333333333333, -2, 0.666666666666667, -0.666666666666667, 0.666666666666667, -0.666666666666667), .Dim = c(9L, 1L), .Dimnames = list(c('1', '2', '3', '4', '5', '6', '7', '8', '9'), 'x')), structure(c(1, 1, 2, 2, 2, 2, 3, 4, 5), .Names = c('1', '2', '3', '4', '5', '6', '7', '8', '9')), c(1, 2, 3, 4, 5), FALSE, c('1', '2', '3', '4', '5')); .Internal(rowsum_matrix(argv[[1]], argv[[2]], argv[[3]], argv[[4]], argv[[5]]))");
     }
 
+    @Test
+    public void testRowsumGroups() {
+        assertEval("rowsum(1:10, c(2,1,2,1,3,3,2,1,2,1))");
+        assertEval("rowsum(c(1,NA,3,4,5), c('a','b','a','b','c'))");
+        assertEval("rowsum(c(1,NA,3,4,5), c('a','b','a','b','c'), na.rm=TRUE)");
+        assertEval("rowsum(c(1L,NA,3L,4L,5L), c(TRUE,FALSE,TRUE,NA,NA))");
+        assertEval("rowsum(c(.Machine$integer.max, 1L, 2L), c(1,1,2))");
+        assertEval("rowsum(matrix(1:12, 4, dimnames=list(NULL, c('x','y','z'))), factor(c('b','a','b','c')))");
+        assertEval("rowsum(c(1,2,3,4), c(0,-0,NaN,NA))");
+        assertEval("rowsum(matrix(as.double(1:60000), ncol=6), rep(1:100, 100))");
+    }
+
     @Test
     public void testRowsumArgCoverage() {
         assertEval("x <- matrix(1:10, ncol=2); g <- c(1,2,3,2,1); ug <-unique(g); .Internal(rowsum_matrix(x, g, ug, FALSE, as.character(ug)))");
@@ -41,10 +41,7 @@ public class TestBuiltin_split extends TestBase {
 
     @Test
     public void testsplit5() {
-        // FIXME ArrayIndexOutOfBoundsException: 2147483647
-        // at com.oracle.truffle.r.nodes.builtin.base.Split.split(Split.java:152)
-        assertEval(Ignored.ImplementationError,
-                        "argv <- list(c(1, 3, 5, 7, 8, 3, 5, NA, 4, 5, 7, 9), structure(c(8L, 6L, 3L, 2L, NA, 5L, 1L, 4L, 7L, 3L, NA, NA), .Label = c('0', '2', '6', '8', '15', '22', '29', '35'), class = 'factor')); .Internal(split(argv[[1]], argv[[2]]))");
+        assertEval("argv <- list(c(1, 3, 5, 7, 8, 3, 5, NA, 4, 5, 7, 9), structure(c(8L, 6L, 3L, 2L, NA, 5L, 1L, 4L, 7L, 3L, NA, NA), .Label = c('0', '2', '6', '8', '15', '22', '29', '35'), class = 'factor')); .Internal(split(argv[[1]], argv[[2]]))");
     }
 
     @Test
@@ -119,11 +116,14 @@ public class TestBuiltin_split extends TestBase {
         assertEval("{ x <- factor(c(\"a\", \"b\", \"a\")); attr(x, \"levels\")<-c(7L, 42L) ; split(1:3, x) }");
         assertEval("{ split(list(1, 2L, 'x', T), as.factor(c('a', 'b', 'a')); }");
         assertEval("{ split(as.raw(1:10), as.factor(c('a', 'b', 'a')); }");
+        assertEval("{ split(c(1+2i, 3-1i, NA, 4i), factor(c('x', NA, 'y', 'x'), levels=c('x', 'y', 'z'))) }");
+        assertEval("{ x <- split(1:100000, rep(1:1000, 100)); c(length(x), length(x[[1]]), x[[1000]][1:3]) }");
     }
 
     @Test
     public void testSplitWithNames() {
         assertEval("{ split(list(q=1, w=2L, e='x', r=T), as.factor(c('a', 'b', 'a')); }");
-        assertEval(Ignored.Unimplemented, "{ tmp <- c(1,2,3); names(tmp) <- c('x','y','z'); split(tmp, as.factor(c('a','b'))); }");
+        assertEval("{ tmp <- c(1,2,3); names(tmp) <- c('x','y','z'); split(tmp, as.factor(c('a','b'))); }");
+        assertEval("{ tmp <- 1:5; names(tmp) <- letters[1:5]; split(tmp, factor(c('a',NA,'b','a',NA))); }");
     }
 }
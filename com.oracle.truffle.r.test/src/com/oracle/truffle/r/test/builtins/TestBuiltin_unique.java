@@ -193,6 +193,10 @@ public class TestBuiltin_unique extends TestBase {
         assertEval(Ignored.ReferenceError, "{ unique(c(1,2,1), incomparables=function() 42) }");
 
         assertEval("{ unique(c(-0.0, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1)) }");
+        assertEval("{ unique(c(NA, NaN, NA, NaN, 1, -0, 0)) }");
+        assertEval("{ unique(c(NA, \"NA\", NA, \"a\", \"NA\")) }");
+        assertEval("{ unique(c(NA, 1+NA*1i, NaN+0i, 1+1i, 1+1i)) }");
+        assertEval("{ length(unique(rep(1:10000, 3))) }");
 
     }
 }
@@ -4,7 +4,7 @@
  * http://www.gnu.org/licenses/gpl-2.0.html
  *
  * Copyright (c) 2012-2014, Purdue University
- * Copyright (c) 2013, 2017, Oracle and/or its affiliates
+ * Copyright (c) 2013, 2018, Oracle and/or its affiliates
  *
  * All rights reserved.
  */
@@ -72,6 +72,19 @@ public class TestBuiltin_vector extends TestBase {
         assertEval("{  vector(\"numeric\", c(7, 42)) }");
     }
 
+    @Test
+    public void testVectorZeroFilled() {
+        assertEval("{ x <- numeric(5); x[3] <- 1; x }");
+        assertEval("{ x <- integer(3); names(x) <- c('a', 'b', 'c'); x }");
+        assertEval("{ x <- vector('double', 4); sum(x + 2) }");
+        assertEval("{ x <- integer(0); x }");
+        assertEval("{ x <- integer(4); match(0L, x) }");
+        assertEval("{ x <- numeric(100000); x[3] <- 1; c(length(x), sum(x), x[2:4]) }");
+        assertEval("{ x <- integer(100000); x[100000] <- 2L; c(typeof(x), sum(x), match(2L, x)) }");
+        assertEval("{ x <- vector('double', 70000); dim(x) <- c(7, 10000); c(dim(x), sum(x + 1)) }");
+        assertEval("{ x <- numeric(70000); y <- x; y[1] <- 1; c(sum(x), sum(y)) }");
+    }
+
     @Test
     public void testVectorWithPairlist() {
         assertEval("vector('pairlist', 0)");
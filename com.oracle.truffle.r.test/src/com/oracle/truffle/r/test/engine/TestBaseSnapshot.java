@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.engine;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Source;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.truffle.r.runtime.FastROptions;
+
+/**
+ * Checks that a base environment restored from a base snapshot matches one created by evaluating
+ * the base package loader.
+ */
+public class TestBaseSnapshot {
+
+    /**
+     * Describes every binding of the base environment by its name, type and deparsed value.
+     */
+    private static final Source DESCRIBE_BASE = Source.newBuilder("R", "{ e <- baseenv(); n <- sort(ls(e, all.names = TRUE)); " +
+                    "paste(n, vapply(n, function(x) { v <- get(x, envir = e); paste(typeof(v), paste(deparse(v), collapse = '\\n')) }, ''), collapse = '\\n') }",
+                    "<describe base>").internal(true).buildLiteral();
+
+    private Path snapshot;
+
+    @Before
+    public void before() throws IOException {
+        snapshot = Files.createTempFile("TestBaseSnapshot", ".snapshot");
+        Files.delete(snapshot);
+        FastROptions.setValue("BaseSnapshot", snapshot.toString());
+    }
+
+    @After
+    public void after() throws IOException {
+        FastROptions.setValue("BaseSnapshot", "");
+        Files.deleteIfExists(snapshot);
+    }
+
+    private static String describeBase() {
+        try (Context context = Context.newBuilder("R").allowAllAccess(true).build()) {
+            return context.eval(DESCRIBE_BASE).asString();
+        }
+    }
+
+    @Test
+    public void testRoundTrip() {
+        String loaded = describeBase();
+        File file = snapshot.toFile();
+        assertTrue("snapshot was not written", file.isFile());
+        // a restored snapshot is not rewritten, so the modification time stays
+        assertTrue(file.setLastModified(0));
+
+        String restored = describeBase();
+        assertEquals("snapshot was not restored", 0, file.lastModified());
+        assertEquals(loaded, restored);
+    }
+
+    @Test
+    public void testStaleStamps() throws IOException {
+        String loaded = describeBase();
+        byte[] written = Files.readAllBytes(snapshot);
+        // keep the magic and version lines of the first block, replace the size and time stamps
+        String text = new String(written, StandardCharsets.ISO_8859_1);
+        int stamps = text.indexOf('\n', text.indexOf('\n') + 1) + 1;
+        int end = text.indexOf("\n\n") + 2;
+        byte[] modified = (text.substring(0, stamps) + "stale 0 0\n\n" + text.substring(end)).getBytes(StandardCharsets.ISO_8859_1);
+        Files.write(snapshot, modified);
+
+        // the digests still match, so the snapshot is restored and its stamps are updated
+        String restored = describeBase();
+        assertEquals(loaded, restored);
+        assertArrayEquals(written, Files.readAllBytes(snapshot));
+    }
+}
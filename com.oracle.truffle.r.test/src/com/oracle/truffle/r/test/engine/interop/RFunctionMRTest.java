@@ -32,6 +32,7 @@ import org.junit.Test;
 import com.oracle.truffle.api.interop.ForeignAccess;
 import com.oracle.truffle.api.interop.Message;
 import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.r.runtime.data.RFunction;
 import com.oracle.truffle.r.test.generate.FastRSession;
 
@@ -64,6 +65,19 @@ public class RFunctionMRTest extends AbstractMRTest {
         assertTrue(ForeignAccess.sendExecute(Message.createExecute(1).createNode(), f, 123) instanceof Short);
     }
 
+    @Test
+    public void testExecuteRepeatedly() throws Exception {
+        RFunction f = create("function(a, b = 10L) { a + b }");
+        Node execute = Message.createExecute(2).createNode();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i + 1, ForeignAccess.sendExecute(execute, f, i, 1));
+        }
+        assertEquals(3.5, ForeignAccess.sendExecute(execute, f, 1.5, 2));
+        assertTrue(ForeignAccess.sendExecute(execute, f, true, 0) instanceof Integer);
+        // different number of arguments through the same node
+        assertEquals(15, ForeignAccess.sendExecute(execute, f, 5));
+    }
+
     @Override
     protected TruffleObject[] createTruffleObjects() {
         return new TruffleObject[]{create("function() {}")};
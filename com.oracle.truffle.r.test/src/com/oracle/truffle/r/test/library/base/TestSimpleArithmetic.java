@@ -4,7 +4,7 @@
  * http://www.gnu.org/licenses/gpl-2.0.html
  *
  * Copyright (c) 2012-2014, Purdue University
- * Copyright (c) 2013, 2017, Oracle and/or its affiliates
+ * Copyright (c) 2013, 2018, Oracle and/or its affiliates
  *
  * All rights reserved.
  */
@@ -291,6 +291,34 @@ public class TestSimpleArithmetic extends TestBase {
         assertEval("3 ** 4");
     }
 
+    @Test
+    public void testVectorsNestedOperations() {
+        assertEval("{ f <- function(a, b, c, d, e) a * b + c * d - e; x <- c(1, 2, 3); f(x, x, 2, x, 1); f(x, c(NA, 1, NaN), x, x, 2); f(x, 1:3, x, x, 1) }");
+        assertEval("{ f <- function(a, b, c) (a - b) / c + 1; f(c(1, 2, 3), c(3, 2, 1), c(0, 2, NaN)); f(c(1, 2), c(3, 2, 1), 2) }");
+        assertEval("{ f <- function(a, b) a * b + a; f(c(x = 1, y = 2), c(3, 4)); f(c(1, 2), c(3, 4)); f(structure(c(1, 2), class = 'foo'), c(3, 4)) }");
+        assertEval("{ f <- function(a, b) a * b + a; f(c(1, 2), c(3, 4)); `*` <- function(a, b) 42; f(c(1, 2), c(3, 4)) }");
+        assertEval("{ f <- function(a, b) a + b * 2; `*` <- function(x, y) { cat('times\\n'); 10 }; f({ cat('a\\n'); c(1, 2) }, { cat('b\\n'); c(3, 4) }) }");
+        assertEval("{ h <- function() { f <- function(a, b) a + b * 2; e <- environment(); f({ assign('*', function(x, y) 42, envir = e); c(1, 2) }, c(3, 4)) }; h() }");
+        assertEval("{ f <- function(a, b) (a - b) * 2 + 1; f(c(1, 2), c('x', 'y')) }");
+        assertEval("{ f <- function(a, b) a * b + 1; f(c(1, 2, 3), c(1, 2)) }");
+        assertEval("{ f <- function(a, b) a * b + a / b - 2; x <- c(1, 2, 3); y <- c(4, NA, 6); list(f(x, y), f(1, 2), f(x, 2), f(1L, 2L), f(x, 1:3), f(x, y)) }");
+        assertEval("{ f <- function(a, b) a * (b + a) / (a - b); list(f(c(1, 2, 3), c(3, 2, 1)), f(c(1, 2, 3), c(1, 2)), f(c(1, 2, 3), c(3, 2, 1))) }");
+        assertEval("{ cnt <- 0; makeActiveBinding('b', function() { cnt <<- cnt + 1; structure(c(1, 2, 3), class = 'foo') }, environment()); a <- c(1, 2, 3); x <- a * b + a; print(unclass(x)); cnt }");
+        assertEval("{ cnt <- 0; makeActiveBinding('i', function() { cnt <<- cnt + 1; 1:3 }, environment()); a <- c(1, 2, 3); x <- a * i + 1; y <- a * i + 1; print(x + y); cnt }");
+        assertEval("{ Ops.foo <- function(e1, e2) { cat('Ops.foo', .Generic, '\\n'); 42 }; a <- c(1, 2); b <- structure(c(1, 2), class = 'foo'); a * b + a }");
+    }
+
+    @Test
+    public void testLargeVectorsOperations() {
+        // above the default threshold for the parallel loops
+        assertEval("{ x <- seq(0.5, by = 1, length.out = 2e6); z <- x * c(1, 2, NA, NaN); list(length(z), sum(is.na(z)), sum(is.nan(z)), z[1:8], anyNA(z), anyNA(x * 2)) }");
+        assertEval("{ x <- as.double(1:2000001); z <- x + c(1, 2); list(length(z), z[1:3], z[2000001]) }");
+        assertEval("{ x <- c(as.double(1:1999999), NA, NaN); s <- x > 1000; list(sum(s, na.rm = TRUE), sum(is.na(s)), s[1000:1001]) }");
+        assertEval("{ x <- c(as.double(1:1999999), NA); y <- -x; list(y[1:3], sum(is.na(y)), sum(exp(-x / 1e6), na.rm = TRUE)) }");
+        assertEval("{ x <- matrix(as.double(1:2000000), 1000); y <- x / 2 - x; list(dim(y), y[1:3, 1]) }");
+        assertEval("{ x <- 1:2000000 + 0.5; y <- x * x; list(y[1:3], y[2000000]) }");
+    }
+
     @Test
     public void testVectorsOperationsComplex() {
         assertEval("{ a <- c(1+1i,3+2i) ; a - (4+3i) }");
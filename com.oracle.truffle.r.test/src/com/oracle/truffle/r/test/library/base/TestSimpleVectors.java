@@ -2379,6 +2379,9 @@ public class TestSimpleVectors extends TestBase {
 
         assertEval("{ mp<-getOption(\"max.print\"); options(max.print=3); x<-c(1,2,3,4,5); print(x); options(max.print=mp) }");
         assertEval("{ mp<-getOption(\"max.print\"); options(max.print=3); x<-c(1,2,3,4,5); attr(x, \"foo\")<-\"foo\"; print(x); options(max.print=mp) }");
+        assertEval("{ mp<-getOption(\"max.print\"); options(max.print=3); x<-c(a=1,b=2,c=3,d=4,e=5); print(x); options(max.print=mp) }");
+        assertEval("{ mp<-getOption(\"max.print\"); options(max.print=3); x<-c(a=1,b=2,c=3,d=1234567,e=5); print(x); options(max.print=mp) }");
+        assertEval("{ mp<-getOption(\"max.print\"); options(max.print=4); x<-c(1,22,333,4444,55555); names(x)<-c(\"a\",\"b\",\"c\",\"d\",\"eeeeeeee\"); print(x); options(max.print=mp) }");
 
         assertEval("{ x<-integer(0); dim(x)<-c(1, 0, 0); x }");
         assertEval("{ x<-integer(0); dim(x)<-c(1, 0, 0, 2); x }");
@@ -291,6 +291,14 @@ public class TestJavaInterop extends TestBase {
         assertEvalFastR(CREATE_TRUFFLE_OBJECT + " v <- .fastr.interop.fromArray(to$hasNullIntArray); v[3]", "list(3)");
 
         assertEvalFastR("ja <- new(java.type('java.lang.String[]'), 0L); .fastr.interop.fromArray(ja)", "list()");
+
+        assertEvalFastR("x <- as.double(1:100000); identical(.fastr.interop.fromArray(.fastr.interop.asJavaArray(x)), x)", "TRUE");
+        assertEvalFastR("x <- c(1:100000, NA); identical(.fastr.interop.fromArray(.fastr.interop.asJavaArray(x)), x)", "TRUE");
+        assertEvalFastR("x <- c('a', NA, 'c'); identical(.fastr.interop.fromArray(.fastr.interop.asJavaArray(x)), x)", "TRUE");
+        assertEvalFastR("x <- c(TRUE, FALSE); identical(.fastr.interop.fromArray(.fastr.interop.asJavaArray(x)), x)", "TRUE");
+        assertEvalFastR(".fastr.interop.fromArray(.fastr.interop.asJavaArray(as.raw(c(0, 1, 127, 128, 255))))", "c(0L, 1L, 127L, -128L, -1L)");
+        assertEvalFastR(CREATE_TRUFFLE_OBJECT + " v <- .fastr.interop.fromArray(to$fieldStaticByteArray); v", "c(1L, 2L, 3L)");
+        assertEvalFastR("a <- .fastr.interop.asJavaArray(c(1.5, 2.5)); v <- .fastr.interop.fromArray(a); a[1] <- 3; v", "c(1.5, 2.5)");
     }
 
     public void testAsVectorFromArray(String field, String type) {
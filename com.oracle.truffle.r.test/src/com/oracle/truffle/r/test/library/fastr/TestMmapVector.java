@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.library.fastr;
+
+import org.junit.Test;
+
+import com.oracle.truffle.r.test.TestBase;
+
+// Checkstyle: stop line length check
+public class TestMmapVector extends TestBase {
+
+    @Test
+    public void testMmapVector() {
+        assertEvalFastR("{ f <- tempfile(); writeBin(c(1.5, 2.5, 3.5), f); x <- .fastr.mmap.vector(f, 'double'); res <- sum(x * 2); unlink(f); res }", "15");
+        assertEvalFastR("{ f <- tempfile(); writeBin(1:10, f); x <- .fastr.mmap.vector(f, 'integer', 4L); res <- x[2:3]; unlink(f); res }", "2:3");
+        // read-only mapping is copied on modification and the file stays untouched
+        assertEvalFastR("{ f <- tempfile(); writeBin(c(1, 2), f); x <- .fastr.mmap.vector(f); x[1] <- 42; res <- readBin(f, 'double', 2); unlink(f); c(x, res) }", "c(42, 2, 1, 2)");
+        // writable mapping writes through to the file
+        assertEvalFastR("{ f <- tempfile(); writeBin(c(1, 2), f); x <- .fastr.mmap.vector(f, readonly=FALSE); x[2] <- 7; res <- readBin(f, 'double', 2); unlink(f); res }", "c(1, 7)");
+        assertEvalFastR("{ f <- tempfile(); writeBin(c(1, 2), f); res <- tryCatch(.fastr.mmap.vector(f, 'character'), error=function(e) 'error'); unlink(f); res }", "'error'");
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.library.stats;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.nmath.MathFunctions;
+import com.oracle.truffle.r.runtime.nmath.MathFunctions.Function4_2;
+import com.oracle.truffle.r.runtime.nmath.distr.DGamma;
+import com.oracle.truffle.r.runtime.nmath.distr.DNorm;
+import com.oracle.truffle.r.runtime.nmath.distr.PGamma;
+import com.oracle.truffle.r.runtime.nmath.distr.Pnorm;
+import com.oracle.truffle.r.runtime.nmath.distr.QGamma;
+import com.oracle.truffle.r.runtime.nmath.distr.Qnorm;
+
+/**
+ * Checks that the batch evaluation of the distribution functions (see
+ * {@link Function4_2#evaluate(double[], double[], double[], double[], boolean, boolean, double[], int, int)})
+ * gives exactly the results of the scalar functions.
+ */
+public class TestDistributionBatch {
+
+    private static final double[] SPECIAL = {RRuntime.DOUBLE_NA, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 0, -0.0, 1, -1, 0.5, 1e-300, 1e300};
+
+    private static Function4_2[] functions() {
+        return new Function4_2[]{new DNorm(), new Pnorm(), new Qnorm(), new DGamma(), new PGamma(), new QGamma()};
+    }
+
+    private static double[] values(Random random, int length, boolean probabilities) {
+        double[] values = new double[length];
+        for (int i = 0; i < length; i++) {
+            if (random.nextInt(5) == 0) {
+                values[i] = SPECIAL[random.nextInt(SPECIAL.length)];
+            } else if (probabilities) {
+                values[i] = random.nextBoolean() ? random.nextDouble() : -30 * random.nextDouble();
+            } else {
+                values[i] = 3 * random.nextGaussian() + 2;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Evaluates the scalar function element by element, like the vectorized nodes used to.
+     */
+    private static void evaluateScalar(Function4_2 function, double[] a, double[] b, double[] c, boolean x, boolean y, double[] result) {
+        for (int i = 0; i < result.length; i++) {
+            double av = a[i % a.length];
+            double bv = b[i % b.length];
+            double cv = c[i % c.length];
+            if (Double.isNaN(av) || Double.isNaN(bv) || Double.isNaN(cv)) {
+                result[i] = MathFunctions.naOrNaN(av, bv, cv, 1);
+            } else {
+                result[i] = function.evaluate(av, bv, cv, 1, x, y);
+            }
+        }
+    }
+
+    private static void assertSame(String message, double expected, double actual) {
+        if (Double.isNaN(expected) && !RRuntime.isNA(expected)) {
+            Assert.assertTrue(message, Double.isNaN(actual) && !RRuntime.isNA(actual));
+        } else {
+            Assert.assertEquals(message, Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(actual));
+        }
+    }
+
+    @Test
+    public void testSameResults() {
+        Random random = new Random(42);
+        double[] d = {1};
+        for (Function4_2 function : functions()) {
+            boolean quantile = function instanceof Qnorm || function instanceof QGamma;
+            for (int trial = 0; trial < 200; trial++) {
+                double[] a = values(random, 1 + random.nextInt(40), quantile);
+                // mostly scalar parameters, which take the fast paths
+                double[] b = values(random, random.nextInt(4) == 0 ? 2 : 1, false);
+                double[] c = values(random, random.nextInt(4) == 0 ? 3 : 1, false);
+                int length = Math.max(a.length, Math.max(b.length, c.length));
+                for (int flags = 0; flags < 4; flags++) {
+                    boolean x = (flags & 1) != 0;
+                    boolean y = (flags & 2) != 0;
+                    double[] expected = new double[length];
+                    evaluateScalar(function, a, b, c, x, y, expected);
+                    double[] actual = new double[length];
+                    int split = length / 2;
+                    function.evaluate(a, b, c, d, x, y, actual, 0, split);
+                    function.evaluate(a, b, c, d, x, y, actual, split, length);
+                    for (int i = 0; i < length; i++) {
+                        assertSame(function.getClass().getSimpleName() + " at " + a[i % a.length] + ", " + b[i % b.length] + ", " + c[i % c.length], expected[i], actual[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFlags() {
+        double[] d = {1};
+        double[] result = new double[3];
+        Assert.assertEquals(0, new Pnorm().evaluate(new double[]{0, 1, 2}, new double[]{0}, new double[]{1}, d, true, false, result, 0, 3));
+        Assert.assertEquals(MathFunctions.BATCH_NA, new Pnorm().evaluate(new double[]{0, RRuntime.DOUBLE_NA, Double.NaN}, new double[]{0}, new double[]{1}, d, true, false, result, 0, 3));
+        Assert.assertTrue(RRuntime.isNA(result[1]));
+        Assert.assertEquals(MathFunctions.BATCH_NAN_PRODUCED, new Qnorm().evaluate(new double[]{0.5, 2, 0.1}, new double[]{0}, new double[]{1}, d, true, false, result, 0, 3));
+        Assert.assertEquals(MathFunctions.BATCH_NAN_PRODUCED, new Pnorm().evaluate(new double[]{0, 1, 2}, new double[]{0}, new double[]{-1}, d, true, false, result, 0, 3));
+    }
+}
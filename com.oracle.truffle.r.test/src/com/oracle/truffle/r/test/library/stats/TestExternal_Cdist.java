@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.library.stats;
+
+import org.junit.Test;
+
+import com.oracle.truffle.r.test.TestBase;
+
+public class TestExternal_Cdist extends TestBase {
+    @Test
+    public void testCdist() {
+        String[] methods = new String[]{"euclidean", "maximum", "manhattan", "canberra", "binary", "minkowski"};
+        assertEval(template("dist(matrix(c(1,0,3,-2,5,0,7,8,0,1,NA,4), 4), method='%0')", methods));
+        assertEval(template("dist(matrix(c(1,NA,3,NA,5,NA), 3), method='%0')", methods));
+        assertEval(template("dist(matrix(c(1,0,Inf,-Inf,0,2,NaN,1), 4), method='%0')", methods));
+        assertEval(template("d <- dist(matrix(sin(1:2000), 200), method='%0'); c(length(d), sum(d[1:100]), sum(d[19801:19900]), sum(d))", methods));
+        assertEval("dist(matrix(1:12, 4), method='minkowski', p=3)");
+        assertEval("dist(matrix(1:12, 4), method='minkowski', p=-1)");
+        assertEval("dist(matrix(1:12, 4, dimnames=list(letters[1:4], NULL)), diag=TRUE, upper=TRUE)");
+        assertEval("dist(matrix(1:3, 1))");
+    }
+}
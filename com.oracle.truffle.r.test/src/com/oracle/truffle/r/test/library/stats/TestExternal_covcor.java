@@ -51,4 +51,12 @@ public class TestExternal_covcor extends TestBase {
         assertEval(template("cov(mtcars[,1:4], use='%0', method='%1')", useCov, methods));
         assertEval(template("cov(1:4, c(1,7,1,-4), use='%0', method='%1')", useCov, methods));
     }
+
+    @Test
+    public void testLargerMatrices() {
+        String[] useCor = new String[]{"e", "a", "c", "n", "p"};
+        String[] methods = new String[]{"p", "k", "s"};
+        assertEval(template("x <- matrix(sin(1:1200), 40); x[c(3, 50, 400)] <- NA; r <- cor(x, use='%0', method='%1'); c(dim(r), sum(r, na.rm=TRUE), sum(is.na(r)))", useCor, methods));
+        assertEval(template("x <- matrix(sin(1:1200), 40); y <- matrix(cos(1:800), 40); y[7] <- NA; r <- cov(x, y, use='%0', method='%1'); c(dim(r), sum(r, na.rm=TRUE), sum(is.na(r)))", useCor, methods));
+    }
 }
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.library.stats;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.r.nodes.builtin.base.foreign.FftPlan;
+
+/**
+ * Checks {@link FftPlan} against a direct evaluation of the discrete Fourier transform.
+ */
+public class TestFftPlan {
+
+    private static double[] dft(double[] z, int n, boolean inverse) {
+        double[] result = new double[2 * n];
+        for (int k = 0; k < n; k++) {
+            double re = 0;
+            double im = 0;
+            for (int j = 0; j < n; j++) {
+                double angle = (inverse ? 2 : -2) * Math.PI * ((long) j * k % n) / n;
+                re += z[2 * j] * Math.cos(angle) - z[2 * j + 1] * Math.sin(angle);
+                im += z[2 * j] * Math.sin(angle) + z[2 * j + 1] * Math.cos(angle);
+            }
+            result[2 * k] = re;
+            result[2 * k + 1] = im;
+        }
+        return result;
+    }
+
+    private static double[] random(Random random, int n) {
+        double[] z = new double[2 * n];
+        for (int i = 0; i < z.length; i++) {
+            z[i] = random.nextGaussian();
+        }
+        return z;
+    }
+
+    private static void assertClose(String message, double[] expected, double[] actual) {
+        double scale = 1;
+        for (double value : expected) {
+            scale = Math.max(scale, Math.abs(value));
+        }
+        for (int i = 0; i < expected.length; i++) {
+            Assert.assertEquals(message, expected[i], actual[i], scale * 1e-12);
+        }
+    }
+
+    @Test
+    public void testLengths() {
+        Random random = new Random(42);
+        for (int n = 1; n <= 300; n++) {
+            for (boolean inverse : new boolean[]{false, true}) {
+                double[] z = random(random, n);
+                double[] expected = dft(z, n, inverse);
+                FftPlan.transform(z, 1, n, 1, inverse);
+                assertClose("n = " + n + ", inverse = " + inverse, expected, z);
+            }
+        }
+    }
+
+    @Test
+    public void testStrided() {
+        // a 3 x 4 x 5 array transformed along each dimension, as fft() does
+        Random random = new Random(42);
+        int[] dims = {3, 4, 5};
+        double[] z = random(random, 60);
+        double[] expected = new double[120];
+        for (int k0 = 0; k0 < 3; k0++) {
+            for (int k1 = 0; k1 < 4; k1++) {
+                for (int k2 = 0; k2 < 5; k2++) {
+                    int k = k0 + 3 * k1 + 12 * k2;
+                    for (int j0 = 0; j0 < 3; j0++) {
+                        for (int j1 = 0; j1 < 4; j1++) {
+                            for (int j2 = 0; j2 < 5; j2++) {
+                                int j = j0 + 3 * j1 + 12 * j2;
+                                double angle = -2 * Math.PI * (j0 * k0 / 3.0 + j1 * k1 / 4.0 + j2 * k2 / 5.0);
+                                expected[2 * k] += z[2 * j] * Math.cos(angle) - z[2 * j + 1] * Math.sin(angle);
+                                expected[2 * k + 1] += z[2 * j] * Math.sin(angle) + z[2 * j + 1] * Math.cos(angle);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        int nseg = 60;
+        int n = 1;
+        int nspn = 1;
+        for (int dim : dims) {
+            nspn *= n;
+            n = dim;
+            nseg /= n;
+            FftPlan.transform(z, nseg, n, nspn, false);
+        }
+        assertClose("3 x 4 x 5", expected, z);
+    }
+
+    @Test
+    public void testRoundTrip() {
+        Random random = new Random(42);
+        for (int n : new int[]{4093, 65536, 3 * 5 * 7 * 11 * 13}) {
+            double[] z = random(random, n);
+            double[] original = z.clone();
+            FftPlan.transform(z, 1, n, 1, false);
+            FftPlan.transform(z, 1, n, 1, true);
+            for (int i = 0; i < z.length; i++) {
+                z[i] /= n;
+            }
+            assertClose("n = " + n, original, z);
+        }
+    }
+
+    @Test
+    public void testPlanCache() {
+        Assert.assertSame(FftPlan.get(360), FftPlan.get(360));
+        Assert.assertEquals(360, FftPlan.get(360).getLength());
+    }
+}
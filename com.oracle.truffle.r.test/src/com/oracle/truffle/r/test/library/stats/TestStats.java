@@ -50,6 +50,24 @@ public class TestStats extends TestBase {
         assertEval("{ fft(1:4, inverse=TRUE) }");
         assertEval("{ fft(10) }");
         assertEval("{ fft(cbind(1:2,3:4)) }");
+        assertEval("{ fft(1:3) }");
+        assertEval("{ round(fft(c(1+2i, 3-1i, 0+0i, -2+1i, 4+0i)), 8) }");
+        assertEval("{ round(fft(array(1:24, c(2,3,4))), 8) }");
+        assertEval("{ round(fft(array(1:30, c(1,5,6)), inverse=TRUE), 8) }");
+        // lengths with specialized radices, generic radices and Bluestein's algorithm
+        assertEval("{ dft <- function(x, sign) { k <- 0:(length(x)-1); as.vector(exp(sign*2i*pi*outer(k, k)/length(x)) %*% x) }; " +
+                        "sapply(c(6, 7, 12, 45, 97, 127, 210, 256, 331), function(n) { x <- sin(1:n) + 1i*cos(3*(1:n)); " +
+                        "isTRUE(all.equal(fft(x), dft(x, -1))) && isTRUE(all.equal(fft(x, inverse=TRUE), dft(x, 1))) }) }");
+        assertEval("{ x <- cos(1:1009); isTRUE(all.equal(Re(fft(fft(x), inverse=TRUE))/1009, x)) }");
+    }
+
+    @Test
+    public void testMVFFT() {
+        assertEval("{ mvfft(cbind(1:4,5:8)) }");
+        assertEval("{ mvfft(cbind(1:4,5:8), inverse=TRUE) }");
+        assertEval("{ mvfft(matrix(1:6, 2, dimnames=list(c('a','b'), c('x','y','z')))) }");
+        assertEval("{ m <- matrix(sin(1:84), 12); isTRUE(all.equal(mvfft(m), apply(m, 2, fft))) }");
+        assertEval(Output.IgnoreErrorContext, "{ mvfft(1:4) }");
     }
 
     @Test
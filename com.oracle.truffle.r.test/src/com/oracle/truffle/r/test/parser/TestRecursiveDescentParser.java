@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.parser;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.r.parser.RParser;
+import com.oracle.truffle.r.parser.RecursiveDescentRParserFactory;
+import com.oracle.truffle.r.runtime.RParserFactory.Parser;
+import com.oracle.truffle.r.runtime.RSource;
+import com.oracle.truffle.r.runtime.context.TruffleRLanguage;
+import com.oracle.truffle.r.runtime.nodes.RCodeBuilder;
+import com.oracle.truffle.r.runtime.nodes.RSyntaxNode;
+
+/**
+ * Checks that {@link RecursiveDescentRParserFactory} issues exactly the same {@link RCodeBuilder}
+ * calls, with the same source sections, as the ANTLR generated {@link RParser}.
+ */
+public class TestRecursiveDescentParser {
+
+    private static final String[] SNIPPETS = {
+                    "x <- 1 + 2 * 3 - 4 / 5 %% 6 %/% 7",
+                    "f(a, b = 2, , c=, ...)",
+                    "x[1, ]; x[[i]]; x[]; x[a[1]]; x[[a[1]]]; x[, 1, drop = FALSE]",
+                    "a$b@c$\"d\"; a$`b c`",
+                    "base::f(1); base:::g; stats::'sd'",
+                    "if (a) b else c",
+                    "if (a) {\n  b\n} else {\n  c\n}\n",
+                    "{\n  if (a) b\n  else c\n}",
+                    "f <- function(x, y = 2, ...) { x + y }",
+                    "function(a,\n b) {\n a\n}",
+                    "-a^b^c; !a == b; a %in% b:c; -1:2; 10^-2",
+                    "1L; 0x10L; 1e3L; 2i; .5; 0x1.1p2; 0xa.p2; 1e-2; 100000L",
+                    "\"a\\tb\\x41\\101\\u00e9\\U0001F600\"; 'it\\'s'; \"multi\nline\"",
+                    "`a b` <- 3; `%foo%` <- function(a, b) 1; 10 %foo% 20",
+                    "{ a; b\n c\n\n; d }",
+                    "for (i in 1:10) print(i); while (TRUE) break; repeat { next }",
+                    "x -> y; x ->> y; x <<- y; x = y = 2; x := y; 5 -> x -> y",
+                    "~ a + b; a ~ b; y ~ x | z",
+                    "f(\n1,\n2\n)",
+                    "..1 + ... + .x + . + .. + .... + ..2x",
+                    "x <- c(1, # one\n 2) # two\ny",
+                    "NULL; NA; NA_integer_; NA_real_; NA_character_; NA_complex_; Inf; NaN; TRUE; FALSE",
+                    "(a)(b); f()(); g(x)[[1]]$y(2)",
+                    "?a; ??b",
+                    "a && b || c & d | e; a ** b; !!x",
+                    "f(NULL = 1, \"s\" = 2, ... = 3, `x` = 4)",
+                    "break(); next(1)",
+                    "x <- function() NULL\n\n\n# trailing comment",
+    };
+
+    private static final String[] ERRORS = {
+                    "f(", "\"abc", ")", "1 2", "{", "x$", "a ? b", "function(x", "if (a) b else", "x[[1]",
+    };
+
+    /**
+     * Renders every builder call into a string, including the exact character range of the
+     * associated source sections.
+     */
+    private static final class TraceBuilder implements RCodeBuilder<String> {
+
+        private static String src(SourceSection source) {
+            return source == null ? "-" : source.getCharIndex() + "+" + source.getCharLength();
+        }
+
+        @Override
+        public String call(SourceSection source, String lhs, List<Argument<String>> arguments) {
+            StringBuilder str = new StringBuilder("call[").append(src(source)).append("](").append(lhs);
+            for (Argument<String> arg : arguments) {
+                str.append(", ").append(arg.name).append('[').append(src(arg.source)).append("]=").append(arg.value);
+            }
+            return str.append(')').toString();
+        }
+
+        @Override
+        public String constant(SourceSection source, Object value) {
+            return "const[" + src(source) + "](" + value + ":" + value.getClass().getSimpleName() + ")";
+        }
+
+        @Override
+        public String lookup(SourceSection source, String symbol, boolean functionLookup) {
+            return "lookup[" + src(source) + "](" + symbol + (functionLookup ? ", function)" : ")");
+        }
+
+        @Override
+        public String function(TruffleRLanguage language, SourceSection source, List<Argument<String>> arguments, String body, Object assignedTo) {
+            return call(source, "function", arguments) + "{" + body + "} -> " + assignedTo;
+        }
+
+        @Override
+        public RootCallTarget rootFunction(TruffleRLanguage language, SourceSection source, List<Argument<String>> arguments, String body, String name) {
+            throw new AssertionError();
+        }
+
+        @Override
+        public List<Argument<RSyntaxNode>> getFunctionExprArgs(Object args) {
+            throw new AssertionError();
+        }
+
+        @Override
+        public void setContext(CodeBuilderContext context) {
+        }
+
+        @Override
+        public CodeBuilderContext getContext() {
+            return CodeBuilderContext.DEFAULT;
+        }
+    }
+
+    private static final class Factory extends RecursiveDescentRParserFactory {
+        <T> Parser<T> create() {
+            return createParser();
+        }
+    }
+
+    private static <T> List<T> parseANTLR(Source source, RCodeBuilder<T> builder) throws Exception {
+        return new RParser<>(source, builder, null, null).script();
+    }
+
+    private static <T> List<T> parseRecursiveDescent(Source source, RCodeBuilder<T> builder) {
+        Parser<T> parser = new Factory().create();
+        return parser.script(source, builder, null);
+    }
+
+    /**
+     * Returns the trace of both parsers' builder calls, or the simple class name of the exception
+     * for input that does not parse.
+     */
+    private static String[] compare(Source source) {
+        String expected;
+        try {
+            expected = parseANTLR(source, new TraceBuilder()).toString();
+        } catch (Exception e) {
+            expected = "error";
+        }
+        String actual;
+        try {
+            actual = parseRecursiveDescent(source, new TraceBuilder()).toString();
+        } catch (Exception e) {
+            actual = "error";
+        }
+        return new String[]{expected, actual};
+    }
+
+    @Test
+    public void testSameBuilderCalls() {
+        for (String snippet : SNIPPETS) {
+            String[] result = compare(RSource.fromTextInternal(snippet, RSource.Internal.UNIT_TEST));
+            Assert.assertNotEquals(snippet, "error", result[0]);
+            Assert.assertEquals(snippet, result[0], result[1]);
+        }
+    }
+
+    @Test
+    public void testSameErrors() {
+        for (String snippet : ERRORS) {
+            String[] result = compare(RSource.fromTextInternal(snippet, RSource.Internal.UNIT_TEST));
+            Assert.assertEquals(snippet, "error", result[0]);
+            Assert.assertEquals(snippet, "error", result[1]);
+        }
+    }
+}
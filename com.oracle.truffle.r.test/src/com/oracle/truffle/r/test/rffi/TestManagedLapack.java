@@ -0,0 +1,342 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.rffi;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.r.ffi.impl.managed.Managed_Lapack;
+
+/**
+ * Checks the accuracy of the pure Java LAPACK routines used by the managed FFI by verifying the
+ * defining identities of their results (the results of the linear algebra builtins themselves are
+ * compared with GNU R by the {@code TestBuiltin_*} tests when run with the managed FFI).
+ */
+public class TestManagedLapack {
+
+    private static final int[] SIZES = {1, 2, 5, 17, 80, 150};
+    private static final double TOLERANCE = 1e-9;
+
+    private final Random random = new Random(42);
+
+    private double[] random(int m, int n) {
+        double[] a = new double[m * n];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = random.nextGaussian();
+        }
+        return a;
+    }
+
+    private static double[] multiply(double[] a, int m, int k, double[] b, int n) {
+        double[] c = new double[m * n];
+        for (int j = 0; j < n; j++) {
+            for (int p = 0; p < k; p++) {
+                for (int i = 0; i < m; i++) {
+                    c[i + j * m] += a[i + p * m] * b[p + j * k];
+                }
+            }
+        }
+        return c;
+    }
+
+    private static double[] transpose(double[] a, int m, int n) {
+        double[] t = new double[m * n];
+        for (int j = 0; j < n; j++) {
+            for (int i = 0; i < m; i++) {
+                t[j + i * n] = a[i + j * m];
+            }
+        }
+        return t;
+    }
+
+    private static double[] identity(int n) {
+        double[] result = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            result[i + i * n] = 1;
+        }
+        return result;
+    }
+
+    private static void assertClose(String message, double[] expected, double[] actual, double scale) {
+        for (int i = 0; i < expected.length; i++) {
+            Assert.assertEquals(message, expected[i], actual[i], TOLERANCE * Math.max(1, scale));
+        }
+    }
+
+    private double[] positiveDefinite(int n) {
+        double[] a = random(n, n);
+        double[] result = multiply(transpose(a, n, n), n, n, a, n);
+        for (int i = 0; i < n; i++) {
+            result[i + i * n] += n;
+        }
+        return result;
+    }
+
+    @Test
+    public void testSolve() {
+        for (int n : SIZES) {
+            double[] a = random(n, n);
+            double[] b = random(n, 3);
+            double[] lu = a.clone();
+            double[] x = b.clone();
+            int[] ipiv = new int[n];
+            Assert.assertEquals(0, Managed_Lapack.dgesv(n, 3, lu, n, ipiv, x, n));
+            assertClose("A * x = b", b, multiply(a, n, n, x, 3), 1);
+
+            // the estimate of the condition number must be close to the exact value
+            double[] inverse = identity(n);
+            Managed_Lapack.dgesv(n, n, a.clone(), n, new int[n], inverse, n);
+            double anorm = Managed_Lapack.dlange('1', n, n, a, n, null);
+            double[] rcond = new double[1];
+            Assert.assertEquals(0, Managed_Lapack.dgecon('1', n, lu, n, anorm, rcond, null, null));
+            double exact = 1 / (anorm * Managed_Lapack.dlange('1', n, n, inverse, n, null));
+            Assert.assertTrue(rcond[0] >= exact * 0.99 && rcond[0] <= exact * 10);
+        }
+        Assert.assertEquals(2, Managed_Lapack.dgesv(2, 1, new double[]{1, 2, 2, 4}, 2, new int[2], new double[]{1, 1}, 2));
+    }
+
+    @Test
+    public void testCholesky() {
+        for (int n : SIZES) {
+            double[] a = positiveDefinite(n);
+            double[] u = a.clone();
+            Assert.assertEquals(0, Managed_Lapack.dpotrf('U', n, u, n));
+            for (int j = 0; j < n; j++) {
+                for (int i = j + 1; i < n; i++) {
+                    u[i + j * n] = 0;
+                }
+            }
+            assertClose("U^T * U = A", a, multiply(transpose(u, n, n), n, n, u, n), n);
+
+            double[] inverse = u.clone();
+            Assert.assertEquals(0, Managed_Lapack.dpotri('U', n, inverse, n));
+            for (int j = 0; j < n; j++) {
+                for (int i = j + 1; i < n; i++) {
+                    inverse[i + j * n] = inverse[j + i * n];
+                }
+            }
+            assertClose("inv(A) * A = I", identity(n), multiply(inverse, n, n, a, n), 1);
+        }
+        Assert.assertEquals(2, Managed_Lapack.dpotrf('U', 2, new double[]{1, 2, 2, 1}, 2));
+    }
+
+    @Test
+    public void testPivotedCholesky() {
+        for (int n : SIZES) {
+            int rank = Math.max(1, n / 2);
+            double[] g = random(rank, n);
+            double[] a = multiply(transpose(g, rank, n), n, rank, g, n);
+            double[] u = a.clone();
+            int[] piv = new int[n];
+            int[] computedRank = new int[1];
+            Managed_Lapack.dpstrf('U', n, u, n, piv, computedRank, -1, new double[2 * n]);
+            Assert.assertEquals(rank, computedRank[0]);
+            double[] factor = new double[n * n];
+            double[] permuted = new double[n * n];
+            for (int j = 0; j < n; j++) {
+                for (int i = 0; i <= Math.min(j, rank - 1); i++) {
+                    factor[i + j * n] = u[i + j * n];
+                }
+                for (int i = 0; i < n; i++) {
+                    permuted[i + j * n] = a[(piv[i] - 1) + (piv[j] - 1) * n];
+                }
+            }
+            assertClose("U^T * U = P^T * A * P", permuted, multiply(transpose(factor, n, n), n, n, factor, n), n);
+        }
+    }
+
+    @Test
+    public void testQR() {
+        for (int n : SIZES) {
+            int m = n + 3;
+            double[] a = random(m, n);
+            double[] qr = a.clone();
+            int[] jpvt = new int[n];
+            double[] tau = new double[n];
+            double[] work = new double[1];
+            Assert.assertEquals(0, Managed_Lapack.dgeqp3(m, n, qr, m, jpvt, tau, work, -1));
+            Assert.assertEquals(0, Managed_Lapack.dgeqp3(m, n, qr, m, jpvt, tau, work, (int) work[0]));
+            double[] r = new double[m * n];
+            double[] permuted = new double[m * n];
+            for (int j = 0; j < n; j++) {
+                for (int i = 0; i <= j; i++) {
+                    r[i + j * m] = qr[i + j * m];
+                }
+                System.arraycopy(a, (jpvt[j] - 1) * m, permuted, j * m, m);
+                if (j > 0) {
+                    Assert.assertTrue(Math.abs(qr[j + j * m]) <= Math.abs(qr[(j - 1) + (j - 1) * m]) * (1 + TOLERANCE));
+                }
+            }
+            Assert.assertEquals(0, Managed_Lapack.dormqr('L', 'N', m, n, n, qr, m, tau, r, m, work, 1));
+            assertClose("Q * R = A * P", permuted, r, 1);
+
+            double[] b = random(m, 2);
+            double[] x = b.clone();
+            Managed_Lapack.dormqr('L', 'T', m, 2, n, qr, m, tau, x, m, work, 1);
+            Managed_Lapack.dormqr('L', 'N', m, 2, n, qr, m, tau, x, m, work, 1);
+            assertClose("Q * Q^T * b = b", b, x, 1);
+
+            // least squares solution as computed by qr.coef
+            double[] y = b.clone();
+            Managed_Lapack.dormqr('L', 'T', m, 2, n, qr, m, tau, y, m, work, 1);
+            Assert.assertEquals(0, Managed_Lapack.dtrtrs('U', 'N', 'N', n, 2, qr, m, y, m));
+            double[] residual = multiply(permuted, m, n, extractRows(y, m, n, 2), 2);
+            for (int i = 0; i < residual.length; i++) {
+                residual[i] = b[i] - residual[i];
+            }
+            assertClose("(A * P)^T * (b - A * P * x) = 0", new double[n * 2], multiply(transpose(permuted, m, n), n, m, residual, 2), m);
+        }
+    }
+
+    private static double[] extractRows(double[] a, int m, int rows, int n) {
+        double[] result = new double[rows * n];
+        for (int j = 0; j < n; j++) {
+            System.arraycopy(a, j * m, result, j * rows, rows);
+        }
+        return result;
+    }
+
+    @Test
+    public void testTriangularSolve() {
+        for (int n : SIZES) {
+            double[] l = positiveDefinite(n);
+            Managed_Lapack.dpotrf('L', n, l, n);
+            for (int j = 0; j < n; j++) {
+                for (int i = 0; i < j; i++) {
+                    l[i + j * n] = 0;
+                }
+            }
+            double[] b = random(n, 2);
+            double[] x = b.clone();
+            Managed_Lapack.dtrsm('L', 'L', 'T', 'N', n, 2, 1, l, n, x, n);
+            assertClose("L^T * X = B", b, multiply(transpose(l, n, n), n, n, x, 2), 1);
+            double[] c = random(2, n);
+            double[] y = c.clone();
+            Managed_Lapack.dtrsm('R', 'L', 'N', 'N', 2, n, 1, l, n, y, 2);
+            assertClose("X * L = B", c, multiply(y, 2, n, l, n), 1);
+        }
+    }
+
+    @Test
+    public void testSymmetricEigen() {
+        for (int n : SIZES) {
+            double[] a = positiveDefinite(n);
+            for (int i = 0; i < n; i++) {
+                a[i + i * n] -= n + 1;
+            }
+            double[] w = new double[n];
+            double[] z = new double[n * n];
+            int[] m = new int[1];
+            Assert.assertEquals(0, Managed_Lapack.dsyevr('V', 'A', 'L', n, a.clone(), n, 0, 0, 0, 0, 0, m, w, z, n, new int[2 * n], new double[1], 1, new int[1], 1));
+            Assert.assertEquals(n, m[0]);
+            double[] zw = z.clone();
+            for (int j = 0; j < n; j++) {
+                for (int i = 0; i < n; i++) {
+                    zw[i + j * n] *= w[j];
+                }
+                if (j > 0) {
+                    Assert.assertTrue(w[j - 1] <= w[j]);
+                }
+            }
+            assertClose("A * Z = Z * diag(w)", zw, multiply(a, n, n, z, n), n);
+            assertClose("Z^T * Z = I", identity(n), multiply(transpose(z, n, n), n, n, z, n), 1);
+
+            double[] values = new double[n];
+            Managed_Lapack.dsyevr('N', 'A', 'U', n, a.clone(), n, 0, 0, 0, 0, 0, m, values, null, n, null, new double[1], 1, new int[1], 1);
+            assertClose("values only", w, values, n);
+        }
+    }
+
+    @Test
+    public void testGeneralEigen() {
+        for (int n : SIZES) {
+            double[] a = random(n, n);
+            double[] wr = new double[n];
+            double[] wi = new double[n];
+            double[] vr = new double[n * n];
+            Assert.assertEquals(0, Managed_Lapack.dgeev('N', 'V', n, a.clone(), n, wr, wi, null, n, vr, n, new double[1], 1));
+            for (int j = 0; j < n; j++) {
+                double[] re = new double[n];
+                System.arraycopy(vr, j * n, re, 0, n);
+                double[] im = new double[n];
+                if (wi[j] != 0) {
+                    Assert.assertTrue(wi[j] > 0 && wi[j + 1] == -wi[j] && wr[j + 1] == wr[j]);
+                    System.arraycopy(vr, (j + 1) * n, im, 0, n);
+                }
+                double[] expectedRe = new double[n];
+                double[] expectedIm = new double[n];
+                for (int i = 0; i < n; i++) {
+                    expectedRe[i] = wr[j] * re[i] - wi[j] * im[i];
+                    expectedIm[i] = wr[j] * im[i] + wi[j] * re[i];
+                }
+                assertClose("A * v = lambda * v", expectedRe, multiply(a, n, n, re, 1), n);
+                assertClose("A * v = lambda * v", expectedIm, multiply(a, n, n, im, 1), n);
+                if (wi[j] != 0) {
+                    j++;
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSVD() {
+        for (int n : SIZES) {
+            for (int[] dims : new int[][]{{n + 2, n}, {n, n + 2}, {n, n}}) {
+                int m = dims[0];
+                int p = dims[1];
+                int mn = Math.min(m, p);
+                double[] a = random(m, p);
+                if (p > 2) {
+                    // make it rank deficient
+                    for (int i = 0; i < m; i++) {
+                        a[i + (p - 1) * m] = a[i] + a[i + m];
+                    }
+                }
+                for (char jobz : new char[]{'S', 'A'}) {
+                    int ucols = jobz == 'A' ? m : mn;
+                    int vtrows = jobz == 'A' ? p : mn;
+                    double[] s = new double[mn];
+                    double[] u = new double[m * ucols];
+                    double[] vt = new double[vtrows * p];
+                    Assert.assertEquals(0, Managed_Lapack.dgesdd(jobz, m, p, a.clone(), m, s, u, m, vt, vtrows, new double[1], 1, new int[8 * mn]));
+                    double[] product = new double[m * p];
+                    for (int k = 0; k < mn; k++) {
+                        if (k > 0) {
+                            Assert.assertTrue(s[k - 1] >= s[k]);
+                        }
+                        for (int j = 0; j < p; j++) {
+                            for (int i = 0; i < m; i++) {
+                                product[i + j * m] += u[i + k * m] * s[k] * vt[k + j * vtrows];
+                            }
+                        }
+                    }
+                    assertClose("U * diag(s) * VT = A", a, product, n);
+                    assertClose("U^T * U = I", identity(ucols), multiply(transpose(u, m, ucols), ucols, m, u, ucols), 1);
+                    assertClose("VT * VT^T = I", identity(vtrows), multiply(vt, vtrows, p, transpose(vt, vtrows, p), vtrows), 1);
+                }
+            }
+        }
+    }
+}
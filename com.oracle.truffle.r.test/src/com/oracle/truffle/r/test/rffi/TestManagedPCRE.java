@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.rffi;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.r.ffi.impl.managed.Managed_PCRE;
+import com.oracle.truffle.r.runtime.ffi.PCRERFFI;
+import com.oracle.truffle.r.runtime.ffi.interop.pcre.CaptureNamesResult;
+import com.oracle.truffle.r.runtime.ffi.interop.pcre.CompileResult;
+
+/**
+ * Checks the translation of PCRE patterns done by {@link Managed_PCRE} and the byte offsets it
+ * reports.
+ */
+public class TestManagedPCRE {
+
+    private static long compile(String pattern, int options) {
+        CompileResult result = new CompileResult();
+        Managed_PCRE.compile(result, pattern, options);
+        return result.getResult().result;
+    }
+
+    /**
+     * Returns all matches of {@code pattern} in {@code subject} as the byte offsets of the match
+     * and its groups, searching like {@code gregexpr} does.
+     */
+    private static String matches(String pattern, int options, String subject) {
+        long code = compile(pattern, options);
+        Assert.assertNotEquals(pattern, 0, code);
+        byte[] bytes = subject.getBytes(StandardCharsets.UTF_8);
+        int[] ovector = new int[(Managed_PCRE.getCaptureCount(code) + 1) * 3];
+        StringBuilder str = new StringBuilder();
+        int offset = 0;
+        int rc;
+        while (offset <= bytes.length && (rc = Managed_PCRE.exec(code, bytes, bytes.length, offset, 0, ovector, ovector.length)) > 0) {
+            str.append(Arrays.toString(Arrays.copyOf(ovector, rc * 2)));
+            offset = ovector[1] == ovector[0] ? ovector[1] + 1 : ovector[1];
+        }
+        Managed_PCRE.free(code);
+        return str.toString();
+    }
+
+    private static String matches(String pattern, String subject) {
+        return matches(pattern, 0, subject);
+    }
+
+    @Test
+    public void testSyntax() {
+        Assert.assertEquals("[0, 3][4, 7]", matches("[[:alpha:]]+", "abc def"));
+        Assert.assertEquals("[0, 2][5, 6]", matches("[[:^space:][:digit:]]+", "ab   c"));
+        Assert.assertEquals("[1, 2][3, 4]", matches("[][]", "a[b]"));
+        Assert.assertEquals("[1, 3]", matches("[a&&b]+", "c&&d"));
+        Assert.assertEquals("[1, 6]", matches("a{,2}", "ba{,2}"));
+        Assert.assertEquals("[0, 3]", matches("a{2,}b", "aab"));
+        Assert.assertEquals("[0, 2, 0, 1]", matches("(a)\\1", "aa"));
+        Assert.assertEquals("[0, 2, 0, 1]", matches("(a)\\g{-1}", "aa"));
+        Assert.assertEquals("[0, 2, 0, 1]", matches("(?P<x>a)(?P=x)", "aa"));
+        Assert.assertEquals("[0, 2, 0, 1]", matches("(?<first_char>a)\\k<first_char>", "aa"));
+        Assert.assertEquals("[0, 2]", matches("\\x41\\101", "AA"));
+        Assert.assertEquals("[1, 2]", matches("\\Q.\\E", "a."));
+        Assert.assertEquals("[0, 1]", matches("a(?# comment)", "a"));
+        Assert.assertEquals("[0, 1]", matches("a # comment", 0x8, "a"));
+        Assert.assertEquals("[0, 3]", matches("(?x) a [ ] b", "a b"));
+        Assert.assertEquals("[0, 2][3, 5]", matches("\\p{Greek}", "\u03b1 \u03b2"));
+        Assert.assertEquals("[0, 3]", matches("abc", PCRERFFI.CASELESS, "ABC"));
+        Assert.assertEquals("[0, 2]", matches("a.", "a\r"));
+        Assert.assertEquals("[0, 1][2, 3]", matches("^.", 0x2, "a\nb"));
+    }
+
+    @Test
+    public void testByteOffsets() {
+        Assert.assertEquals("[2, 4][8, 10]", matches("\u00fc", "\u00e4\u00fc\u00e2\u00f6\u00fc"));
+        Assert.assertEquals("[4, 5]", matches("x", "\ud83d\ude00x"));
+        Assert.assertEquals("[0, 2][2, 4]", matches(".", "\u00e9\u00e9"));
+        // invalid UTF-8 is matched byte by byte
+        long code = compile("b", 0);
+        int[] ovector = new int[3];
+        Assert.assertEquals(1, Managed_PCRE.exec(code, new byte[]{(byte) 0xff, 'b'}, 2, 0, 0, ovector, 3));
+        Assert.assertEquals(1, ovector[0]);
+    }
+
+    @Test
+    public void testGroups() {
+        long code = compile("(?<year>\\d+)-(\\d+)(x)?-(?P<day>\\d+)", 0);
+        Assert.assertEquals(4, Managed_PCRE.getCaptureCount(code));
+        CaptureNamesResult names = new CaptureNamesResult(4);
+        Assert.assertEquals(0, Managed_PCRE.getCaptureNames(names, code));
+        Assert.assertArrayEquals(new String[]{"year", null, null, "day"}, names.getCaptureNames());
+        Assert.assertEquals("[0, 10, 0, 4, 5, 7, -1, -1, 8, 10]", matches("(?<year>\\d+)-(\\d+)(x)?-(?P<day>\\d+)", "2018-05-31"));
+        int[] small = new int[6];
+        Assert.assertEquals(0, Managed_PCRE.exec(code, "2018-05-31".getBytes(StandardCharsets.UTF_8), 10, 0, 0, small, 6));
+        Assert.assertEquals(10, small[1]);
+        Assert.assertEquals(4, small[3]);
+    }
+
+    @Test
+    public void testErrors() {
+        for (String pattern : new String[]{"(a", "a)", "[a", "(?R)", "(?1)", "(?(1)a|b)", "(?|a)", "a\\K", "(?P<a>x)(?P<a>y)", "\\k<missing>", "[[:foo:]]"}) {
+            CompileResult result = new CompileResult();
+            Managed_PCRE.compile(result, pattern, 0);
+            Assert.assertEquals(pattern, 0, result.getResult().result);
+            Assert.assertNotNull(pattern, result.getResult().errorMessage);
+        }
+    }
+
+    @Test
+    public void testReuse() {
+        Assert.assertEquals(compile("[a-z]+\\d", 0), compile("[a-z]+\\d", 0));
+        Assert.assertNotEquals(compile("[a-z]+\\d", 0), compile("[a-z]+\\d", PCRERFFI.CASELESS));
+    }
+
+    @Test
+    public void testEviction() {
+        long first = compile("evicted(\\d)", 0);
+        Managed_PCRE.free(first);
+        for (int i = 0; i < 4096; i++) {
+            long code = compile("p" + i + "[a-z]", 0);
+            Assert.assertNotEquals(0, code);
+            Managed_PCRE.free(code);
+        }
+        // the registry is bounded, the least recently used released handles are invalidated
+        try {
+            Managed_PCRE.getCaptureCount(first);
+            Assert.fail("handle of an evicted pattern is still valid");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        long second = compile("evicted(\\d)", 0);
+        Assert.assertNotEquals(first, second);
+        Assert.assertEquals(1, Managed_PCRE.getCaptureCount(second));
+        Managed_PCRE.free(second);
+    }
+
+    @Test
+    public void testHeldHandles() {
+        // like strsplit(perl = TRUE), compile all patterns before using any of them
+        long[] held = new long[4096];
+        for (int i = 0; i < held.length; i++) {
+            held[i] = compile("h" + i + "(\\d)", 0);
+        }
+        for (int i = 0; i < 4096; i++) {
+            Managed_PCRE.free(compile("q" + i + "[a-z]", 0));
+        }
+        int[] ovector = new int[6];
+        for (int i = 0; i < held.length; i++) {
+            byte[] subject = ("h" + i + "7").getBytes(StandardCharsets.UTF_8);
+            Assert.assertEquals(1, Managed_PCRE.getCaptureCount(held[i]));
+            Assert.assertEquals(2, Managed_PCRE.exec(held[i], subject, subject.length, 0, 0, ovector, ovector.length));
+        }
+        // a pattern compiled twice stays valid until both compilations are released
+        long twice = compile("h0(\\d)", 0);
+        Assert.assertEquals(held[0], twice);
+        Managed_PCRE.free(twice);
+        for (long code : held) {
+            Managed_PCRE.free(code);
+        }
+        for (int i = 0; i < 4096; i++) {
+            Managed_PCRE.free(compile("r" + i + "[a-z]", 0));
+        }
+        try {
+            Managed_PCRE.getCaptureCount(held[0]);
+            Assert.fail("handle of a released and evicted pattern is still valid");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
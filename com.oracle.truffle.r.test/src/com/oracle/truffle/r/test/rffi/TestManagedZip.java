@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.rffi;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterOutputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.r.ffi.impl.managed.Managed_Zip;
+
+/**
+ * Checks that {@link Managed_Zip} produces and consumes the zlib format and reports too small
+ * buffers and corrupt input with the zlib return codes.
+ */
+public class TestManagedZip {
+
+    private static byte[] data(int length) {
+        byte[] data = new byte[length];
+        Random random = new Random(length);
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) (random.nextInt(16) + 'a');
+        }
+        return data;
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        for (int length : new int[]{0, 1, 100, 100000}) {
+            byte[] data = data(length);
+            byte[] compressed = new byte[length + length / 1000 + 64];
+            Assert.assertEquals(Managed_Zip.Z_OK, Managed_Zip.compress(compressed, compressed.length, data, length));
+
+            byte[] result = new byte[length];
+            Assert.assertEquals(Managed_Zip.Z_OK, Managed_Zip.uncompress(result, length, compressed, compressed.length));
+            Assert.assertArrayEquals(data, result);
+
+            // the stream is plain zlib
+            ByteArrayOutputStream inflated = new ByteArrayOutputStream();
+            try (InflaterOutputStream out = new InflaterOutputStream(inflated)) {
+                out.write(compressed);
+            }
+            Assert.assertArrayEquals(data, inflated.toByteArray());
+        }
+    }
+
+    @Test
+    public void testErrors() throws Exception {
+        byte[] data = data(1000);
+        ByteArrayOutputStream deflated = new ByteArrayOutputStream();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(deflated)) {
+            out.write(data);
+        }
+        byte[] compressed = deflated.toByteArray();
+
+        Assert.assertEquals(Managed_Zip.Z_BUF_ERROR, Managed_Zip.compress(new byte[10], 10, data, data.length));
+        Assert.assertEquals(Managed_Zip.Z_BUF_ERROR, Managed_Zip.uncompress(new byte[999], 999, compressed, compressed.length));
+        Assert.assertEquals(Managed_Zip.Z_DATA_ERROR, Managed_Zip.uncompress(new byte[1000], 1000, compressed, compressed.length / 2));
+        byte[] corrupt = Arrays.copyOf(compressed, compressed.length);
+        corrupt[0] = 0;
+        Assert.assertEquals(Managed_Zip.Z_DATA_ERROR, Managed_Zip.uncompress(new byte[1000], 1000, corrupt, corrupt.length));
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.runtime.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.interop.java.JavaInterop;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.data.RDoubleVector;
+import com.oracle.truffle.r.runtime.data.RForeignBooleanWrapper;
+import com.oracle.truffle.r.runtime.data.RForeignDoubleWrapper;
+import com.oracle.truffle.r.runtime.data.RForeignIntWrapper;
+import com.oracle.truffle.r.runtime.data.RIntVector;
+import com.oracle.truffle.r.runtime.data.RLogicalVector;
+
+public class RForeignWrapperTests {
+
+    private static TruffleObject host(Object array) {
+        return JavaInterop.asTruffleObject(array);
+    }
+
+    @Test
+    public void testDoubleArray() {
+        double[] array = {1.5, 2.5, 3.5};
+        RForeignDoubleWrapper wrapper = new RForeignDoubleWrapper(host(array));
+        assertSame(array, wrapper.getInternalStore());
+        assertEquals(3, wrapper.getLength());
+        assertEquals(2.5, wrapper.getDataAt(1), 0);
+        assertEquals(2.5, wrapper.slowPathAccess().getDouble(wrapper.slowPathAccess().randomAccess(wrapper), 1), 0);
+
+        // the wrapper is a view: writes to the host array are visible through it
+        array[1] = 42;
+        assertEquals(42, wrapper.getDataAt(1), 0);
+
+        // materialization copies: the vector and the host array are independent afterwards
+        RDoubleVector materialized = wrapper.materialize();
+        assertNotSame(array, materialized.getInternalManagedData());
+        assertEquals(3, materialized.getLength());
+        assertEquals(42, materialized.getDataAt(1), 0);
+        array[0] = -1;
+        assertEquals(1.5, materialized.getDataAt(0), 0);
+        materialized.getInternalManagedData()[2] = 7;
+        assertEquals(3.5, array[2], 0);
+    }
+
+    @Test
+    public void testIntArray() {
+        int[] array = {1, 2, 3, 4};
+        RForeignIntWrapper wrapper = new RForeignIntWrapper(host(array));
+        assertSame(array, wrapper.getInternalStore());
+        assertEquals(4, wrapper.getLength());
+        assertEquals(3, wrapper.getDataAt(2));
+
+        array[2] = 30;
+        assertEquals(30, wrapper.getDataAt(2));
+
+        RIntVector materialized = wrapper.materialize();
+        assertNotSame(array, materialized.getInternalManagedData());
+        array[3] = 40;
+        assertEquals(4, materialized.getDataAt(3));
+        assertEquals(30, materialized.getDataAt(2));
+    }
+
+    @Test
+    public void testBooleanArray() {
+        boolean[] array = {true, false};
+        RForeignBooleanWrapper wrapper = new RForeignBooleanWrapper(host(array));
+        assertSame(array, wrapper.getInternalStore());
+        assertEquals(2, wrapper.getLength());
+        assertEquals(RRuntime.LOGICAL_FALSE, wrapper.getDataAt(1));
+
+        array[1] = true;
+        assertEquals(RRuntime.LOGICAL_TRUE, wrapper.getDataAt(1));
+
+        RLogicalVector materialized = wrapper.materialize();
+        array[0] = false;
+        assertEquals(RRuntime.LOGICAL_TRUE, materialized.getDataAt(0));
+        assertEquals(RRuntime.LOGICAL_TRUE, materialized.getDataAt(1));
+    }
+
+    @Test
+    public void testBoxedArray() {
+        // not a primitive array, elements are read through interop
+        Double[] array = {1.0, 2.0};
+        TruffleObject delegate = host(array);
+        RForeignDoubleWrapper wrapper = new RForeignDoubleWrapper(delegate);
+        assertSame(delegate, wrapper.getInternalStore());
+        assertEquals(2, wrapper.getLength());
+        assertEquals(2.0, wrapper.getDataAt(1), 0);
+
+        array[1] = 5.0;
+        assertEquals(5.0, wrapper.getDataAt(1), 0);
+
+        RDoubleVector materialized = wrapper.materialize();
+        array[0] = 9.0;
+        assertEquals(1.0, materialized.getDataAt(0), 0);
+        assertEquals(5.0, materialized.getDataAt(1), 0);
+    }
+}
@@ -154,6 +154,7 @@ suite = {
         "mx:JUNIT",
         "truffle:TRUFFLE_TCK",
         "com.oracle.truffle.r.engine",
+        "com.oracle.truffle.r.ffi.impl",
       ],
       "checkstyle" : "com.oracle.truffle.r.runtime",
       "javaCompliance" : "1.8",
@@ -333,6 +334,17 @@ suite = {
       "javaCompliance" : "1.8",
       "workingSets" : "FastR,Test",
     },
+
+    "com.oracle.truffle.r.benchmarks" : {
+      "sourceDirs" : ["src"],
+      "dependencies" : [
+        "com.oracle.truffle.r.engine",
+        "com.oracle.truffle.r.ffi.impl",
+      ],
+      "checkstyle" : "com.oracle.truffle.r.runtime",
+      "javaCompliance" : "1.8",
+      "workingSets" : "FastR",
+    },
   },
 
   "distributions" : {